@@ -54,6 +54,7 @@
 #include "omnetpp/cdisplaystring.h"
 #include "cmddefs.h"
 #include "cmdenv.h"
+#include "progressreporter.h"
 
 using namespace omnetpp::common;
 
@@ -75,6 +76,7 @@ Register_PerRunConfigOptionU(CFGID_CMDENV_STATUS_FREQUENCY, "cmdenv-status-frequ
 Register_PerRunConfigOption(CFGID_CMDENV_PERFORMANCE_DISPLAY, "cmdenv-performance-display", CFG_BOOL, "true", "When `cmdenv-express-mode=true`: print detailed performance information. Turning it on results in a 3-line entry printed on each update, containing ev/sec, simsec/sec, ev/simsec, number of messages created/still present/currently scheduled in FES.")
 Register_PerRunConfigOption(CFGID_CMDENV_LOG_PREFIX, "cmdenv-log-prefix", CFG_STRING, "[%l]\t", "Specifies the format string that determines the prefix of each log line. The format string may contain format directives in the syntax `%x` (a `%` followed by a single format character).  For example `%l` stands for log level, and `%J` for source component. See the manual for the list of available format characters.");
 Register_PerRunConfigOption(CFGID_CMDENV_FAKE_GUI, "cmdenv-fake-gui", CFG_BOOL, "false", "Causes Cmdenv to lie to simulations that is a GUI (isGui()=true), and to periodically invoke refreshDisplay() during simulation execution.");
+Register_GlobalConfigOption(CFGID_CMDENV_PROGRESS_PORT, "cmdenv-progress-port", CFG_INT, nullptr, "When specified, Cmdenv connects to the given TCP port on the local host, and sends binary progress records (progress, event rate, memory usage) of the simulation runs over the connection. It is used by the IDE to track the progress of simulations launched from it, without parsing the standard output.");
 Register_PerObjectConfigOption(CFGID_CMDENV_LOGLEVEL, "cmdenv-log-level", KIND_MODULE, CFG_STRING, "TRACE", "Specifies the per-component level of detail recorded by log statements, output below the specified level is omitted. Available values are (case insensitive): `off`, `fatal`, `error`, `warn`, `info`, `detail`, `debug` or `trace`. Note that the level of detail is also controlled by the globally specified runtime log level and the `COMPILETIME_LOGLEVEL` macro that is used to completely remove log statements from the executable.")
 
 //
@@ -120,6 +122,11 @@ Cmdenv::Cmdenv() : opt((CmdenvOptions *&)EnvirBase::opt)
         logStream = stdout;
 }
 
+Cmdenv::~Cmdenv()
+{
+    delete progressReporter;
+}
+
 void Cmdenv::readOptions()
 {
     EnvirBase::readOptions();
@@ -131,6 +138,7 @@ void Cmdenv::readOptions()
     opt->configName = cfg->getAsString(CFGID_CMDENV_CONFIG_NAME);
     opt->runFilter = cfg->getAsString(CFGID_CMDENV_RUNS_TO_EXECUTE);
     opt->extraStack = (size_t)cfg->getAsDouble(CFGID_CMDENV_EXTRA_STACK);
+    opt->progressPort = cfg->getAsInt(CFGID_CMDENV_PROGRESS_PORT, -1);
 }
 
 void Cmdenv::readPerRunOptions()
@@ -186,6 +194,19 @@ void Cmdenv::doRun()
 
         numRuns = (int)runNumbers.size();
         runsTried = 0;
+
+        if (opt->progressPort != -1) {
+            progressReporter = new ProgressReporter();
+            try {
+                progressReporter->connect(opt->progressPort);
+            }
+            catch (std::exception& e) {
+                warn() << e.what() << endl;
+                delete progressReporter;
+                progressReporter = nullptr;
+            }
+        }
+
         int numErrors = 0;
         for (int runNumber : runNumbers) {
             runsTried++;
@@ -196,6 +217,9 @@ void Cmdenv::doRun()
                 if (opt->verbose)
                     out << "\nPreparing for running configuration " << opt->configName << ", run #" << runNumber << "..." << endl;
 
+                currentRunNumber = runNumber;
+                reportProgress(ProgressReporter::RUN_START, nullptr);
+
                 cfg->activateConfig(opt->configName.c_str(), runNumber);
                 readPerRunOptions();
 
@@ -301,6 +325,8 @@ void Cmdenv::doRun()
             if (!finishedOK)
                 numErrors++;
 
+            reportProgress(ProgressReporter::RUN_END, nullptr, finishedOK);
+
             // skip further runs if signal was caught
             if (sigintReceived)
                 break;
@@ -322,6 +348,9 @@ void Cmdenv::doRun()
             out << endl;
         }
 
+        delete progressReporter;
+        progressReporter = nullptr;
+
         exitCode = numErrors > 0 ? 1 : sigintReceived ? 2 : 0;
     }
 }
@@ -360,6 +389,8 @@ void Cmdenv::simulate()
 
     try {
         if (!opt->expressMode) {
+            int64_t lastProgressReport = opp_get_monotonic_clock_usecs();
+
             while (true) {
                 cEvent *event = simulation->takeNextEvent();
                 if (!event)
@@ -382,6 +413,10 @@ void Cmdenv::simulate()
                 // flush so that output from different modules don't get mixed
                 cLogProxy::flushLastLine();
 
+                // there are no status updates in normal mode, but the IDE still wants to know the progress
+                if (progressReporter && (simulation->getEventNumber()&0xff) == 0 && elapsed(opt->statusFrequencyMs, lastProgressReport))
+                    reportProgress(ProgressReporter::STATUS, nullptr);
+
                 checkTimeLimits();
 
                 if (sigintReceived)
@@ -485,9 +520,11 @@ void Cmdenv::doStatusUpdate(Speedometer& speedometer)
 
     // status update is always autoflushed (not only if opt->autoflush is on)
     out.flush();
+
+    reportProgress(ProgressReporter::STATUS, &speedometer);
 }
 
-const char *Cmdenv::progressPercentage()
+double Cmdenv::progressRatio()
 {
     double simtimeRatio = -1;
     if (opt->simtimeLimit > 0)
@@ -503,6 +540,12 @@ const char *Cmdenv::progressPercentage()
 
     double ratio = std::max(simtimeRatio, std::max(elapsedTimeRatio, cpuTimeRatio));
     ratio = std::min(ratio, 1.0);  // eliminate occasional "101% completed" message
+    return ratio;
+}
+
+const char *Cmdenv::progressPercentage()
+{
+    double ratio = progressRatio();
     if (ratio == -1)
         return "";
     else {
@@ -515,6 +558,37 @@ const char *Cmdenv::progressPercentage()
     }
 }
 
+void Cmdenv::reportProgress(int recordType, Speedometer *speedometer, bool finishedOK)
+{
+    if (!progressReporter)
+        return;
+
+    cSimulation *simulation = getSimulation();
+    ProgressReporter::Record record;
+    record.type = (ProgressReporter::RecordType)recordType;
+    record.runNumber = currentRunNumber;
+    record.runIndex = runsTried;
+    record.numRuns = numRuns;
+    if (recordType == ProgressReporter::RUN_START)
+        record.progressPerMille = 0;
+    else if (recordType == ProgressReporter::RUN_END)
+        record.progressPerMille = 1000;
+    else {
+        double ratio = progressRatio();
+        record.progressPerMille = ratio < 0 ? -1 : (int)(1000*ratio);
+    }
+    record.status = finishedOK ? 0 : 1;
+    record.eventNumber = simulation->getEventNumber();
+    if (speedometer) {
+        record.eventsPerSec = (int64_t)speedometer->getEventsPerSec();
+        record.simSecPerSecMicro = (int64_t)(1e6 * speedometer->getSimSecPerSec());
+    }
+    record.liveMessages = cMessage::getLiveMessageCount();
+    record.fesLength = simulation->getFES()->getLength();
+    record.memoryBytes = ProgressReporter::getMemoryUsage();
+    progressReporter->send(record);
+}
+
 void Cmdenv::displayException(std::exception& ex)
 {
     EnvirBase::displayException(ex);
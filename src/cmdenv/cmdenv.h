@@ -47,8 +47,11 @@ struct CMDENV_API CmdenvOptions : public EnvirOptions
     long statusFrequencyMs = 2000; // if express mode
     bool printPerformanceData = false; // if express mode
     bool fakeGUI = false; // all modes
+    int progressPort = -1; // all modes; IDE progress reporting, see ProgressReporter
 };
 
+class ProgressReporter;
+
 /**
  * Command line user interface.
  */
@@ -70,6 +73,10 @@ class CMDENV_API Cmdenv : public EnvirBase
 
      FakeGUI *fakeGUI = nullptr;
 
+     // progress reporting to the IDE (null if not requested)
+     ProgressReporter *progressReporter = nullptr;
+     int currentRunNumber = -1;
+
    protected:
      virtual void log(cLogEntry *entry) override;
      virtual void alert(const char *msg) override;
@@ -79,7 +86,7 @@ class CMDENV_API Cmdenv : public EnvirBase
 
    public:
      Cmdenv();
-     virtual ~Cmdenv() {}
+     virtual ~Cmdenv();
 
      virtual void componentInitBegin(cComponent *component, int stage) override;
      virtual void simulationEvent(cEvent *event) override;
@@ -114,7 +121,9 @@ class CMDENV_API Cmdenv : public EnvirBase
 
      void help();
      void simulate();
+     double progressRatio();
      const char *progressPercentage();
+     void reportProgress(int recordType, Speedometer *speedometer, bool finishedOK=true);
 
      void installSignalHandler();
      void deinstallSignalHandler();
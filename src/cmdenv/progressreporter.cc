@@ -0,0 +1,131 @@
+//==========================================================================
+//  PROGRESSREPORTER.CC - part of
+//                     OMNeT++/OMNEST
+//            Discrete System Simulation in C++
+//
+//==========================================================================
+
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2017 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  `license' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+#include <cstdio>
+#include "common/exception.h"
+#include "progressreporter.h"
+
+#ifndef _WIN32
+#include <netinet/tcp.h>
+#endif
+
+#ifdef MSG_NOSIGNAL
+#define SEND_FLAGS MSG_NOSIGNAL  // report a broken connection as an error instead of raising SIGPIPE
+#else
+#define SEND_FLAGS 0
+#endif
+
+using namespace omnetpp::common;
+
+namespace omnetpp {
+namespace cmdenv {
+
+void ProgressReporter::connect(int port)
+{
+    close();
+
+    if (initsocketlibonce() != 0)
+        throw opp_runtime_error("Cannot initialize socket library");
+
+    sock = socket(AF_INET, SOCK_STREAM, 0);
+    if (sock == INVALID_SOCKET)
+        throw opp_runtime_error("Cannot create socket for progress reporting");
+
+    // records are small and we want them delivered immediately
+    int enable = 1;
+    setsockopt(sock, IPPROTO_TCP, TCP_NODELAY, (const char *)&enable, sizeof(int));
+
+    sockaddr_in addr = {};
+    addr.sin_family = AF_INET;
+    addr.sin_addr.s_addr = htonl(INADDR_LOOPBACK);
+    addr.sin_port = htons(port);
+    if (::connect(sock, (sockaddr *)&addr, sizeof(addr)) == SOCKET_ERROR) {
+        close();
+        throw opp_runtime_error("Cannot connect to progress reporting port %d", port);
+    }
+}
+
+inline unsigned char *putInt32(unsigned char *p, int32_t value)
+{
+    uint32_t v = (uint32_t)value;
+    *p++ = v >> 24; *p++ = v >> 16; *p++ = v >> 8; *p++ = v;
+    return p;
+}
+
+inline unsigned char *putInt64(unsigned char *p, int64_t value)
+{
+    p = putInt32(p, (int32_t)((uint64_t)value >> 32));
+    return putInt32(p, (int32_t)(uint64_t)value);
+}
+
+void ProgressReporter::send(const Record& record)
+{
+    if (sock == INVALID_SOCKET)
+        return;
+
+    unsigned char buf[RECORD_SIZE];
+    unsigned char *p = buf;
+    p = putInt32(p, record.type);
+    p = putInt32(p, record.runNumber);
+    p = putInt32(p, record.runIndex);
+    p = putInt32(p, record.numRuns);
+    p = putInt32(p, record.progressPerMille);
+    p = putInt32(p, record.status);
+    p = putInt64(p, record.eventNumber);
+    p = putInt64(p, record.eventsPerSec);
+    p = putInt64(p, record.simSecPerSecMicro);
+    p = putInt64(p, record.liveMessages);
+    p = putInt64(p, record.fesLength);
+    p = putInt64(p, record.memoryBytes);
+
+    const char *data = (const char *)buf;
+    int remaining = RECORD_SIZE;
+    while (remaining > 0) {
+        int n = ::send(sock, data, remaining, SEND_FLAGS);
+        if (n == SOCKET_ERROR || n == 0) {
+            close();  // the IDE went away; the simulation goes on without progress reporting
+            return;
+        }
+        data += n;
+        remaining -= n;
+    }
+}
+
+void ProgressReporter::close()
+{
+    if (sock != INVALID_SOCKET) {
+        closesocket(sock);
+        sock = INVALID_SOCKET;
+    }
+}
+
+int64_t ProgressReporter::getMemoryUsage()
+{
+#ifdef __linux__
+    // second field of /proc/self/statm is the resident set size in pages
+    FILE *f = fopen("/proc/self/statm", "r");
+    if (!f)
+        return -1;
+    long size, resident;
+    int n = fscanf(f, "%ld %ld", &size, &resident);
+    fclose(f);
+    long pageSize = sysconf(_SC_PAGESIZE);
+    return n == 2 && pageSize > 0 ? (int64_t)resident * pageSize : -1;
+#else
+    return -1;
+#endif
+}
+
+}  // namespace cmdenv
+}  // namespace omnetpp
@@ -0,0 +1,94 @@
+//==========================================================================
+//  PROGRESSREPORTER.H - part of
+//                     OMNeT++/OMNEST
+//            Discrete System Simulation in C++
+//
+//==========================================================================
+
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2017 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  `license' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+#ifndef __OMNETPP_CMDENV_PROGRESSREPORTER_H
+#define __OMNETPP_CMDENV_PROGRESSREPORTER_H
+
+#include <cstdint>
+#include "cmddefs.h"
+#include "omnetpp/platdep/sockets.h"
+
+namespace omnetpp {
+namespace cmdenv {
+
+/**
+ * Sends progress records of the simulation runs to the IDE over a TCP connection
+ * on the loopback interface, so that the IDE does not need to parse the standard
+ * output for progress information. Records have a fixed size, and all fields are
+ * big-endian 32-bit or 64-bit integers:
+ *
+ * <pre>
+ *   int32 type               RUN_START, STATUS or RUN_END
+ *   int32 runNumber
+ *   int32 runIndex           1-based index of the run among the runs of the process
+ *   int32 numRuns            number of runs in the process
+ *   int32 progressPerMille   progress of the run (0..1000), or -1 if unknown
+ *   int32 status             for RUN_END: 0 if the run finished successfully, 1 otherwise
+ *   int64 eventNumber
+ *   int64 eventsPerSec       -1 if unknown
+ *   int64 simSecPerSecMicro  simsec/sec multiplied by 10^6, -1 if unknown
+ *   int64 liveMessages       number of messages currently existing
+ *   int64 fesLength          number of events scheduled
+ *   int64 memoryBytes        resident memory of the process, -1 if unknown
+ * </pre>
+ *
+ * Reporting is best-effort: if the connection breaks, the simulation continues
+ * without it.
+ */
+class CMDENV_API ProgressReporter
+{
+  public:
+    enum RecordType { RUN_START = 1, STATUS = 2, RUN_END = 3 };
+    enum { RECORD_SIZE = 6*4 + 6*8 };
+
+    struct Record {
+        RecordType type = STATUS;
+        int runNumber = 0;
+        int runIndex = 0;
+        int numRuns = 0;
+        int progressPerMille = -1;
+        int status = 0;
+        int64_t eventNumber = 0;
+        int64_t eventsPerSec = -1;
+        int64_t simSecPerSecMicro = -1;
+        int64_t liveMessages = 0;
+        int64_t fesLength = 0;
+        int64_t memoryBytes = -1;
+    };
+
+  protected:
+    SOCKET sock = INVALID_SOCKET;
+
+  public:
+    ProgressReporter() {}
+    ~ProgressReporter() {close();}
+
+    /**
+     * Connects to the given port on the loopback interface. Throws an exception on failure.
+     */
+    void connect(int port);
+    bool isConnected() const {return sock != INVALID_SOCKET;}
+    void send(const Record& record);
+    void close();
+
+    /**
+     * Returns the resident memory size of the process in bytes, or -1 if it cannot be determined.
+     */
+    static int64_t getMemoryUsage();
+};
+
+}  // namespace cmdenv
+}  // namespace omnetpp
+
+#endif
@@ -32,8 +32,6 @@ namespace common {
 
 // #define TRACE_FILEREADER
 
-std::string FileReader::staticBuffer;
-
 FileChangedError::FileChangedError(FileReader::FileChange change, const char *messagefmt, ...) : opp_runtime_error(""), change(change)
 {
     char buf[1024];
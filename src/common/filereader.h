@@ -132,7 +132,7 @@ class COMMON_API FileReader
     char *findNextLineStart(char *s, bool bufferFilled = false);
     char *findPreviousLineStart(char *s, bool bufferFilled = false);
 
-    static std::string staticBuffer;
+    std::string lineBuffer; // per instance, so that different readers can be used from different threads
 
     const char *getLine(const char *line, std::string& buffer) { buffer = std::string(line, getCurrentLineLength()); return line ? buffer.c_str() : nullptr; }
 
@@ -282,26 +282,26 @@ class COMMON_API FileReader
      */
     void synchronize(FileChange change);
 
-    // Wrapper methods for use from Java, via SWIG. The static buffer is a convenience,
-    // pass a local string object if multi-threaded operation is needed:
+    // Wrapper methods for use from Java, via SWIG. The line is copied into a buffer owned
+    // by the reader, and remains valid until the next call on the same reader:
 
-    /** Like getFirstLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *getFirstLine(std::string& buffer=staticBuffer) {return getLine(getFirstLineBufferPointer(), buffer); }
+    /** Like getFirstLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *getFirstLine() {return getLine(getFirstLineBufferPointer(), lineBuffer); }
 
-    /** Like getLastLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *getLastLine(std::string& buffer=staticBuffer) {return getLine(getLastLineBufferPointer(), buffer); }
+    /** Like getLastLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *getLastLine() {return getLine(getLastLineBufferPointer(), lineBuffer); }
 
-    /** Like getNextLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *getNextLine(std::string& buffer=staticBuffer) {return getLine(getNextLineBufferPointer(), buffer); }
+    /** Like getNextLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *getNextLine() {return getLine(getNextLineBufferPointer(), lineBuffer); }
 
-    /** Like getPreviousLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *getPreviousLine(std::string& buffer=staticBuffer) {return getLine(getPreviousLineBufferPointer(), buffer); }
+    /** Like getPreviousLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *getPreviousLine() {return getLine(getPreviousLineBufferPointer(), lineBuffer); }
 
-    /** Like findNextLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *findNextLine(const char *search, bool caseSensitive=true, std::string& buffer=staticBuffer) { return getLine(findNextLineBufferPointer(search, caseSensitive), buffer); }
+    /** Like findNextLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *findNextLine(const char *search, bool caseSensitive=true) { return getLine(findNextLineBufferPointer(search, caseSensitive), lineBuffer); }
 
-    /** Like findPreviousLineBufferPointer(), but copies the line (as zero-terminated string) to the given buffer and returns the buffer's pointer (or nullptr). For use from Java. */
-    const char *findPreviousLine(const char *search, bool caseSensitive=true, std::string& buffer=staticBuffer) { return getLine(findPreviousLineBufferPointer(search, caseSensitive), buffer); }
+    /** Like findPreviousLineBufferPointer(), but copies the line (as zero-terminated string) to the line buffer and returns the buffer's pointer (or nullptr). For use from Java. */
+    const char *findPreviousLine(const char *search, bool caseSensitive=true) { return getLine(findPreviousLineBufferPointer(search, caseSensitive), lineBuffer); }
 };
 
 /**
@@ -600,6 +600,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 ";
    if ($class->{SUPER} eq "EventLogTokenBasedEntry")
    {
@@ -675,13 +676,13 @@ import org.omnetpp.eventlog.IChunk;
 
    print ENTRY_JAVA_FILE "
 
-    public void parse(String[] tokens, int numTokens) {
+    public void parse(EventLogTokenizer tokenizer) {
 ";
 
    # parse
    if ($class->{SUPER} ne "EventLogTokenBasedEntry")
    {
-      print ENTRY_JAVA_FILE "        super.parse(tokens, numTokens);\n";
+      print ENTRY_JAVA_FILE "        super.parse(tokenizer);\n";
    }
    foreach $field (@{ $class->{FIELDS} })
    {
@@ -729,7 +730,7 @@ import org.omnetpp.eventlog.IChunk;
       {
          $mandatory = "false";
       }
-      print ENTRY_JAVA_FILE "        $field->{NAME} = $parserFunction(tokens, numTokens, \"$field->{CODE}\", $mandatory, $field->{NAME});\n";
+      print ENTRY_JAVA_FILE "        $field->{NAME} = tokenizer.$parserFunction(\"$field->{CODE}\", $mandatory, $field->{NAME});\n";
    }
 
    print ENTRY_JAVA_FILE "    }
@@ -875,41 +876,64 @@ print FACTORY_JAVA_FILE
 
 public class EventLogEntryFactory
 {
-    \@SuppressWarnings(\"unused\")
-    public static EventLogTokenBasedEntry parseEntry(IChunk chunk, int entryIndex, String[] tokens, int numTokens) {
-        if (numTokens < 1)
+    public static EventLogTokenBasedEntry parseEntry(IChunk chunk, int entryIndex, EventLogTokenizer tokenizer) {
+        if (tokenizer.getNumTokens() < 1)
             return null;
 
-        String code = tokens[0];
-        EventLogTokenBasedEntry entry = null;
+        EventLogTokenBasedEntry entry;
 
-        if (false)
-            ;
+        switch (getCode(tokenizer)) {
 ";
 
 foreach $class (@classes)
 {
    if ($class->{CODE} ne "abstract")
    {
-      print FACTORY_JAVA_FILE "        else if (";
+      print FACTORY_JAVA_FILE "            case ";
       $i=0;
-      $l=length($class->{CODE});
-      print FACTORY_JAVA_FILE "code.length\(\) == $l";
       foreach $c (split(//, $class->{CODE})) {
-          print FACTORY_JAVA_FILE " && code.charAt\($i\) == '$c'";
+          if ($i == 0) {
+              print FACTORY_JAVA_FILE "'$c'";
+          }
+          else {
+              $shift = 8 * $i;
+              print FACTORY_JAVA_FILE " | '$c' << $shift";
+          }
           $i++;
       }
-      print FACTORY_JAVA_FILE ") // $class->{CODE}\n";
+      print FACTORY_JAVA_FILE ": // $class->{CODE}\n";
 
-      print FACTORY_JAVA_FILE "            entry = new $class->{NAME}(chunk, entryIndex);\n";
+      print FACTORY_JAVA_FILE "                entry = new $class->{NAME}(chunk, entryIndex);\n";
+      print FACTORY_JAVA_FILE "                break;\n";
    }
 }
 
-print FACTORY_JAVA_FILE "        else\n";
-print FACTORY_JAVA_FILE "            return null;\n\n";
-print FACTORY_JAVA_FILE "        entry.parse(tokens, numTokens);\n";
+print FACTORY_JAVA_FILE "            default:\n";
+print FACTORY_JAVA_FILE "                return null;\n";
+print FACTORY_JAVA_FILE "        }\n\n";
+print FACTORY_JAVA_FILE "        entry.parse(tokenizer);\n";
 print FACTORY_JAVA_FILE "        return entry;\n";
-print FACTORY_JAVA_FILE "    }\n}\n\n";
+print FACTORY_JAVA_FILE "    }\n\n";
+print FACTORY_JAVA_FILE
+"    /**
+     * Packs the characters of the entry code (the first token) into an int, codes are at most 3 characters long.
+     */
+    protected static int getCode(EventLogTokenizer tokenizer) {
+        int length = tokenizer.getTokenLength(0);
+        if (length == 0 || length > 3)
+            return -1;
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            char c = tokenizer.getTokenChar(0, i);
+            if (c > 127)
+                return -1;
+            code |= c << (8 * i);
+        }
+        return code;
+    }
+}
+
+";
 
 close(FACTORY_JAVA_FILE);
 
@@ -116,12 +116,19 @@ public abstract class CachingCanvas extends LargeScrollableCanvas {
         protected abstract void paintCachableLayer(Graphics graphics, IProgressMonitor monitor);
     }
 
+    private static final int PREFETCH_DELAY_MILLIS = 200; // prefetching starts after the canvas was idle for this long
+    private static final int PREFETCH_STRIP_WIDTH = 120; // the width of the area painted at once while prefetching
+
     private boolean doCaching = true;
     private ITileCache tileCache = new XYTileCache();
     private boolean paintInBackground = false;
     private Job paintInBackgroundJob;
     private long paintInBackgroundWaitTime = 100;
     private boolean paintInBackgroundCanceled = false;
+    private boolean prefetchTiles = false;
+    private boolean prefetchScheduled = false;
+    private long prefetchGeneration; // incremented by paints and cache clears, a scheduled prefetch is only started if it's unchanged
+    private Runnable prefetchRunnable = this::prefetchNextStrip;
     private boolean debug = Debug.isChannelEnabled("cachingcanvas");
 
     /**
@@ -183,6 +190,22 @@ public abstract class CachingCanvas extends LargeScrollableCanvas {
         clearCanvasCache();
     }
 
+    /**
+     * Returns whether tiles next to the viewport are painted into the cache while the canvas is idle.
+     */
+    public boolean getPrefetchTiles() {
+        return prefetchTiles;
+    }
+
+    /**
+     * Turns on/off painting tiles next to the viewport into the cache while the canvas is idle,
+     * so that scrolling mostly copies cached tiles. Prefetching is done on the UI thread in small
+     * steps, it never evicts tiles from the cache, and it's stopped by any paint.
+     */
+    public void setPrefetchTiles(boolean prefetchTiles) {
+        this.prefetchTiles = prefetchTiles;
+    }
+
     /**
      * Returns whether background painting is canceled.
      */
@@ -391,23 +414,7 @@ public abstract class CachingCanvas extends LargeScrollableCanvas {
                 else {
                     for (LargeRect largeRect : missingAreas) {
                         Rectangle rect = virtualToCanvasRect(largeRect);
-                        Assert.isTrue(!rect.isEmpty());
-                        Image image = new Image(getDisplay(), rect.width, rect.height);
-                        GC imageGC = null;
-                        Graphics imageGraphics = null;
-                        try {
-                            imageGC = new GC(image);
-                            imageGraphics = createGraphics(imageGC);
-                            imageGraphics.translate(-rect.x, -rect.y);
-                            imageGraphics.setClip(new Rectangle(rect.x, rect.y, rect.width, rect.height));
-                            paintCachableLayer(imageGraphics);
-                        }
-                        finally {
-                            if (imageGraphics != null)
-                                imageGraphics.dispose();
-                            if (imageGC != null)
-                                imageGC.dispose();
-                        }
+                        Image image = paintCachableLayerToImage(rect);
                         graphics.drawImage(image, rect.x, rect.y);
                         tileCache.add(largeRect, image);
                         debugDrawTile(graphics, largeRect, ColorFactory.RED);
@@ -418,7 +425,103 @@ public abstract class CachingCanvas extends LargeScrollableCanvas {
             // paint items that we don't want to cache
             graphics.setClip(oldClip);
             paintNoncachableLayer(graphics);
+
+            schedulePrefetch();
+        }
+    }
+
+    /**
+     * Paints the cachable layer of the given canvas area into a new image.
+     */
+    private Image paintCachableLayerToImage(Rectangle rect) {
+        Assert.isTrue(!rect.isEmpty());
+        Image image = new Image(getDisplay(), rect.width, rect.height);
+        GC imageGC = null;
+        Graphics imageGraphics = null;
+        try {
+            imageGC = new GC(image);
+            imageGraphics = createGraphics(imageGC);
+            imageGraphics.translate(-rect.x, -rect.y);
+            imageGraphics.setClip(new Rectangle(rect.x, rect.y, rect.width, rect.height));
+            paintCachableLayer(imageGraphics);
+        }
+        catch (RuntimeException e) {
+            image.dispose();
+            throw e;
         }
+        finally {
+            if (imageGraphics != null)
+                imageGraphics.dispose();
+            if (imageGC != null)
+                imageGC.dispose();
+        }
+        return image;
+    }
+
+    private void schedulePrefetch() {
+        prefetchGeneration++;
+        if (prefetchTiles && !paintInBackground && !prefetchScheduled) {
+            prefetchScheduled = true;
+            getDisplay().timerExec(PREFETCH_DELAY_MILLIS, prefetchRunnable);
+        }
+    }
+
+    /**
+     * Paints the closest strip next to the viewport which has missing tiles, and schedules the next
+     * strip if there was one. Strips are taken alternately from the right and from the left side,
+     * up to half a viewport width away. The timer is restarted if the canvas was painted meanwhile.
+     */
+    private void prefetchNextStrip() {
+        prefetchScheduled = false;
+        if (isDisposed() || !prefetchTiles || !doCaching || paintInBackground)
+            return;
+        long generation = prefetchGeneration;
+        ArrayList<LargeRect> missingAreas = findPrefetchAreas();
+        if (missingAreas.isEmpty() || tileCache.getMemoryUsage() > tileCache.getMemoryUsageLimit() / 2)
+            return;
+        boolean[] completed = new boolean[1];
+        runPrefetch(() -> {
+            for (LargeRect largeRect : missingAreas)
+                tileCache.add(largeRect, paintCachableLayerToImage(virtualToCanvasRect(largeRect)));
+            completed[0] = true;
+        });
+        if (completed[0] && !isDisposed()) {
+            prefetchScheduled = true;
+            if (generation == prefetchGeneration)
+                getDisplay().asyncExec(prefetchRunnable);
+            else
+                getDisplay().timerExec(PREFETCH_DELAY_MILLIS, prefetchRunnable);
+        }
+    }
+
+    private ArrayList<LargeRect> findPrefetchAreas() {
+        ArrayList<Tile> cachedTiles = new ArrayList<Tile>();
+        ArrayList<LargeRect> missingAreas = new ArrayList<LargeRect>();
+        long virtualWidth = getVirtualWidth();
+        long virtualHeight = getVirtualHeight();
+        long left = getViewportLeft();
+        long right = left + getViewportWidth();
+        long top = getViewportTop();
+        long height = Math.min(getViewportHeight(), virtualHeight - top);
+        if (height > 0) {
+            for (long distance = 0; distance < getViewportWidth() / 2 && missingAreas.isEmpty(); distance += PREFETCH_STRIP_WIDTH) {
+                long x = right + distance;
+                if (x < virtualWidth)
+                    tileCache.getTiles(new LargeRect(x, top, Math.min(PREFETCH_STRIP_WIDTH, virtualWidth - x), height), virtualWidth, virtualHeight, cachedTiles, missingAreas);
+                x = left - distance - PREFETCH_STRIP_WIDTH;
+                if (missingAreas.isEmpty() && x + PREFETCH_STRIP_WIDTH > 0)
+                    tileCache.getTiles(new LargeRect(Math.max(0, x), top, Math.min(PREFETCH_STRIP_WIDTH, x + PREFETCH_STRIP_WIDTH), height), virtualWidth, virtualHeight, cachedTiles, missingAreas);
+            }
+        }
+        return missingAreas;
+    }
+
+    /**
+     * Runs the painting of prefetched tiles outside of any paint event. Subclasses may override this
+     * to set up the same environment as for painting, or to skip prefetching by not calling the runnable.
+     */
+    protected void runPrefetch(Runnable paintTiles) {
+        paintTiles.run();
     }
 
     protected PaintInBackgroundJob createPaintInBackgroundJob(ArrayList<LargeRect> missingAreas, ArrayList<ImageData> imageDatas) {
@@ -472,6 +575,7 @@ public abstract class CachingCanvas extends LargeScrollableCanvas {
      */
     public void clearCanvasCache() {
         tileCache.clear();
+        prefetchGeneration++;
         if (debug)
             Debug.println("canvas cache cleared");
     }
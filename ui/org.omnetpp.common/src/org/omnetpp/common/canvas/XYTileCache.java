@@ -31,8 +31,8 @@ public class XYTileCache implements ITileCache {
     private int memoryUsageLimit = 32*1024*1024; // 32Meg by default
     private int memoryUsage = 0;
 
-    // use coords of tile's top-left corner as key into the hashmap; "linked" is used for LRU cache mgmt
-    private LinkedHashMap<LargePoint,Tile> cache = new LinkedHashMap<LargePoint,Tile>();
+    // use coords of tile's top-left corner as key into the hashmap; "linked" in access order is used for LRU cache mgmt
+    private LinkedHashMap<LargePoint,Tile> cache = new LinkedHashMap<LargePoint,Tile>(16, 0.75f, true);
 
     public int getMemoryUsage() {
         return memoryUsage;
@@ -10,6 +10,7 @@ package org.omnetpp.common.eventlog;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.widgets.Control;
@@ -26,9 +27,11 @@ import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.part.EditorPart;
 import org.eclipse.ui.views.properties.IPropertySheetPage;
 import org.eclipse.ui.views.properties.PropertySheetPage;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.common.util.DetailedPartInitException;
 import org.omnetpp.eventlog.EventLog;
 import org.omnetpp.eventlog.IEventLog;
+import org.omnetpp.eventlog.MappedFileReader;
 import org.omnetpp.eventlog.engine.FileReader;
 import org.omnetpp.eventlog.entry.SimulationBeginEntry;
 
@@ -98,7 +101,9 @@ public abstract class EventLogEditor extends EditorPart implements IEventLogProv
                     "Please make sure the project is open before trying to open a file in it.");
 
             if (logFileName.endsWith("elog")) {
-                IEventLog eventLog = new EventLog(new FileReader(logFileName, 64 * 1024, /* EventLog will delete it */false));
+                // on Windows a memory mapped file cannot be truncated, which would prevent rerunning the simulation
+                IFileReader reader = Platform.getOS().equals(Platform.OS_WIN32) ? new FileReader(logFileName, 64 * 1024, /* EventLog will delete it */false) : new MappedFileReader(logFileName);
+                IEventLog eventLog = new EventLog(reader);
                 eventLogInput = new EventLogInput(file, eventLog);
             }
         }
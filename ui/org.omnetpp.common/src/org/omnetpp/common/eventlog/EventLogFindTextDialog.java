@@ -24,6 +24,10 @@ import org.omnetpp.common.CommonPlugin;
 import org.omnetpp.common.util.UIUtils;
 
 public class EventLogFindTextDialog extends Dialog {
+    private static final int COUNT_MATCHES_ID = IDialogConstants.CLIENT_ID + 1;
+
+    private EventLogInput eventLogInput;
+
     private String value = "";
 
     private Text text;
@@ -36,12 +40,15 @@ public class EventLogFindTextDialog extends Dialog {
 
     private Button caseInsensitive;
 
+    private Label numMatches;
+
     private boolean isBackward;
 
     private boolean isCaseInsensitive;
 
-    protected EventLogFindTextDialog(Shell parentShell) {
+    protected EventLogFindTextDialog(Shell parentShell, EventLogInput eventLogInput) {
         super(parentShell);
+        this.eventLogInput = eventLogInput;
     }
 
     @Override
@@ -98,11 +105,15 @@ public class EventLogFindTextDialog extends Dialog {
         caseInsensitive.setText("Insensitive");
         caseInsensitive.setSelection(isCaseInsensitive);
 
+        numMatches = new Label(composite, SWT.NONE);
+        numMatches.setLayoutData(new GridData(GridData.FILL, GridData.BEGINNING, true, false, 2, 1));
+
         return parentComposite;
     }
 
     @Override
     protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, COUNT_MATCHES_ID, "Count Matches", false);
         createButton(parent, IDialogConstants.OK_ID, IDialogConstants.OK_LABEL, true);
         createButton(parent, IDialogConstants.CANCEL_ID, IDialogConstants.CANCEL_LABEL, false);
         text.setFocus();
@@ -112,6 +123,34 @@ public class EventLogFindTextDialog extends Dialog {
         }
     }
 
+    @Override
+    protected void buttonPressed(int buttonId) {
+        if (buttonId == COUNT_MATCHES_ID)
+            countMatchesPressed();
+        else
+            super.buttonPressed(buttonId);
+    }
+
+    /**
+     * Counts the matching lines in the whole file, the lines that don't belong to any event included.
+     */
+    protected void countMatchesPressed() {
+        String findText = text.getText();
+        boolean isCaseSensitive = caseSensitive.getSelection();
+        if (findText.isEmpty() || eventLogInput.getEventLog() == null)
+            return;
+        long[][] offsets = new long[1][];
+        eventLogInput.runWithProgressMonitor(new Runnable() {
+            public void run() {
+                offsets[0] = eventLogInput.getEventLog().findTextOffsets(findText, isCaseSensitive);
+            }
+        });
+        if (offsets[0] != null) {
+            numMatches.setText(offsets[0].length == 1 ? "1 matching line in the file" : offsets[0].length + " matching lines in the file");
+            numMatches.getParent().layout();
+        }
+    }
+
     @Override
     protected void okPressed() {
         isBackward = backward.getSelection();
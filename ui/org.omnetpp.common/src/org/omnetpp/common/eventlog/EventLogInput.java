@@ -13,13 +13,16 @@ import java.util.ArrayList;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.part.FileEditorInput;
 import org.omnetpp.common.CommonPlugin;
 import org.omnetpp.common.Debug;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.common.util.PersistentResourcePropertyManager;
 import org.omnetpp.common.util.RecurringJob;
+import org.omnetpp.eventlog.EventLog;
 import org.omnetpp.eventlog.EventLogTableFacade;
 import org.omnetpp.eventlog.FilteredEventLog;
 import org.omnetpp.eventlog.IEventLog;
@@ -79,13 +82,18 @@ public class EventLogInput extends FileEditorInput
     /**
      * Find text dialog along with the last parameters.
      */
-    protected EventLogFindTextDialog findTextDialog = new EventLogFindTextDialog(null);
+    protected EventLogFindTextDialog findTextDialog = new EventLogFindTextDialog(null, this);
 
     /**
      * Watches the event log file for changes.
      */
     protected RecurringJob eventLogWatcher;
 
+    /**
+     * Evaluates the current filter for all events in the background.
+     */
+    protected Job filterBitmapJob;
+
     /**
      * True indicates a long-running operation was canceled by the user.
      */
@@ -115,7 +123,7 @@ public class EventLogInput extends FileEditorInput
                     // and thus it must be called from the UI thread to prevent concurrent paints
                     public void run() {
                         try {
-                            FileReader fileReader = getEventLog().getFileReader();
+                            IFileReader fileReader = getEventLog().getFileReader();
                             if (fileReader.isFileOpen())
                                 synchronize(fileReader.getFileChange());
                         }
@@ -149,6 +157,7 @@ public class EventLogInput extends FileEditorInput
                 Debug.println("Synchronizing event log file content: " + getFile().getName() + " with change: " + change);
             doSynchronize(change);
             eventLogChanged(change);
+            scheduleFilterBitmapJob();
         }
     }
 
@@ -177,6 +186,7 @@ public class EventLogInput extends FileEditorInput
     public void dispose() {
         if (eventLogWatcher != null)
             eventLogWatcher.stop();
+        cancelFilterBitmapJob();
         if (eventLog != null) {
             // NOTE: explicitly release memory (we might have allocated a lot)
             // we don't rely on when the garbage collector will kick in
@@ -303,6 +313,7 @@ public class EventLogInput extends FileEditorInput
     }
 
     public void removeFilter() {
+        cancelFilterBitmapJob();
         if (eventLog instanceof FilteredEventLog) {
             setEventLog(((FilteredEventLog)eventLog).getEventLog());
             getEventLogTableFacade().setEventLog(eventLog);
@@ -386,10 +397,49 @@ public class EventLogInput extends FileEditorInput
         setEventLog(filteredEventLog);
         getEventLogTableFacade().setEventLog(filteredEventLog);
         getSequenceChartFacade().setEventLog(filteredEventLog);
+
+        // evaluate the filter for all events in the background, until then it's evaluated lazily
+        cancelFilterBitmapJob();
+        scheduleFilterBitmapJob();
         eventLogFiltered();
         storeState();
     }
 
+    /**
+     * Schedules a job evaluating the filter for the events not yet covered by the filter bitmap, unless
+     * the bitmap is complete or such a job is already running. A follow-up job is scheduled when the events
+     * appended in the meantime are too many to be evaluated while taking over the result.
+     */
+    private void scheduleFilterBitmapJob() {
+        if (!(eventLog instanceof FilteredEventLog) || (filterBitmapJob != null && filterBitmapJob.getState() != Job.NONE))
+            return;
+        FilteredEventLog filteredEventLog = (FilteredEventLog)eventLog;
+        if (filteredEventLog.isFilterBitmapComplete())
+            return;
+        Job[] job = new Job[1];
+        job[0] = filteredEventLog.createFilterBitmapJob((filter) -> {
+            Display.getDefault().asyncExec(() -> {
+                // the job may not have finished yet, but it doesn't prevent scheduling the follow-up job
+                if (filterBitmapJob == job[0])
+                    filterBitmapJob = null;
+                if (eventLog == filteredEventLog && filteredEventLog.takeOverFilterBitmap(filter)) {
+                    // notify the listeners again, so that they use the exact positions
+                    eventLogFiltered();
+                    scheduleFilterBitmapJob();
+                }
+            });
+        });
+        filterBitmapJob = job[0];
+        filterBitmapJob.schedule();
+    }
+
+    private void cancelFilterBitmapJob() {
+        if (filterBitmapJob != null) {
+            filterBitmapJob.cancel();
+            filterBitmapJob = null;
+        }
+    }
+
     /*************************************************************************************
      * PERSISTENT STATE
      */
@@ -455,11 +505,18 @@ public class EventLogInput extends FileEditorInput
     }
 
     private void eventLogAppended() {
+        // the appended range is tracked by the eventlog of the file, event numbers are the same in filtered eventlogs
+        IEventLog fileEventLog = eventLog;
+        while (fileEventLog instanceof FilteredEventLog)
+            fileEventLog = ((FilteredEventLog)fileEventLog).getEventLog();
+        long firstEventNumber = fileEventLog instanceof EventLog ? ((EventLog)fileEventLog).getFirstAppendedEventNumber() : -1;
+        long lastEventNumber = fileEventLog.getLastEventNumber();
+
         if (debug)
-            Debug.println("Notifying listeners about new content being appended to the event log");
+            Debug.println("Notifying listeners about new content being appended to the event log: events " + firstEventNumber + " to " + lastEventNumber);
 
         for (IEventLogChangeListener listener : eventLogChangeListeners)
-            listener.eventLogAppended();
+            listener.eventLogAppended(firstEventNumber, lastEventNumber);
 
         if (debug)
             Debug.println("Event log append notification done");
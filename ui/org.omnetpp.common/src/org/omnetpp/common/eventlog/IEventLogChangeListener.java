@@ -10,8 +10,10 @@ package org.omnetpp.common.eventlog;
 public interface IEventLogChangeListener {
     /**
      * Called when new content has been appended to the event log file by the simulation runtime environment.
+     * The events from firstEventNumber to lastEventNumber (inclusive) are new or extended, events before
+     * them are unchanged. The first event number is -1 if unknown, then any event might have changed.
      */
-    public void eventLogAppended();
+    public void eventLogAppended(long firstEventNumber, long lastEventNumber);
 
     /**
      * Called when the event log file content has been overwritten by the simulation runtime environment.
@@ -144,6 +144,16 @@ public class ProblemMarkerSynchronizer {
         markerTable.get(file).add(markerData);
     }
 
+    /**
+     * Registers the files and markers of the other synchronizer in this one as well.
+     */
+    public void addAll(ProblemMarkerSynchronizer other) {
+        for (IResource file : other.markerTable.keySet()) {
+            register(file);
+            markerTable.get(file).addAll(other.markerTable.get(file));
+        }
+    }
+
     public String getBaseMarkerType() {
         return markerBaseType;
     }
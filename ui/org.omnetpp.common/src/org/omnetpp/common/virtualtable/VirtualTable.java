@@ -8,6 +8,7 @@
 package org.omnetpp.common.virtualtable;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.eclipse.core.runtime.Assert;
@@ -86,6 +87,12 @@ import org.omnetpp.common.util.CsvWriter;
  * - the height of the table is constant (header plus one row)
  * - the width of the canvas is equal to the width of the table
  * - the height of the canvas is equal to the height of the client area of the scrollable composite minus the header's height
+ *
+ * In asynchronous mode, the elements around the fix point are retrieved from the content provider
+ * in short time slices while the UI is idle, and they are cached until the fix point jumps away or the
+ * content changes. Painting only uses the cached elements, and draws placeholders for the missing ones.
+ * The rows above and below the visible area are prefetched the same way. While the scroll bar is dragged,
+ * only the last position is processed, earlier ones are dropped.
  */
 public class VirtualTable<T>
     extends Composite
@@ -95,6 +102,15 @@ public class VirtualTable<T>
 
     private final static boolean debug = false;
 
+    private static final int ROW_LOADING_SLICE_MILLIS = 20; // the maximum time spent retrieving elements at once in asynchronous mode
+    private static final int PREFETCH_PAGE_COUNT = 2; // the number of pages prefetched above and below the visible area in asynchronous mode
+    private static final int MAXIMUM_ROW_CACHE_SIZE = 10000;
+
+    /**
+     * Marks a row which is not yet retrieved from the content provider.
+     */
+    protected static final Object NOT_CACHED = new Object();
+
     /**
      * This is an element close enough to the top of the visible area or null if there are no elements at all.
      */
@@ -193,6 +209,45 @@ public class VirtualTable<T>
      */
     protected IRunnableContext runnableContext;
 
+    /**
+     * True means elements are retrieved from the content provider in time slices while the UI is idle.
+     */
+    protected boolean asynchronous;
+
+    /**
+     * The element the row cache is relative to, null means the row cache is empty.
+     * The elements at distance 0, 1, 2, ... from it are in rowCacheAfter, and the ones
+     * at distance -1, -2, ... are in rowCacheBefore.
+     */
+    protected T rowCacheElement;
+    protected ArrayList<T> rowCacheAfter = new ArrayList<T>();
+    protected ArrayList<T> rowCacheBefore = new ArrayList<T>();
+
+    /**
+     * True means the last (first) element is in the row cache, so there are no more elements after (before) the cached ones.
+     */
+    protected boolean isRowCacheAfterComplete;
+    protected boolean isRowCacheBeforeComplete;
+
+    /**
+     * The distance of rowCacheFixPointElement from rowCacheElement, it's recomputed when the fix point element changes.
+     */
+    protected T rowCacheFixPointElement;
+    protected int rowCacheFixPointDistance;
+
+    /**
+     * True means the fix point has been relocated without checking the first and last elements, because
+     * they were not yet retrieved. The check is done when the visible rows are retrieved.
+     */
+    protected boolean isFixPointUnchecked;
+
+    protected boolean isRowLoadingScheduled;
+
+    /**
+     * The last scroll bar position to be processed while the scroll bar is dragged in asynchronous mode, or -1 if there is none.
+     */
+    protected double pendingScrollBarPercentage = -1;
+
     public VirtualTable(Composite parent, int style) {
         super(parent, style | SWT.V_SCROLL);
 
@@ -254,8 +309,12 @@ public class VirtualTable<T>
                     else {
                         // avoid hysteresis (no change for a while in the position when turning to the opposite direction during scrolling)
                         percentage = (double)scrollBar.getSelection() / scrollBar.getMaximum();
-                        relocateFixPoint(contentProvider.getApproximateElementAt(percentage), 0);
-                        redraw();
+                        if (asynchronous)
+                            scheduleScrollBarPercentage(percentage);
+                        else {
+                            relocateFixPoint(contentProvider.getApproximateElementAt(percentage), 0);
+                            redraw();
+                        }
                     }
                 }
                 catch (RuntimeException e) {
@@ -495,6 +554,7 @@ public class VirtualTable<T>
             getContentProvider().inputChanged(null, null, input);
             getRowRenderer().setInput(input);
             // clear state
+            clearRowCache();
             focusElement = null;
             relocateFixPoint(null, 0);
             clearSelection();
@@ -516,6 +576,7 @@ public class VirtualTable<T>
 
     public void setContentProvider(IVirtualTableContentProvider<T> contentProvider) {
         this.contentProvider = contentProvider;
+        clearRowCache();
         configureVerticalScrollBar();
     }
 
@@ -527,6 +588,21 @@ public class VirtualTable<T>
         this.rowRenderer = rowRenderer;
     }
 
+    public boolean getAsynchronous() {
+        return asynchronous;
+    }
+
+    /**
+     * Turns on/off retrieving elements from the content provider in time slices while the UI is idle.
+     * The content provider is still called from the UI thread, so it needs not be thread safe.
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+        clearRowCache();
+        isFixPointUnchecked = false;
+        redraw();
+    }
+
     @Override
     public boolean setFocus() {
         if (canvas.isDisposed()) // we can be called indirectly from Control.releaseWidget()
@@ -762,6 +838,7 @@ public class VirtualTable<T>
      * Updates the invalid fix point to a valid one staying as close to the current position as it is possible.
      */
     protected void stayNear() {
+        clearRowCache();
         if (fixPointElement != null) {
             relocateFixPoint(contentProvider.getClosestElement(fixPointElement), fixPointDistance);
             redraw();
@@ -795,6 +872,10 @@ public class VirtualTable<T>
      * Updates the vertical bar position to reflect the currently displayed elements.
      */
     protected void updateVerticalBarPosition() {
+        // don't retrieve elements for the scroll bar, it's updated again when they are available
+        if (asynchronous && (getCachedElementAtDistanceFromFixPoint(getTopVisibleElementDistanceFromFixPoint()) == NOT_CACHED ||
+                             getCachedElementAtDistanceFromFixPoint(getBottomFullyVisibleElementDistanceFromFixPoint()) == NOT_CACHED))
+            return;
         T topVisibleElement = getTopVisibleElement();
         T bottomFullyVisibleElement = getBottomFullyVisibleElement();
         double topPercentage = topVisibleElement == null ? 0 : contentProvider.getApproximatePercentageForElement(topVisibleElement);
@@ -946,15 +1027,22 @@ public class VirtualTable<T>
     protected void relocateFixPoint(T element, int distance) {
         fixPointElement = element;
         fixPointDistance = distance;
+        isFixPointUnchecked = false;
 
         if (element != null) {
-            int maxDistance = getVisibleElementCount() * 2;
-            long firstElementDistance = contentProvider.getDistanceToFirstElement(element, maxDistance);
+            if (asynchronous && !isVisibleRowCacheComplete()) {
+                // the check is done when the visible rows are retrieved
+                isFixPointUnchecked = true;
+                return;
+            }
 
             T topElement = getTopVisibleElement();
             T bottomElement = getBottomFullyVisibleElement();
 
             if ((topElement == null || bottomElement == null)) {
+                int maxDistance = getVisibleElementCount() * 2;
+                long firstElementDistance = contentProvider.getDistanceToFirstElement(element, maxDistance);
+
                 if (firstElementDistance < maxDistance && topElement == null) {
                     fixPointElement = contentProvider.getFirstElement();
                     fixPointDistance = 0;
@@ -993,8 +1081,21 @@ public class VirtualTable<T>
             updateVerticalBarPosition();
 
             for (int i = 0; i < getVisibleElementCount(); i++) {
+                T element;
+
+                if (asynchronous) {
+                    Object cachedElement = getCachedElementAtDistanceFromFixPoint(i - fixPointDistance);
+                    if (cachedElement == NOT_CACHED) {
+                        drawPlaceholderRow(gc, i, clipping);
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    T castElement = (T)cachedElement;
+                    element = castElement;
+                }
+                else
+                    element = getElementAtDistanceFromFixPoint(i - fixPointDistance);
                 Transform rowTransform = new Transform(null);
-                T element = getElementAtDistanceFromFixPoint(i - fixPointDistance);
                 IRangeSet<T> selectionElements = getSelectionElements();
                 int[] columnOrder = table.getColumnOrder();
 
@@ -1053,10 +1154,27 @@ public class VirtualTable<T>
                     }
                 }
             }
+
+            if (asynchronous)
+                scheduleRowLoading();
+        }
+    }
+
+    /**
+     * Draws a row whose element is not yet retrieved from the content provider.
+     */
+    protected void drawPlaceholderRow(GC gc, int row, Rectangle clipping) {
+        int y = row * getRowHeight();
+        if (drawLines) {
+            gc.setForeground(LINE_COLOR);
+            gc.drawLine(0, y - 1, clipping.x + clipping.width, y - 1);
         }
+        gc.setForeground(Display.getCurrent().getSystemColor(SWT.COLOR_WIDGET_NORMAL_SHADOW));
+        gc.drawText("...", 4, y, true);
     }
 
     public void refresh() {
+        clearRowCache();
         redraw();
     }
 
@@ -1068,6 +1186,10 @@ public class VirtualTable<T>
         canvas.redraw();
 
         if (contentProvider != null && input != null && fixPointElement != null && isVisible()) {
+            // the top element is not retrieved here if it's not yet available
+            if (asynchronous && getCachedElementAtDistanceFromFixPoint(getTopVisibleElementDistanceFromFixPoint()) == NOT_CACHED)
+                return;
+
             T topElement = getTopVisibleElement();
 
             if (topElement != null)
@@ -1075,6 +1197,190 @@ public class VirtualTable<T>
         }
     }
 
+    /**
+     * Empties the row cache, must be called when the content changes in asynchronous mode.
+     */
+    public void clearRowCache() {
+        rowCacheElement = null;
+        rowCacheAfter.clear();
+        rowCacheBefore.clear();
+        isRowCacheAfterComplete = false;
+        isRowCacheBeforeComplete = false;
+        rowCacheFixPointElement = null;
+    }
+
+    /**
+     * Returns the distance of the fix point element from the row cache element. The row cache is emptied
+     * and restarted from the fix point element if it's not in the row cache.
+     */
+    protected int getRowCacheFixPointDistance() {
+        if (rowCacheElement == null || rowCacheFixPointElement != fixPointElement) {
+            rowCacheFixPointElement = fixPointElement;
+            rowCacheFixPointDistance = 0;
+            int index = rowCacheElement == null ? -1 : rowCacheAfter.indexOf(fixPointElement);
+            if (index != -1)
+                rowCacheFixPointDistance = index;
+            else {
+                index = rowCacheElement == null ? -1 : rowCacheBefore.indexOf(fixPointElement);
+                if (index != -1)
+                    rowCacheFixPointDistance = -index - 1;
+                else {
+                    clearRowCache();
+                    rowCacheElement = fixPointElement;
+                    rowCacheAfter.add(fixPointElement);
+                    rowCacheFixPointElement = fixPointElement;
+                }
+            }
+        }
+        return rowCacheFixPointDistance;
+    }
+
+    /**
+     * Returns the element at the given distance from the fix point if it's already retrieved, null if there's
+     * no element there, or NOT_CACHED if it's not yet known. Only available in asynchronous mode.
+     */
+    protected Object getCachedElementAtDistanceFromFixPoint(int distance) {
+        if (!asynchronous || fixPointElement == null)
+            return NOT_CACHED;
+        long rowCacheDistance = (long)getRowCacheFixPointDistance() + distance;
+        if (rowCacheDistance >= 0) {
+            if (rowCacheDistance < rowCacheAfter.size())
+                return rowCacheAfter.get((int)rowCacheDistance);
+            else
+                return isRowCacheAfterComplete ? null : NOT_CACHED;
+        }
+        else {
+            if (-rowCacheDistance - 1 < rowCacheBefore.size())
+                return rowCacheBefore.get((int)(-rowCacheDistance - 1));
+            else
+                return isRowCacheBeforeComplete ? null : NOT_CACHED;
+        }
+    }
+
+    protected boolean isVisibleRowCacheComplete() {
+        int topDistance = getTopVisibleElementDistanceFromFixPoint();
+        return getCachedElementAtDistanceFromFixPoint(topDistance) != NOT_CACHED &&
+               getCachedElementAtDistanceFromFixPoint(topDistance + getVisibleElementCount() - 1) != NOT_CACHED;
+    }
+
+    protected void scheduleRowLoading() {
+        if (!isRowLoadingScheduled) {
+            isRowLoadingScheduled = true;
+            getDisplay().asyncExec(new Runnable() {
+                public void run() {
+                    isRowLoadingScheduled = false;
+                    if (!canvas.isDisposed() && asynchronous && contentProvider != null && fixPointElement != null) {
+                        try {
+                            runRowLoading(new Runnable() {
+                                public void run() {
+                                    loadRows();
+                                }
+                            });
+                        }
+                        catch (RuntimeException e) {
+                            handleRuntimeException(e);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the retrieval of elements outside of any paint event. Subclasses may override this to set up
+     * the same environment as for painting, or to skip retrieving elements by not calling the runnable.
+     */
+    protected void runRowLoading(Runnable loadRows) {
+        loadRows.run();
+    }
+
+    /**
+     * Retrieves elements around the fix point for a time slice, and schedules itself again until the visible
+     * rows and the prefetched rows above and below them are all retrieved. The visible rows come first.
+     */
+    protected void loadRows() {
+        long endMillis = System.currentTimeMillis() + ROW_LOADING_SLICE_MILLIS;
+        int visibleElementCount = getVisibleElementCount();
+        int prefetchCount = visibleElementCount * PREFETCH_PAGE_COUNT;
+        int topDistance = getRowCacheFixPointDistance() + getTopVisibleElementDistanceFromFixPoint();
+        int bottomDistance = topDistance + visibleElementCount - 1;
+        boolean isVisibleRowLoaded = false;
+        boolean isComplete = false;
+        while (!isComplete && System.currentTimeMillis() < endMillis) {
+            if (rowCacheAfter.size() + rowCacheBefore.size() > MAXIMUM_ROW_CACHE_SIZE) {
+                // start again from the fix point instead of growing without limit
+                rowCacheFixPointElement = null;
+                rowCacheElement = null;
+                topDistance = getRowCacheFixPointDistance() + getTopVisibleElementDistanceFromFixPoint();
+                bottomDistance = topDistance + visibleElementCount - 1;
+            }
+            if (!isRowCacheAfterComplete && rowCacheAfter.size() <= bottomDistance) {
+                loadRowAfter();
+                isVisibleRowLoaded = true;
+            }
+            else if (!isRowCacheBeforeComplete && -rowCacheBefore.size() > topDistance) {
+                loadRowBefore();
+                isVisibleRowLoaded = true;
+            }
+            else if (!isRowCacheAfterComplete && rowCacheAfter.size() <= bottomDistance + prefetchCount)
+                loadRowAfter();
+            else if (!isRowCacheBeforeComplete && -rowCacheBefore.size() > topDistance - prefetchCount)
+                loadRowBefore();
+            else
+                isComplete = true;
+        }
+        if (isFixPointUnchecked && isVisibleRowCacheComplete()) {
+            relocateFixPoint(fixPointElement, fixPointDistance);
+            isVisibleRowLoaded = true;
+        }
+        if (isVisibleRowLoaded)
+            canvas.redraw();
+        if (!isComplete)
+            scheduleRowLoading();
+    }
+
+    private void loadRowAfter() {
+        T element = contentProvider.getNeighbourElement(rowCacheAfter.get(rowCacheAfter.size() - 1), 1);
+        if (element == null)
+            isRowCacheAfterComplete = true;
+        else
+            rowCacheAfter.add(element);
+    }
+
+    private void loadRowBefore() {
+        T element = contentProvider.getNeighbourElement(rowCacheBefore.isEmpty() ? rowCacheElement : rowCacheBefore.get(rowCacheBefore.size() - 1), -1);
+        if (element == null)
+            isRowCacheBeforeComplete = true;
+        else
+            rowCacheBefore.add(element);
+    }
+
+    /**
+     * Processes the scroll bar position after the pending UI events, so that only the last one of
+     * several positions is processed while the scroll bar is dragged.
+     */
+    protected void scheduleScrollBarPercentage(double percentage) {
+        boolean isScheduled = pendingScrollBarPercentage != -1;
+        pendingScrollBarPercentage = percentage;
+        if (!isScheduled) {
+            getDisplay().asyncExec(new Runnable() {
+                public void run() {
+                    double percentage = pendingScrollBarPercentage;
+                    pendingScrollBarPercentage = -1;
+                    if (!canvas.isDisposed() && contentProvider != null) {
+                        try {
+                            relocateFixPoint(contentProvider.getApproximateElementAt(percentage), 0);
+                            redraw();
+                        }
+                        catch (RuntimeException e) {
+                            handleRuntimeException(e);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
     protected String getTooltipText(T element) {
         return null;
     }
@@ -1091,11 +1397,17 @@ public class VirtualTable<T>
         return -fixPointDistance + Math.min((int)contentProvider.getApproximateNumberOfElements() - 1, Math.max(0, getFullyVisibleElementCount() - 1));
     }
 
+    @SuppressWarnings("unchecked")
     public T getElementAtDistanceFromFixPoint(int distance) {
         if (fixPointElement == null)
             return null;
-        else
-            return contentProvider.getNeighbourElement(fixPointElement, distance);
+        else {
+            Object cachedElement = getCachedElementAtDistanceFromFixPoint(distance);
+            if (cachedElement != NOT_CACHED)
+                return (T)cachedElement;
+            else
+                return contentProvider.getNeighbourElement(fixPointElement, distance);
+        }
     }
 
     public T getVisibleElementAt(int index) {
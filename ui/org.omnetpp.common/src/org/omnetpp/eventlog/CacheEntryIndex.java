@@ -0,0 +1,324 @@
+package org.omnetpp.eventlog;
+
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.Assert;
+import org.omnetpp.common.engine.BigDecimal;
+
+/**
+ * A sorted map from event numbers or simulation times to file offset ranges, used by EventLogIndex.
+ * Elements are stored in parallel primitive arrays ordered by key, so that lookups are binary searches
+ * and an element costs a few longs instead of a boxed key, a cache entry object and a tree node.
+ * Elements are addressed by their position, which remains valid until the next modification.
+ */
+public abstract class CacheEntryIndex<T extends Comparable<T>>
+{
+    protected static final int INITIAL_CAPACITY = 16;
+
+    protected int size = 0;
+
+    public final int size() {
+        return size;
+    }
+
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the position of the element with the given key, or (-(insertion point) - 1) if not found.
+     */
+    public abstract int findPosition(T key);
+
+    /**
+     * Returns the position of the least element with a key greater than or equal to the given key, or -1 if none.
+     */
+    public final int ceilingPosition(T key) {
+        int position = findPosition(key);
+        if (position < 0)
+            position = -position - 1;
+        return position < size ? position : -1;
+    }
+
+    /**
+     * Compares the key of the element at the given position with the given key.
+     */
+    public abstract int compareKeyAt(int position, T key);
+
+    public abstract T getBeginKey(int position);
+
+    public abstract T getEndKey(int position);
+
+    public abstract long getBeginEventNumber(int position);
+
+    public abstract long getEndEventNumber(int position);
+
+    public abstract long getBeginOffset(int position);
+
+    public abstract long getEndEventBeginOffset(int position);
+
+    public abstract long getEndOffset(int position);
+
+    /**
+     * Adds a new element or extends the range of an existing element with the given event.
+     */
+    public abstract void put(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset);
+
+    /**
+     * Removes the element with the given key if present.
+     */
+    public final void remove(T key) {
+        int position = findPosition(key);
+        if (position >= 0) {
+            removeAt(position);
+            size--;
+        }
+    }
+
+    protected abstract void removeAt(int position);
+
+    protected static int grownCapacity(int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+
+    protected static long[] insert(long[] array, int position, int size, long value) {
+        if (size == array.length)
+            array = Arrays.copyOf(array, grownCapacity(size));
+        System.arraycopy(array, position, array, position + 1, size - position);
+        array[position] = value;
+        return array;
+    }
+
+    protected static void delete(long[] array, int position, int size) {
+        System.arraycopy(array, position + 1, array, position, size - position - 1);
+    }
+
+    /**
+     * Stores one element per event number: the event's begin and end offsets.
+     */
+    public static class EventNumberIndex extends CacheEntryIndex<Long>
+    {
+        protected long[] eventNumbers = new long[INITIAL_CAPACITY];
+        protected long[] beginOffsets = new long[INITIAL_CAPACITY];
+        protected long[] endOffsets = new long[INITIAL_CAPACITY];
+
+        @Override
+        public int findPosition(Long key) {
+            return Arrays.binarySearch(eventNumbers, 0, size, key);
+        }
+
+        @Override
+        public int compareKeyAt(int position, Long key) {
+            return Long.compare(eventNumbers[position], key);
+        }
+
+        @Override
+        public Long getBeginKey(int position) {
+            return eventNumbers[position];
+        }
+
+        @Override
+        public Long getEndKey(int position) {
+            return eventNumbers[position];
+        }
+
+        @Override
+        public long getBeginEventNumber(int position) {
+            return eventNumbers[position];
+        }
+
+        @Override
+        public long getEndEventNumber(int position) {
+            return eventNumbers[position];
+        }
+
+        @Override
+        public long getBeginOffset(int position) {
+            return beginOffsets[position];
+        }
+
+        @Override
+        public long getEndEventBeginOffset(int position) {
+            return beginOffsets[position];
+        }
+
+        @Override
+        public long getEndOffset(int position) {
+            return endOffsets[position];
+        }
+
+        @Override
+        public void put(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset) {
+            put(eventNumber, beginOffset, endOffset);
+        }
+
+        public void put(long eventNumber, long beginOffset, long endOffset) {
+            int position = findPosition(eventNumber);
+            if (position >= 0) {
+                beginOffsets[position] = Math.min(beginOffsets[position], beginOffset);
+                endOffsets[position] = Math.max(endOffsets[position], endOffset);
+            }
+            else {
+                position = -position - 1;
+                eventNumbers = insert(eventNumbers, position, size, eventNumber);
+                beginOffsets = insert(beginOffsets, position, size, beginOffset);
+                endOffsets = insert(endOffsets, position, size, endOffset);
+                size++;
+            }
+        }
+
+        @Override
+        protected void removeAt(int position) {
+            delete(eventNumbers, position, size);
+            delete(beginOffsets, position, size);
+            delete(endOffsets, position, size);
+        }
+    }
+
+    /**
+     * Stores one element per simulation time: the range of events having that simulation time.
+     * Simulation times are kept in their decimal form as a mantissa and a base 10 exponent, so
+     * comparisons are exact and do not need the native BigDecimal.
+     */
+    public static class SimulationTimeIndex extends CacheEntryIndex<BigDecimal>
+    {
+        protected long[] mantissas = new long[INITIAL_CAPACITY];
+        protected byte[] scales = new byte[INITIAL_CAPACITY];
+        protected long[] beginEventNumbers = new long[INITIAL_CAPACITY];
+        protected long[] endEventNumbers = new long[INITIAL_CAPACITY];
+        protected long[] beginOffsets = new long[INITIAL_CAPACITY];
+        protected long[] endEventBeginOffsets = new long[INITIAL_CAPACITY];
+        protected long[] endOffsets = new long[INITIAL_CAPACITY];
+
+        @Override
+        public int findPosition(BigDecimal key) {
+            return findPosition(key.getIntValue(), key.getScale());
+        }
+
+        protected int findPosition(long mantissa, int scale) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int c = compareSimulationTimes(mantissas[middle], scales[middle], mantissa, scale);
+                if (c < 0)
+                    low = middle + 1;
+                else if (c > 0)
+                    high = middle - 1;
+                else
+                    return middle;
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        public int compareKeyAt(int position, BigDecimal key) {
+            return compareSimulationTimes(mantissas[position], scales[position], key.getIntValue(), key.getScale());
+        }
+
+        @Override
+        public BigDecimal getBeginKey(int position) {
+            return new BigDecimal(mantissas[position], scales[position]);
+        }
+
+        @Override
+        public BigDecimal getEndKey(int position) {
+            return getBeginKey(position);
+        }
+
+        @Override
+        public long getBeginEventNumber(int position) {
+            return beginEventNumbers[position];
+        }
+
+        @Override
+        public long getEndEventNumber(int position) {
+            return endEventNumbers[position];
+        }
+
+        @Override
+        public long getBeginOffset(int position) {
+            return beginOffsets[position];
+        }
+
+        @Override
+        public long getEndEventBeginOffset(int position) {
+            return endEventBeginOffsets[position];
+        }
+
+        @Override
+        public long getEndOffset(int position) {
+            return endOffsets[position];
+        }
+
+        @Override
+        public void put(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset) {
+            put(eventNumber, simulationTime.getIntValue(), simulationTime.getScale(), beginOffset, endOffset);
+        }
+
+        public void put(long eventNumber, long mantissa, int scale, long beginOffset, long endOffset) {
+            Assert.isTrue(Byte.MIN_VALUE <= scale && scale <= Byte.MAX_VALUE);
+            int position = findPosition(mantissa, scale);
+            if (position >= 0) {
+                beginEventNumbers[position] = Math.min(beginEventNumbers[position], eventNumber);
+                endEventNumbers[position] = Math.max(endEventNumbers[position], eventNumber);
+                beginOffsets[position] = Math.min(beginOffsets[position], beginOffset);
+                endEventBeginOffsets[position] = Math.max(endEventBeginOffsets[position], beginOffset);
+                endOffsets[position] = Math.max(endOffsets[position], endOffset);
+            }
+            else {
+                position = -position - 1;
+                if (size == scales.length)
+                    scales = Arrays.copyOf(scales, grownCapacity(size));
+                System.arraycopy(scales, position, scales, position + 1, size - position);
+                scales[position] = (byte)scale;
+                mantissas = insert(mantissas, position, size, mantissa);
+                beginEventNumbers = insert(beginEventNumbers, position, size, eventNumber);
+                endEventNumbers = insert(endEventNumbers, position, size, eventNumber);
+                beginOffsets = insert(beginOffsets, position, size, beginOffset);
+                endEventBeginOffsets = insert(endEventBeginOffsets, position, size, beginOffset);
+                endOffsets = insert(endOffsets, position, size, endOffset);
+                size++;
+            }
+        }
+
+        @Override
+        protected void removeAt(int position) {
+            System.arraycopy(scales, position + 1, scales, position, size - position - 1);
+            delete(mantissas, position, size);
+            delete(beginEventNumbers, position, size);
+            delete(endEventNumbers, position, size);
+            delete(beginOffsets, position, size);
+            delete(endEventBeginOffsets, position, size);
+            delete(endOffsets, position, size);
+        }
+
+        /**
+         * Compares mantissa1 * 10^scale1 with mantissa2 * 10^scale2 exactly.
+         */
+        public static int compareSimulationTimes(long mantissa1, int scale1, long mantissa2, int scale2) {
+            if (scale1 == scale2)
+                return Long.compare(mantissa1, mantissa2);
+            else if (scale1 > scale2)
+                return -compareSimulationTimes(mantissa2, scale2, mantissa1, scale1);
+            else if (mantissa2 == 0)
+                return Long.compare(mantissa1, 0);
+            else if ((long)scale2 - scale1 > 19)
+                return mantissa2 > 0 ? -1 : 1; // 10^19 alone exceeds any mantissa1
+            else {
+                // bring mantissa2 to scale1, if it overflows then its magnitude is larger than any mantissa1
+                long scaledMantissa2 = mantissa2;
+                for (int i = scale1; i < scale2; i++) {
+                    if (scaledMantissa2 > Long.MAX_VALUE / 10 || scaledMantissa2 < Long.MIN_VALUE / 10)
+                        return mantissa2 > 0 ? -1 : 1;
+                    scaledMantissa2 *= 10;
+                }
+                return Long.compare(mantissa1, scaledMantissa2);
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.TreeSet;
 
 import org.eclipse.core.runtime.Assert;
 import org.omnetpp.common.engine.BigDecimal;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.EventLogIndex.ReadToEventLineResult;
 import org.omnetpp.eventlog.engine.FileReader;
 import org.omnetpp.eventlog.entry.BeginSendEntry;
@@ -30,6 +31,7 @@ public class Event extends EventBase implements IEvent
     protected EventLog eventLog; // the corresponding eventlog
     protected long beginOffset = -1; // file offset where the event starts
     protected long endOffset = -1; // file offset where the event ends (including the following empty line, equals to the begin of the next thunk)
+    protected long incompleteEndOffset = -1; // the end of the last parsed line if the end of file was reached before the terminating empty line, -1 otherwise
     protected EventEntry eventEntry; // the eventlog entry that corresponds to the actual event ("E" line)
     protected ModuleDescriptionEntry moduleDescriptionEntry;
     protected int numEventLogMessages;
@@ -43,6 +45,7 @@ public class Event extends EventBase implements IEvent
     protected MessageSendDependency cause; // the message send which is processed in this event
     protected ArrayList<IMessageDependency> causes; // the arrival message sends of messages which we send in this event
     protected ArrayList<IMessageDependency> consequences; // message sends in this event
+    protected long consequencesAppendCount = -1; // the append count of the eventlog when the consequences were collected
 
     public Event(EventLog eventLog) {
         this.eventLog = eventLog;
@@ -52,8 +55,16 @@ public class Event extends EventBase implements IEvent
      * Parse an event starting at the given offset. Calling this function
      * clears the internal state of this event before parsing.
      */
-    public final long parse(FileReader reader, long offset) {
+    public final long parse(IFileReader reader, long offset) {
         eventLog.progress();
+        return parseConcurrently(reader, offset);
+    }
+
+    /**
+     * Same as parse, but doesn't report progress to the eventlog, so it may be called
+     * from parser threads using their own file reader.
+     */
+    protected final long parseConcurrently(IFileReader reader, long offset) {
         clearInternalState();
         numEventLogMessages = 0;
         numBeginSendEntries = 0;
@@ -71,7 +82,7 @@ public class Event extends EventBase implements IEvent
      * because it reached the end of the file before the event was completely
      * parsed.
      */
-    public final long parseLines(FileReader reader, long offset) {
+    public final long parseLines(IFileReader reader, long offset) {
 //        System.out.println("Parsing lines at offset: " + offset + "\n");
         reader.seekTo(offset);
         // prepare index based on the already loaded eventlog entries
@@ -92,16 +103,19 @@ public class Event extends EventBase implements IEvent
                 contextModuleIds.addFirst(componentMethodBeginEntry.targetComponentId);
         }
         // parse lines one by one
+        incompleteEndOffset = offset;
         while (true) {
-            String line = reader.getNextLine();
+            CharSequence line = reader.getNextLine();
             if (line == null) {
                 endOffset = reader.getFileSize();
                 break;
             }
+            incompleteEndOffset = reader.getCurrentLineEndOffset();
             EventLogEntry eventLogEntry = EventLogEntry.parseEntry(eventLog, this, index, reader.getCurrentLineStartOffset(), line, (int)reader.getCurrentLineLength());
             // stop at first empty line
             if (eventLogEntry == null) {
                 endOffset = reader.getCurrentLineEndOffset();
+                incompleteEndOffset = -1;
                 break;
             }
             else
@@ -149,7 +163,8 @@ public class Event extends EventBase implements IEvent
                     clearInternalState();
                     break;
                 case FileReader.FileChange.APPENDED:
-                    clearInternalState();
+                    // the entries of this event are unchanged, but its consequences might be in the appended content
+                    consequences = null;
                     break;
                 default:
                     throw new RuntimeException("Unknown file change");
@@ -382,6 +397,8 @@ public class Event extends EventBase implements IEvent
 
     @Override
     public Event getNextEvent() {
+        if (nextEvent == null && eventLog.getLastEvent() != this)
+            eventLog.parseAhead(this);
         if (nextEvent == null && eventLog.getLastEvent() != this) {
             ReadToEventLineResult result = new EventLog.ReadToEventLineResult();
             if (eventLog.readToEventLine(true, endOffset, result)) {
@@ -445,7 +462,9 @@ public class Event extends EventBase implements IEvent
 
     @Override
     public ArrayList<IMessageDependency> getConsequences() {
-        if (consequences == null) {
+        // consequences might have been appended to the file since they were collected
+        if (consequences == null || consequencesAppendCount != eventLog.getAppendCount()) {
+            consequencesAppendCount = eventLog.getAppendCount();
             consequences = new ArrayList<IMessageDependency>();
             // collect all message ids that are used in this event (eliminating duplicates)
             TreeSet<Long> messageIds = new TreeSet<Long>();
@@ -508,6 +527,7 @@ public class Event extends EventBase implements IEvent
         super.clearInternalState();
         beginOffset = -1;
         endOffset = -1;
+        incompleteEndOffset = -1;
         numEventLogMessages = -1;
         numBeginSendEntries = -1;
         numCustomEntries = -1;
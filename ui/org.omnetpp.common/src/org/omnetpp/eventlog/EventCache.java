@@ -0,0 +1,269 @@
+package org.omnetpp.eventlog;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Bounded cache of the parsed events of an EventLog. Events are kept in access order and the least
+ * recently used ones are evicted when either the number of events or their total size in the file
+ * exceeds the limit. Evicted events are unlinked from their neighbours and are only weakly referenced
+ * afterwards, so an evicted event that is still in use somewhere (e.g. by a viewer) is returned again
+ * instead of parsing a second copy. This way there's never more than one Event object for an event.
+ */
+public class EventCache
+{
+    public static final int DEFAULT_MAXIMUM_NUMBER_OF_EVENTS = 100000;
+    public static final long DEFAULT_MAXIMUM_NUMBER_OF_BYTES = 64 * 1024 * 1024;
+
+    protected int maximumNumberOfEvents = DEFAULT_MAXIMUM_NUMBER_OF_EVENTS;
+    protected long maximumNumberOfBytes = DEFAULT_MAXIMUM_NUMBER_OF_BYTES;
+    protected long numberOfBytes; // total size of the cached events in the file
+
+    protected LinkedHashMap<Long, CachedEvent> eventNumberToEventMap = new LinkedHashMap<Long, CachedEvent>(16, 0.75f, true); // cached events in access order
+    protected HashMap<Long, Event> beginOffsetToEventMap = new HashMap<Long, Event>(); // cached events, null means there's no event at the offset
+    protected HashMap<Long, Event> endOffsetToEventMap = new HashMap<Long, Event>(); // cached events, null means there's no event at the offset
+
+    protected HashMap<Long, EvictedEvent> eventNumberToEvictedEventMap = new HashMap<Long, EvictedEvent>(); // evicted but possibly still referenced events
+    protected ReferenceQueue<Event> evictedEventQueue = new ReferenceQueue<Event>();
+
+    protected long numHits;
+    protected long numMisses;
+    protected long numEvictions;
+
+    protected static class CachedEvent
+    {
+        public Event event;
+        public long beginOffset; // the offsets when the event was cached
+        public long endOffset;
+
+        public CachedEvent(Event event) {
+            this.event = event;
+            this.beginOffset = event.getBeginOffset();
+            this.endOffset = event.getEndOffset();
+        }
+
+        public long getNumBytes() {
+            return endOffset - beginOffset;
+        }
+    }
+
+    protected static class EvictedEvent extends WeakReference<Event>
+    {
+        public long eventNumber;
+
+        public EvictedEvent(long eventNumber, Event event, ReferenceQueue<Event> queue) {
+            super(event, queue);
+            this.eventNumber = eventNumber;
+        }
+    }
+
+    public int getMaximumNumberOfEvents() {
+        return maximumNumberOfEvents;
+    }
+
+    public long getMaximumNumberOfBytes() {
+        return maximumNumberOfBytes;
+    }
+
+    /**
+     * Sets the limits, evicting events immediately if necessary.
+     */
+    public void setLimits(int maximumNumberOfEvents, long maximumNumberOfBytes) {
+        Assert.isTrue(maximumNumberOfEvents > 0 && maximumNumberOfBytes > 0);
+        this.maximumNumberOfEvents = maximumNumberOfEvents;
+        this.maximumNumberOfBytes = maximumNumberOfBytes;
+        evict();
+    }
+
+    public int getNumEvents() {
+        return eventNumberToEventMap.size();
+    }
+
+    public long getNumBytes() {
+        return numberOfBytes;
+    }
+
+    public long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of events parsed and put into the cache.
+     */
+    public long getNumMisses() {
+        return numMisses;
+    }
+
+    public long getNumEvictions() {
+        return numEvictions;
+    }
+
+    /**
+     * Returns the event with the given event number or null if it's not in the cache.
+     */
+    public Event getEventForEventNumber(long eventNumber) {
+        CachedEvent cachedEvent = eventNumberToEventMap.get(eventNumber);
+        if (cachedEvent != null) {
+            numHits++;
+            return cachedEvent.event;
+        }
+        else
+            return resurrectEvent(eventNumber);
+    }
+
+    /**
+     * Returns true if the cache knows the event at the given offset, the event is null if there's no such event.
+     */
+    public boolean containsBeginOffset(long beginOffset) {
+        return beginOffsetToEventMap.containsKey(beginOffset);
+    }
+
+    public Event getEventForBeginOffset(long beginOffset) {
+        return touch(beginOffsetToEventMap.get(beginOffset));
+    }
+
+    /**
+     * Returns true if the cache knows the event at the given offset, the event is null if there's no such event.
+     */
+    public boolean containsEndOffset(long endOffset) {
+        return endOffsetToEventMap.containsKey(endOffset);
+    }
+
+    public Event getEventForEndOffset(long endOffset) {
+        return touch(endOffsetToEventMap.get(endOffset));
+    }
+
+    /**
+     * Returns the evicted event with the given event number if it's still referenced from somewhere.
+     * The returned event is put back into the cache.
+     */
+    public Event resurrectEvent(long eventNumber) {
+        expungeEvictedEvents();
+        EvictedEvent evictedEvent = eventNumberToEvictedEventMap.remove(eventNumber);
+        Event event = evictedEvent != null ? evictedEvent.get() : null;
+        if (event != null) {
+            numHits++;
+            insert(eventNumber, event);
+        }
+        return event;
+    }
+
+    /**
+     * Adds a newly parsed event to the cache.
+     */
+    public void put(Event event) {
+        numMisses++;
+        insert(event.getEventNumber(), event);
+    }
+
+    protected void insert(long eventNumber, Event event) {
+        Assert.isTrue(!eventNumberToEventMap.containsKey(eventNumber));
+        CachedEvent cachedEvent = new CachedEvent(event);
+        eventNumberToEvictedEventMap.remove(eventNumber);
+        eventNumberToEventMap.put(eventNumber, cachedEvent);
+        beginOffsetToEventMap.put(cachedEvent.beginOffset, event);
+        endOffsetToEventMap.put(cachedEvent.endOffset, event);
+        numberOfBytes += cachedEvent.getNumBytes();
+        evict();
+    }
+
+    public void putMissingBeginOffset(long beginOffset) {
+        beginOffsetToEventMap.put(beginOffset, null);
+    }
+
+    public void putMissingEndOffset(long endOffset) {
+        endOffsetToEventMap.put(endOffset, null);
+    }
+
+    /**
+     * Updates the cache after the end offset of the event has been changed, because
+     * new content was appended to the last event. Does nothing if the event is evicted.
+     */
+    public void updateEndOffset(Event event) {
+        CachedEvent cachedEvent = eventNumberToEventMap.get(event.getEventNumber());
+        if (cachedEvent != null && cachedEvent.event == event) {
+            if (endOffsetToEventMap.get(cachedEvent.endOffset) == event)
+                endOffsetToEventMap.remove(cachedEvent.endOffset);
+            numberOfBytes -= cachedEvent.getNumBytes();
+            cachedEvent.endOffset = event.getEndOffset();
+            numberOfBytes += cachedEvent.getNumBytes();
+            endOffsetToEventMap.put(cachedEvent.endOffset, event);
+        }
+    }
+
+    /**
+     * Returns the cached events, the evicted but still referenced ones are not included.
+     */
+    public ArrayList<Event> getEvents() {
+        ArrayList<Event> events = new ArrayList<Event>(eventNumberToEventMap.size());
+        for (CachedEvent cachedEvent : eventNumberToEventMap.values())
+            events.add(cachedEvent.event);
+        return events;
+    }
+
+    /**
+     * Returns the evicted events that are still referenced from somewhere.
+     */
+    public ArrayList<Event> getEvictedEvents() {
+        expungeEvictedEvents();
+        ArrayList<Event> events = new ArrayList<Event>();
+        for (EvictedEvent evictedEvent : eventNumberToEvictedEventMap.values()) {
+            Event event = evictedEvent.get();
+            if (event != null)
+                events.add(event);
+        }
+        return events;
+    }
+
+    public void clear() {
+        numberOfBytes = 0;
+        eventNumberToEventMap.clear();
+        beginOffsetToEventMap.clear();
+        endOffsetToEventMap.clear();
+        eventNumberToEvictedEventMap.clear();
+        while (evictedEventQueue.poll() != null);
+    }
+
+    protected Event touch(Event event) {
+        if (event != null) {
+            numHits++;
+            eventNumberToEventMap.get(event.getEventNumber());
+        }
+        return event;
+    }
+
+    protected void evict() {
+        Iterator<Map.Entry<Long, CachedEvent>> it = eventNumberToEventMap.entrySet().iterator();
+        // always keep at least the most recently used event
+        while (eventNumberToEventMap.size() > 1 && (eventNumberToEventMap.size() > maximumNumberOfEvents || numberOfBytes > maximumNumberOfBytes)) {
+            var entry = it.next();
+            CachedEvent cachedEvent = entry.getValue();
+            Event event = cachedEvent.event;
+            it.remove();
+            if (beginOffsetToEventMap.get(cachedEvent.beginOffset) == event)
+                beginOffsetToEventMap.remove(cachedEvent.beginOffset);
+            if (endOffsetToEventMap.get(cachedEvent.endOffset) == event)
+                endOffsetToEventMap.remove(cachedEvent.endOffset);
+            numberOfBytes -= cachedEvent.getNumBytes();
+            EventBase.unlinkNeighbourEvents(event);
+            eventNumberToEvictedEventMap.put(entry.getKey(), new EvictedEvent(entry.getKey(), event, evictedEventQueue));
+            numEvictions++;
+        }
+        expungeEvictedEvents();
+    }
+
+    protected void expungeEvictedEvents() {
+        EvictedEvent evictedEvent;
+        while ((evictedEvent = (EvictedEvent)evictedEventQueue.poll()) != null) {
+            if (eventNumberToEvictedEventMap.get(evictedEvent.eventNumber) == evictedEvent)
+                eventNumberToEvictedEventMap.remove(evictedEvent.eventNumber);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package org.omnetpp.eventlog;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.omnetpp.common.engine.BigDecimal;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.engine.FileReader;
 import org.omnetpp.eventlog.entry.IndexEntry;
 import org.omnetpp.eventlog.entry.MessageDescriptionEntry;
@@ -20,6 +28,9 @@ import org.omnetpp.eventlog.entry.SnapshotEntry;
  */
 public class EventLog extends EventLogIndex implements IEventLog
 {
+    protected static final long PARALLEL_PARSING_MINIMUM_CHUNK_SIZE = 1024 * 1024;
+    protected static final long PARALLEL_PARSING_AHEAD_SIZE = 8 * 1024 * 1024;
+
     protected long numParsedEvents = 0;
     protected long approximateNumberOfEvents = -1;
 
@@ -27,31 +38,81 @@ public class EventLog extends EventLogIndex implements IEventLog
     protected long lastProgressCall;
     protected IProgressMonitor progressMonitor;
 
+    protected int parsingParallelism = Runtime.getRuntime().availableProcessors(); // number of threads used when the whole file is parsed or when parsing ahead
+    protected boolean parsingAhead; // moving forward to an event that is not parsed yet parses the following part of the file in parallel
+
     protected Event firstEvent;
     protected Event lastEvent;
 
     protected SimulationBeginEntry simulationBeginEntry;
     protected SimulationEndEntry simulationEndEntry;
 
-    protected EventLogEntryCache eventLogEntryCache = new EventLogEntryCache(); // access all eventlog entries efficiently
+    protected EventLogEntryCache eventLogEntryCache = new EventLogEntryCache(false); // access all eventlog entries efficiently
 
     // TODO: move to eventlog entry cache
     protected final TreeSet<String> messageClassNames = new TreeSet<String>(); // message class names seen so far (see Event::parse)
     protected final TreeSet<String> messageNames = new TreeSet<String>(); // message names seen so far (see Event::parse)
 
-    protected TreeMap<Long, Event> eventNumberToEventMap = new TreeMap<Long, Event>(); // all parsed events so far
+    protected EventCache eventCache = new EventCache(); // the most recently used parsed events
 
-    protected TreeMap<Long, Event> beginOffsetToEventMap = new TreeMap<Long, Event>(); // all parsed events so far
-    protected TreeMap<Long, Event> endOffsetToEventMap = new TreeMap<Long, Event>(); // all parsed events so far
+    protected HashSet<Long> eventNumbersWithCachedEntries = new HashSet<Long>(); // events whose entries are stored in the eventlog entry cache
 
     protected TreeMap<Long, Index> eventNumberToIndexMap = new TreeMap<Long, Index>(); // all indices are parsed at once
 
     protected TreeMap<Long, Snapshot> eventNumberToSnapshotMap = new TreeMap<Long, Snapshot>(); // snapshots are parsed lazily
 
-    public EventLog(FileReader reader) {
+    protected long indicesAndSnapshotsEndOffset; // the file has been searched for indices and snapshots up to this offset
+
+    protected long appendCount; // incremented when new content is appended to the file, invalidates the consequences of events lazily
+    protected long firstAppendedEventNumber = -1; // the first event changed by the last append (the previous last event), -1 if unknown
+
+    protected boolean useIndexFile;
+    protected EventLogIndexFile indexFile; // the persistent index loaded into the cache, null if there's none
+    protected boolean indexFileOutdated; // new content was appended since the index was built
+    protected Job indexFileBuildJob; // builds or extends the persistent index in the background
+    protected volatile EventLogIndexFile builtIndexFile; // set by the build job, loaded into the cache from the UI thread
+    protected volatile long[] failedIndexFileStamp; // the size and modification time of the eventlog file when building the index failed, null if it didn't
+    protected volatile int indexFileGeneration; // incremented when the file is overwritten to discard results of outdated build jobs
+
+    protected EventLogTextIndex textIndex; // the persistent text index, built when text is searched for the first time
+    protected boolean textIndexOutdated; // new content was appended since the text index was built
+    protected Job textIndexBuildJob; // builds or extends the persistent text index in the background
+    protected volatile EventLogTextIndex builtTextIndex; // set by the build job, used from the UI thread
+
+    protected MessageDependencyGraph messageDependencyGraph; // taken over from the build job, null if not yet
+    protected Job messageDependencyGraphBuildJob; // loads, builds or extends the message dependency graph in the background
+    protected volatile MessageDependencyGraph builtMessageDependencyGraph; // set by the build job, taken over from the UI thread
+    protected volatile boolean messageDependencyGraphUnavailable; // the build job could not read the file, until it's overwritten
+    protected EventLogSummary eventLogSummary; // taken over from the build job, it may not contain the last appended events, null if not yet
+    protected Job eventLogSummaryBuildJob; // builds or extends the summary in the background when the message dependency graph changes
+    protected volatile EventLogSummary builtEventLogSummary; // set by the build job, taken over from the UI thread
+
+    protected EventLogStateCache eventLogStateCache = new EventLogStateCache(this); // the most recently used reconstructed states
+
+    public EventLog(IFileReader reader) {
+        this(reader, true);
+    }
+
+    /**
+     * If useIndexFile is true, then the persistent index stored next to the eventlog file is
+     * loaded if it's up to date, otherwise it's built in the background. Small files are
+     * parsed completely anyway, so they don't get an index.
+     */
+    public EventLog(IFileReader reader, boolean useIndexFile) {
         super(reader);
+        this.useIndexFile = useIndexFile && reader.getFileSize() >= 10E+6;
         reader.setFileLocking(true);
+        if (this.useIndexFile) {
+            File file = new File(reader.getFileName());
+            EventLogIndexFile indexFile = EventLogIndexFile.read(EventLogIndexFile.getIndexFile(file));
+            if (indexFile != null && indexFile.isUpToDate(file))
+                this.indexFile = indexFile;
+            else
+                scheduleIndexFileBuild(indexFile);
+        }
         parseIndicesAndSnapshots();
+        if (indexFile != null)
+            cacheIndexFileSamples(indexFile);
         if (reader.getFileSize() < 10E+6)
             parseAll();
         else {
@@ -64,6 +125,38 @@ public class EventLog extends EventLogIndex implements IEventLog
         return eventLogEntryCache;
     }
 
+    public int getParsingParallelism() {
+        return parsingParallelism;
+    }
+
+    /**
+     * Sets the number of threads used when the whole file is parsed or when parsing ahead, 1 means parsing on the calling thread only.
+     */
+    public void setParsingParallelism(int parsingParallelism) {
+        Assert.isTrue(parsingParallelism >= 1);
+        this.parsingParallelism = parsingParallelism;
+    }
+
+    public boolean isParsingAhead() {
+        return parsingAhead;
+    }
+
+    /**
+     * If set, then moving forward to an event that is not parsed yet parses the following few megabytes
+     * of the file in parallel. This is meant for eventlogs that are scanned through from one end to the
+     * other, such as the ones of background jobs. The parsed events are subject to the event cache limits.
+     */
+    public void setParsingAhead(boolean parsingAhead) {
+        this.parsingAhead = parsingAhead;
+    }
+
+    /**
+     * Returns the cache of parsed events, which can be used to change its limits and to query its statistics.
+     */
+    public EventCache getEventCache() {
+        return eventCache;
+    }
+
     @Override
     public void setProgressMonitor(IProgressMonitor progressMonitor)
     {
@@ -89,17 +182,20 @@ public class EventLog extends EventLogIndex implements IEventLog
      */
     public final Event getEventForBeginOffset(long beginOffset) {
         Assert.isTrue(beginOffset >= 0);
-        var it = beginOffsetToEventMap.get(beginOffset);
-        if (it != null)
-            return it;
+        if (eventCache.containsBeginOffset(beginOffset))
+            return eventCache.getEventForBeginOffset(beginOffset);
         else if (reader.getFileSize() != beginOffset) {
             Event event = new Event(this);
             parseEvent(event, beginOffset);
+            // the event might have been evicted while still being referenced from somewhere
+            Event evictedEvent = eventCache.resurrectEvent(event.getEventNumber());
+            if (evictedEvent != null)
+                return evictedEvent;
             cacheEvent(event);
             return event;
         }
         else {
-            beginOffsetToEventMap.put(beginOffset, null);
+            eventCache.putMissingBeginOffset(beginOffset);
             return null;
         }
     }
@@ -109,13 +205,12 @@ public class EventLog extends EventLogIndex implements IEventLog
      */
     public final Event getEventForEndOffset(long endOffset) {
         Assert.isTrue(endOffset >= 0);
-        var it = endOffsetToEventMap.get(endOffset);
-        if (it != null)
-            return it;
+        if (eventCache.containsEndOffset(endOffset))
+            return eventCache.getEventForEndOffset(endOffset);
         else {
             long beginOffset = getBeginOffsetForEndOffset(endOffset);
             if (beginOffset == -1) {
-                endOffsetToEventMap.put(endOffset, null);
+                eventCache.putMissingEndOffset(endOffset);
                 return null;
             }
             else
@@ -123,11 +218,169 @@ public class EventLog extends EventLogIndex implements IEventLog
         }
     }
 
+    @Override
+    public long getOffsetForEventNumber(long eventNumber, MatchKind matchKind) {
+        ensureIndexFileCached();
+        return super.getOffsetForEventNumber(eventNumber, matchKind);
+    }
+
+    @Override
+    public long getOffsetForSimulationTime(BigDecimal simulationTime, MatchKind matchKind) {
+        ensureIndexFileCached();
+        return super.getOffsetForSimulationTime(simulationTime, matchKind);
+    }
+
+    /**
+     * Loads the persistent index into the cache when the background job has finished building it,
+     * and starts building or extending it if it's missing or outdated.
+     */
+    protected final void ensureIndexFileCached() {
+        if (!useIndexFile)
+            return;
+        EventLogIndexFile builtIndexFile = this.builtIndexFile;
+        if (builtIndexFile != null) {
+            this.builtIndexFile = null;
+            try {
+                // the file might have been changed again while the job was running
+                if (builtIndexFile.isExtensibleTo(new File(reader.getFileName()))) {
+                    indexFile = builtIndexFile;
+                    cacheIndexFileSamples(indexFile);
+                }
+            }
+            catch (IOException e) {
+                // ignore, the index is rebuilt below
+            }
+        }
+        boolean idle = indexFileBuildJob == null || indexFileBuildJob.getState() == Job.NONE;
+        if (idle && (indexFile == null || indexFileOutdated) && this.builtIndexFile == null && !isIndexFileBuildFailed())
+            scheduleIndexFileBuild(indexFile);
+    }
+
+    /**
+     * Returns true if building the index has failed for the current content of the file, so it's not retried.
+     */
+    protected final boolean isIndexFileBuildFailed() {
+        long[] stamp = failedIndexFileStamp;
+        if (stamp == null)
+            return false;
+        File file = new File(reader.getFileName());
+        return stamp[0] == file.length() && stamp[1] == file.lastModified();
+    }
+
+    protected final void scheduleIndexFileBuild(EventLogIndexFile indexFile) {
+        int generation = indexFileGeneration;
+        File file = new File(reader.getFileName());
+        long[] stamp = new long[] { file.length(), file.lastModified() };
+        indexFileOutdated = false;
+        indexFileBuildJob = EventLogIndexFile.createBuildJob(file, indexFile, (result) -> {
+            if (generation == indexFileGeneration) {
+                if (result == null)
+                    failedIndexFileStamp = stamp;
+                else
+                    builtIndexFile = result;
+            }
+        });
+        indexFileBuildJob.schedule();
+    }
+
+    /**
+     * Returns the graph of all message dependencies in the eventlog file if it describes the current
+     * content of the file. Otherwise returns null, and starts loading it from the sidecar file next to the
+     * eventlog file, or building or extending it in the background. Callers follow message dependencies
+     * event by event until the graph is available.
+     */
+    @Override
+    public MessageDependencyGraph getMessageDependencyGraph() {
+        MessageDependencyGraph builtMessageDependencyGraph = this.builtMessageDependencyGraph;
+        if (builtMessageDependencyGraph != null) {
+            this.builtMessageDependencyGraph = null;
+            messageDependencyGraph = builtMessageDependencyGraph;
+        }
+        if (messageDependencyGraph != null && messageDependencyGraph.isUpToDate(new File(reader.getFileName())))
+            return messageDependencyGraph;
+        boolean idle = messageDependencyGraphBuildJob == null || messageDependencyGraphBuildJob.getState() == Job.NONE;
+        if (idle && !messageDependencyGraphUnavailable && this.builtMessageDependencyGraph == null)
+            scheduleMessageDependencyGraphBuild(messageDependencyGraph);
+        return null;
+    }
+
+    protected final void scheduleMessageDependencyGraphBuild(MessageDependencyGraph graph) {
+        int generation = indexFileGeneration;
+        messageDependencyGraphBuildJob = MessageDependencyGraph.createBuildJob(new File(reader.getFileName()), graph, (result) -> {
+            if (generation == indexFileGeneration) {
+                if (result == null)
+                    messageDependencyGraphUnavailable = true;
+                else
+                    builtMessageDependencyGraph = result;
+            }
+        });
+        messageDependencyGraphBuildJob.schedule();
+    }
+
+    /**
+     * Returns the summary of all events without blocking. The summary is built in the background when the
+     * message dependency graph becomes available, and it's extended when the graph is extended. Meanwhile
+     * the previous summary is returned, which may not contain the last appended events.
+     */
+    @Override
+    public EventLogSummary getEventLogSummary() {
+        EventLogSummary builtEventLogSummary = this.builtEventLogSummary;
+        if (builtEventLogSummary != null) {
+            this.builtEventLogSummary = null;
+            eventLogSummary = builtEventLogSummary;
+        }
+        MessageDependencyGraph graph = getMessageDependencyGraph();
+        boolean idle = eventLogSummaryBuildJob == null || eventLogSummaryBuildJob.getState() == Job.NONE;
+        if (graph != null && idle && this.builtEventLogSummary == null && (eventLogSummary == null || !eventLogSummary.isUpToDate(graph, Long.MAX_VALUE))) {
+            int generation = indexFileGeneration;
+            eventLogSummaryBuildJob = EventLogSummary.createBuildJob(new File(reader.getFileName()), eventLogSummary, graph, null, Long.MAX_VALUE, (result) -> {
+                if (generation == indexFileGeneration)
+                    this.builtEventLogSummary = result;
+            });
+            eventLogSummaryBuildJob.schedule();
+        }
+        return eventLogSummary;
+    }
+
+    // LONG RUNNING OPERATION
+    @Override
+    public EventLogState getEventLogState(long eventNumber) {
+        return eventLogStateCache.getState(eventNumber);
+    }
+
+    protected final void cacheIndexFileSamples(EventLogIndexFile indexFile) {
+        for (int i = 0; i < indexFile.getNumSamples(); i++)
+            cacheEntry(indexFile.getSampleEventNumber(i), indexFile.getSampleSimulationTimeMantissa(i), indexFile.getSampleSimulationTimeScale(i), indexFile.getSampleBeginOffset(i), indexFile.getSampleLineEndOffset(i));
+    }
+
+    /**
+     * Returns the number of times new content was appended to the file since it was opened or overwritten.
+     */
+    public long getAppendCount() {
+        return appendCount;
+    }
+
+    /**
+     * Returns the first event that was changed by the last append, all events after it are new.
+     * This is the last event before the append, because it might have been extended too.
+     * Returns -1 if unknown, which means that any event might be new.
+     */
+    public long getFirstAppendedEventNumber() {
+        return firstAppendedEventNumber;
+    }
+
     // IEventLog interface
+
+    /**
+     * Appending is handled incrementally: the previous last event is extended, indices and snapshots
+     * are searched in the appended content only, and the consequences of the already parsed events
+     * are recomputed lazily when they are next requested, so the cost depends on the size of the
+     * appended content and not on the size of the file or the number of cached events.
+     */
     @Override
     public void synchronize(int change) {
         if (change != FileReader.FileChange.UNCHANGED) {
-            super.synchronize(change);
+            long previousLastEventNumber = lastEvent != null ? lastEvent.getEventNumber() : lastEventNumber;
             super.synchronize(change);
             switch (change) {
                 case FileReader.FileChange.OVERWRITTEN:
@@ -135,19 +388,24 @@ public class EventLog extends EventLogIndex implements IEventLog
                     parseIndicesAndSnapshots();
                     break;
                 case FileReader.FileChange.APPENDED:
+                    appendCount++;
+                    firstAppendedEventNumber = previousLastEventNumber >= 0 ? previousLastEventNumber : -1;
+                    indexFileOutdated = true;
+                    textIndexOutdated = true;
                     approximateNumberOfEvents = -1;
                     if (lastEvent != null) {
-                        lastEvent.parseLines(reader, lastEvent.getEndOffset());
+                        // continue parsing the last event if it was not yet terminated by an empty line
+                        if (lastEvent.incompleteEndOffset != -1)
+                            lastEvent.parseLines(reader, lastEvent.incompleteEndOffset);
                         eventNumberToCacheEntryMap.remove(lastEvent.getEventNumber());
-                        endOffsetToEventMap.remove(lastEvent.getEndOffset());
+                        eventCache.updateEndOffset(lastEvent);
                         lastEventNumber = EventNumberKind.EVENT_NOT_YET_CALCULATED;
                         lastSimulationTime = BigDecimal.getMinusOne();
                         lastEventOffset = -1;
                         lastEvent = null;
                     }
-                    for (Event it : eventNumberToEventMap.values())
-                        it.synchronize(change);
                     parseIndicesAndSnapshots();
+                    eventLogStateCache.synchronize(change, firstAppendedEventNumber);
                     break;
                 default:
                     throw new RuntimeException("Unknown file change");
@@ -156,7 +414,7 @@ public class EventLog extends EventLogIndex implements IEventLog
     }
 
     @Override
-    public FileReader getFileReader() {
+    public IFileReader getFileReader() {
         return reader;
     }
 
@@ -179,7 +437,7 @@ public class EventLog extends EventLogIndex implements IEventLog
     public SimulationBeginEntry getSimulationBeginEntry() {
         if (simulationBeginEntry == null) {
             reader.seekTo(0);
-            String line = reader.getNextLine();
+            CharSequence line = reader.getNextLine();
             if (line != null) {
                 EventLogEntry eventLogEntry = (EventLogEntry)EventLogEntry.parseEntry(this, null, 0, reader.getCurrentLineStartOffset(), line, (int)reader.getCurrentLineLength());
                 SimulationBeginEntry simulationBeginEntry = eventLogEntry instanceof SimulationBeginEntry ? (SimulationBeginEntry)eventLogEntry : null;
@@ -194,7 +452,7 @@ public class EventLog extends EventLogIndex implements IEventLog
     public SimulationEndEntry getSimulationEndEntry() {
         if (simulationEndEntry == null) {
             reader.seekTo(reader.getFileSize());
-            String line = reader.getPreviousLine();
+            CharSequence line = reader.getPreviousLine();
             if (line != null) {
                 EventLogEntry eventLogEntry = (EventLogEntry)EventLogEntry.parseEntry(this, null, 0, reader.getCurrentLineStartOffset(), line, (int)reader.getCurrentLineLength());
                 SimulationEndEntry simulationEndEntry = eventLogEntry instanceof SimulationEndEntry ? (SimulationEndEntry)eventLogEntry : null;
@@ -229,7 +487,7 @@ public class EventLog extends EventLogIndex implements IEventLog
     public Event getEventForEventNumber(long eventNumber, MatchKind matchKind, boolean useCacheOnly) {
         Assert.isTrue(eventNumber >= 0);
         if (matchKind == MatchKind.EXACT) {
-            var it = eventNumberToEventMap.get(eventNumber);
+            var it = eventCache.getEventForEventNumber(eventNumber);
             if (it != null)
                 return it;
             else if (useCacheOnly)
@@ -237,13 +495,13 @@ public class EventLog extends EventLogIndex implements IEventLog
             else {
                 // the following two are still faster than binary searching
                 // but this may access the disk
-                it = eventNumberToEventMap.get(eventNumber - 1);
+                it = eventCache.getEventForEventNumber(eventNumber - 1);
                 if (it != null) {
                     Event event = it.getNextEvent();
                     // the file might be filtered
                     return event != null && event.getEventNumber() == eventNumber ? event : null;
                 }
-                it = eventNumberToEventMap.get(eventNumber + 1);
+                it = eventCache.getEventForEventNumber(eventNumber + 1);
                 if (it != null) {
                     Event event = it.getPreviousEvent();
                     // the file might be filtered
@@ -276,58 +534,117 @@ public class EventLog extends EventLogIndex implements IEventLog
         }
     }
 
+    /**
+     * The raw content of the file is searched by an EventLogTextSearch. The text index is used when it's
+     * available, otherwise it's built in the background for large files, so that later searches are faster.
+     */
+    // LONG RUNNING OPERATION
     @Override
     public EventLogEntry findEventLogEntry(EventLogEntry start, String search, boolean forward, boolean caseSensitive) {
         if (search.isEmpty())
             return forward ? start.getNextEventLogEntry() : start.getPreviousEventLogEntry();
         else {
-            String line;
-            long eventBeginOffset = -1;
-            long matchOffset = -1;
-            Event matchEvent = null;
-            reader.seekTo(start.getOffset());
+            long offset = start.getOffset();
             if (forward) {
+                reader.seekTo(offset);
                 reader.getNextLine();
-                while ((line = reader.getNextLine()) != null) {
-                    if (line.charAt(0) == 'E' && line.charAt(1) == ' ')
-                        eventBeginOffset = reader.getCurrentLineStartOffset();
-                    if (caseSensitive ? StringUtils.contains(line, search) : StringUtils.containsIgnoreCase(line, search)) {
-                        long currentLineStartOffset = reader.getCurrentLineStartOffset();
-                        Event event = eventBeginOffset == -1 ? start.getEvent() : getEventForBeginOffset(eventBeginOffset);
-                        if (event != null && event.getBeginOffset() <= currentLineStartOffset && currentLineStartOffset <= event.getEndOffset()) {
-                            matchEvent = event;
-                            matchOffset = currentLineStartOffset;
-                            break;
-                        }
-                    }
-                    progress();
-                }
+                offset = reader.getCurrentLineEndOffset();
             }
-            else {
-                while ((line = reader.getPreviousLine()) != null) {
-                    if (caseSensitive ? StringUtils.contains(line, search) : StringUtils.containsIgnoreCase(line, search)) {
-                        long currentLineStartOffset = reader.getCurrentLineStartOffset();
-                        Event event = eventBeginOffset == -1 ? (start.getEntryIndex() == 0 ? start.getEvent().getPreviousEvent() : start.getEvent()) : getEventForBeginOffset(eventBeginOffset).getPreviousEvent();
-                        if (event != null && event.getBeginOffset() <= currentLineStartOffset && currentLineStartOffset <= event.getEndOffset()) {
-                            matchEvent = event;
-                            matchOffset = currentLineStartOffset;
-                            break;
-                        }
-                    }
-                    if (line.charAt(0) == 'E' && line.charAt(1) == ' ')
-                        eventBeginOffset = reader.getCurrentLineStartOffset();
-                    progress();
+            try (EventLogTextSearch textSearch = createTextSearch(search, caseSensitive)) {
+                while (offset != -1) {
+                    long lineBeginOffset = textSearch.findNext(offset, forward, this::progress);
+                    if (lineBeginOffset == -1)
+                        break;
+                    // matches outside of events (e.g. in indices and snapshots) are skipped
+                    reader.seekTo(lineBeginOffset);
+                    reader.getNextLine();
+                    long lineEndOffset = reader.getCurrentLineEndOffset();
+                    EventLogEntry eventLogEntry = getEventLogEntryForLine(lineBeginOffset, lineEndOffset);
+                    if (eventLogEntry != null)
+                        return eventLogEntry;
+                    offset = forward ? lineEndOffset : lineBeginOffset;
                 }
+                return null;
             }
-            if (matchEvent != null && matchOffset != -1) {
-                for (int i = 0; i < matchEvent.getNumEventLogEntries(); i++) {
-                    EventLogEntry eventLogEntry = matchEvent.getEventLogEntry(i);
-                    if (eventLogEntry.getOffset() == matchOffset)
+        }
+    }
+
+    /**
+     * Returns the begin offsets of all lines in the file containing the text in increasing order.
+     */
+    // LONG RUNNING OPERATION
+    @Override
+    public long[] findTextOffsets(String search, boolean caseSensitive) {
+        try (EventLogTextSearch textSearch = createTextSearch(search, caseSensitive)) {
+            return textSearch.findAll(this::progress);
+        }
+    }
+
+    protected final EventLogTextSearch createTextSearch(String search, boolean caseSensitive) {
+        ensureTextIndexCached();
+        return new EventLogTextSearch(reader.getFileName(), reader.getFileSize(), textIndex, search, caseSensitive);
+    }
+
+    /**
+     * Returns the eventlog entry parsed from the given line, or null if the line doesn't belong to an event.
+     */
+    protected final EventLogEntry getEventLogEntryForLine(long lineBeginOffset, long lineEndOffset) {
+        ReadToEventLineResult result = new ReadToEventLineResult();
+        if (readToEventLine(false, lineEndOffset, result)) {
+            Event event = getEventForBeginOffset(result.lineBeginOffset);
+            if (event != null && lineBeginOffset < event.getEndOffset()) {
+                for (int i = 0; i < event.getNumEventLogEntries(); i++) {
+                    EventLogEntry eventLogEntry = event.getEventLogEntry(i);
+                    if (eventLogEntry.getOffset() == lineBeginOffset)
                         return eventLogEntry;
                 }
             }
-            return null;
         }
+        return null;
+    }
+
+    /**
+     * Takes over the text index when the background job has finished building it,
+     * and starts building or extending it if it's missing or outdated.
+     */
+    protected final void ensureTextIndexCached() {
+        if (!useIndexFile)
+            return;
+        File file = new File(reader.getFileName());
+        EventLogTextIndex builtTextIndex = this.builtTextIndex;
+        if (builtTextIndex != null) {
+            this.builtTextIndex = null;
+            try {
+                // the file might have been changed again while the job was running
+                if (builtTextIndex.isExtensibleTo(file))
+                    textIndex = builtTextIndex;
+            }
+            catch (IOException e) {
+                // ignore, the index is rebuilt below
+            }
+        }
+        else if (textIndex == null && textIndexBuildJob == null) {
+            EventLogTextIndex readTextIndex = EventLogTextIndex.read(EventLogTextIndex.getIndexFile(file));
+            if (readTextIndex != null && readTextIndex.isUpToDate(file))
+                textIndex = readTextIndex;
+            else {
+                scheduleTextIndexBuild(readTextIndex);
+                return;
+            }
+        }
+        boolean idle = textIndexBuildJob == null || textIndexBuildJob.getState() == Job.NONE;
+        if (idle && (textIndex == null || textIndexOutdated) && this.builtTextIndex == null)
+            scheduleTextIndexBuild(textIndex);
+    }
+
+    protected final void scheduleTextIndexBuild(EventLogTextIndex textIndex) {
+        int generation = indexFileGeneration;
+        textIndexOutdated = false;
+        textIndexBuildJob = EventLogTextIndex.createBuildJob(new File(reader.getFileName()), textIndex, (result) -> {
+            if (generation == indexFileGeneration)
+                builtTextIndex = result;
+        });
+        textIndexBuildJob.schedule();
     }
 
     @Override
@@ -458,6 +775,10 @@ public class EventLog extends EventLogIndex implements IEventLog
 
     protected final void parseEvent(Event event, long beginOffset) {
         event.parse(reader, beginOffset);
+        cacheParsedEvent(event);
+    }
+
+    protected final void cacheParsedEvent(Event event) {
         cacheEntry(event.getEventNumber(), event.getSimulationTime(), event.getBeginOffset(), event.getEndOffset());
         cacheEventLogEntries(event);
         numParsedEvents++;
@@ -468,25 +789,36 @@ public class EventLog extends EventLogIndex implements IEventLog
         long eventNumber = event.getEventNumber();
         Assert.isTrue(firstEvent == null || eventNumber >= firstEvent.getEventNumber());
         Assert.isTrue(lastEvent == null || eventNumber <= lastEvent.getEventNumber());
-        Assert.isTrue(!eventNumberToEventMap.containsKey(eventNumber));
-        eventNumberToEventMap.put(eventNumber, event);
-        beginOffsetToEventMap.put(event.getBeginOffset(), event);
-        endOffsetToEventMap.put(event.getEndOffset(), event);
+        eventCache.put(event);
     }
 
     protected final void cacheEventLogEntries(Event event) {
-        for (int i = 0; i < event.getNumEventLogEntries(); i++)
-            cacheEventLogEntry(event.getEventLogEntry(i));
+        // evicted events are parsed again, but their entries must not be added twice
+        if (!eventNumbersWithCachedEntries.contains(event.getEventNumber())) {
+            // the cached entries refer to their event by event number, so that they don't keep evicted events in memory
+            EventReference eventReference = null;
+            for (int i = 0; i < event.getNumEventLogEntries(); i++) {
+                EventLogEntry eventLogEntry = event.getEventLogEntry(i);
+                if (cacheEventLogEntry(eventLogEntry)) {
+                    if (eventReference == null)
+                        eventReference = new EventReference(event);
+                    eventLogEntry.chunk = eventReference;
+                }
+            }
+            if (eventReference != null)
+                eventNumbersWithCachedEntries.add(event.getEventNumber());
+        }
     }
 
-    protected final void cacheEventLogEntry(EventLogEntry eventLogEntry) {
-        eventLogEntryCache.cacheEventLogEntry(eventLogEntry);
+    protected final boolean cacheEventLogEntry(EventLogEntry eventLogEntry) {
+        boolean cached = eventLogEntryCache.cacheEventLogEntry(eventLogEntry);
         // collect message description entries
         MessageDescriptionEntry messageDescriptionEntry = eventLogEntry instanceof MessageDescriptionEntry ? (MessageDescriptionEntry)eventLogEntry : null;
         if (messageDescriptionEntry != null) {
             messageNames.add(messageDescriptionEntry.messageName);
             messageClassNames.add(messageDescriptionEntry.messageClassName);
         }
+        return cached;
     }
 
     protected final void clearInternalState() {
@@ -502,22 +834,91 @@ public class EventLog extends EventLogIndex implements IEventLog
         eventLogEntryCache.clearCache();
         simulationBeginEntry = null;
         simulationEndEntry = null;
-        eventNumberToEventMap.clear();
+        eventCache.clear();
+        eventNumbersWithCachedEntries.clear();
         eventNumberToIndexMap.clear();
         eventNumberToSnapshotMap.clear();
-        beginOffsetToEventMap.clear();
-        endOffsetToEventMap.clear();
+        indicesAndSnapshotsEndOffset = 0;
+        firstAppendedEventNumber = -1;
+        indexFileGeneration++;
+        if (indexFileBuildJob != null)
+            indexFileBuildJob.cancel();
+        indexFileBuildJob = null;
+        indexFile = null;
+        indexFileOutdated = false;
+        builtIndexFile = null;
+        if (textIndexBuildJob != null)
+            textIndexBuildJob.cancel();
+        textIndexBuildJob = null;
+        textIndex = null;
+        textIndexOutdated = false;
+        builtTextIndex = null;
+        if (messageDependencyGraphBuildJob != null)
+            messageDependencyGraphBuildJob.cancel();
+        messageDependencyGraphBuildJob = null;
+        messageDependencyGraph = null;
+        builtMessageDependencyGraph = null;
+        messageDependencyGraphUnavailable = false;
+        if (eventLogSummaryBuildJob != null)
+            eventLogSummaryBuildJob.cancel();
+        eventLogSummaryBuildJob = null;
+        eventLogSummary = null;
+        builtEventLogSummary = null;
+        eventLogStateCache.clear();
     }
 
     protected final void parseIndicesAndSnapshots() {
+        if (indexFile != null && !indexFileOutdated)
+            loadIndicesAndSnapshots(indexFile);
+        else
+            readIndicesAndSnapshots();
+    }
+
+    /**
+     * Creates all indices and snapshots from the locations stored in the persistent index.
+     */
+    protected final void loadIndicesAndSnapshots(EventLogIndexFile indexFile) {
+        TreeMap<Long, Snapshot> offsetToSnapshotMap = new TreeMap<Long, Snapshot>();
+        Index previousIndex = null;
+        for (int i = 0; i < indexFile.getNumChunks(); i++) {
+            long eventNumber = indexFile.getChunkEventNumber(i);
+            long offset = indexFile.getChunkOffset(i);
+            if (indexFile.getChunkKind(i) == EventLogIndexFile.SNAPSHOT_CHUNK) {
+                Snapshot snapshot = eventNumberToSnapshotMap.get(eventNumber);
+                if (snapshot == null) {
+                    snapshot = new Snapshot(this, offset);
+                    eventNumberToSnapshotMap.put(eventNumber, snapshot);
+                }
+                offsetToSnapshotMap.put(offset, snapshot);
+            }
+            else {
+                Index index = eventNumberToIndexMap.get(eventNumber);
+                if (index == null) {
+                    long previousSnapshotOffset = indexFile.getChunkPreviousSnapshotOffset(i);
+                    Snapshot snapshot = previousSnapshotOffset == -1 ? null : offsetToSnapshotMap.get(previousSnapshotOffset);
+                    index = new Index(this, offset, snapshot);
+                    eventNumberToIndexMap.put(eventNumber, index);
+                }
+                if (previousIndex != null)
+                    Index.linkIndices(previousIndex, index);
+                previousIndex = index;
+            }
+        }
+        indicesAndSnapshotsEndOffset = indexFile.getScannedOffset();
+    }
+
+    protected final void readIndicesAndSnapshots() {
         // this function is optimized for performance
         // the idea is to read indices backwards starting from the end of file
         // file offsets must be shifted to be able to read truncated files
+        // when the file was appended only the new content is searched, and the new indices are linked to the previous last one
         TreeMap<Long, Snapshot> snapshotFileOffsetsToSnapshotMap = new TreeMap<Long, Snapshot>();
+        Index previousLastIndex = eventNumberToIndexMap.isEmpty() ? null : eventNumberToIndexMap.lastEntry().getValue();
         reader.seekTo(reader.getFileSize());
-        String line = reader.getPreviousLine();
+        CharSequence line = reader.getPreviousLine();
+        long endOffset = line != null ? reader.getCurrentLineEndOffset() : 0;
         ArrayList<Index> indices = new ArrayList<Index>();
-        while (line != null) {
+        while (line != null && reader.getCurrentLineStartOffset() >= indicesAndSnapshotsEndOffset) {
             EventLogEntry eventLogEntry = (EventLogEntry)EventLogEntry.parseEntry(this, null, 0, reader.getCurrentLineStartOffset(), line, (int)reader.getCurrentLineLength());
             SnapshotEntry snapshotEntry = eventLogEntry instanceof SnapshotEntry ? (SnapshotEntry)eventLogEntry : null;
             IndexEntry indexEntry = eventLogEntry instanceof IndexEntry ? (IndexEntry)eventLogEntry : null;
@@ -575,6 +976,9 @@ public class EventLog extends EventLogIndex implements IEventLog
             eventLogEntry = null;
             progress();
         }
+        if (previousLastIndex != null && (indices.isEmpty() || indices.get(indices.size() - 1) != previousLastIndex))
+            indices.add(previousLastIndex);
+        indicesAndSnapshotsEndOffset = Math.max(indicesAndSnapshotsEndOffset, endOffset);
         for (int i = 1; i < (int)indices.size(); i++) {
             // indices is in reverse order
             Index.linkIndices(indices.get(i), indices.get(i - 1));
@@ -614,12 +1018,114 @@ public class EventLog extends EventLogIndex implements IEventLog
     }
 
     protected final void parseAll() {
-        IEvent event = getFirstEvent();
-        while (event != null)
-            event = event.getNextEvent();
+        if (parsingParallelism == 1 || reader.getFileSize() < 2 * PARALLEL_PARSING_MINIMUM_CHUNK_SIZE)
+            parseAllSequentially();
+        else
+            parseAllInParallel();
         for (Snapshot snapshot : eventNumberToSnapshotMap.values())
             snapshot.ensureParsed();
         for (Index index : eventNumberToIndexMap.values())
             index.ensureParsed();
     }
+
+    protected final void parseAllSequentially() {
+        IEvent event = getFirstEvent();
+        while (event != null)
+            event = event.getNextEvent();
+    }
+
+    protected final void parseAllInParallel() {
+        Event firstEvent = getFirstEvent();
+        if (firstEvent != null)
+            parseInParallel(firstEvent, reader.getFileSize());
+    }
+
+    /**
+     * Parses the events following the given one in parallel if parsing ahead is enabled and the rest
+     * of the file is large enough. Called when moving forward from an event that has no next event yet.
+     */
+    protected final void parseAhead(Event event) {
+        if (parsingAhead && parsingParallelism > 1) {
+            long beginOffset = event.getEndOffset();
+            // the events must fit into the event cache until the scan gets to them
+            long endOffset = Math.min(reader.getFileSize(), beginOffset + Math.min(PARALLEL_PARSING_AHEAD_SIZE, eventCache.getMaximumNumberOfBytes() / 2));
+            if (endOffset - beginOffset >= 2 * PARALLEL_PARSING_MINIMUM_CHUNK_SIZE)
+                parseInParallel(event, endOffset);
+        }
+    }
+
+    /**
+     * Parses the events having their "E" line between the end of the given event and the given offset.
+     * Splits the range into chunks at event boundaries, parses the chunks on the common fork-join pool
+     * each using its own file reader, and then merges the events into the cache in file order.
+     */
+    protected final void parseInParallel(Event previousEvent, long endOffset) {
+        long beginOffset = previousEvent.getEndOffset();
+        int numChunks = (int)Math.max(1, Math.min(4 * parsingParallelism, (endOffset - beginOffset) / PARALLEL_PARSING_MINIMUM_CHUNK_SIZE));
+        ArrayList<Callable<ArrayList<Event>>> tasks = new ArrayList<Callable<ArrayList<Event>>>();
+        for (int i = 0; i < numChunks; i++) {
+            long chunkBeginOffset = beginOffset + (endOffset - beginOffset) * i / numChunks;
+            long chunkEndOffset = beginOffset + (endOffset - beginOffset) * (i + 1) / numChunks;
+            tasks.add(() -> parseChunk(chunkBeginOffset, chunkEndOffset));
+        }
+        for (Future<ArrayList<Event>> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            for (Event event : getChunkEvents(future)) {
+                Event cachedEvent = eventCache.containsBeginOffset(event.getBeginOffset()) ? eventCache.getEventForBeginOffset(event.getBeginOffset()) : eventCache.resurrectEvent(event.getEventNumber());
+                if (cachedEvent != null)
+                    event = cachedEvent;
+                else {
+                    cacheParsedEvent(event);
+                    cacheEvent(event);
+                }
+                Event.linkEvents(previousEvent, event);
+                previousEvent = event;
+                progress();
+            }
+        }
+    }
+
+    /**
+     * Parses the events having their "E" line start in the given range. Called from parser threads.
+     */
+    protected final ArrayList<Event> parseChunk(long beginOffset, long endOffset) {
+        ArrayList<Event> events = new ArrayList<Event>();
+        // each task has its own reader; readers keep the current line in a per-instance buffer, so they can be used concurrently
+        IFileReader chunkReader = reader.createReader();
+        try {
+            chunkReader.setFileLocking(true);
+            long offset = beginOffset;
+            while (true) {
+                chunkReader.seekTo(offset);
+                CharSequence line;
+                do
+                    line = chunkReader.getNextLine();
+                while (line != null && !(line.charAt(0) == 'E' && line.charAt(1) == ' '));
+                if (line == null || chunkReader.getCurrentLineStartOffset() >= endOffset)
+                    break;
+                Event event = new Event(this);
+                offset = event.parseConcurrently(chunkReader, chunkReader.getCurrentLineStartOffset());
+                events.add(event);
+            }
+            return events;
+        }
+        finally {
+            chunkReader.delete();
+        }
+    }
+
+    protected static ArrayList<Event> getChunkEvents(Future<ArrayList<Event>> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            else
+                throw new RuntimeException(e.getCause());
+        }
+    }
 }
@@ -5,8 +5,6 @@ import java.util.ArrayList;
 
 import org.eclipse.core.runtime.Assert;
 import org.omnetpp.common.engine.BigDecimal;
-import org.omnetpp.common.engine.LineTokenizer;
-import org.omnetpp.common.engine.PStringVector;
 import org.omnetpp.common.engineext.IMatchableObject;
 
 /**
@@ -21,9 +19,7 @@ public abstract class EventLogEntry implements IMatchableObject
     protected long offset = -1;
     protected IChunk chunk = null; // back reference to event/snapshot/index
     protected int entryIndex = -1; // index within the event
-    protected static String buffer = new String(new char[128]); // non-thread safe buffer temporarily used to parse eventlog entries
-    protected static String currentLine;
-    protected static int currentLineLength;
+    protected static final ThreadLocal<EventLogTokenizer> tokenizer = ThreadLocal.withInitial(EventLogTokenizer::new); // each parser thread has its own
 
     public abstract ArrayList<String> getAttributeNames();
 
@@ -52,7 +48,12 @@ public abstract class EventLogEntry implements IMatchableObject
     }
 
     public final Event getEvent() {
-        return chunk instanceof Event ? (Event)chunk : null;
+        if (chunk instanceof Event)
+            return (Event)chunk;
+        else if (chunk instanceof EventReference)
+            return ((EventReference)chunk).getEvent();
+        else
+            return null;
     }
 
     public long getEventNumber() {
@@ -87,12 +88,9 @@ public abstract class EventLogEntry implements IMatchableObject
             return event.getEventLogEntry(entryIndex + 1);
     }
 
-    public static EventLogEntry parseEntry(EventLog eventLog, IChunk chunk, int entryIndex, long offset, String line, int length)
+    public static EventLogEntry parseEntry(EventLog eventLog, IChunk chunk, int entryIndex, long offset, CharSequence line, int length)
     {
         try {
-            currentLine = line;
-            currentLineLength = length;
-
             if (line.length() == 0)
                 return null;
             else if (line.charAt(0) == '-') {
@@ -103,13 +101,9 @@ public abstract class EventLogEntry implements IMatchableObject
             }
             else {
                 Assert.isTrue(entryIndex >= 0);
-                LineTokenizer tokenizer = new LineTokenizer();
+                EventLogTokenizer tokenizer = EventLogEntry.tokenizer.get();
                 tokenizer.tokenize(line, length);
-                PStringVector tokensVector = tokenizer.tokensVector();
-                String[] tokens = new String[tokenizer.numTokens()];
-                for (int i = 0; i < tokenizer.numTokens(); i++)
-                    tokens[i] = tokensVector.get(i);
-                EventLogEntry eventLogEntry = EventLogEntryFactory.parseEntry(chunk, entryIndex, tokens, tokenizer.numTokens());
+                EventLogEntry eventLogEntry = EventLogEntryFactory.parseEntry(chunk, entryIndex, tokenizer);
                 if (eventLogEntry != null)
                     eventLogEntry.offset = offset;
                 return eventLogEntry;
@@ -29,6 +29,8 @@ import org.omnetpp.eventlog.entry.ModuleDisplayStringChangedEntry;
 // TODO: there's a lot of similarity in this class, factor this out into new classes or templates, or whatnot
 public class EventLogEntryCache
 {
+    protected boolean retainEventLogEntries; // all entries are kept in eventLogEntries, otherwise only the ones stored in the maps
+    protected boolean cacheBuilt; // the lookup maps are up to date, a map is allocated only when the first entry of its kind is stored
     protected ArrayList<EventLogEntry> eventLogEntries = new ArrayList<EventLogEntry>();
 
     // modules
@@ -67,6 +69,18 @@ public class EventLogEntryCache
 
     protected HashMap<Pair<String, Long>, ArrayList<CustomChangedEntry>> typeAndKeyToCustomChangedVectorMap; // custom changed entries
 
+    public EventLogEntryCache() {
+        this(true);
+    }
+
+    /**
+     * If retainEventLogEntries is false, then only the entries stored in the lookup maps are kept,
+     * so that the cache doesn't keep all parsed events in memory.
+     */
+    public EventLogEntryCache(boolean retainEventLogEntries) {
+        this.retainEventLogEntries = retainEventLogEntries;
+    }
+
     public ArrayList<EventLogEntry> getEventLogEntries() {
         return eventLogEntries;
     }
@@ -110,38 +124,59 @@ public class EventLogEntryCache
             typeAndKeyToCustomChangedVectorMap.clear();
     }
 
-    public final void cacheEventLogEntry(EventLogEntry eventLogEntry) {
-        // TODO: this will always allocate all structures and that's not what we need
-        eventLogEntries.add(eventLogEntry);
-        ensureCacheAllocated();
+    /**
+     * Adds the entry to the cache. Returns true if the entry is stored in one of the lookup maps.
+     */
+    public final boolean cacheEventLogEntry(EventLogEntry eventLogEntry) {
+        if (retainEventLogEntries)
+            eventLogEntries.add(eventLogEntry);
+        return indexEventLogEntry(eventLogEntry);
+    }
+
+    protected final boolean indexEventLogEntry(EventLogEntry eventLogEntry) {
+        cacheBuilt = true;
         // description entries
         if (eventLogEntry instanceof ModuleDescriptionEntry) {
             ModuleDescriptionEntry moduleDescriptionEntry = eventLogEntry instanceof ModuleDescriptionEntry ? (ModuleDescriptionEntry)eventLogEntry : null;
+            if (moduleIdToModuleDescriptionEntryMap == null)
+                moduleIdToModuleDescriptionEntryMap = new TreeMap<Integer, ModuleDescriptionEntry>();
             moduleIdToModuleDescriptionEntryMap.put(moduleDescriptionEntry.moduleId, moduleDescriptionEntry);
         }
         else if (eventLogEntry instanceof ConnectionDescriptionEntry) {
             ConnectionDescriptionEntry connectionDescriptionEntry = eventLogEntry instanceof ConnectionDescriptionEntry ? (ConnectionDescriptionEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToConnectionDescriptionEntryMap == null)
+                moduleIdAndGateIdToConnectionDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDescriptionEntry>();
             moduleIdAndGateIdToConnectionDescriptionEntryMap.put(new Pair<Integer, Integer>(connectionDescriptionEntry.sourceModuleId, connectionDescriptionEntry.sourceGateId), connectionDescriptionEntry);
         }
         else if (eventLogEntry instanceof GateDescriptionEntry) {
             GateDescriptionEntry gateDescriptionEntry = eventLogEntry instanceof GateDescriptionEntry ? (GateDescriptionEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToGateDescriptionEntryMap == null)
+                moduleIdAndGateIdToGateDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, GateDescriptionEntry>();
             moduleIdAndGateIdToGateDescriptionEntryMap.put(new Pair<Integer, Integer>(gateDescriptionEntry.moduleId, gateDescriptionEntry.gateId), gateDescriptionEntry);
         }
         else if (eventLogEntry instanceof CustomDescriptionEntry) {
             CustomDescriptionEntry customDescriptionEntry = eventLogEntry instanceof CustomDescriptionEntry ? (CustomDescriptionEntry)eventLogEntry : null;
+            if (typeAndKeyToCustomDescriptionEntryMap == null)
+                typeAndKeyToCustomDescriptionEntryMap = new HashMap<Pair<String, Long>, CustomDescriptionEntry>();
             typeAndKeyToCustomDescriptionEntryMap.put(new Pair<String, Long>(customDescriptionEntry.type, customDescriptionEntry.key), customDescriptionEntry);
         }
         // module
         if (eventLogEntry instanceof ModuleCreatedEntry) {
             ModuleCreatedEntry moduleCreatedEntry = eventLogEntry instanceof ModuleCreatedEntry ? (ModuleCreatedEntry)eventLogEntry : null;
+            if (moduleIdToModuleCreatedEntryMap == null)
+                moduleIdToModuleCreatedEntryMap = new TreeMap<Integer, ModuleCreatedEntry>();
             moduleIdToModuleCreatedEntryMap.put(moduleCreatedEntry.moduleId, moduleCreatedEntry);
         }
         else if (eventLogEntry instanceof ModuleDeletedEntry) {
             ModuleDeletedEntry moduleDeletedEntry = eventLogEntry instanceof ModuleDeletedEntry ? (ModuleDeletedEntry)eventLogEntry : null;
+            if (moduleIdToModuleDeletedEntryMap == null)
+                moduleIdToModuleDeletedEntryMap = new TreeMap<Integer, ModuleDeletedEntry>();
             moduleIdToModuleDeletedEntryMap.put(moduleDeletedEntry.moduleId, moduleDeletedEntry);
         }
         else if (eventLogEntry instanceof ModuleDisplayStringChangedEntry) {
             ModuleDisplayStringChangedEntry moduleDisplayStringChangedEntry = eventLogEntry instanceof ModuleDisplayStringChangedEntry ? (ModuleDisplayStringChangedEntry)eventLogEntry : null;
+            if (moduleIdToModuleDisplayStringChangedVectorMap == null)
+                moduleIdToModuleDisplayStringChangedVectorMap = new TreeMap<Integer, ArrayList<ModuleDisplayStringChangedEntry>>();
             ArrayList<ModuleDisplayStringChangedEntry> jt = moduleIdToModuleDisplayStringChangedVectorMap.get(moduleDisplayStringChangedEntry.moduleId);
             if (jt != null)
                 jt.add(moduleDisplayStringChangedEntry);
@@ -151,14 +186,20 @@ public class EventLogEntryCache
         // connection
         else if (eventLogEntry instanceof ConnectionCreatedEntry) {
             ConnectionCreatedEntry gateCreatedEntry = eventLogEntry instanceof ConnectionCreatedEntry ? (ConnectionCreatedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToConnectionCreatedEntryMap == null)
+                moduleIdAndGateIdToConnectionCreatedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionCreatedEntry>();
             moduleIdAndGateIdToConnectionCreatedEntryMap.put(new Pair<Integer, Integer>(gateCreatedEntry.sourceModuleId, gateCreatedEntry.sourceGateId), gateCreatedEntry);
         }
         else if (eventLogEntry instanceof ConnectionDeletedEntry) {
             ConnectionDeletedEntry gateDeletedEntry = eventLogEntry instanceof ConnectionDeletedEntry ? (ConnectionDeletedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToConnectionDeletedEntryMap == null)
+                moduleIdAndGateIdToConnectionDeletedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDeletedEntry>();
             moduleIdAndGateIdToConnectionDeletedEntryMap.put(new Pair<Integer, Integer>(gateDeletedEntry.sourceModuleId, gateDeletedEntry.sourceGateId), gateDeletedEntry);
         }
         else if (eventLogEntry instanceof ConnectionDisplayStringChangedEntry) {
             ConnectionDisplayStringChangedEntry gateDisplayStringChangedEntry = eventLogEntry instanceof ConnectionDisplayStringChangedEntry ? (ConnectionDisplayStringChangedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToConnectionDisplayStringChangedVectorMap == null)
+                moduleIdAndGateIdToConnectionDisplayStringChangedVectorMap = new HashMap<Pair<Integer, Integer>, ArrayList<ConnectionDisplayStringChangedEntry>>();
             ArrayList<ConnectionDisplayStringChangedEntry> jt = moduleIdAndGateIdToConnectionDisplayStringChangedVectorMap.get(new Pair<Integer, Integer>(gateDisplayStringChangedEntry.sourceModuleId, gateDisplayStringChangedEntry.sourceGateId));
             if (jt != null)
                 jt.add(gateDisplayStringChangedEntry);
@@ -168,14 +209,20 @@ public class EventLogEntryCache
         // gate
         else if (eventLogEntry instanceof GateCreatedEntry) {
             GateCreatedEntry gateCreatedEntry = eventLogEntry instanceof GateCreatedEntry ? (GateCreatedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToGateCreatedEntryMap == null)
+                moduleIdAndGateIdToGateCreatedEntryMap = new HashMap<Pair<Integer, Integer>, GateCreatedEntry>();
             moduleIdAndGateIdToGateCreatedEntryMap.put(new Pair<Integer, Integer>(gateCreatedEntry.moduleId, gateCreatedEntry.gateId), gateCreatedEntry);
         }
         else if (eventLogEntry instanceof GateDeletedEntry) {
             GateDeletedEntry gateDeletedEntry = eventLogEntry instanceof GateDeletedEntry ? (GateDeletedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToGateDeletedEntryMap == null)
+                moduleIdAndGateIdToGateDeletedEntryMap = new HashMap<Pair<Integer, Integer>, GateDeletedEntry>();
             moduleIdAndGateIdToGateDeletedEntryMap.put(new Pair<Integer, Integer>(gateDeletedEntry.moduleId, gateDeletedEntry.gateId), gateDeletedEntry);
         }
         else if (eventLogEntry instanceof GateDisplayStringChangedEntry) {
             GateDisplayStringChangedEntry gateDisplayStringChangedEntry = eventLogEntry instanceof GateDisplayStringChangedEntry ? (GateDisplayStringChangedEntry)eventLogEntry : null;
+            if (moduleIdAndGateIdToGateDisplayStringChangedVectorMap == null)
+                moduleIdAndGateIdToGateDisplayStringChangedVectorMap = new HashMap<Pair<Integer, Integer>, ArrayList<GateDisplayStringChangedEntry>>();
             ArrayList<GateDisplayStringChangedEntry> jt = moduleIdAndGateIdToGateDisplayStringChangedVectorMap.get(new Pair<Integer, Integer>(gateDisplayStringChangedEntry.moduleId, gateDisplayStringChangedEntry.gateId));
             if (jt != null)
                 jt.add(gateDisplayStringChangedEntry);
@@ -185,20 +232,29 @@ public class EventLogEntryCache
         // custom
         else if (eventLogEntry instanceof CustomCreatedEntry) {
             CustomCreatedEntry customCreatedEntry = eventLogEntry instanceof CustomCreatedEntry ? (CustomCreatedEntry)eventLogEntry : null;
+            if (typeAndKeyToCustomCreatedEntryMap == null)
+                typeAndKeyToCustomCreatedEntryMap = new HashMap<Pair<String, Long>, CustomCreatedEntry>();
             typeAndKeyToCustomCreatedEntryMap.put(new Pair<String, Long>(customCreatedEntry.type, customCreatedEntry.key), customCreatedEntry);
         }
         else if (eventLogEntry instanceof CustomDeletedEntry) {
             CustomDeletedEntry customDeletedEntry = eventLogEntry instanceof CustomDeletedEntry ? (CustomDeletedEntry)eventLogEntry : null;
+            if (typeAndKeyToCustomDeletedEntryMap == null)
+                typeAndKeyToCustomDeletedEntryMap = new HashMap<Pair<String, Long>, CustomDeletedEntry>();
             typeAndKeyToCustomDeletedEntryMap.put(new Pair<String, Long>(customDeletedEntry.type, customDeletedEntry.key), customDeletedEntry);
         }
         else if (eventLogEntry instanceof CustomChangedEntry) {
             CustomChangedEntry customChangedEntry = eventLogEntry instanceof CustomChangedEntry ? (CustomChangedEntry)eventLogEntry : null;
+            if (typeAndKeyToCustomChangedVectorMap == null)
+                typeAndKeyToCustomChangedVectorMap = new HashMap<Pair<String, Long>, ArrayList<CustomChangedEntry>>();
             ArrayList<CustomChangedEntry> jt = typeAndKeyToCustomChangedVectorMap.get(new Pair<String, Long>(customChangedEntry.type, customChangedEntry.key));
             if (jt != null)
                 jt.add(customChangedEntry);
             else
                 typeAndKeyToCustomChangedVectorMap.put(new Pair<String, Long>(customChangedEntry.type, customChangedEntry.key), new ArrayList<CustomChangedEntry>(List.of(customChangedEntry)));
         }
+        else
+            return false;
+        return true;
     }
 
     public final ModuleDescriptionEntry getModuleDescriptionEntry(int moduleId) {
@@ -208,27 +264,19 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ModuleDescriptionEntry) {
-                    ModuleDescriptionEntry moduleDescriptionEntry = (ModuleDescriptionEntry)eventLogEntry;
-                    if (moduleDescriptionEntry != null && moduleDescriptionEntry.moduleId == moduleId)
-                        return moduleDescriptionEntry;
-                }
-            }
-        }
         return null;
     }
 
     public final ArrayList<ModuleDescriptionEntry> getModuleDescriptionEntries() {
         ensureCacheBuilt();
-        // TODO: linear search when the map is not filled
+        if (moduleIdToModuleDescriptionEntryMap == null)
+            return new ArrayList<ModuleDescriptionEntry>();
         return new ArrayList<ModuleDescriptionEntry>(moduleIdToModuleDescriptionEntryMap.values());
     }
 
     public final int getNumModuleDescriptionEntries() {
         ensureCacheBuilt();
-        return moduleIdToModuleDescriptionEntryMap.size();
+        return moduleIdToModuleDescriptionEntryMap == null ? 0 : moduleIdToModuleDescriptionEntryMap.size();
     }
 
     public final ModuleCreatedEntry getModuleCreatedEntry(int moduleId) {
@@ -238,15 +286,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ModuleCreatedEntry) {
-                    ModuleCreatedEntry moduleCreatedEntry = (ModuleCreatedEntry)eventLogEntry;
-                    if (moduleCreatedEntry != null && moduleCreatedEntry.moduleId == moduleId)
-                        return moduleCreatedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -257,15 +296,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ModuleDeletedEntry) {
-                    ModuleDeletedEntry moduleDeletedEntry = (ModuleDeletedEntry)eventLogEntry;
-                    if (moduleDeletedEntry != null && moduleDeletedEntry.moduleId == moduleId)
-                        return moduleDeletedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -282,16 +312,6 @@ public class EventLogEntryCache
                 }
             }
         }
-        else {
-            for (int index = entryIndex; index < eventLogEntries.size(); index++) {
-                EventLogEntry eventLogEntry = eventLogEntries.get(index);
-                if (eventLogEntry instanceof ModuleDisplayStringChangedEntry) {
-                    ModuleDisplayStringChangedEntry moduleDisplayStringChangedEntry = (ModuleDisplayStringChangedEntry)eventLogEntry;
-                    if (moduleDisplayStringChangedEntry != null && moduleDisplayStringChangedEntry.moduleId == moduleId)
-                        return moduleDisplayStringChangedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -302,15 +322,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ConnectionDescriptionEntry) {
-                    ConnectionDescriptionEntry connectionDescriptionEntry = (ConnectionDescriptionEntry)eventLogEntry;
-                    if (connectionDescriptionEntry != null && connectionDescriptionEntry.sourceModuleId == sourceModuleId && connectionDescriptionEntry.sourceGateId == sourceGateId)
-                        return connectionDescriptionEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -321,15 +332,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ConnectionCreatedEntry) {
-                    ConnectionCreatedEntry connectionCreatedEntry = (ConnectionCreatedEntry)eventLogEntry;
-                    if (connectionCreatedEntry != null && connectionCreatedEntry.sourceModuleId == sourceModuleId && connectionCreatedEntry.sourceGateId == sourceGateId)
-                        return connectionCreatedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -340,15 +342,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof ConnectionDeletedEntry) {
-                    ConnectionDeletedEntry connectionDeletedEntry = (ConnectionDeletedEntry)eventLogEntry;
-                    if (connectionDeletedEntry != null && connectionDeletedEntry.sourceModuleId == sourceModuleId && connectionDeletedEntry.sourceGateId == sourceGateId)
-                        return connectionDeletedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -365,16 +358,6 @@ public class EventLogEntryCache
                 }
             }
         }
-        else {
-            for (int index = entryIndex; index < eventLogEntries.size(); index++) {
-                EventLogEntry eventLogEntry = eventLogEntries.get(index);
-                if (eventLogEntry instanceof ConnectionDisplayStringChangedEntry) {
-                    ConnectionDisplayStringChangedEntry connectionDisplayStringChangedEntry = (ConnectionDisplayStringChangedEntry)eventLogEntry;
-                    if (connectionDisplayStringChangedEntry != null && connectionDisplayStringChangedEntry.sourceModuleId == sourceModuleId && connectionDisplayStringChangedEntry.sourceGateId == sourceGateId)
-                        return connectionDisplayStringChangedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -385,15 +368,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof GateDescriptionEntry) {
-                    GateDescriptionEntry gateDescriptionEntry = (GateDescriptionEntry)eventLogEntry;
-                    if (gateDescriptionEntry != null && gateDescriptionEntry.moduleId == moduleId && gateDescriptionEntry.gateId == gateId)
-                        return gateDescriptionEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -404,15 +378,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof GateCreatedEntry) {
-                    GateCreatedEntry gateCreatedEntry = (GateCreatedEntry)eventLogEntry;
-                    if (gateCreatedEntry != null && gateCreatedEntry.moduleId == moduleId && gateCreatedEntry.gateId == gateId)
-                        return gateCreatedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -423,15 +388,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof GateDeletedEntry) {
-                    GateDeletedEntry gateDeletedEntry = (GateDeletedEntry)eventLogEntry;
-                    if (gateDeletedEntry != null && gateDeletedEntry.moduleId == moduleId && gateDeletedEntry.gateId == gateId)
-                        return gateDeletedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -451,16 +407,6 @@ public class EventLogEntryCache
                 }
             }
         }
-        else {
-            for (int index = entryIndex; index < eventLogEntries.size(); index++) {
-                EventLogEntry eventLogEntry = eventLogEntries.get(index);
-                if (eventLogEntry instanceof GateDisplayStringChangedEntry) {
-                    GateDisplayStringChangedEntry gateDisplayStringChangedEntry = (GateDisplayStringChangedEntry)eventLogEntry;
-                    if (gateDisplayStringChangedEntry != null && gateDisplayStringChangedEntry.moduleId == moduleId && gateDisplayStringChangedEntry.gateId == gateId)
-                        return gateDisplayStringChangedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -471,15 +417,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof CustomDescriptionEntry) {
-                    CustomDescriptionEntry customDescriptionEntry = (CustomDescriptionEntry)eventLogEntry;
-                    if (customDescriptionEntry != null && type.equals(customDescriptionEntry.type) && customDescriptionEntry.key == key)
-                        return customDescriptionEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -490,15 +427,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof CustomCreatedEntry) {
-                    CustomCreatedEntry customCreatedEntry = (CustomCreatedEntry)eventLogEntry;
-                    if (customCreatedEntry != null && type.equals(customCreatedEntry.type) && customCreatedEntry.key == key)
-                        return customCreatedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -509,15 +437,6 @@ public class EventLogEntryCache
             if (it != null)
                 return it;
         }
-        else {
-            for (EventLogEntry eventLogEntry : eventLogEntries) {
-                if (eventLogEntry instanceof CustomCreatedEntry) {
-                    CustomDeletedEntry customDeletedEntry = (CustomDeletedEntry)eventLogEntry;
-                    if (customDeletedEntry != null && type.equals(customDeletedEntry.type) && customDeletedEntry.key == key)
-                        return customDeletedEntry;
-                }
-            }
-        }
         return null;
     }
 
@@ -534,55 +453,17 @@ public class EventLogEntryCache
                 }
             }
         }
-        else {
-            for (int index = entryIndex; index < eventLogEntries.size(); index++) {
-                EventLogEntry eventLogEntry = eventLogEntries.get(index);
-                if (eventLogEntry instanceof CustomCreatedEntry) {
-                    CustomChangedEntry customChangedEntry = (CustomChangedEntry)eventLogEntry;
-                    if (customChangedEntry != null && type.equals(customChangedEntry.type) && customChangedEntry.key == key)
-                        return customChangedEntry;
-                }
-            }
-        }
         return null;
     }
 
-    protected final void allocateCache() {
-        // module
-        moduleIdToModuleDescriptionEntryMap = new TreeMap<Integer, ModuleDescriptionEntry>();
-        moduleIdToModuleCreatedEntryMap = new TreeMap<Integer, ModuleCreatedEntry>();
-        moduleIdToModuleDeletedEntryMap = new TreeMap<Integer, ModuleDeletedEntry>();
-        moduleIdToModuleDisplayStringChangedVectorMap = new TreeMap<Integer, ArrayList<ModuleDisplayStringChangedEntry>>();
-        // connection
-        moduleIdAndGateIdToConnectionDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDescriptionEntry>();
-        moduleIdAndGateIdToConnectionCreatedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionCreatedEntry>();
-        moduleIdAndGateIdToConnectionDeletedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDeletedEntry>();
-        moduleIdAndGateIdToConnectionDisplayStringChangedVectorMap = new HashMap<Pair<Integer, Integer>, ArrayList<ConnectionDisplayStringChangedEntry>>();
-        // gate
-        moduleIdAndGateIdToGateDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, GateDescriptionEntry> ();
-        moduleIdAndGateIdToGateCreatedEntryMap = new HashMap<Pair<Integer, Integer>, GateCreatedEntry>();
-        moduleIdAndGateIdToGateDeletedEntryMap = new HashMap<Pair<Integer, Integer>, GateDeletedEntry>();
-        moduleIdAndGateIdToGateDisplayStringChangedVectorMap = new HashMap<Pair<Integer, Integer>, ArrayList<GateDisplayStringChangedEntry>>();
-        // custom
-        typeAndKeyToCustomDescriptionEntryMap = new HashMap<Pair<String, Long>, CustomDescriptionEntry>();
-        typeAndKeyToCustomCreatedEntryMap = new HashMap<Pair<String, Long>, CustomCreatedEntry>();
-        typeAndKeyToCustomDeletedEntryMap = new HashMap<Pair<String, Long>, CustomDeletedEntry>();
-        typeAndKeyToCustomChangedVectorMap = new HashMap<Pair<String, Long>, ArrayList<CustomChangedEntry>> ();
-    }
-
     protected final void buildCache() {
-        ensureCacheAllocated();
         for (EventLogEntry eventLogEntry : eventLogEntries)
-            cacheEventLogEntry(eventLogEntry);
-    }
-
-    protected final void ensureCacheAllocated() {
-        if (moduleIdToModuleCreatedEntryMap == null)
-            allocateCache();
+            indexEventLogEntry(eventLogEntry);
+        cacheBuilt = true;
     }
 
     protected final void ensureCacheBuilt() {
-        if (moduleIdToModuleCreatedEntryMap == null)
+        if (!cacheBuilt)
             buildCache();
     }
 }
@@ -47,109 +47,167 @@ import org.omnetpp.eventlog.entry.SnapshotEntry;
 
 public class EventLogEntryFactory
 {
-    @SuppressWarnings("unused")
-    public static EventLogTokenBasedEntry parseEntry(IChunk chunk, int entryIndex, String[] tokens, int numTokens) {
-        if (numTokens < 1)
+    public static EventLogTokenBasedEntry parseEntry(IChunk chunk, int entryIndex, EventLogTokenizer tokenizer) {
+        if (tokenizer.getNumTokens() < 1)
             return null;
 
-        String code = tokens[0];
-        EventLogTokenBasedEntry entry = null;
+        EventLogTokenBasedEntry entry;
 
-        if (false)
-            ;
-        else if (code.length() == 2 && code.charAt(0) == 'S' && code.charAt(1) == 'B') // SB
-            entry = new SimulationBeginEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'S' && code.charAt(1) == 'E') // SE
-            entry = new SimulationEndEntry(chunk, entryIndex);
-        else if (code.length() == 1 && code.charAt(0) == 'E') // E
-            entry = new EventEntry(chunk, entryIndex);
-        else if (code.length() == 1 && code.charAt(0) == 'S') // S
-            entry = new SnapshotEntry(chunk, entryIndex);
-        else if (code.length() == 1 && code.charAt(0) == 'I') // I
-            entry = new IndexEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'R' && code.charAt(1) == 'F') // RF
-            entry = new ReferenceFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'R' && code.charAt(1) == 'A') // RA
-            entry = new ReferenceAddedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'R' && code.charAt(1) == 'R') // RR
-            entry = new ReferenceRemovedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'M' && code.charAt(2) == 'B') // CMB
-            entry = new ComponentMethodBeginEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'M' && code.charAt(2) == 'E') // CME
-            entry = new ComponentMethodEndEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'M' && code.charAt(1) == 'C') // MC
-            entry = new ModuleCreatedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'M' && code.charAt(1) == 'D') // MD
-            entry = new ModuleDeletedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'G' && code.charAt(1) == 'C') // GC
-            entry = new GateCreatedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'G' && code.charAt(1) == 'D') // GD
-            entry = new GateDeletedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'C') // CC
-            entry = new ConnectionCreatedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'D') // CD
-            entry = new ConnectionDeletedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'M' && code.charAt(1) == 'D' && code.charAt(2) == 'C') // MDC
-            entry = new ModuleDisplayStringChangedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'G' && code.charAt(1) == 'D' && code.charAt(2) == 'C') // GDC
-            entry = new GateDisplayStringChangedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'D' && code.charAt(2) == 'C') // CDC
-            entry = new ConnectionDisplayStringChangedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'E' && code.charAt(1) == 'D' && code.charAt(2) == 'C') // EDC
-            entry = new MessageDisplayStringChangedEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'M') // CM
-            entry = new CreateMessageEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'L') // CL
-            entry = new CloneMessageEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'D' && code.charAt(1) == 'M') // DM
-            entry = new DeleteMessageEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'E' && code.charAt(1) == 'N') // EN
-            entry = new EncapsulatePacketEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'D' && code.charAt(1) == 'E') // DE
-            entry = new DecapsulatePacketEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'B' && code.charAt(1) == 'S') // BS
-            entry = new BeginSendEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'E' && code.charAt(1) == 'S') // ES
-            entry = new EndSendEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'S' && code.charAt(1) == 'D') // SD
-            entry = new SendDirectEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'S' && code.charAt(1) == 'H') // SH
-            entry = new SendHopEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'E') // CE
-            entry = new CancelEventEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'M' && code.charAt(1) == 'F') // MF
-            entry = new ModuleFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'G' && code.charAt(1) == 'F') // GF
-            entry = new GateFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'F') // CF
-            entry = new ConnectionFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'E' && code.charAt(1) == 'F') // EF
-            entry = new MessageFoundEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'M' && code.charAt(1) == 'D' && code.charAt(2) == 'F') // MDF
-            entry = new ModuleDisplayStringFoundEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'G' && code.charAt(1) == 'D' && code.charAt(2) == 'F') // GDF
-            entry = new GateDisplayStringFoundEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'D' && code.charAt(2) == 'F') // CDF
-            entry = new ConnectionDisplayStringFoundEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'E' && code.charAt(1) == 'D' && code.charAt(2) == 'F') // EDF
-            entry = new MessageDisplayStringFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'B' && code.charAt(1) == 'U') // BU
-            entry = new BubbleEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'U' && code.charAt(2) == 'C') // CUC
-            entry = new CustomCreatedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'U' && code.charAt(2) == 'D') // CUD
-            entry = new CustomDeletedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'U' && code.charAt(2) == 'M') // CUM
-            entry = new CustomChangedEntry(chunk, entryIndex);
-        else if (code.length() == 3 && code.charAt(0) == 'C' && code.charAt(1) == 'U' && code.charAt(2) == 'F') // CUF
-            entry = new CustomFoundEntry(chunk, entryIndex);
-        else if (code.length() == 2 && code.charAt(0) == 'C' && code.charAt(1) == 'U') // CU
-            entry = new CustomEntry(chunk, entryIndex);
-        else
-            return null;
+        switch (getCode(tokenizer)) {
+            case 'S' | 'B' << 8: // SB
+                entry = new SimulationBeginEntry(chunk, entryIndex);
+                break;
+            case 'S' | 'E' << 8: // SE
+                entry = new SimulationEndEntry(chunk, entryIndex);
+                break;
+            case 'E': // E
+                entry = new EventEntry(chunk, entryIndex);
+                break;
+            case 'S': // S
+                entry = new SnapshotEntry(chunk, entryIndex);
+                break;
+            case 'I': // I
+                entry = new IndexEntry(chunk, entryIndex);
+                break;
+            case 'R' | 'F' << 8: // RF
+                entry = new ReferenceFoundEntry(chunk, entryIndex);
+                break;
+            case 'R' | 'A' << 8: // RA
+                entry = new ReferenceAddedEntry(chunk, entryIndex);
+                break;
+            case 'R' | 'R' << 8: // RR
+                entry = new ReferenceRemovedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'M' << 8 | 'B' << 16: // CMB
+                entry = new ComponentMethodBeginEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'M' << 8 | 'E' << 16: // CME
+                entry = new ComponentMethodEndEntry(chunk, entryIndex);
+                break;
+            case 'M' | 'C' << 8: // MC
+                entry = new ModuleCreatedEntry(chunk, entryIndex);
+                break;
+            case 'M' | 'D' << 8: // MD
+                entry = new ModuleDeletedEntry(chunk, entryIndex);
+                break;
+            case 'G' | 'C' << 8: // GC
+                entry = new GateCreatedEntry(chunk, entryIndex);
+                break;
+            case 'G' | 'D' << 8: // GD
+                entry = new GateDeletedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'C' << 8: // CC
+                entry = new ConnectionCreatedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'D' << 8: // CD
+                entry = new ConnectionDeletedEntry(chunk, entryIndex);
+                break;
+            case 'M' | 'D' << 8 | 'C' << 16: // MDC
+                entry = new ModuleDisplayStringChangedEntry(chunk, entryIndex);
+                break;
+            case 'G' | 'D' << 8 | 'C' << 16: // GDC
+                entry = new GateDisplayStringChangedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'D' << 8 | 'C' << 16: // CDC
+                entry = new ConnectionDisplayStringChangedEntry(chunk, entryIndex);
+                break;
+            case 'E' | 'D' << 8 | 'C' << 16: // EDC
+                entry = new MessageDisplayStringChangedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'M' << 8: // CM
+                entry = new CreateMessageEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'L' << 8: // CL
+                entry = new CloneMessageEntry(chunk, entryIndex);
+                break;
+            case 'D' | 'M' << 8: // DM
+                entry = new DeleteMessageEntry(chunk, entryIndex);
+                break;
+            case 'E' | 'N' << 8: // EN
+                entry = new EncapsulatePacketEntry(chunk, entryIndex);
+                break;
+            case 'D' | 'E' << 8: // DE
+                entry = new DecapsulatePacketEntry(chunk, entryIndex);
+                break;
+            case 'B' | 'S' << 8: // BS
+                entry = new BeginSendEntry(chunk, entryIndex);
+                break;
+            case 'E' | 'S' << 8: // ES
+                entry = new EndSendEntry(chunk, entryIndex);
+                break;
+            case 'S' | 'D' << 8: // SD
+                entry = new SendDirectEntry(chunk, entryIndex);
+                break;
+            case 'S' | 'H' << 8: // SH
+                entry = new SendHopEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'E' << 8: // CE
+                entry = new CancelEventEntry(chunk, entryIndex);
+                break;
+            case 'M' | 'F' << 8: // MF
+                entry = new ModuleFoundEntry(chunk, entryIndex);
+                break;
+            case 'G' | 'F' << 8: // GF
+                entry = new GateFoundEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'F' << 8: // CF
+                entry = new ConnectionFoundEntry(chunk, entryIndex);
+                break;
+            case 'E' | 'F' << 8: // EF
+                entry = new MessageFoundEntry(chunk, entryIndex);
+                break;
+            case 'M' | 'D' << 8 | 'F' << 16: // MDF
+                entry = new ModuleDisplayStringFoundEntry(chunk, entryIndex);
+                break;
+            case 'G' | 'D' << 8 | 'F' << 16: // GDF
+                entry = new GateDisplayStringFoundEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'D' << 8 | 'F' << 16: // CDF
+                entry = new ConnectionDisplayStringFoundEntry(chunk, entryIndex);
+                break;
+            case 'E' | 'D' << 8 | 'F' << 16: // EDF
+                entry = new MessageDisplayStringFoundEntry(chunk, entryIndex);
+                break;
+            case 'B' | 'U' << 8: // BU
+                entry = new BubbleEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'U' << 8 | 'C' << 16: // CUC
+                entry = new CustomCreatedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'U' << 8 | 'D' << 16: // CUD
+                entry = new CustomDeletedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'U' << 8 | 'M' << 16: // CUM
+                entry = new CustomChangedEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'U' << 8 | 'F' << 16: // CUF
+                entry = new CustomFoundEntry(chunk, entryIndex);
+                break;
+            case 'C' | 'U' << 8: // CU
+                entry = new CustomEntry(chunk, entryIndex);
+                break;
+            default:
+                return null;
+        }
 
-        entry.parse(tokens, numTokens);
+        entry.parse(tokenizer);
         return entry;
     }
-}
 
+    /**
+     * Packs the characters of the entry code (the first token) into an int, codes are at most 3 characters long.
+     */
+    protected static int getCode(EventLogTokenizer tokenizer) {
+        int length = tokenizer.getTokenLength(0);
+        if (length == 0 || length > 3)
+            return -1;
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            char c = tokenizer.getTokenChar(0, i);
+            if (c > 127)
+                return -1;
+            code |= c << (8 * i);
+        }
+        return code;
+    }
+}
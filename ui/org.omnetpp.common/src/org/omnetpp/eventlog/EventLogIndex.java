@@ -1,11 +1,8 @@
 package org.omnetpp.eventlog;
 
-import java.util.TreeMap;
-
 import org.eclipse.core.runtime.Assert;
 import org.omnetpp.common.engine.BigDecimal;
-import org.omnetpp.common.engine.LineTokenizer;
-import org.omnetpp.common.engine.PStringVector;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.engine.FileReader;
 
 /**
@@ -15,8 +12,8 @@ import org.omnetpp.eventlog.engine.FileReader;
  */
 public abstract class EventLogIndex extends EventLogBase
 {
-    protected FileReader reader;
-    protected LineTokenizer tokenizer;
+    protected IFileReader reader;
+    protected EventLogTokenizer tokenizer = new EventLogTokenizer();
 
     protected long firstEventOffset = -1;
     protected long lastEventOffset = -1;
@@ -29,13 +26,13 @@ public abstract class EventLogIndex extends EventLogBase
      * Subsequent events in an eventlog file may not have subsequent event numbers,
      * therefore it is insufficient to store the file offset only in the cache.
      */
-    protected TreeMap<Long, CacheEntry> eventNumberToCacheEntryMap = new TreeMap<Long, CacheEntry>();
+    protected CacheEntryIndex.EventNumberIndex eventNumberToCacheEntryMap = new CacheEntryIndex.EventNumberIndex();
 
     /**
      * Subsequent events in an eventlog file may have the same simulation time,
      * therefore it is insufficient to store the file offset only in the cache.
      */
-    protected TreeMap<BigDecimal, CacheEntry> simulationTimeToCacheEntryMap = new TreeMap<BigDecimal, CacheEntry>();
+    protected CacheEntryIndex.SimulationTimeIndex simulationTimeToCacheEntryMap = new CacheEntryIndex.SimulationTimeIndex();
 
     protected static final class RefObject<T>
     {
@@ -46,30 +43,29 @@ public abstract class EventLogIndex extends EventLogBase
         }
     }
 
-    public EventLogIndex(FileReader reader)
+    public EventLogIndex(IFileReader reader)
     {
         this.reader = reader;
-        this.tokenizer = new LineTokenizer((int)reader.getMaxLineSize() + 1);
     }
 
     public void cacheEntry(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset) {
-        var eventNumberCacheEntry = eventNumberToCacheEntryMap.ceilingEntry(eventNumber);
-        if (eventNumberCacheEntry != null && eventNumberCacheEntry.getKey() == eventNumber)
-            eventNumberCacheEntry.getValue().include(eventNumber, simulationTime, beginOffset, endOffset);
-        else
-            eventNumberToCacheEntryMap.put(eventNumber, new CacheEntry(eventNumber, simulationTime, beginOffset, endOffset));
-        var simulationTimeCacheEntry = simulationTimeToCacheEntryMap.ceilingEntry(simulationTime);
-        if (simulationTimeCacheEntry != null && simulationTimeCacheEntry.getKey().equals(simulationTime))
-            simulationTimeCacheEntry.getValue().include(eventNumber, simulationTime, beginOffset, endOffset);
-        else
-            simulationTimeToCacheEntryMap.put(simulationTime, new CacheEntry(eventNumber, simulationTime, beginOffset, endOffset));
+        eventNumberToCacheEntryMap.put(eventNumber, simulationTime, beginOffset, endOffset);
+        simulationTimeToCacheEntryMap.put(eventNumber, simulationTime, beginOffset, endOffset);
+    }
+
+    /**
+     * Same as above, but the simulation time is given as its mantissa and scale.
+     */
+    public void cacheEntry(long eventNumber, long simulationTimeMantissa, int simulationTimeScale, long beginOffset, long endOffset) {
+        eventNumberToCacheEntryMap.put(eventNumber, beginOffset, endOffset);
+        simulationTimeToCacheEntryMap.put(eventNumber, simulationTimeMantissa, simulationTimeScale, beginOffset, endOffset);
     }
 
     /**
      * Search for the file offset based on the key with the given match kind.
      * The key is either an event number or a simulation time.
      */
-    protected final <T extends Comparable<T>> long searchForOffset(TreeMap<T, CacheEntry> map, T key, MatchKind matchKind) {
+    protected final <T extends Comparable<T>> long searchForOffset(CacheEntryIndex<T> map, T key, MatchKind matchKind) {
         T defaultValue = getKey(key, -1L, BigDecimal.getMinusOne());
         T lowerKey = defaultValue;
         T upperKey = defaultValue;
@@ -151,44 +147,37 @@ public abstract class EventLogIndex extends EventLogBase
      * Lower is less than or equal to key, while upper is greater than or equal that could theoretically be found in the eventlog file.
      * Sets found offset or returns false if the offset cannot be exactly determined.
      */
-    protected final <T> boolean cacheSearchForOffset(TreeMap<T, CacheEntry> map, T key, MatchKind matchKind, RefObject<T> lowerKey, RefObject<T> upperKey, RefObject<Long> foundOffset, RefObject<Long> lowerOffset, RefObject<Long> upperOffset) {
+    protected final <T extends Comparable<T>> boolean cacheSearchForOffset(CacheEntryIndex<T> map, T key, MatchKind matchKind, RefObject<T> lowerKey, RefObject<T> upperKey, RefObject<Long> foundOffset, RefObject<Long> lowerOffset, RefObject<Long> upperOffset) {
         ensureFirstEventAndLastEventCached();
-        T keyValue = (T)key;
-        var it = map.ceilingEntry(keyValue); // greater or equal
+        int it = map.ceilingPosition(key); // greater or equal
         // if exact match found
-        if (it != null && it.getKey().equals(keyValue)) {
-            CacheEntry cacheEntry = it.getValue();
+        if (it != -1 && map.compareKeyAt(it, key) == 0) {
             // for event numbers there can be only one exact match so we can safely return it independently of matchKind
             if (key instanceof Long) {
-                foundOffset.argValue = cacheEntry.beginOffset;
+                foundOffset.argValue = map.getBeginOffset(it);
                 return true;
             }
             else {
                 // for simulation times we must consider whether the cache entry is complete or not by looking around it
-                var itUpper = it;
-                var itLower = it;
-                itUpper = map.higherEntry(itUpper.getKey());
-                if (!itLower.equals(map.firstEntry()))
-                    itLower = map.lowerEntry(itLower.getKey());
-                else
-                    itLower = null;
+                int itUpper = it + 1 < map.size() ? it + 1 : -1;
+                int itLower = it > 0 ? it - 1 : -1;
                 // subsequent events may or may not have subsequent event numbers in the eventlog file
                 // the end offset for the nth event is less than or equal to the begin offset of the nth + 1 event
-                boolean completeBegin = itLower == null || (itLower.getValue().endOffset == cacheEntry.beginOffset || itLower.getValue().endEventNumber + 1 == cacheEntry.beginEventNumber);
-                boolean completeEnd = itUpper != null && (itUpper.getValue().beginOffset == cacheEntry.endOffset || itUpper.getValue().beginEventNumber == cacheEntry.endEventNumber + 1);
+                boolean completeBegin = itLower == -1 || (map.getEndOffset(itLower) == map.getBeginOffset(it) || map.getEndEventNumber(itLower) + 1 == map.getBeginEventNumber(it));
+                boolean completeEnd = itUpper != -1 && (map.getBeginOffset(itUpper) == map.getEndOffset(it) || map.getBeginEventNumber(itUpper) == map.getEndEventNumber(it) + 1);
                 // dispatching on match kind is required
                 switch (matchKind) {
                     case EXACT:
                         if (completeBegin && completeEnd) {
-                            Assert.isTrue(cacheEntry.beginEventNumber == cacheEntry.endEventNumber);
-                            foundOffset.argValue = cacheEntry.beginOffset;
+                            Assert.isTrue(map.getBeginEventNumber(it) == map.getEndEventNumber(it));
+                            foundOffset.argValue = map.getBeginOffset(it);
                             return true;
                         }
                         break;
                     case FIRST_OR_PREVIOUS:
                     case FIRST_OR_NEXT:
                         if (completeBegin) {
-                            foundOffset.argValue = cacheEntry.beginOffset;
+                            foundOffset.argValue = map.getBeginOffset(it);
                             return true;
                         }
                         break;
@@ -196,7 +185,7 @@ public abstract class EventLogIndex extends EventLogBase
                     case LAST_OR_PREVIOUS:
                     case LAST_OR_NEXT:
                         if (completeEnd) {
-                            foundOffset.argValue = cacheEntry.endEventBeginOffset;
+                            foundOffset.argValue = map.getEndEventBeginOffset(it);
                             return true;
                         }
                         break;
@@ -204,34 +193,31 @@ public abstract class EventLogIndex extends EventLogBase
                 // cannot exactly determine from cache
                 Assert.isTrue(key != null);
                 lowerKey.argValue = key;
-                lowerOffset.argValue = cacheEntry.beginOffset;
+                lowerOffset.argValue = map.getBeginOffset(it);
                 upperKey.argValue = key;
-                upperOffset.argValue = cacheEntry.endOffset;
+                upperOffset.argValue = map.getEndOffset(it);
                 // an event's begin offset must be returned
-                foundOffset.argValue = cacheEntry.beginOffset;
+                foundOffset.argValue = map.getBeginOffset(it);
                 return false;
             }
         }
         else {
-            // upper iterator refers to the closest element after the key
-            var itUpper = it;
-            if (itUpper != null) {
-                CacheEntry cacheEntry = itUpper.getValue();
-                upperKey.argValue = cacheEntry.getBeginKey(upperKey.argValue);
-                upperOffset.argValue = cacheEntry.beginOffset;
+            // upper position refers to the closest element after the key
+            int itUpper = it;
+            if (itUpper != -1) {
+                upperKey.argValue = map.getBeginKey(itUpper);
+                upperOffset.argValue = map.getBeginOffset(itUpper);
             }
             else {
                 upperKey.argValue = getKey(key, getLastEventNumber(), getLastSimulationTime());
                 upperOffset.argValue = reader.getFileSize(); // this has to match last event's end offset
             }
-            // lower iterator refers to the closest element before the key
-            var itLower = it;
-            if (itLower != null && !map.isEmpty() && !itLower.equals(map.firstEntry())) {
-                itLower = map.lowerEntry(itLower.getKey());
-                CacheEntry cacheEntry = itLower.getValue();
-                Assert.isTrue(cacheEntry.getEndKey(lowerKey.argValue) != null);
-                lowerKey.argValue = cacheEntry.getEndKey(lowerKey.argValue);
-                lowerOffset.argValue = cacheEntry.endOffset;
+            // lower position refers to the closest element before the key
+            int itLower = it;
+            if (itLower != -1 && itLower != 0) {
+                itLower = itLower - 1;
+                lowerKey.argValue = map.getEndKey(itLower);
+                lowerOffset.argValue = map.getEndOffset(itLower);
                 Assert.isTrue(lowerKey.argValue != null);
             }
             else {
@@ -252,17 +238,17 @@ public abstract class EventLogIndex extends EventLogBase
                         break;
                     case FIRST_OR_PREVIOUS:
                     case LAST_OR_PREVIOUS:
-                        if (itLower == null)
+                        if (itLower == -1)
                             foundOffset.argValue = -1L;
                         else
-                            foundOffset.argValue = itLower.getValue().endEventBeginOffset;
+                            foundOffset.argValue = map.getEndEventBeginOffset(itLower);
                         break;
                     case FIRST_OR_NEXT:
                     case LAST_OR_NEXT:
-                        if (itUpper == null)
+                        if (itUpper == -1)
                             foundOffset.argValue = -1L;
                         else
-                            foundOffset.argValue = itUpper.getValue().beginOffset;
+                            foundOffset.argValue = map.getBeginOffset(itUpper);
                         break;
                 }
                 return true;
@@ -400,7 +386,7 @@ public abstract class EventLogIndex extends EventLogBase
 
     protected final boolean isEventBeginOffset(long offset) {
         reader.seekTo(offset);
-        String line = reader.getNextLine();
+        CharSequence line = reader.getNextLine();
         return line != null && line.charAt(0) == 'E';
     }
 
@@ -537,7 +523,7 @@ public abstract class EventLogIndex extends EventLogBase
         result.simulationTime = BigDecimal.getMinusOne();
         reader.seekTo(readStartOffset);
 //        System.out.println("Reading to first event line from offset: " + readStartOffset + " in direction: " + (forward ? "forward" : "backward"));
-        String line;
+        CharSequence line;
         // find first "E" line, return false if none found
         while (true) {
             if (forward)
@@ -553,16 +539,14 @@ public abstract class EventLogIndex extends EventLogBase
         tokenizer.tokenize(line, (int)reader.getCurrentLineLength());
         result.lineBeginOffset = reader.getCurrentLineStartOffset();
         result.lineEndOffset = reader.getCurrentLineEndOffset();
-        int numTokens = tokenizer.numTokens();
-        PStringVector tokens = tokenizer.tokensVector();
+        int numTokens = tokenizer.getNumTokens();
         for (int i = 1; i < numTokens - 1; i += 2) {
-            String token = tokens.get(i);
-            if (token.length() != 1)
+            if (tokenizer.getTokenLength(i) != 1)
                 continue;
-            if (token.charAt(0) == '#')
-                result.eventNumber = EventLogEntry.parseEventNumber(tokens.get(i + 1));
-            else if (token.charAt(0) == 't')
-                result.simulationTime = EventLogEntry.parseSimulationTime(tokens.get(i + 1));
+            if (tokenizer.getTokenChar(i, 0) == '#')
+                result.eventNumber = tokenizer.parseLong(i + 1);
+            else if (tokenizer.getTokenChar(i, 0) == 't')
+                result.simulationTime = tokenizer.parseSimulationTime(i + 1);
         }
         if (result.eventNumber != -1) {
             Assert.isTrue(!result.simulationTime.equals(BigDecimal.getMinusOne()));
@@ -581,58 +565,4 @@ public abstract class EventLogIndex extends EventLogBase
         else
             throw new RuntimeException();
     }
-
-    /**
-     * An entry stores information for a simulation time and the corresponding event number and file offset ranges.
-     * It actually describes a range of lines in the eventlog file.
-     * The range might be temporarily smaller than what is actually present in the file for the given
-     * simulation time or event number. The range gets closer and finally reaches the exact values by subsequent search operations.
-     */
-    protected static class CacheEntry
-    {
-        public BigDecimal simulationTime = null;
-        public long beginEventNumber = -1; // begin event with simulation time
-        public long endEventNumber = -1; // end event with simulation time
-        public long beginOffset = -1; // begin offset of begin event
-        public long endEventBeginOffset = -1; // begin offset of end event
-        public long endOffset = -1; // end offset of end event
-
-        public CacheEntry(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset) {
-            this.simulationTime = simulationTime;
-            this.beginEventNumber = eventNumber;
-            this.endEventNumber = eventNumber;
-            this.beginOffset = beginOffset;
-            this.endEventBeginOffset = beginOffset;
-            this.endOffset = endOffset;
-        }
-
-        public void include(long eventNumber, BigDecimal simulationTime, long beginOffset, long endOffset) {
-            Assert.isTrue(this.simulationTime.equals(simulationTime));
-            this.beginEventNumber = Math.min(beginEventNumber, eventNumber);
-            this.endEventNumber = Math.max(endEventNumber, eventNumber);
-            this.beginOffset = Math.min(this.beginOffset, beginOffset);
-            this.endEventBeginOffset = Math.max(this.endEventBeginOffset, beginOffset);
-            this.endOffset = Math.max(this.endOffset, endOffset);
-        }
-
-        @SuppressWarnings("unchecked")
-        public <T> T getBeginKey(T key) {
-            if (key instanceof Long)
-                return (T)(Long)beginEventNumber;
-            else if (key instanceof BigDecimal)
-                return (T)simulationTime;
-            else
-                return null;
-        }
-
-        @SuppressWarnings("unchecked")
-        public <T> T getEndKey(T key) {
-            if (key instanceof Long)
-                return (T)(Long)endEventNumber;
-            else if (key instanceof BigDecimal)
-                return (T)simulationTime;
-            else
-                return null;
-        }
-    }
 }
@@ -0,0 +1,501 @@
+package org.omnetpp.eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * A persistent index of an eventlog file stored next to it in a sidecar file (the eventlog
+ * file name with an additional ".idx" extension). It contains event numbers, simulation times
+ * and file offsets of events sampled at fixed byte strides, and the locations of all index ("I")
+ * and snapshot ("S") chunks. When loaded into an EventLog, any event can be found by searching
+ * within a single stride, and the chunks don't have to be looked up by reading the file backwards.
+ *
+ * The index is valid as long as the size and the modification time of the eventlog file are
+ * unchanged. When content is appended to the eventlog file, the index can be extended by scanning
+ * the new content only. The index is built independently of the native FileReader, so it can be
+ * built in a background job while the eventlog is being used.
+ */
+public class EventLogIndexFile
+{
+    public static final String FILE_NAME_EXTENSION = ".idx";
+
+    public static final long DEFAULT_STRIDE = 64 * 1024;
+
+    public static final byte INDEX_CHUNK = 'I';
+    public static final byte SNAPSHOT_CHUNK = 'S';
+
+    protected static final long MAGIC = 0x4f50505f454c4958L; // "OPP_ELIX"
+    protected static final int VERSION = 1;
+    protected static final int CHECKSUM_LENGTH = 64 * 1024;
+    protected static final int MAX_PARSED_LINE_LENGTH = 4096;
+
+    protected long stride = DEFAULT_STRIDE;
+
+    // the state of the eventlog file when it was last scanned
+    protected long eventLogFileSize;
+    protected long eventLogFileLastModified;
+    protected long eventLogFileChecksum; // CRC32 of the beginning of the file, used to detect overwrites
+    protected long scannedOffset; // always at a line boundary, scanning continues from here when the file is appended
+    protected long nextSampleOffset; // the first event starting at or after this offset is sampled next
+
+    // sampled events ("E" lines)
+    protected int numSamples;
+    protected long[] sampleEventNumbers = new long[0];
+    protected long[] sampleSimulationTimeMantissas = new long[0];
+    protected byte[] sampleSimulationTimeScales = new byte[0];
+    protected long[] sampleBeginOffsets = new long[0];
+    protected long[] sampleLineEndOffsets = new long[0];
+
+    // index and snapshot chunks ("I" and "S" lines)
+    protected int numChunks;
+    protected byte[] chunkKinds = new byte[0];
+    protected long[] chunkEventNumbers = new long[0];
+    protected long[] chunkOffsets = new long[0];
+    protected long[] chunkPreviousSnapshotOffsets = new long[0];
+
+    public EventLogIndexFile() {
+    }
+
+    public EventLogIndexFile(long stride) {
+        this.stride = stride;
+    }
+
+    /**
+     * Returns a deep copy that can be extended independently of this index.
+     */
+    public EventLogIndexFile copy() {
+        EventLogIndexFile copy = new EventLogIndexFile(stride);
+        copy.eventLogFileSize = eventLogFileSize;
+        copy.eventLogFileLastModified = eventLogFileLastModified;
+        copy.eventLogFileChecksum = eventLogFileChecksum;
+        copy.scannedOffset = scannedOffset;
+        copy.nextSampleOffset = nextSampleOffset;
+        copy.numSamples = numSamples;
+        copy.sampleEventNumbers = Arrays.copyOf(sampleEventNumbers, numSamples);
+        copy.sampleSimulationTimeMantissas = Arrays.copyOf(sampleSimulationTimeMantissas, numSamples);
+        copy.sampleSimulationTimeScales = Arrays.copyOf(sampleSimulationTimeScales, numSamples);
+        copy.sampleBeginOffsets = Arrays.copyOf(sampleBeginOffsets, numSamples);
+        copy.sampleLineEndOffsets = Arrays.copyOf(sampleLineEndOffsets, numSamples);
+        copy.numChunks = numChunks;
+        copy.chunkKinds = Arrays.copyOf(chunkKinds, numChunks);
+        copy.chunkEventNumbers = Arrays.copyOf(chunkEventNumbers, numChunks);
+        copy.chunkOffsets = Arrays.copyOf(chunkOffsets, numChunks);
+        copy.chunkPreviousSnapshotOffsets = Arrays.copyOf(chunkPreviousSnapshotOffsets, numChunks);
+        return copy;
+    }
+
+    public static File getIndexFile(File eventLogFile) {
+        return new File(eventLogFile.getPath() + FILE_NAME_EXTENSION);
+    }
+
+    public long getStride() {
+        return stride;
+    }
+
+    public long getScannedOffset() {
+        return scannedOffset;
+    }
+
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    public long getSampleEventNumber(int i) {
+        return sampleEventNumbers[i];
+    }
+
+    public long getSampleSimulationTimeMantissa(int i) {
+        return sampleSimulationTimeMantissas[i];
+    }
+
+    public int getSampleSimulationTimeScale(int i) {
+        return sampleSimulationTimeScales[i];
+    }
+
+    public long getSampleBeginOffset(int i) {
+        return sampleBeginOffsets[i];
+    }
+
+    /**
+     * Returns the end offset of the "E" line of the sampled event, not the end of the event. This is what
+     * the cache entries of the eventlog index expect.
+     */
+    public long getSampleLineEndOffset(int i) {
+        return sampleLineEndOffsets[i];
+    }
+
+    public int getNumChunks() {
+        return numChunks;
+    }
+
+    public byte getChunkKind(int i) {
+        return chunkKinds[i];
+    }
+
+    public long getChunkEventNumber(int i) {
+        return chunkEventNumbers[i];
+    }
+
+    public long getChunkOffset(int i) {
+        return chunkOffsets[i];
+    }
+
+    /**
+     * Returns the file offset of the snapshot referred to by the index chunk, or -1 if none.
+     */
+    public long getChunkPreviousSnapshotOffset(int i) {
+        return chunkPreviousSnapshotOffsets[i];
+    }
+
+    /**
+     * Returns true if the index describes the current content of the eventlog file.
+     */
+    public boolean isUpToDate(File eventLogFile) {
+        return eventLogFile.length() == eventLogFileSize && eventLogFile.lastModified() == eventLogFileLastModified;
+    }
+
+    /**
+     * Returns true if the eventlog file was only appended since the index was built,
+     * so that the index can be extended by calling scan().
+     */
+    public boolean isExtensibleTo(File eventLogFile) throws IOException {
+        return eventLogFile.length() >= eventLogFileSize && computeChecksum(eventLogFile) == eventLogFileChecksum;
+    }
+
+    /**
+     * Scans the eventlog file from the last scanned offset to its current end, extending the index.
+     * The last incomplete line (if any) is left for the next scan.
+     */
+    public void scan(File eventLogFile, IProgressMonitor monitor) throws IOException {
+        long fileSize = eventLogFile.length();
+        long lastModified = eventLogFile.lastModified();
+        long checksum = computeChecksum(eventLogFile);
+        if (scannedOffset == 0)
+            eventLogFileChecksum = checksum;
+        byte[] buffer = new byte[1024 * 1024];
+        byte[] line = new byte[MAX_PARSED_LINE_LENGTH];
+        int lineLength = 0;
+        long lineBeginOffset = scannedOffset;
+        long offset = scannedOffset;
+        try (InputStream stream = new FileInputStream(eventLogFile)) {
+            skipFully(stream, scannedOffset);
+            while (offset < fileSize) {
+                int count = stream.read(buffer, 0, (int)Math.min(buffer.length, fileSize - offset));
+                if (count == -1)
+                    break;
+                for (int i = 0; i < count; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        long lineEndOffset = offset + i + 1;
+                        processLine(line, lineLength, lineBeginOffset, lineEndOffset);
+                        lineBeginOffset = lineEndOffset;
+                        lineLength = 0;
+                    }
+                    else if (lineLength < line.length)
+                        line[lineLength++] = b;
+                }
+                offset += count;
+                if (monitor != null) {
+                    if (monitor.isCanceled())
+                        throw new OperationCanceledException();
+                    monitor.worked(count / 1024);
+                }
+            }
+        }
+        scannedOffset = lineBeginOffset;
+        eventLogFileSize = fileSize;
+        eventLogFileLastModified = lastModified;
+    }
+
+    protected void processLine(byte[] line, int length, long beginOffset, long lineEndOffset) {
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        if (length < 2 || line[1] != ' ')
+            return;
+        byte code = line[0];
+        if (code == 'E') {
+            if (beginOffset >= nextSampleOffset) {
+                long eventNumber = -1;
+                long[] simulationTime = null;
+                for (int i = 2; i < length;) {
+                    int keyBegin = i;
+                    int keyEnd = findTokenEnd(line, keyBegin, length);
+                    int valueBegin = keyEnd + 1;
+                    int valueEnd = findTokenEnd(line, valueBegin, length);
+                    if (keyEnd - keyBegin == 1 && valueBegin < valueEnd) {
+                        if (line[keyBegin] == '#')
+                            eventNumber = parseLong(line, valueBegin, valueEnd);
+                        else if (line[keyBegin] == 't')
+                            simulationTime = parseSimulationTime(line, valueBegin, valueEnd);
+                    }
+                    if (eventNumber != -1 && simulationTime != null)
+                        break;
+                    i = valueEnd + 1;
+                }
+                if (eventNumber != -1 && simulationTime != null) {
+                    addSample(eventNumber, simulationTime[0], (int)simulationTime[1], beginOffset, lineEndOffset);
+                    nextSampleOffset = (beginOffset / stride + 1) * stride;
+                }
+            }
+        }
+        else if (code == INDEX_CHUNK || code == SNAPSHOT_CHUNK) {
+            long fileOffset = -1;
+            long previousSnapshotFileOffset = -1;
+            long eventNumber = -1;
+            for (int i = 2; i < length;) {
+                int keyBegin = i;
+                int keyEnd = findTokenEnd(line, keyBegin, length);
+                int valueBegin = keyEnd + 1;
+                int valueEnd = findTokenEnd(line, valueBegin, length);
+                if (keyEnd - keyBegin == 1 && valueBegin < valueEnd) {
+                    switch (line[keyBegin]) {
+                        case 'f': fileOffset = parseLong(line, valueBegin, valueEnd); break;
+                        case 's': previousSnapshotFileOffset = parseLong(line, valueBegin, valueEnd); break;
+                        case '#': eventNumber = parseLong(line, valueBegin, valueEnd); break;
+                    }
+                }
+                i = valueEnd + 1;
+            }
+            // file offsets written into the file must be shifted to be able to handle truncated files (see EventLog.parseIndicesAndSnapshots)
+            long previousSnapshotOffset = -1;
+            if (code == INDEX_CHUNK && fileOffset != -1 && previousSnapshotFileOffset != -1) {
+                previousSnapshotOffset = beginOffset - fileOffset + previousSnapshotFileOffset;
+                if (previousSnapshotOffset < 0)
+                    previousSnapshotOffset = -1;
+            }
+            if (eventNumber != -1)
+                addChunk(code, eventNumber, beginOffset, previousSnapshotOffset);
+        }
+    }
+
+    protected void addSample(long eventNumber, long simulationTimeMantissa, int simulationTimeScale, long beginOffset, long lineEndOffset) {
+        if (numSamples == sampleEventNumbers.length) {
+            int capacity = Math.max(1024, numSamples * 2);
+            sampleEventNumbers = Arrays.copyOf(sampleEventNumbers, capacity);
+            sampleSimulationTimeMantissas = Arrays.copyOf(sampleSimulationTimeMantissas, capacity);
+            sampleSimulationTimeScales = Arrays.copyOf(sampleSimulationTimeScales, capacity);
+            sampleBeginOffsets = Arrays.copyOf(sampleBeginOffsets, capacity);
+            sampleLineEndOffsets = Arrays.copyOf(sampleLineEndOffsets, capacity);
+        }
+        sampleEventNumbers[numSamples] = eventNumber;
+        sampleSimulationTimeMantissas[numSamples] = simulationTimeMantissa;
+        sampleSimulationTimeScales[numSamples] = (byte)simulationTimeScale;
+        sampleBeginOffsets[numSamples] = beginOffset;
+        sampleLineEndOffsets[numSamples] = lineEndOffset;
+        numSamples++;
+    }
+
+    protected void addChunk(byte kind, long eventNumber, long offset, long previousSnapshotOffset) {
+        if (numChunks == chunkKinds.length) {
+            int capacity = Math.max(64, numChunks * 2);
+            chunkKinds = Arrays.copyOf(chunkKinds, capacity);
+            chunkEventNumbers = Arrays.copyOf(chunkEventNumbers, capacity);
+            chunkOffsets = Arrays.copyOf(chunkOffsets, capacity);
+            chunkPreviousSnapshotOffsets = Arrays.copyOf(chunkPreviousSnapshotOffsets, capacity);
+        }
+        chunkKinds[numChunks] = kind;
+        chunkEventNumbers[numChunks] = eventNumber;
+        chunkOffsets[numChunks] = offset;
+        chunkPreviousSnapshotOffsets[numChunks] = previousSnapshotOffset;
+        numChunks++;
+    }
+
+    /**
+     * Reads the index from the given file. Returns null if the file does not exist,
+     * or it has a different format or version.
+     */
+    public static EventLogIndexFile read(File indexFile) {
+        if (!indexFile.isFile())
+            return null;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 64 * 1024))) {
+            if (stream.readLong() != MAGIC || stream.readInt() != VERSION)
+                return null;
+            EventLogIndexFile index = new EventLogIndexFile(stream.readLong());
+            index.eventLogFileSize = stream.readLong();
+            index.eventLogFileLastModified = stream.readLong();
+            index.eventLogFileChecksum = stream.readLong();
+            index.scannedOffset = stream.readLong();
+            index.nextSampleOffset = stream.readLong();
+            int numSamples = stream.readInt();
+            for (int i = 0; i < numSamples; i++)
+                index.addSample(stream.readLong(), stream.readLong(), stream.readByte(), stream.readLong(), stream.readLong());
+            int numChunks = stream.readInt();
+            for (int i = 0; i < numChunks; i++)
+                index.addChunk(stream.readByte(), stream.readLong(), stream.readLong(), stream.readLong());
+            return index;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index into the given file. The file is replaced atomically, so concurrent readers
+     * never see a partially written index.
+     */
+    public void write(File indexFile) throws IOException {
+        File temporaryFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 64 * 1024))) {
+            stream.writeLong(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeLong(stride);
+            stream.writeLong(eventLogFileSize);
+            stream.writeLong(eventLogFileLastModified);
+            stream.writeLong(eventLogFileChecksum);
+            stream.writeLong(scannedOffset);
+            stream.writeLong(nextSampleOffset);
+            stream.writeInt(numSamples);
+            for (int i = 0; i < numSamples; i++) {
+                stream.writeLong(sampleEventNumbers[i]);
+                stream.writeLong(sampleSimulationTimeMantissas[i]);
+                stream.writeByte(sampleSimulationTimeScales[i]);
+                stream.writeLong(sampleBeginOffsets[i]);
+                stream.writeLong(sampleLineEndOffsets[i]);
+            }
+            stream.writeInt(numChunks);
+            for (int i = 0; i < numChunks; i++) {
+                stream.writeByte(chunkKinds[i]);
+                stream.writeLong(chunkEventNumbers[i]);
+                stream.writeLong(chunkOffsets[i]);
+                stream.writeLong(chunkPreviousSnapshotOffsets[i]);
+            }
+        }
+        Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Creates a background job that builds (or extends) the index of the given eventlog file and
+     * writes it into the sidecar file. The given index is not modified, the result is passed to
+     * the callback from the job's thread. If the eventlog file cannot be read, null is passed.
+     */
+    public static Job createBuildJob(File eventLogFile, EventLogIndexFile index, java.util.function.Consumer<EventLogIndexFile> callback) {
+        Job job = new Job("Indexing " + eventLogFile.getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    EventLogIndexFile result = index == null || !index.isExtensibleTo(eventLogFile) ? new EventLogIndexFile() : index.copy();
+                    long remaining = eventLogFile.length() - result.scannedOffset;
+                    monitor.beginTask(getName(), (int)Math.max(1, remaining / 1024));
+                    result.scan(eventLogFile, monitor);
+                    try {
+                        result.write(getIndexFile(eventLogFile));
+                    }
+                    catch (IOException e) {
+                        // the directory may be read-only, the index is still usable in memory
+                    }
+                    if (callback != null)
+                        callback.accept(result);
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                catch (IOException e) {
+                    if (callback != null)
+                        callback.accept(null);
+                    return Status.CANCEL_STATUS;
+                }
+                finally {
+                    monitor.done();
+                }
+            }
+        };
+        job.setSystem(true);
+        job.setPriority(Job.DECORATE);
+        return job;
+    }
+
+    protected static long computeChecksum(File eventLogFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(eventLogFile, "r")) {
+            byte[] bytes = new byte[(int)Math.min(CHECKSUM_LENGTH, file.length())];
+            file.readFully(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return crc.getValue();
+        }
+    }
+
+    protected static void skipFully(InputStream stream, long count) throws IOException {
+        while (count > 0) {
+            long skipped = stream.skip(count);
+            if (skipped <= 0)
+                throw new IOException("Unexpected end of file");
+            count -= skipped;
+        }
+    }
+
+    protected static int findTokenEnd(byte[] line, int begin, int length) {
+        int i = begin;
+        while (i < length && line[i] != ' ')
+            i++;
+        return i;
+    }
+
+    protected static long parseLong(byte[] line, int begin, int end) {
+        boolean negative = line[begin] == '-';
+        long value = 0;
+        for (int i = negative ? begin + 1 : begin; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a plain decimal number into a normalized mantissa and scale pair as BigDecimal does,
+     * returns null if the token is not a plain decimal number.
+     */
+    protected static long[] parseSimulationTime(byte[] line, int begin, int end) {
+        boolean negative = line[begin] == '-';
+        long mantissa = 0;
+        int scale = 0;
+        int numDigits = 0;
+        boolean fraction = false;
+        for (int i = negative ? begin + 1 : begin; i < end; i++) {
+            byte b = line[i];
+            if (b == '.' && !fraction)
+                fraction = true;
+            else if ('0' <= b && b <= '9') {
+                // drop digits that cannot be represented, like BigDecimal does
+                if (numDigits < 18 && scale > -18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0)
+                        numDigits++;
+                    if (fraction)
+                        scale--;
+                }
+                else if (!fraction)
+                    return null;
+            }
+            else
+                return null;
+        }
+        if (mantissa == 0)
+            scale = 0;
+        while (scale < 0 && mantissa % 10 == 0) {
+            mantissa /= 10;
+            scale++;
+        }
+        return new long[] { negative ? -mantissa : mantissa, scale };
+    }
+}
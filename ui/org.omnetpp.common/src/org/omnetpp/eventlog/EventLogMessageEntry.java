@@ -20,8 +20,8 @@ public class EventLogMessageEntry extends EventLogEntry
         return text;
     }
 
-    public void parse(String line, int length) {
-        text = line.substring(2);
+    public void parse(CharSequence line, int length) {
+        text = line.subSequence(2, line.length()).toString();
     }
 
     @Override
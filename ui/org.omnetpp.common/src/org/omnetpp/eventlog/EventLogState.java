@@ -0,0 +1,193 @@
+package org.omnetpp.eventlog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.omnetpp.common.util.Pair;
+import org.omnetpp.eventlog.entry.ConnectionDeletedEntry;
+import org.omnetpp.eventlog.entry.ConnectionDescriptionEntry;
+import org.omnetpp.eventlog.entry.ConnectionDisplayStringChangedEntry;
+import org.omnetpp.eventlog.entry.CustomDeletedEntry;
+import org.omnetpp.eventlog.entry.CustomDescriptionEntry;
+import org.omnetpp.eventlog.entry.GateDeletedEntry;
+import org.omnetpp.eventlog.entry.GateDescriptionEntry;
+import org.omnetpp.eventlog.entry.GateDisplayStringChangedEntry;
+import org.omnetpp.eventlog.entry.ModuleDeletedEntry;
+import org.omnetpp.eventlog.entry.ModuleDescriptionEntry;
+import org.omnetpp.eventlog.entry.ModuleDisplayStringChangedEntry;
+
+/**
+ * The modules, gates, connections and custom objects that exist right after an event, along with
+ * their current display strings and content. Unlike the EventLogEntryCache, deleted entities are
+ * removed and only the last display string change is kept, so the state is what the simulation
+ * had at that point. States are built by the EventLogStateCache, they must not be modified afterwards.
+ */
+public class EventLogState
+{
+    protected long eventNumber; // the state is after this event, -1 means before the first event
+
+    protected HashMap<Integer, ModuleDescriptionEntry> moduleIdToModuleDescriptionEntryMap;
+    protected HashMap<Integer, ModuleDisplayStringChangedEntry> moduleIdToModuleDisplayStringChangedEntryMap;
+
+    protected HashMap<Pair<Integer, Integer>, GateDescriptionEntry> moduleIdAndGateIdToGateDescriptionEntryMap;
+    protected HashMap<Pair<Integer, Integer>, GateDisplayStringChangedEntry> moduleIdAndGateIdToGateDisplayStringChangedEntryMap;
+
+    protected HashMap<Pair<Integer, Integer>, ConnectionDescriptionEntry> moduleIdAndGateIdToConnectionDescriptionEntryMap;
+    protected HashMap<Pair<Integer, Integer>, ConnectionDisplayStringChangedEntry> moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap;
+
+    protected HashMap<Pair<String, Long>, CustomDescriptionEntry> typeAndKeyToCustomDescriptionEntryMap; // the last created or changed entry
+
+    public EventLogState(long eventNumber) {
+        this.eventNumber = eventNumber;
+        moduleIdToModuleDescriptionEntryMap = new HashMap<Integer, ModuleDescriptionEntry>();
+        moduleIdToModuleDisplayStringChangedEntryMap = new HashMap<Integer, ModuleDisplayStringChangedEntry>();
+        moduleIdAndGateIdToGateDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, GateDescriptionEntry>();
+        moduleIdAndGateIdToGateDisplayStringChangedEntryMap = new HashMap<Pair<Integer, Integer>, GateDisplayStringChangedEntry>();
+        moduleIdAndGateIdToConnectionDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDescriptionEntry>();
+        moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDisplayStringChangedEntry>();
+        typeAndKeyToCustomDescriptionEntryMap = new HashMap<Pair<String, Long>, CustomDescriptionEntry>();
+    }
+
+    /**
+     * Creates a copy of the other state that can be advanced to a later event.
+     */
+    public EventLogState(EventLogState other, long eventNumber) {
+        this.eventNumber = eventNumber;
+        moduleIdToModuleDescriptionEntryMap = new HashMap<Integer, ModuleDescriptionEntry>(other.moduleIdToModuleDescriptionEntryMap);
+        moduleIdToModuleDisplayStringChangedEntryMap = new HashMap<Integer, ModuleDisplayStringChangedEntry>(other.moduleIdToModuleDisplayStringChangedEntryMap);
+        moduleIdAndGateIdToGateDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, GateDescriptionEntry>(other.moduleIdAndGateIdToGateDescriptionEntryMap);
+        moduleIdAndGateIdToGateDisplayStringChangedEntryMap = new HashMap<Pair<Integer, Integer>, GateDisplayStringChangedEntry>(other.moduleIdAndGateIdToGateDisplayStringChangedEntryMap);
+        moduleIdAndGateIdToConnectionDescriptionEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDescriptionEntry>(other.moduleIdAndGateIdToConnectionDescriptionEntryMap);
+        moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap = new HashMap<Pair<Integer, Integer>, ConnectionDisplayStringChangedEntry>(other.moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap);
+        typeAndKeyToCustomDescriptionEntryMap = new HashMap<Pair<String, Long>, CustomDescriptionEntry>(other.typeAndKeyToCustomDescriptionEntryMap);
+    }
+
+    public long getEventNumber() {
+        return eventNumber;
+    }
+
+    // modules
+
+    public ModuleDescriptionEntry getModuleDescriptionEntry(int moduleId) {
+        return moduleIdToModuleDescriptionEntryMap.get(moduleId);
+    }
+
+    public ArrayList<ModuleDescriptionEntry> getModuleDescriptionEntries() {
+        return new ArrayList<ModuleDescriptionEntry>(moduleIdToModuleDescriptionEntryMap.values());
+    }
+
+    public int getNumModules() {
+        return moduleIdToModuleDescriptionEntryMap.size();
+    }
+
+    public boolean containsModule(int moduleId) {
+        return moduleIdToModuleDescriptionEntryMap.containsKey(moduleId);
+    }
+
+    /**
+     * Returns the current display string of the module, or null if it has never been set.
+     */
+    public String getModuleDisplayString(int moduleId) {
+        ModuleDisplayStringChangedEntry moduleDisplayStringChangedEntry = moduleIdToModuleDisplayStringChangedEntryMap.get(moduleId);
+        return moduleDisplayStringChangedEntry != null ? moduleDisplayStringChangedEntry.displayString : null;
+    }
+
+    // gates
+
+    public GateDescriptionEntry getGateDescriptionEntry(int moduleId, int gateId) {
+        return moduleIdAndGateIdToGateDescriptionEntryMap.get(new Pair<Integer, Integer>(moduleId, gateId));
+    }
+
+    public String getGateDisplayString(int moduleId, int gateId) {
+        GateDisplayStringChangedEntry gateDisplayStringChangedEntry = moduleIdAndGateIdToGateDisplayStringChangedEntryMap.get(new Pair<Integer, Integer>(moduleId, gateId));
+        return gateDisplayStringChangedEntry != null ? gateDisplayStringChangedEntry.displayString : null;
+    }
+
+    // connections
+
+    public ConnectionDescriptionEntry getConnectionDescriptionEntry(int sourceModuleId, int sourceGateId) {
+        return moduleIdAndGateIdToConnectionDescriptionEntryMap.get(new Pair<Integer, Integer>(sourceModuleId, sourceGateId));
+    }
+
+    public ArrayList<ConnectionDescriptionEntry> getConnectionDescriptionEntries() {
+        return new ArrayList<ConnectionDescriptionEntry>(moduleIdAndGateIdToConnectionDescriptionEntryMap.values());
+    }
+
+    public String getConnectionDisplayString(int sourceModuleId, int sourceGateId) {
+        ConnectionDisplayStringChangedEntry connectionDisplayStringChangedEntry = moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap.get(new Pair<Integer, Integer>(sourceModuleId, sourceGateId));
+        return connectionDisplayStringChangedEntry != null ? connectionDisplayStringChangedEntry.displayString : null;
+    }
+
+    // custom
+
+    public CustomDescriptionEntry getCustomDescriptionEntry(String type, long key) {
+        return typeAndKeyToCustomDescriptionEntryMap.get(new Pair<String, Long>(type, key));
+    }
+
+    /**
+     * Returns the current content of the custom object, or null if it doesn't exist.
+     */
+    public String getCustomContent(String type, long key) {
+        CustomDescriptionEntry customDescriptionEntry = getCustomDescriptionEntry(type, key);
+        return customDescriptionEntry != null ? customDescriptionEntry.content : null;
+    }
+
+    /**
+     * Updates the state with an eventlog entry, entries that don't change the state are ignored.
+     */
+    protected void apply(EventLogEntry eventLogEntry) {
+        // module
+        if (eventLogEntry instanceof ModuleDescriptionEntry) {
+            ModuleDescriptionEntry moduleDescriptionEntry = (ModuleDescriptionEntry)eventLogEntry;
+            moduleIdToModuleDescriptionEntryMap.put(moduleDescriptionEntry.moduleId, moduleDescriptionEntry);
+        }
+        else if (eventLogEntry instanceof ModuleDeletedEntry) {
+            ModuleDeletedEntry moduleDeletedEntry = (ModuleDeletedEntry)eventLogEntry;
+            moduleIdToModuleDescriptionEntryMap.remove(moduleDeletedEntry.moduleId);
+            moduleIdToModuleDisplayStringChangedEntryMap.remove(moduleDeletedEntry.moduleId);
+        }
+        else if (eventLogEntry instanceof ModuleDisplayStringChangedEntry) {
+            ModuleDisplayStringChangedEntry moduleDisplayStringChangedEntry = (ModuleDisplayStringChangedEntry)eventLogEntry;
+            moduleIdToModuleDisplayStringChangedEntryMap.put(moduleDisplayStringChangedEntry.moduleId, moduleDisplayStringChangedEntry);
+        }
+        // gate
+        else if (eventLogEntry instanceof GateDescriptionEntry) {
+            GateDescriptionEntry gateDescriptionEntry = (GateDescriptionEntry)eventLogEntry;
+            moduleIdAndGateIdToGateDescriptionEntryMap.put(new Pair<Integer, Integer>(gateDescriptionEntry.moduleId, gateDescriptionEntry.gateId), gateDescriptionEntry);
+        }
+        else if (eventLogEntry instanceof GateDeletedEntry) {
+            GateDeletedEntry gateDeletedEntry = (GateDeletedEntry)eventLogEntry;
+            Pair<Integer, Integer> key = new Pair<Integer, Integer>(gateDeletedEntry.moduleId, gateDeletedEntry.gateId);
+            moduleIdAndGateIdToGateDescriptionEntryMap.remove(key);
+            moduleIdAndGateIdToGateDisplayStringChangedEntryMap.remove(key);
+        }
+        else if (eventLogEntry instanceof GateDisplayStringChangedEntry) {
+            GateDisplayStringChangedEntry gateDisplayStringChangedEntry = (GateDisplayStringChangedEntry)eventLogEntry;
+            moduleIdAndGateIdToGateDisplayStringChangedEntryMap.put(new Pair<Integer, Integer>(gateDisplayStringChangedEntry.moduleId, gateDisplayStringChangedEntry.gateId), gateDisplayStringChangedEntry);
+        }
+        // connection
+        else if (eventLogEntry instanceof ConnectionDescriptionEntry) {
+            ConnectionDescriptionEntry connectionDescriptionEntry = (ConnectionDescriptionEntry)eventLogEntry;
+            moduleIdAndGateIdToConnectionDescriptionEntryMap.put(new Pair<Integer, Integer>(connectionDescriptionEntry.sourceModuleId, connectionDescriptionEntry.sourceGateId), connectionDescriptionEntry);
+        }
+        else if (eventLogEntry instanceof ConnectionDeletedEntry) {
+            ConnectionDeletedEntry connectionDeletedEntry = (ConnectionDeletedEntry)eventLogEntry;
+            Pair<Integer, Integer> key = new Pair<Integer, Integer>(connectionDeletedEntry.sourceModuleId, connectionDeletedEntry.sourceGateId);
+            moduleIdAndGateIdToConnectionDescriptionEntryMap.remove(key);
+            moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap.remove(key);
+        }
+        else if (eventLogEntry instanceof ConnectionDisplayStringChangedEntry) {
+            ConnectionDisplayStringChangedEntry connectionDisplayStringChangedEntry = (ConnectionDisplayStringChangedEntry)eventLogEntry;
+            moduleIdAndGateIdToConnectionDisplayStringChangedEntryMap.put(new Pair<Integer, Integer>(connectionDisplayStringChangedEntry.sourceModuleId, connectionDisplayStringChangedEntry.sourceGateId), connectionDisplayStringChangedEntry);
+        }
+        // custom
+        else if (eventLogEntry instanceof CustomDescriptionEntry) {
+            CustomDescriptionEntry customDescriptionEntry = (CustomDescriptionEntry)eventLogEntry;
+            typeAndKeyToCustomDescriptionEntryMap.put(new Pair<String, Long>(customDescriptionEntry.type, customDescriptionEntry.key), customDescriptionEntry);
+        }
+        else if (eventLogEntry instanceof CustomDeletedEntry) {
+            CustomDeletedEntry customDeletedEntry = (CustomDeletedEntry)eventLogEntry;
+            typeAndKeyToCustomDescriptionEntryMap.remove(new Pair<String, Long>(customDeletedEntry.type, customDeletedEntry.key));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.omnetpp.eventlog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.omnetpp.eventlog.engine.FileReader;
+import org.omnetpp.eventlog.entry.ReferenceEntry;
+
+/**
+ * Reconstructs the state of the simulation right after an arbitrary event. The state is started from
+ * the closest earlier materialized state, or from the closest index or snapshot before the event, whichever
+ * requires less work, and the eventlog entries of the remaining events are replayed on top of it. Indices
+ * and snapshots are used through their entry references, so only the referenced events are parsed. The most
+ * recently used states are kept, so that jumping back and forth and moving forward step by step are cheap.
+ */
+public class EventLogStateCache
+{
+    protected static final int MAXIMUM_NUMBER_OF_STATES = 16;
+
+    protected EventLog eventLog;
+
+    protected LinkedHashMap<Long, EventLogState> eventNumberToStateMap = new LinkedHashMap<Long, EventLogState>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, EventLogState> eldest) {
+            return size() > MAXIMUM_NUMBER_OF_STATES;
+        }
+    };
+
+    public EventLogStateCache(EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Returns the state right after the given event, that is all entries of the event are applied.
+     * Event numbers missing from the eventlog are resolved to the closest earlier event.
+     */
+    // LONG RUNNING OPERATION
+    public EventLogState getState(long eventNumber) {
+        EventLogState state = eventNumberToStateMap.get(eventNumber);
+        if (state == null) {
+            // the closest earlier materialized state
+            EventLogState previousState = null;
+            for (EventLogState cachedState : eventNumberToStateMap.values())
+                if (cachedState.getEventNumber() < eventNumber && (previousState == null || cachedState.getEventNumber() > previousState.getEventNumber()))
+                    previousState = cachedState;
+            // the closest index or snapshot, they describe the state before their event
+            IChunk chunk = getChunk(eventNumber);
+            IEvent event;
+            if (chunk != null && (previousState == null || previousState.getEventNumber() < chunk.getEventNumber() - 1)) {
+                state = new EventLogState(chunk.getEventNumber() - 1);
+                applyReferenceEntries(state, chunk instanceof Index ? ((Index)chunk).getReferenceFoundEntries() : ((Snapshot)chunk).getReferenceFoundEntries());
+                event = eventLog.getEventForEventNumber(chunk.getEventNumber());
+            }
+            else if (previousState != null && previousState.getEventNumber() != -1) {
+                state = new EventLogState(previousState, previousState.getEventNumber());
+                event = eventLog.getEventForEventNumber(previousState.getEventNumber()).getNextEvent();
+            }
+            else {
+                state = new EventLogState(-1);
+                event = eventLog.getFirstEvent();
+            }
+            replayEvents(state, event, eventNumber);
+            eventNumberToStateMap.put(eventNumber, state);
+        }
+        return state;
+    }
+
+    /**
+     * Drops the states that might have been changed by the file change.
+     */
+    public void synchronize(int change, long firstAppendedEventNumber) {
+        switch (change) {
+            case FileReader.FileChange.OVERWRITTEN:
+                clear();
+                break;
+            case FileReader.FileChange.APPENDED:
+                if (firstAppendedEventNumber == -1)
+                    clear();
+                else {
+                    // the last event might have been extended, and states requested beyond it are now incomplete
+                    for (Iterator<Long> it = eventNumberToStateMap.keySet().iterator(); it.hasNext();)
+                        if (it.next() >= firstAppendedEventNumber)
+                            it.remove();
+                }
+                break;
+        }
+    }
+
+    public void clear() {
+        eventNumberToStateMap.clear();
+    }
+
+    /**
+     * Returns the last index or snapshot not after the given event, the one with the larger event number,
+     * or the snapshot if they are at the same event, because snapshots don't need to be merged.
+     */
+    protected IChunk getChunk(long eventNumber) {
+        var indexEntry = eventLog.eventNumberToIndexMap.floorEntry(eventNumber);
+        var snapshotEntry = eventLog.eventNumberToSnapshotMap.floorEntry(eventNumber);
+        if (snapshotEntry != null && (indexEntry == null || snapshotEntry.getKey() >= indexEntry.getKey()))
+            return snapshotEntry.getValue();
+        else
+            return indexEntry != null ? indexEntry.getValue() : null;
+    }
+
+    protected void applyReferenceEntries(EventLogState state, ArrayList<ReferenceEntry> referenceEntries) {
+        // later changes must override earlier ones
+        referenceEntries = new ArrayList<ReferenceEntry>(referenceEntries);
+        referenceEntries.sort(Comparator.comparingLong((ReferenceEntry referenceEntry) -> referenceEntry.eventNumber).thenComparingInt(referenceEntry -> referenceEntry.beginEntryIndex));
+        for (ReferenceEntry referenceEntry : referenceEntries) {
+            IEvent event = eventLog.getEventForEventNumber(referenceEntry.eventNumber);
+            if (event != null) {
+                for (int i = referenceEntry.beginEntryIndex; i <= referenceEntry.endEntryIndex && i < event.getNumEventLogEntries(); i++)
+                    state.apply(event.getEventLogEntry(i));
+                eventLog.progress();
+            }
+        }
+    }
+
+    /**
+     * Applies the entries of the events starting from the given one up to and including the given event number.
+     */
+    // LONG RUNNING OPERATION
+    protected void replayEvents(EventLogState state, IEvent event, long eventNumber) {
+        while (event != null && event.getEventNumber() <= eventNumber) {
+            for (int i = 0; i < event.getNumEventLogEntries(); i++)
+                state.apply(event.getEventLogEntry(i));
+            state.eventNumber = event.getEventNumber();
+            event = event.getNextEvent();
+            eventLog.progress();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package org.omnetpp.eventlog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * A summary of the events and message dependencies of an eventlog file for drawing it when individual
+ * events would be smaller than a pixel. The event numbers are stored per module, and the message
+ * dependencies are stored per cause and consequence module pair, both in increasing event number order.
+ * The number of events or message dependencies in any event number range is computed by two binary
+ * searches, so the summary can be queried at any resolution, and the cost of drawing depends on the
+ * number of pixels, modules and module pairs only, not on the number of events.
+ *
+ * The summary is derived from the message dependency graph, optionally restricted to a set of events.
+ * A message dependency is counted at its cause event.
+ *
+ * The summary is built by a background job. When the graph is extended, the job extends a copy of the
+ * summary with the appended events instead of building it again, so a summary in use is never changed
+ * and it can be read from any thread.
+ */
+public class EventLogSummary
+{
+    /**
+     * The message dependencies between two modules, either message sends or message reuses only.
+     */
+    public static class ModulePair
+    {
+        protected int causeModuleId;
+        protected int consequenceModuleId;
+        protected boolean messageReuse;
+        protected int numCauseEventNumbers;
+        protected int numSortedCauseEventNumbers; // the ones added later are sorted when the summary is complete
+        protected long[] causeEventNumbers = new long[4]; // sorted, an event number is repeated for each message dependency
+
+        public ModulePair(int causeModuleId, int consequenceModuleId, boolean messageReuse) {
+            this.causeModuleId = causeModuleId;
+            this.consequenceModuleId = consequenceModuleId;
+            this.messageReuse = messageReuse;
+        }
+
+        public int getCauseModuleId() {
+            return causeModuleId;
+        }
+
+        public int getConsequenceModuleId() {
+            return consequenceModuleId;
+        }
+
+        public boolean isMessageReuse() {
+            return messageReuse;
+        }
+
+        /**
+         * Returns the number of message dependencies with a cause event in the range [beginEventNumber, endEventNumber).
+         */
+        public int getNumMessageDependencies(long beginEventNumber, long endEventNumber) {
+            return countRange(causeEventNumbers, numCauseEventNumbers, beginEventNumber, endEventNumber);
+        }
+
+        protected ModulePair copy() {
+            ModulePair copy = new ModulePair(causeModuleId, consequenceModuleId, messageReuse);
+            copy.numCauseEventNumbers = numCauseEventNumbers;
+            copy.numSortedCauseEventNumbers = numSortedCauseEventNumbers;
+            copy.causeEventNumbers = Arrays.copyOf(causeEventNumbers, Math.max(4, numCauseEventNumbers));
+            return copy;
+        }
+
+        protected void add(long causeEventNumber) {
+            if (numCauseEventNumbers == causeEventNumbers.length)
+                causeEventNumbers = Arrays.copyOf(causeEventNumbers, 2 * numCauseEventNumbers);
+            causeEventNumbers[numCauseEventNumbers++] = causeEventNumber;
+        }
+
+        protected void remove(long causeEventNumber) {
+            int index = lowerBound(causeEventNumbers, numCauseEventNumbers, causeEventNumber);
+            System.arraycopy(causeEventNumbers, index + 1, causeEventNumbers, index, numCauseEventNumbers - index - 1);
+            numCauseEventNumbers--;
+            numSortedCauseEventNumbers--;
+        }
+
+        /**
+         * Sorts the causes added since the last call. Causes are added in consequence order, so the same
+         * cause may precede an earlier one, but usually they are almost in order.
+         */
+        protected void sortAdded() {
+            int numSorted = numSortedCauseEventNumbers;
+            if (numSorted < numCauseEventNumbers) {
+                Arrays.sort(causeEventNumbers, numSorted, numCauseEventNumbers);
+                if (numSorted != 0 && causeEventNumbers[numSorted] < causeEventNumbers[numSorted - 1])
+                    Arrays.sort(causeEventNumbers, 0, numCauseEventNumbers);
+                numSortedCauseEventNumbers = numCauseEventNumbers;
+            }
+        }
+    }
+
+    protected MessageDependencyGraph graph;
+    protected boolean filtered; // restricted to the events of a bitmap
+    protected long lastEventNumber; // the events of the graph are summarized up to this one
+    protected int numGraphEvents; // the number of summarized events in the graph including the filtered out ones
+    protected boolean lastGraphEventIncluded; // the last summarized event of the graph is not filtered out
+
+    protected int numEvents;
+    protected long[] eventNumbers = new long[1024]; // sorted
+
+    protected int[] moduleIds = new int[0]; // sorted
+    protected HashMap<Integer, Integer> moduleIdToIndexMap = new HashMap<Integer, Integer>(); // in the order of the first event
+    protected int[] moduleEventCounts = new int[0];
+    protected long[][] moduleEventNumbers = new long[0][]; // sorted per module
+
+    protected ArrayList<ModulePair> modulePairs = new ArrayList<ModulePair>();
+    protected HashMap<Long, ModulePair> keyToSendModulePairMap = new HashMap<Long, ModulePair>();
+    protected HashMap<Long, ModulePair> keyToReuseModulePairMap = new HashMap<Long, ModulePair>();
+
+    /**
+     * Builds the summary of the events in the graph up to the given event number, or only the events in
+     * the given bitmap if it's not null. Message dependencies are included if both of their ends are included.
+     */
+    // LONG RUNNING OPERATION
+    public EventLogSummary(MessageDependencyGraph graph, EventNumberBitmap events, long lastEventNumber, IProgressMonitor monitor) {
+        this.graph = graph;
+        this.filtered = events != null;
+        this.lastEventNumber = lastEventNumber;
+        addGraphEvents(events, 0, monitor);
+    }
+
+    protected EventLogSummary() {
+    }
+
+    /**
+     * Returns a job that extends a copy of the given summary, or builds a new one if it's null or it cannot
+     * be extended, see extend(). The bitmap must not be changed while the job is running. The callback is
+     * called from the job thread with the new summary.
+     */
+    public static Job createBuildJob(File eventLogFile, EventLogSummary summary, MessageDependencyGraph graph, EventNumberBitmap events, long lastEventNumber, Consumer<EventLogSummary> callback) {
+        Job job = new Job("Summarizing events of " + eventLogFile.getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    monitor.beginTask(getName(), Math.max(1, (graph.getNumEvents() - (summary == null ? 0 : summary.numGraphEvents)) / MessageDependencyGraph.PROGRESS_LINE_COUNT));
+                    if (summary == null)
+                        callback.accept(new EventLogSummary(graph, events, lastEventNumber, monitor));
+                    else
+                        callback.accept(summary.extend(graph, events, lastEventNumber, monitor));
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                finally {
+                    monitor.done();
+                }
+            }
+        };
+        job.setPriority(Job.DECORATE);
+        return job;
+    }
+
+    /**
+     * Returns the summary of the given graph built by extending a copy of this one, if the graph is an
+     * extension of the graph of this summary. Only the last summarized event is summarized again, because
+     * the append may have extended it, so the other summarized events must be unchanged in the bitmap.
+     * Otherwise builds a new summary.
+     */
+    // LONG RUNNING OPERATION
+    public EventLogSummary extend(MessageDependencyGraph graph, EventNumberBitmap events, long lastEventNumber, IProgressMonitor monitor) {
+        if (!isExtensibleTo(graph, events, lastEventNumber))
+            return new EventLogSummary(graph, events, lastEventNumber, monitor);
+        EventLogSummary summary = copy();
+        summary.graph = graph;
+        summary.lastEventNumber = lastEventNumber;
+        if (numGraphEvents != 0)
+            summary.removeLastGraphEvent(this.graph, events);
+        summary.addGraphEvents(events, summary.numGraphEvents, monitor);
+        return summary;
+    }
+
+    protected boolean isExtensibleTo(MessageDependencyGraph graph, EventNumberBitmap events, long lastEventNumber) {
+        if (filtered != (events != null) || graph.getNumEvents() < numGraphEvents)
+            return false;
+        else if (numGraphEvents == 0)
+            return true;
+        else {
+            long lastGraphEventNumber = this.graph.getEventNumber(numGraphEvents - 1);
+            return graph.getEventNumber(numGraphEvents - 1) == lastGraphEventNumber && lastGraphEventNumber <= lastEventNumber;
+        }
+    }
+
+    /**
+     * Returns true if the summary was built from the given graph up to the given event number.
+     */
+    public boolean isUpToDate(MessageDependencyGraph graph, long lastEventNumber) {
+        return this.graph == graph && this.lastEventNumber == lastEventNumber;
+    }
+
+    /**
+     * Returns the number of events in the range [beginEventNumber, endEventNumber).
+     */
+    public int getNumEvents(long beginEventNumber, long endEventNumber) {
+        return countRange(eventNumbers, numEvents, beginEventNumber, endEventNumber);
+    }
+
+    /**
+     * Returns the ids of the modules having at least one event in increasing order.
+     */
+    public int[] getModuleIds() {
+        return moduleIds;
+    }
+
+    /**
+     * Returns the number of events of the given module in the range [beginEventNumber, endEventNumber).
+     */
+    public int getNumModuleEvents(int moduleId, long beginEventNumber, long endEventNumber) {
+        Integer moduleIndex = moduleIdToIndexMap.get(moduleId);
+        return moduleIndex == null ? 0 : countRange(moduleEventNumbers[moduleIndex], moduleEventCounts[moduleIndex], beginEventNumber, endEventNumber);
+    }
+
+    public ArrayList<ModulePair> getModulePairs() {
+        return modulePairs;
+    }
+
+    protected EventLogSummary copy() {
+        EventLogSummary copy = new EventLogSummary();
+        copy.graph = graph;
+        copy.filtered = filtered;
+        copy.lastEventNumber = lastEventNumber;
+        copy.numGraphEvents = numGraphEvents;
+        copy.lastGraphEventIncluded = lastGraphEventIncluded;
+        copy.numEvents = numEvents;
+        copy.eventNumbers = Arrays.copyOf(eventNumbers, eventNumbers.length);
+        copy.moduleIds = moduleIds;
+        copy.moduleIdToIndexMap = new HashMap<Integer, Integer>(moduleIdToIndexMap);
+        copy.moduleEventCounts = moduleEventCounts.clone();
+        copy.moduleEventNumbers = new long[moduleEventNumbers.length][];
+        for (int i = 0; i < moduleEventNumbers.length; i++)
+            copy.moduleEventNumbers[i] = moduleEventNumbers[i].clone();
+        for (ModulePair modulePair : modulePairs) {
+            ModulePair modulePairCopy = modulePair.copy();
+            copy.modulePairs.add(modulePairCopy);
+            var keyToModulePairMap = modulePair.messageReuse ? copy.keyToReuseModulePairMap : copy.keyToSendModulePairMap;
+            keyToModulePairMap.put(getModulePairKey(modulePair.causeModuleId, modulePair.consequenceModuleId), modulePairCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Adds the events of the graph from the given index up to the last event number.
+     */
+    protected void addGraphEvents(EventNumberBitmap events, int beginIndex, IProgressMonitor monitor) {
+        int numModules = moduleIdToIndexMap.size();
+        for (int i = beginIndex; i < graph.getNumEvents(); i++) {
+            if (monitor != null && (i - beginIndex) % MessageDependencyGraph.PROGRESS_LINE_COUNT == 0) {
+                if (monitor.isCanceled())
+                    throw new OperationCanceledException();
+                monitor.worked(1);
+            }
+            long eventNumber = graph.getEventNumber(i);
+            if (eventNumber > lastEventNumber)
+                break;
+            numGraphEvents = i + 1;
+            lastGraphEventIncluded = events == null || events.contains(eventNumber);
+            if (!lastGraphEventIncluded)
+                continue;
+            if (numEvents == eventNumbers.length)
+                eventNumbers = Arrays.copyOf(eventNumbers, 2 * numEvents);
+            eventNumbers[numEvents++] = eventNumber;
+            int moduleId = graph.getEventModuleId(i);
+            addModuleEvent(moduleId, eventNumber);
+            for (int j = graph.getCauseBeginIndex(i); j < graph.getCauseEndIndex(i); j++) {
+                long causeEventNumber = graph.getCauseEventNumber(j);
+                int causeIndex = graph.getEventIndex(causeEventNumber);
+                if (causeIndex < 0 || (events != null && !events.contains(causeEventNumber)))
+                    continue;
+                int causeModuleId = graph.getEventModuleId(causeIndex);
+                boolean messageReuse = (graph.getCauseKind(j) & MessageDependencyGraph.SEND) == 0;
+                var keyToModulePairMap = messageReuse ? keyToReuseModulePairMap : keyToSendModulePairMap;
+                long key = getModulePairKey(causeModuleId, moduleId);
+                ModulePair modulePair = keyToModulePairMap.get(key);
+                if (modulePair == null) {
+                    modulePair = new ModulePair(causeModuleId, moduleId, messageReuse);
+                    keyToModulePairMap.put(key, modulePair);
+                    modulePairs.add(modulePair);
+                }
+                modulePair.add(causeEventNumber);
+            }
+        }
+        for (ModulePair modulePair : modulePairs)
+            modulePair.sortAdded();
+        if (moduleIdToIndexMap.size() != numModules)
+            moduleIds = moduleIdToIndexMap.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Removes the last summarized event using the graph it was summarized from, so that it can be added again.
+     */
+    protected void removeLastGraphEvent(MessageDependencyGraph oldGraph, EventNumberBitmap events) {
+        int i = --numGraphEvents;
+        if (!lastGraphEventIncluded)
+            return;
+        numEvents--;
+        int moduleId = oldGraph.getEventModuleId(i);
+        moduleEventCounts[moduleIdToIndexMap.get(moduleId)]--;
+        // the causes are earlier events, which are unchanged in the bitmap
+        for (int j = oldGraph.getCauseBeginIndex(i); j < oldGraph.getCauseEndIndex(i); j++) {
+            long causeEventNumber = oldGraph.getCauseEventNumber(j);
+            int causeIndex = oldGraph.getEventIndex(causeEventNumber);
+            if (causeIndex < 0 || (events != null && !events.contains(causeEventNumber)))
+                continue;
+            boolean messageReuse = (oldGraph.getCauseKind(j) & MessageDependencyGraph.SEND) == 0;
+            var keyToModulePairMap = messageReuse ? keyToReuseModulePairMap : keyToSendModulePairMap;
+            keyToModulePairMap.get(getModulePairKey(oldGraph.getEventModuleId(causeIndex), moduleId)).remove(causeEventNumber);
+        }
+    }
+
+    protected void addModuleEvent(int moduleId, long eventNumber) {
+        Integer moduleIndex = moduleIdToIndexMap.get(moduleId);
+        if (moduleIndex == null) {
+            moduleIndex = moduleIdToIndexMap.size();
+            moduleIdToIndexMap.put(moduleId, moduleIndex);
+            moduleEventCounts = Arrays.copyOf(moduleEventCounts, moduleIndex + 1);
+            moduleEventNumbers = Arrays.copyOf(moduleEventNumbers, moduleIndex + 1);
+            moduleEventNumbers[moduleIndex] = new long[4];
+        }
+        int count = moduleEventCounts[moduleIndex];
+        if (count == moduleEventNumbers[moduleIndex].length)
+            moduleEventNumbers[moduleIndex] = Arrays.copyOf(moduleEventNumbers[moduleIndex], 2 * count);
+        moduleEventNumbers[moduleIndex][count] = eventNumber;
+        moduleEventCounts[moduleIndex] = count + 1;
+    }
+
+    protected static long getModulePairKey(int causeModuleId, int consequenceModuleId) {
+        return (long)causeModuleId << 32 | (consequenceModuleId & 0xFFFFFFFFL);
+    }
+
+    protected static int countRange(long[] values, int size, long beginValue, long endValue) {
+        if (beginValue >= endValue)
+            return 0;
+        return lowerBound(values, size, endValue) - lowerBound(values, size, beginValue);
+    }
+
+    /**
+     * Returns the index of the first value not less than the given one.
+     */
+    protected static int lowerBound(long[] values, int size, long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
@@ -1,6 +1,15 @@
 package org.omnetpp.eventlog;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.omnetpp.common.engine.JavaMatchableObject;
 import org.omnetpp.common.engine.MatchExpression;
 import org.omnetpp.eventlog.engine.FileReader;
@@ -9,6 +18,10 @@ import org.omnetpp.eventlog.entry.EventEntry;
 
 public class EventLogTableFacade extends EventLogFacade
 {
+    protected static final int ENTRY_INDEX_BLOCK_SIZE = 64; // the number of consecutive events per entry index block, lookups scan at most one block
+    protected static final int MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS = 1000; // the maximum number of events indexed on the thread using the facade
+
+    protected IEventLog indexedEventLog; // the eventlog the cached values and the entry index belong to
     protected long approximateNumberOfEntries = -1; // cached value, -1 means not yet calculated
     protected long lastMatchedEventNumber = -1; // -1 means unused
     protected int lastNumMatchingEventLogEntries; // -1 means unused
@@ -17,6 +30,16 @@ public class EventLogTableFacade extends EventLogFacade
     protected MatchExpression filterMatchExpression = new MatchExpression(); // cached expression
     protected JavaMatchableObject javaMatchableObject = new JavaMatchableObject();
 
+    // the prefix sums of the number of matching entries per block of events under the current filter mode, built by a background job
+    protected long numIndexedEvents;
+    protected long numIndexedEntries;
+    protected long indexEndEventNumber; // the events before this event number are indexed
+    protected int numEntryIndexBlocks;
+    protected long[] blockEventNumbers = new long[1024]; // the event number of the first event of each block, increasing
+    protected long[] blockEntryPositions = new long[1024]; // the position of the first matching entry of each block
+    protected boolean isEntryIndexComplete;
+    protected int entryIndexGeneration; // incremented when the entry index is cleared to discard results of outdated background jobs
+
     protected static final class RefObject<T> {
         public T argValue;
 
@@ -27,6 +50,7 @@ public class EventLogTableFacade extends EventLogFacade
 
     public EventLogTableFacade(IEventLog eventLog) {
         super(eventLog);
+        indexedEventLog = eventLog;
         clearInternalState();
         setCustomFilter("*");
         setFilterMode(EventLogTableFilterMode.ALL_ENTRIES);
@@ -34,12 +58,19 @@ public class EventLogTableFacade extends EventLogFacade
 
     @Override
     public void synchronize(int change) {
+        validateEventLog();
         if (change != FileReader.FileChange.UNCHANGED) {
             switch (change) {
                 case FileReader.FileChange.OVERWRITTEN:
+                    super.synchronize(change);
+                    clearInternalState();
+                    clearEntryIndex();
+                    break;
                 case FileReader.FileChange.APPENDED:
                     super.synchronize(change);
                     clearInternalState();
+                    // the last event may have got more entries
+                    removeLastEntryIndexBlock();
                     break;
                 default:
                     throw new RuntimeException("Unknown file change");
@@ -54,6 +85,7 @@ public class EventLogTableFacade extends EventLogFacade
     public final void setFilterMode(EventLogTableFilterMode filterMode) {
         this.filterMode = filterMode;
         clearInternalState();
+        clearEntryIndex();
     }
 
     public final boolean matchesFilter(EventLogEntry eventLogEntry) {
@@ -76,6 +108,7 @@ public class EventLogTableFacade extends EventLogFacade
     }
 
     public final int getNumMatchingEventLogEntries(IEvent event) {
+        validateEventLog();
         if (lastMatchedEventNumber == event.getEventNumber())
             return lastNumMatchingEventLogEntries;
         else {
@@ -114,6 +147,7 @@ public class EventLogTableFacade extends EventLogFacade
         customFilter = pattern;
         filterMatchExpression.setPattern("E or (" + customFilter + ")", false, true, false);
         clearInternalState();
+        clearEntryIndex();
     }
 
     public final String getCustomFilter() {
@@ -178,6 +212,10 @@ public class EventLogTableFacade extends EventLogFacade
     }
 
     public long getDistanceToEntry(EventLogEntry sourceEventLogEntry, EventLogEntry targetEventLogEntry, long limit) {
+        long sourcePosition = getEntryPosition(sourceEventLogEntry);
+        long targetPosition = getEntryPosition(targetEventLogEntry);
+        if (sourcePosition != -1 && targetPosition != -1)
+            return getReachedDistance(targetPosition - sourcePosition, limit);
         var reachedDistance = new RefObject<Long>(null);
         getEntryAndDistance(sourceEventLogEntry, targetEventLogEntry, limit, reachedDistance);
         return reachedDistance.argValue;
@@ -195,6 +233,9 @@ public class EventLogTableFacade extends EventLogFacade
     }
 
     public long getDistanceToFirstEntry(EventLogEntry eventLogEntry, long limit) {
+        long position = getEntryPosition(eventLogEntry);
+        if (position != -1)
+            return -getReachedDistance(-position, -limit);
         var reachedDistance = new RefObject<Long>(null);
         getEntryAndDistance(eventLogEntry, getFirstEntry(), -limit, reachedDistance);
         return -reachedDistance.argValue;
@@ -202,17 +243,33 @@ public class EventLogTableFacade extends EventLogFacade
 
 
     public long getDistanceToLastEntry(EventLogEntry eventLogEntry, long limit) {
+        long position = getEntryPosition(eventLogEntry);
+        if (position != -1 && isEntryIndexComplete)
+            return getReachedDistance(getNumIndexedEntries() - 1 - position, limit);
         var reachedDistance = new RefObject<Long>(null);
         getEntryAndDistance(eventLogEntry, getLastEntry(), limit, reachedDistance);
         return reachedDistance.argValue;
     }
 
     public EventLogEntry getNeighbourEntry(EventLogEntry eventLogEntry, long distance) {
+        long position = getEntryPosition(eventLogEntry);
+        if (position != -1) {
+            long neighbourPosition = position + distance;
+            if (neighbourPosition < 0 || (isEntryIndexComplete && neighbourPosition >= getNumIndexedEntries()))
+                return null;
+            else if (neighbourPosition < getNumIndexedEntries())
+                return getEntryAtPosition(neighbourPosition);
+        }
         var reachedDistance = new RefObject<Long>(null);
         return getEntryAndDistance(eventLogEntry, null, distance, reachedDistance);
     }
 
     public final double getApproximatePercentageForEntry(EventLogEntry eventLogEntry) {
+        if (isEntryIndexComplete()) {
+            long position = getEntryPosition(eventLogEntry);
+            if (position != -1)
+                return getNumIndexedEntries() <= 1 ? 0 : (double)position / (getNumIndexedEntries() - 1);
+        }
         IEvent beforeEvent = eventLogEntry.getEvent();
         IEvent afterEvent = beforeEvent.getNextEvent();
         double beforePercentage = eventLog.getApproximatePercentageForEventNumber(beforeEvent.getEventNumber());
@@ -223,7 +280,9 @@ public class EventLogTableFacade extends EventLogFacade
 
     public final EventLogEntry getApproximateEventLogEntryAt(double percentage) {
         Assert.isTrue(0.0 <= percentage && percentage <= 1.0);
-        if (percentage == 1) {
+        if (isEntryIndexComplete())
+            return getNumIndexedEntries() == 0 ? null : getEntryAtPosition(Math.round(percentage * (getNumIndexedEntries() - 1)));
+        else if (percentage == 1) {
             IEvent event = eventLog.getLastEvent();
             if (event == null)
                 return null;
@@ -253,7 +312,9 @@ public class EventLogTableFacade extends EventLogFacade
     }
 
     public final long getApproximateNumberOfEntries() {
-        if (approximateNumberOfEntries == -1) {
+        if (isEntryIndexComplete())
+            return getNumIndexedEntries();
+        else if (approximateNumberOfEntries == -1) {
             IEvent firstEvent = eventLog.getFirstEvent();
             IEvent lastEvent = eventLog.getLastEvent();
             if (firstEvent == null)
@@ -281,6 +342,241 @@ public class EventLogTableFacade extends EventLogFacade
         return approximateNumberOfEntries;
     }
 
+    public final boolean isEntryIndexComplete() {
+        validateEventLog();
+        return isEntryIndexComplete;
+    }
+
+    /**
+     * Returns the number of matching entries in the events indexed so far. This is the exact number
+     * of entries when the index is complete.
+     */
+    public final long getNumIndexedEntries() {
+        validateEventLog();
+        return numIndexedEntries;
+    }
+
+    /**
+     * Returns the position of the entry among all matching entries, or -1 if its event is not yet indexed.
+     * The events of the block before the entry's event are scanned.
+     */
+    public final long getEntryPosition(EventLogEntry eventLogEntry) {
+        validateEventLog();
+        long eventNumber = eventLogEntry.getEvent().getEventNumber();
+        if (eventNumber >= indexEndEventNumber)
+            return -1;
+        int block = Arrays.binarySearch(blockEventNumbers, 0, numEntryIndexBlocks, eventNumber);
+        if (block < 0)
+            block = -block - 2;
+        if (block < 0)
+            return -1;
+        long position = blockEntryPositions[block];
+        IEvent event = eventLog.getEventForEventNumber(blockEventNumbers[block]);
+        Assert.isTrue(event != null);
+        while (event.getEventNumber() < eventNumber) {
+            position += getNumMatchingEventLogEntries(event);
+            event = event.getNextEvent();
+            Assert.isTrue(event != null);
+        }
+        if (event.getEventNumber() != eventNumber)
+            return -1;
+        else
+            return position + getEntryIndexInEvent(eventLogEntry);
+    }
+
+    /**
+     * Returns the matching entry at the given position, or null if the position is not yet indexed.
+     * The events of the block containing the position are scanned.
+     */
+    public final EventLogEntry getEntryAtPosition(long position) {
+        if (position < 0 || position >= getNumIndexedEntries())
+            return null;
+        // find the last block starting at or before the position, blocks without matching entries are skipped
+        int block = Arrays.binarySearch(blockEntryPositions, 0, numEntryIndexBlocks, position);
+        if (block < 0)
+            block = -block - 2;
+        else {
+            while (block + 1 < numEntryIndexBlocks && blockEntryPositions[block + 1] == position)
+                block++;
+        }
+        long eventPosition = blockEntryPositions[block];
+        IEvent event = eventLog.getEventForEventNumber(blockEventNumbers[block]);
+        while (true) {
+            Assert.isTrue(event != null);
+            int numMatchingEventLogEntries = getNumMatchingEventLogEntries(event);
+            if (position < eventPosition + numMatchingEventLogEntries)
+                return getEntryInEvent(event, (int)(position - eventPosition));
+            eventPosition += numMatchingEventLogEntries;
+            event = event.getNextEvent();
+        }
+    }
+
+    /**
+     * Returns a job that builds the entry index in the background, or null if the index is complete. The
+     * index takes 16 bytes per block of events, so there's no limit on the number of events. The job reads the file through its own eventlog, because
+     * eventlogs are not thread-safe, and continues the index built so far. It passes a facade having the
+     * extended index to the callback. The callback is called from the job thread, the result must be handed
+     * over to takeOverEntryIndex() on the thread using this facade.
+     */
+    public Job createEntryIndexJob(Consumer<EventLogTableFacade> callback) {
+        validateEventLog();
+        if (isEntryIndexComplete)
+            return null;
+        String fileName = eventLog.getFileReader().getFileName();
+        FilteredEventLog filter = eventLog instanceof FilteredEventLog ? new FilteredEventLog(null, (FilteredEventLog)eventLog) : null;
+        EventLogTableFilterMode filterMode = this.filterMode;
+        String customFilter = this.customFilter;
+        int generation = entryIndexGeneration;
+        long copiedNumIndexedEvents = numIndexedEvents;
+        long copiedNumIndexedEntries = numIndexedEntries;
+        long copiedIndexEndEventNumber = indexEndEventNumber;
+        int copiedNumBlocks = numEntryIndexBlocks;
+        long[] copiedBlockEventNumbers = Arrays.copyOf(blockEventNumbers, Math.max(1024, copiedNumBlocks));
+        long[] copiedBlockEntryPositions = Arrays.copyOf(blockEntryPositions, Math.max(1024, copiedNumBlocks));
+        Job job = new Job("Indexing entries of " + new File(fileName).getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                FileReader reader = new FileReader(fileName, 64 * 1024, true);
+                try {
+                    monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+                    EventLog jobEventLog = new EventLog(reader, false);
+                    jobEventLog.setParsingAhead(true);
+                    if (filter != null)
+                        filter.eventLog = jobEventLog;
+                    EventLogTableFacade facade = new EventLogTableFacade(filter != null ? filter : jobEventLog);
+                    facade.setCustomFilter(customFilter);
+                    facade.setFilterMode(filterMode);
+                    facade.entryIndexGeneration = generation;
+                    facade.numIndexedEvents = copiedNumIndexedEvents;
+                    facade.numIndexedEntries = copiedNumIndexedEntries;
+                    facade.indexEndEventNumber = copiedIndexEndEventNumber;
+                    facade.numEntryIndexBlocks = copiedNumBlocks;
+                    facade.blockEventNumbers = copiedBlockEventNumbers;
+                    facade.blockEntryPositions = copiedBlockEntryPositions;
+                    // the last indexed event might get more entries until the job reads it
+                    facade.removeLastEntryIndexBlock();
+                    facade.extendEntryIndex(monitor, Long.MAX_VALUE);
+                    callback.accept(facade);
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                catch (RuntimeException e) {
+                    // the file was changed under the job, the index is continued by the next one
+                    if (e.getMessage() != null && e.getMessage().contains("File changed: "))
+                        return Status.CANCEL_STATUS;
+                    else
+                        throw e;
+                }
+                finally {
+                    reader.delete();
+                    monitor.done();
+                }
+            }
+        };
+        job.setPriority(Job.LONG);
+        return job;
+    }
+
+    /**
+     * Takes over the entry index built by a job created with createEntryIndexJob(). The events appended
+     * since the job has read the file are indexed here up to a limit. Returns false if the result is
+     * outdated, because the entry index was cleared since the job was created.
+     */
+    public boolean takeOverEntryIndex(EventLogTableFacade facade) {
+        validateEventLog();
+        if (facade.entryIndexGeneration != entryIndexGeneration || !facade.isEntryIndexComplete || facade.numIndexedEvents < numIndexedEvents)
+            return false;
+        numIndexedEvents = facade.numIndexedEvents;
+        numIndexedEntries = facade.numIndexedEntries;
+        indexEndEventNumber = facade.indexEndEventNumber;
+        numEntryIndexBlocks = facade.numEntryIndexBlocks;
+        blockEventNumbers = facade.blockEventNumbers;
+        blockEntryPositions = facade.blockEntryPositions;
+        // the last event might have been extended since the job has read it
+        removeLastEntryIndexBlock();
+        extendEntryIndex(null, numIndexedEvents + MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS);
+        return true;
+    }
+
+    /**
+     * Extends the entry index with the events following the already indexed ones until the given number
+     * of events is indexed. Returns true if the index is complete.
+     */
+    // LONG RUNNING OPERATION
+    protected final boolean extendEntryIndex(IProgressMonitor monitor, long maximumNumberOfEvents) {
+        if (!isEntryIndexComplete) {
+            IEvent event = numIndexedEvents == 0 ? eventLog.getFirstEvent() : eventLog.getEventForEventNumber(indexEndEventNumber, MatchKind.FIRST_OR_NEXT);
+            while (event != null) {
+                if (monitor != null && monitor.isCanceled())
+                    throw new OperationCanceledException();
+                if (numIndexedEvents == maximumNumberOfEvents)
+                    return false;
+                if (numIndexedEvents % ENTRY_INDEX_BLOCK_SIZE == 0) {
+                    if (numEntryIndexBlocks == blockEventNumbers.length) {
+                        blockEventNumbers = Arrays.copyOf(blockEventNumbers, 2 * numEntryIndexBlocks);
+                        blockEntryPositions = Arrays.copyOf(blockEntryPositions, 2 * numEntryIndexBlocks);
+                    }
+                    blockEventNumbers[numEntryIndexBlocks] = event.getEventNumber();
+                    blockEntryPositions[numEntryIndexBlocks] = numIndexedEntries;
+                    numEntryIndexBlocks++;
+                }
+                numIndexedEntries += getNumMatchingEventLogEntries(event);
+                numIndexedEvents++;
+                indexEndEventNumber = event.getEventNumber() + 1;
+                event = event.getNextEvent();
+            }
+            isEntryIndexComplete = true;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the last block from the entry index, so that its events are indexed again. The last event
+     * might have got more entries, and the blocks have no per event counts to remove only that one.
+     */
+    protected final void removeLastEntryIndexBlock() {
+        if (numEntryIndexBlocks > 0) {
+            numEntryIndexBlocks--;
+            numIndexedEvents = (long)numEntryIndexBlocks * ENTRY_INDEX_BLOCK_SIZE;
+            numIndexedEntries = blockEntryPositions[numEntryIndexBlocks];
+            indexEndEventNumber = blockEventNumbers[numEntryIndexBlocks];
+        }
+        isEntryIndexComplete = false;
+    }
+
+    protected final void clearEntryIndex() {
+        numIndexedEvents = 0;
+        numIndexedEntries = 0;
+        indexEndEventNumber = 0;
+        numEntryIndexBlocks = 0;
+        isEntryIndexComplete = false;
+        entryIndexGeneration++;
+    }
+
+    /**
+     * Clears the cached values and the entry index if the eventlog has been replaced since they were computed.
+     */
+    protected final void validateEventLog() {
+        if (indexedEventLog != eventLog) {
+            indexedEventLog = eventLog;
+            clearInternalState();
+            clearEntryIndex();
+        }
+    }
+
+    /**
+     * Returns the distance reached when moving towards an entry at the given distance at most the given limit.
+     * This is the same as what stepping entry by entry would reach.
+     */
+    protected static long getReachedDistance(long distance, long limit) {
+        if (limit > 0 ? 0 <= distance && distance <= limit : limit <= distance && distance <= 0)
+            return distance;
+        else
+            return limit;
+    }
+
     protected final EventLogEntry getPreviousEntry(EventLogEntry eventLogEntry, RefObject<Integer> index) {
         IEvent event = eventLog.getEventForEventNumber(eventLogEntry.getEvent().getEventNumber());
         index.argValue--;
@@ -0,0 +1,321 @@
+package org.omnetpp.eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * A persistent full text index of an eventlog file stored next to it in a sidecar file (the eventlog
+ * file name with an additional ".txi" extension). The file is divided into blocks at line boundaries,
+ * and for each block the set of trigrams (three consecutive bytes within a line, ASCII letters folded
+ * to lower case) is stored as a fixed size bit set. A block can contain a text only if it contains all
+ * trigrams of the text, so a search has to scan only a small fraction of the file for texts that are
+ * rare, and the index answers both case sensitive and case insensitive searches.
+ *
+ * Like the EventLogIndexFile, the index is extended by scanning the appended content only, and
+ * it's built independently of the FileReader, so it can be built in a background job.
+ */
+public class EventLogTextIndex
+{
+    public static final String FILE_NAME_EXTENSION = ".txi";
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    protected static final long MAGIC = 0x4f50505f454c5458L; // "OPP_ELTX"
+    protected static final int VERSION = 1;
+    protected static final int FILTER_SIZE_BITS = 14; // the number of bits in the trigram set of a block is 2^14
+    protected static final int FILTER_NUM_WORDS = (1 << FILTER_SIZE_BITS) / 64;
+
+    protected static final byte[] FOLD = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++)
+            FOLD[i] = (byte)('A' <= i && i <= 'Z' ? i + 'a' - 'A' : i);
+    }
+
+    protected int blockSize = DEFAULT_BLOCK_SIZE;
+
+    // the state of the eventlog file when it was last scanned
+    protected long eventLogFileSize;
+    protected long eventLogFileLastModified;
+    protected long eventLogFileChecksum; // CRC32 of the beginning of the file, used to detect overwrites
+    protected long scannedOffset; // always at a line boundary, scanning continues from here when the file is appended
+
+    // blocks, the last one ends at the scanned offset and it's continued when the file is appended
+    protected int numBlocks;
+    protected long[] blockBeginOffsets = new long[0];
+    protected long[] blockFilters = new long[0]; // FILTER_NUM_WORDS words for each block
+
+    public EventLogTextIndex() {
+    }
+
+    public EventLogTextIndex(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns a deep copy that can be extended independently of this index.
+     */
+    public EventLogTextIndex copy() {
+        EventLogTextIndex copy = new EventLogTextIndex(blockSize);
+        copy.eventLogFileSize = eventLogFileSize;
+        copy.eventLogFileLastModified = eventLogFileLastModified;
+        copy.eventLogFileChecksum = eventLogFileChecksum;
+        copy.scannedOffset = scannedOffset;
+        copy.numBlocks = numBlocks;
+        copy.blockBeginOffsets = Arrays.copyOf(blockBeginOffsets, numBlocks);
+        copy.blockFilters = Arrays.copyOf(blockFilters, numBlocks * FILTER_NUM_WORDS);
+        return copy;
+    }
+
+    public static File getIndexFile(File eventLogFile) {
+        return new File(eventLogFile.getPath() + FILE_NAME_EXTENSION);
+    }
+
+    public long getScannedOffset() {
+        return scannedOffset;
+    }
+
+    public int getNumBlocks() {
+        return numBlocks;
+    }
+
+    public long getBlockBeginOffset(int i) {
+        return blockBeginOffsets[i];
+    }
+
+    public long getBlockEndOffset(int i) {
+        return i + 1 < numBlocks ? blockBeginOffsets[i + 1] : scannedOffset;
+    }
+
+    /**
+     * Returns the bit indices to be checked by mayContain() for the given text, or null if the
+     * index cannot tell anything about the text, because it's shorter than a trigram.
+     */
+    public static int[] getTrigramBits(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 3)
+            return null;
+        int[] bits = new int[bytes.length - 2];
+        int trigram = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            trigram = ((trigram << 8) | (FOLD[bytes[i] & 0xFF] & 0xFF)) & 0xFFFFFF;
+            if (i >= 2)
+                bits[i - 2] = hashTrigram(trigram);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns false if the block certainly doesn't contain a text having the given trigram bits.
+     */
+    public boolean mayContain(int block, int[] trigramBits) {
+        int base = block * FILTER_NUM_WORDS;
+        for (int bit : trigramBits)
+            if ((blockFilters[base + (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns true if the index describes the current content of the eventlog file.
+     */
+    public boolean isUpToDate(File eventLogFile) {
+        return eventLogFile.length() == eventLogFileSize && eventLogFile.lastModified() == eventLogFileLastModified;
+    }
+
+    /**
+     * Returns true if the eventlog file was only appended since the index was built,
+     * so that the index can be extended by calling scan().
+     */
+    public boolean isExtensibleTo(File eventLogFile) throws IOException {
+        return eventLogFile.length() >= eventLogFileSize && EventLogIndexFile.computeChecksum(eventLogFile) == eventLogFileChecksum;
+    }
+
+    /**
+     * Scans the eventlog file from the last scanned offset to its current end, extending the index.
+     * The last incomplete line (if any) is left for the next scan.
+     */
+    public void scan(File eventLogFile, IProgressMonitor monitor) throws IOException {
+        long fileSize = eventLogFile.length();
+        long lastModified = eventLogFile.lastModified();
+        long checksum = EventLogIndexFile.computeChecksum(eventLogFile);
+        if (scannedOffset == 0)
+            eventLogFileChecksum = checksum;
+        byte[] buffer = new byte[1024 * 1024];
+        long lineBeginOffset = scannedOffset;
+        long offset = scannedOffset;
+        boolean lineBegin = true;
+        int lineLength = 0;
+        int trigram = 0;
+        int base = numBlocks == 0 ? -1 : (numBlocks - 1) * FILTER_NUM_WORDS;
+        try (InputStream stream = new FileInputStream(eventLogFile)) {
+            EventLogIndexFile.skipFully(stream, scannedOffset);
+            while (offset < fileSize) {
+                int count = stream.read(buffer, 0, (int)Math.min(buffer.length, fileSize - offset));
+                if (count == -1)
+                    break;
+                for (int i = 0; i < count; i++) {
+                    byte b = buffer[i];
+                    if (lineBegin) {
+                        // start a new block at the first line after the current block is full
+                        if (numBlocks == 0 || offset + i - blockBeginOffsets[numBlocks - 1] >= blockSize) {
+                            addBlock(offset + i);
+                            base = (numBlocks - 1) * FILTER_NUM_WORDS;
+                        }
+                        lineBegin = false;
+                        lineLength = 0;
+                    }
+                    if (b == '\n') {
+                        lineBeginOffset = offset + i + 1;
+                        lineBegin = true;
+                    }
+                    else {
+                        trigram = ((trigram << 8) | (FOLD[b & 0xFF] & 0xFF)) & 0xFFFFFF;
+                        if (++lineLength >= 3) {
+                            int bit = hashTrigram(trigram);
+                            blockFilters[base + (bit >>> 6)] |= 1L << bit;
+                        }
+                    }
+                }
+                offset += count;
+                if (monitor != null) {
+                    if (monitor.isCanceled())
+                        throw new OperationCanceledException();
+                    monitor.worked(count / 1024);
+                }
+            }
+        }
+        // a block started by an incomplete line is started again by the next scan
+        if (numBlocks != 0 && blockBeginOffsets[numBlocks - 1] >= lineBeginOffset) {
+            numBlocks--;
+            Arrays.fill(blockFilters, numBlocks * FILTER_NUM_WORDS, (numBlocks + 1) * FILTER_NUM_WORDS, 0);
+        }
+        scannedOffset = lineBeginOffset;
+        eventLogFileSize = fileSize;
+        eventLogFileLastModified = lastModified;
+    }
+
+    protected void addBlock(long beginOffset) {
+        if (numBlocks == blockBeginOffsets.length) {
+            int capacity = Math.max(16, 2 * numBlocks);
+            blockBeginOffsets = Arrays.copyOf(blockBeginOffsets, capacity);
+            blockFilters = Arrays.copyOf(blockFilters, capacity * FILTER_NUM_WORDS);
+        }
+        blockBeginOffsets[numBlocks] = beginOffset;
+        numBlocks++;
+    }
+
+    protected static int hashTrigram(int trigram) {
+        return (trigram * 0x9E3779B1) >>> (32 - FILTER_SIZE_BITS);
+    }
+
+    /**
+     * Reads the index from the given file. Returns null if the file does not exist,
+     * or it has a different format or version.
+     */
+    public static EventLogTextIndex read(File indexFile) {
+        if (!indexFile.isFile())
+            return null;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 64 * 1024))) {
+            if (stream.readLong() != MAGIC || stream.readInt() != VERSION || stream.readInt() != FILTER_SIZE_BITS)
+                return null;
+            EventLogTextIndex index = new EventLogTextIndex(stream.readInt());
+            index.eventLogFileSize = stream.readLong();
+            index.eventLogFileLastModified = stream.readLong();
+            index.eventLogFileChecksum = stream.readLong();
+            index.scannedOffset = stream.readLong();
+            int numBlocks = stream.readInt();
+            for (int i = 0; i < numBlocks; i++) {
+                index.addBlock(stream.readLong());
+                for (int j = 0; j < FILTER_NUM_WORDS; j++)
+                    index.blockFilters[i * FILTER_NUM_WORDS + j] = stream.readLong();
+            }
+            return index;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index into the given file. The file is replaced atomically, so concurrent readers
+     * never see a partially written index.
+     */
+    public void write(File indexFile) throws IOException {
+        File temporaryFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 64 * 1024))) {
+            stream.writeLong(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeInt(FILTER_SIZE_BITS);
+            stream.writeInt(blockSize);
+            stream.writeLong(eventLogFileSize);
+            stream.writeLong(eventLogFileLastModified);
+            stream.writeLong(eventLogFileChecksum);
+            stream.writeLong(scannedOffset);
+            stream.writeInt(numBlocks);
+            for (int i = 0; i < numBlocks; i++) {
+                stream.writeLong(blockBeginOffsets[i]);
+                for (int j = 0; j < FILTER_NUM_WORDS; j++)
+                    stream.writeLong(blockFilters[i * FILTER_NUM_WORDS + j]);
+            }
+        }
+        Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Creates a background job that builds (or extends) the text index of the given eventlog file and
+     * writes it into the sidecar file. The given index is not modified, the result is passed to
+     * the callback from the job's thread.
+     */
+    public static Job createBuildJob(File eventLogFile, EventLogTextIndex index, java.util.function.Consumer<EventLogTextIndex> callback) {
+        Job job = new Job("Indexing text of " + eventLogFile.getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    EventLogTextIndex result = index == null || !index.isExtensibleTo(eventLogFile) ? new EventLogTextIndex() : index.copy();
+                    long remaining = eventLogFile.length() - result.scannedOffset;
+                    monitor.beginTask(getName(), (int)Math.max(1, remaining / 1024));
+                    result.scan(eventLogFile, monitor);
+                    try {
+                        result.write(getIndexFile(eventLogFile));
+                    }
+                    catch (IOException e) {
+                        // the directory may be read-only, the index is still usable in memory
+                    }
+                    if (callback != null)
+                        callback.accept(result);
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                catch (IOException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                finally {
+                    monitor.done();
+                }
+            }
+        };
+        job.setSystem(true);
+        job.setPriority(Job.DECORATE);
+        return job;
+    }
+}
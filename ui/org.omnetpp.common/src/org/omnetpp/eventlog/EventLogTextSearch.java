@@ -0,0 +1,355 @@
+package org.omnetpp.eventlog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Searches the raw content of an eventlog file for a text. The file is split into ranges, which are
+ * scanned in parallel, several at a time, as plain byte arrays. When a text index is available, the ranges
+ * are its blocks, and the blocks that cannot contain the text are skipped. The content after the end of
+ * the index is searched in fixed size ranges. Case insensitive search folds ASCII letters only, so if the
+ * text contains other characters, the bytes only select candidate lines using its longest ASCII part, and
+ * the candidates are verified as strings.
+ *
+ * The text is matched within lines, the results are the begin offsets of the matching lines. Progress
+ * is reported between groups of ranges from the calling thread, so it's safe to cancel from there.
+ */
+public class EventLogTextSearch implements AutoCloseable
+{
+    protected static final int RANGE_SIZE = 1024 * 1024; // unindexed content is searched in ranges of this size
+
+    protected String fileName;
+    protected long fileSize; // the search is limited to this size, the file may be longer
+    protected FileChannel channel;
+    protected String search;
+    protected byte[] pattern; // folded if case insensitive, only the longest ASCII part of the search if verifyLines is set
+    protected boolean caseSensitive;
+    protected boolean verifyLines; // case insensitive search for a non-ASCII text, the lines matching the pattern are only candidates
+    protected int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // the candidate ranges in increasing order
+    protected int numRanges;
+    protected long[] rangeBeginOffsets;
+    protected long[] rangeEndOffsets;
+
+    public EventLogTextSearch(String fileName, long fileSize, EventLogTextIndex textIndex, String search, boolean caseSensitive) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.search = search;
+        this.caseSensitive = caseSensitive;
+        String prefilter = search;
+        if (!caseSensitive && !search.chars().allMatch(c -> c < 128)) {
+            verifyLines = true;
+            prefilter = getLongestAsciiPart(search);
+        }
+        pattern = prefilter.getBytes(StandardCharsets.UTF_8);
+        if (!caseSensitive)
+            pattern = fold(pattern);
+        try {
+            channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot open file '" + fileName + "'", e);
+        }
+        computeRanges(textIndex, prefilter);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot close file '" + fileName + "'", e);
+        }
+    }
+
+    /**
+     * Returns the number of ranges that have to be scanned, which is proportional to the cost of a search.
+     */
+    public int getNumRanges() {
+        return numRanges;
+    }
+
+    /**
+     * Returns the begin offset of the first line matching after the given offset if searching forward,
+     * or the last line matching before the given offset if searching backward, -1 if there's none.
+     * The offset must be at a line boundary.
+     */
+    public long findNext(long offset, boolean forward, Runnable progress) {
+        if (search.isEmpty())
+            return -1;
+        if (forward) {
+            int first = 0;
+            while (first < numRanges && rangeEndOffsets[first] <= offset)
+                first++;
+            for (int group = first; group < numRanges; group += parallelism) {
+                int begin = group;
+                int end = Math.min(group + parallelism, numRanges);
+                long[] matches = IntStream.range(begin, end).parallel().mapToLong(i -> findMatch(Math.max(offset, rangeBeginOffsets[i]), rangeEndOffsets[i], true)).toArray();
+                for (long match : matches)
+                    if (match != -1)
+                        return findLineBegin(match);
+                progress.run();
+            }
+        }
+        else {
+            int last = numRanges - 1;
+            while (last >= 0 && rangeBeginOffsets[last] >= offset)
+                last--;
+            for (int group = last; group >= 0; group -= parallelism) {
+                int end = group + 1;
+                int begin = Math.max(0, end - parallelism);
+                // a match must end before the given offset, so it's in an earlier line
+                long[] matches = IntStream.range(begin, end).parallel().mapToLong(i -> findMatch(rangeBeginOffsets[i], Math.min(rangeEndOffsets[i], offset - pattern.length + 1), false)).toArray();
+                for (int i = matches.length - 1; i >= 0; i--)
+                    if (matches[i] != -1)
+                        return findLineBegin(matches[i]);
+                progress.run();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the begin offsets of all matching lines in increasing order.
+     */
+    public long[] findAll(Runnable progress) {
+        if (search.isEmpty())
+            return new long[0];
+        long[][] matches = new long[numRanges][];
+        int groupSize = 16 * parallelism;
+        for (int group = 0; group < numRanges; group += groupSize) {
+            IntStream.range(group, Math.min(group + groupSize, numRanges)).parallel().forEach(i -> matches[i] = findMatchingLines(i));
+            progress.run();
+        }
+        int numMatches = 0;
+        for (long[] rangeMatches : matches)
+            numMatches += rangeMatches.length;
+        long[] lineBeginOffsets = new long[numMatches];
+        int count = 0;
+        for (long[] rangeMatches : matches) {
+            for (long lineBeginOffset : rangeMatches) {
+                // a line spanning several ranges may match in more than one of them
+                if (count == 0 || lineBeginOffsets[count - 1] != lineBeginOffset)
+                    lineBeginOffsets[count++] = lineBeginOffset;
+            }
+        }
+        return Arrays.copyOf(lineBeginOffsets, count);
+    }
+
+    protected void computeRanges(EventLogTextIndex textIndex, String search) {
+        int[] trigramBits = EventLogTextIndex.getTrigramBits(search);
+        long indexedOffset = textIndex == null ? 0 : Math.min(textIndex.getScannedOffset(), fileSize);
+        int numBlocks = textIndex == null ? 0 : textIndex.getNumBlocks();
+        int capacity = numBlocks + (int)((fileSize - indexedOffset) / RANGE_SIZE) + 1;
+        rangeBeginOffsets = new long[capacity];
+        rangeEndOffsets = new long[capacity];
+        for (int i = 0; i < numBlocks && textIndex.getBlockBeginOffset(i) < indexedOffset; i++)
+            if (trigramBits == null || textIndex.mayContain(i, trigramBits))
+                addRange(textIndex.getBlockBeginOffset(i), Math.min(textIndex.getBlockEndOffset(i), indexedOffset));
+        for (long offset = indexedOffset; offset < fileSize; offset += RANGE_SIZE)
+            addRange(offset, Math.min(offset + RANGE_SIZE, fileSize));
+    }
+
+    protected void addRange(long beginOffset, long endOffset) {
+        rangeBeginOffsets[numRanges] = beginOffset;
+        rangeEndOffsets[numRanges] = endOffset;
+        numRanges++;
+    }
+
+    /**
+     * Returns the offset of the first or last match starting in the given part of the range, or -1 if there's none.
+     */
+    protected long findMatch(long beginOffset, long endOffset, boolean first) {
+        if (beginOffset >= endOffset)
+            return -1;
+        byte[] bytes = read(beginOffset, Math.min(endOffset + Math.max(pattern.length - 1, 0), fileSize));
+        int numStarts = (int)Math.min(endOffset - beginOffset, bytes.length - pattern.length + 1);
+        int match = -1;
+        for (int i = 0; i < numStarts; i++) {
+            i = indexOf(bytes, i, numStarts);
+            if (i == -1)
+                break;
+            if (verifyLines && !isMatchingLine(bytes, beginOffset, i)) {
+                // skip the rest of the line
+                while (i < numStarts && bytes[i] != '\n')
+                    i++;
+                continue;
+            }
+            match = i;
+            if (first)
+                break;
+        }
+        return match == -1 ? -1 : beginOffset + match;
+    }
+
+    protected long[] findMatchingLines(int range) {
+        long beginOffset = rangeBeginOffsets[range];
+        long endOffset = rangeEndOffsets[range];
+        byte[] bytes = read(beginOffset, Math.min(endOffset + Math.max(pattern.length - 1, 0), fileSize));
+        int numStarts = (int)Math.min(endOffset - beginOffset, bytes.length - pattern.length + 1);
+        long[] lineBeginOffsets = new long[8];
+        int count = 0;
+        for (int i = 0; i < numStarts; i++) {
+            i = indexOf(bytes, i, numStarts);
+            if (i == -1)
+                break;
+            if (!verifyLines || isMatchingLine(bytes, beginOffset, i)) {
+                if (count == lineBeginOffsets.length)
+                    lineBeginOffsets = Arrays.copyOf(lineBeginOffsets, 2 * count);
+                int j = i;
+                while (j > 0 && bytes[j - 1] != '\n')
+                    j--;
+                lineBeginOffsets[count++] = j == 0 ? findLineBegin(beginOffset + i) : beginOffset + j;
+            }
+            // skip the rest of the line
+            while (i < numStarts && bytes[i] != '\n')
+                i++;
+        }
+        return Arrays.copyOf(lineBeginOffsets, count);
+    }
+
+    /**
+     * Returns the index of the first match starting in bytes[from, to), or -1 if there's none.
+     * The loops are kept simple, so that they are compiled into tight machine code.
+     */
+    protected int indexOf(byte[] bytes, int from, int to) {
+        if (pattern.length == 0)
+            return from < to ? from : -1; // every line is a candidate
+        byte firstByte = pattern[0];
+        int length = pattern.length;
+        if (caseSensitive) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] == firstByte) {
+                    int j = 1;
+                    while (j < length && bytes[i + j] == pattern[j])
+                        j++;
+                    if (j == length)
+                        return i;
+                }
+            }
+        }
+        else {
+            byte[] fold = EventLogTextIndex.FOLD;
+            for (int i = from; i < to; i++) {
+                if (fold[bytes[i] & 0xFF] == firstByte) {
+                    int j = 1;
+                    while (j < length && fold[bytes[i + j] & 0xFF] == pattern[j])
+                        j++;
+                    if (j == length)
+                        return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the line containing bytes[index] contains the search text ignoring case. The line
+     * is read from the file if it doesn't completely fit into the bytes.
+     */
+    protected boolean isMatchingLine(byte[] bytes, long bytesOffset, int index) {
+        int begin = index;
+        while (begin > 0 && bytes[begin - 1] != '\n')
+            begin--;
+        int end = index;
+        while (end < bytes.length && bytes[end] != '\n')
+            end++;
+        String line;
+        if (begin > 0 && end < bytes.length)
+            line = new String(bytes, begin, end - begin, StandardCharsets.UTF_8);
+        else
+            line = readLine(findLineBegin(bytesOffset + begin));
+        return StringUtils.containsIgnoreCase(line, search);
+    }
+
+    /**
+     * Returns the line starting at the given offset without the line terminator.
+     */
+    protected String readLine(long offset) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] bytes = new byte[4096];
+        while (offset < fileSize) {
+            int length = (int)Math.min(bytes.length, fileSize - offset);
+            readFully(ByteBuffer.wrap(bytes, 0, length), offset);
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, 0, i);
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+            }
+            line.write(bytes, 0, length);
+            offset += length;
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the begin offset of the line containing the given offset.
+     */
+    protected long findLineBegin(long offset) {
+        byte[] bytes = new byte[4096];
+        while (offset > 0) {
+            long beginOffset = Math.max(0, offset - bytes.length);
+            int length = (int)(offset - beginOffset);
+            readFully(ByteBuffer.wrap(bytes, 0, length), beginOffset);
+            for (int i = length - 1; i >= 0; i--)
+                if (bytes[i] == '\n')
+                    return beginOffset + i + 1;
+            offset = beginOffset;
+        }
+        return 0;
+    }
+
+    protected byte[] read(long beginOffset, long endOffset) {
+        byte[] bytes = new byte[(int)(endOffset - beginOffset)];
+        readFully(ByteBuffer.wrap(bytes), beginOffset);
+        return bytes;
+    }
+
+    protected void readFully(ByteBuffer buffer, long offset) {
+        try {
+            while (buffer.hasRemaining()) {
+                int count = channel.read(buffer, offset);
+                if (count == -1)
+                    throw new IOException("Unexpected end of file");
+                offset += count;
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot read file '" + fileName + "' at offset " + offset, e);
+        }
+    }
+
+    protected static String getLongestAsciiPart(String text) {
+        int bestBegin = 0, bestEnd = 0;
+        for (int begin = 0; begin < text.length(); ) {
+            int end = begin;
+            while (end < text.length() && text.charAt(end) < 128)
+                end++;
+            if (end - begin > bestEnd - bestBegin) {
+                bestBegin = begin;
+                bestEnd = end;
+            }
+            begin = end + 1;
+        }
+        return text.substring(bestBegin, bestEnd);
+    }
+
+    protected static byte[] fold(byte[] bytes) {
+        byte[] folded = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            folded[i] = EventLogTextIndex.FOLD[bytes[i] & 0xFF];
+        return folded;
+    }
+}
@@ -0,0 +1,280 @@
+package org.omnetpp.eventlog;
+
+import java.util.Arrays;
+
+import org.omnetpp.common.engine.BigDecimal;
+
+/**
+ * Splits an eventlog line into tokens the same way as the native LineTokenizer does, but without
+ * copying the line. Tokens are stored as ranges of the line, keys are compared and numbers are parsed
+ * in place, so only string values are allocated. Not thread safe, but each thread may have its own instance.
+ */
+public class EventLogTokenizer
+{
+    protected CharSequence line;
+    protected int length; // without the trailing line end characters
+    protected int numTokens;
+    protected int[] tokenBegins = new int[32];
+    protected int[] tokenEnds = new int[32];
+    protected String[] unescapedTokens = new String[32]; // quoted tokens containing backslashes, null otherwise
+
+    /**
+     * Tokenizes the first length characters of the line and returns the number of tokens.
+     * The line must not be modified until the tokens are used.
+     */
+    public int tokenize(CharSequence line, int length) {
+        // the native reader reports the line length in bytes, which exceeds the number of characters for non-ASCII lines
+        length = Math.min(length, line.length());
+        while (length > 0 && (line.charAt(length - 1) == '\r' || line.charAt(length - 1) == '\n'))
+            length--;
+        this.line = line;
+        this.length = length;
+        numTokens = 0;
+        int i = 0;
+        while (true) {
+            // skip separators before token
+            while (i < length && isSeparator(line.charAt(i)))
+                i++;
+            if (i == length)
+                break;
+            else if (line.charAt(i) == '"') {
+                // parse quoted string
+                int begin = ++i;
+                boolean containsBackslash = false;
+                while (i < length && line.charAt(i) != '"') {
+                    if (line.charAt(i++) == '\\') {
+                        i++;
+                        containsBackslash = true;
+                    }
+                }
+                if (i >= length)
+                    throw new RuntimeException("Unmatched quote in line: " + getLine());
+                addToken(begin, i, containsBackslash ? interpretBackslashes(line.subSequence(begin, i).toString()) : null);
+                // skip close quote
+                i++;
+            }
+            else {
+                // parse unquoted string
+                int begin = i;
+                while (i < length && !isSeparator(line.charAt(i)))
+                    i++;
+                addToken(begin, i, null);
+            }
+        }
+        return numTokens;
+    }
+
+    public String getLine() {
+        return line.subSequence(0, length).toString();
+    }
+
+    public int getNumTokens() {
+        return numTokens;
+    }
+
+    public String getToken(int index) {
+        String unescapedToken = unescapedTokens[index];
+        return unescapedToken != null ? unescapedToken : line.subSequence(tokenBegins[index], tokenEnds[index]).toString();
+    }
+
+    public int getTokenLength(int index) {
+        String unescapedToken = unescapedTokens[index];
+        return unescapedToken != null ? unescapedToken.length() : tokenEnds[index] - tokenBegins[index];
+    }
+
+    public char getTokenChar(int index, int charIndex) {
+        String unescapedToken = unescapedTokens[index];
+        return unescapedToken != null ? unescapedToken.charAt(charIndex) : line.charAt(tokenBegins[index] + charIndex);
+    }
+
+    public boolean tokenEquals(int index, String text) {
+        int tokenLength = getTokenLength(index);
+        if (tokenLength != text.length())
+            return false;
+        for (int i = 0; i < tokenLength; i++)
+            if (getTokenChar(index, i) != text.charAt(i))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the index of the value token following the given key token or -1 if not found.
+     * The first token is the entry code, followed by key value pairs.
+     */
+    public int findValue(String sign) {
+        for (int i = 1; i < numTokens - 1; i += 2)
+            if (tokenEquals(i, sign))
+                return i + 1;
+        return -1;
+    }
+
+    public String getToken(String sign, boolean mandatory) {
+        int index = findValue(sign, mandatory);
+        return index != -1 ? getToken(index) : null;
+    }
+
+    public boolean getBoolToken(String sign, boolean mandatory, boolean defaultValue) {
+        int value = getIntToken(sign, mandatory, defaultValue ? 1 : 0);
+        if (value == 0)
+            return false;
+        else if (value == 1)
+            return true;
+        else
+            throw new RuntimeException("Invalid boolean " + value + " in line " + getLine());
+    }
+
+    public int getIntToken(String sign, boolean mandatory, int defaultValue) {
+        int index = findValue(sign, mandatory);
+        if (index == -1)
+            return defaultValue;
+        long value = parseLong(index);
+        return value == (int)value ? (int)value : Integer.valueOf(getToken(index));
+    }
+
+    public short getShortToken(String sign, boolean mandatory, short defaultValue) {
+        int index = findValue(sign, mandatory);
+        if (index == -1)
+            return defaultValue;
+        long value = parseLong(index);
+        return value == (short)value ? (short)value : Short.valueOf(getToken(index));
+    }
+
+    public long getLongToken(String sign, boolean mandatory, long defaultValue) {
+        int index = findValue(sign, mandatory);
+        return index != -1 ? parseLong(index) : defaultValue;
+    }
+
+    public long getInt64Token(String sign, boolean mandatory, long defaultValue) {
+        return getLongToken(sign, mandatory, defaultValue);
+    }
+
+    public String getStringToken(String sign, boolean mandatory, String defaultValue) {
+        String token = getToken(sign, mandatory);
+        return token != null ? token : defaultValue;
+    }
+
+    public long getEventNumberToken(String sign, boolean mandatory, long defaultValue) {
+        return getLongToken(sign, mandatory, defaultValue);
+    }
+
+    public BigDecimal getSimtimeToken(String sign, boolean mandatory, BigDecimal defaultValue) {
+        int index = findValue(sign, mandatory);
+        return index != -1 ? parseSimulationTime(index) : defaultValue;
+    }
+
+    /**
+     * Parses the token as a decimal integer without creating a String, falls back to Long.valueOf
+     * for anything unusual, so that errors are reported the same way.
+     */
+    public long parseLong(int index) {
+        int begin = tokenBegins[index];
+        int end = tokenEnds[index];
+        boolean negative = begin < end && line.charAt(begin) == '-';
+        int first = negative ? begin + 1 : begin;
+        if (unescapedTokens[index] != null || first == end || end - first > 18)
+            return Long.valueOf(getToken(index));
+        long value = 0;
+        for (int i = first; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return Long.valueOf(getToken(index));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses plain decimal simulation times directly into the mantissa and scale of a BigDecimal,
+     * falls back to BigDecimal.parse for anything else.
+     */
+    public BigDecimal parseSimulationTime(int index) {
+        int begin = tokenBegins[index];
+        int end = tokenEnds[index];
+        boolean negative = begin < end && line.charAt(begin) == '-';
+        int first = negative ? begin + 1 : begin;
+        if (unescapedTokens[index] != null || first == end)
+            return BigDecimal.parse(getToken(index));
+        long mantissa = 0;
+        int scale = 0;
+        int numDigits = 0;
+        boolean fraction = false;
+        for (int i = first; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '.' && !fraction)
+                fraction = true;
+            else if ('0' <= c && c <= '9' && numDigits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                    numDigits++;
+                if (fraction)
+                    scale--;
+            }
+            else
+                return BigDecimal.parse(getToken(index));
+        }
+        if (scale < -18)
+            return BigDecimal.parse(getToken(index));
+        return new BigDecimal(negative ? -mantissa : mantissa, scale);
+    }
+
+    protected int findValue(String sign, boolean mandatory) {
+        int index = findValue(sign);
+        if (index == -1 && mandatory)
+            throw new RuntimeException("Missing mandatory token " + sign + " in line: " + getLine());
+        return index;
+    }
+
+    protected void addToken(int begin, int end, String unescapedToken) {
+        if (numTokens == tokenBegins.length) {
+            tokenBegins = Arrays.copyOf(tokenBegins, 2 * numTokens);
+            tokenEnds = Arrays.copyOf(tokenEnds, 2 * numTokens);
+            unescapedTokens = Arrays.copyOf(unescapedTokens, 2 * numTokens);
+        }
+        tokenBegins[numTokens] = begin;
+        tokenEnds[numTokens] = end;
+        unescapedTokens[numTokens] = unescapedToken;
+        numTokens++;
+    }
+
+    protected static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Interprets backslash sequences, must be kept consistent with the native LineTokenizer.
+     * The token is decoded first, because the characters of a line view may be raw bytes.
+     */
+    protected static String interpretBackslashes(String token) {
+        int end = token.length();
+        StringBuilder builder = new StringBuilder(end);
+        for (int i = 0; i < end; i++) {
+            char c = token.charAt(i);
+            if (c != '\\')
+                builder.append(c);
+            else if (++i < end) {
+                c = token.charAt(i);
+                switch (c) {
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'x': {
+                        // hex code with at most two digits
+                        int value = 0;
+                        int numDigits = 0;
+                        while (numDigits < 2 && i + 1 < end && Character.digit(token.charAt(i + 1), 16) != -1) {
+                            value = value * 16 + Character.digit(token.charAt(++i), 16);
+                            numDigits++;
+                        }
+                        builder.append((char)value);
+                        break;
+                    }
+                    case '\n': break; // line continuation
+                    default: builder.append(c); // quote, backslash and unrecognized sequences
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,247 @@
+package org.omnetpp.eventlog;
+
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * A compressed set of event numbers, built by adding event numbers in increasing order. Event numbers
+ * are grouped into containers of 65536 consecutive numbers, a container stores its elements either as
+ * a sorted array of 16 bit values when it's sparse or as a bitmap when it's dense. The number of elements
+ * before each container is stored too, so counting the elements before an event number and finding the
+ * n-th element are binary searches instead of iterations.
+ */
+public class EventNumberBitmap
+{
+    protected static final int CONTAINER_SIZE_BITS = 16;
+    protected static final int CONTAINER_SIZE = 1 << CONTAINER_SIZE_BITS;
+    protected static final int MAXIMUM_ARRAY_CONTAINER_SIZE = 4096; // an array container is converted to a bitmap container above this
+
+    protected int numContainers;
+    protected long[] keys = new long[16]; // event number >> CONTAINER_SIZE_BITS for each container
+    protected long[] counts = new long[16]; // the number of elements before each container
+    protected Container[] containers = new Container[16];
+    protected long size;
+    protected long lastEventNumber = -1;
+
+    protected static class Container
+    {
+        public int size;
+        public char[] values = new char[4]; // sorted low 16 bits, null for bitmap containers
+        public long[] words; // bitmap, null for array containers
+
+        public Container copy() {
+            Container copy = new Container();
+            copy.size = size;
+            copy.values = values == null ? null : values.clone();
+            copy.words = words == null ? null : words.clone();
+            return copy;
+        }
+
+        public void add(int value) {
+            if (words != null)
+                words[value >>> 6] |= 1L << value;
+            else if (size < MAXIMUM_ARRAY_CONTAINER_SIZE) {
+                if (size == values.length)
+                    values = Arrays.copyOf(values, Math.min(2 * size, MAXIMUM_ARRAY_CONTAINER_SIZE));
+                values[size] = (char)value;
+            }
+            else {
+                words = new long[CONTAINER_SIZE / 64];
+                for (int i = 0; i < size; i++)
+                    words[values[i] >>> 6] |= 1L << values[i];
+                values = null;
+                words[value >>> 6] |= 1L << value;
+            }
+            size++;
+        }
+
+        public boolean contains(int value) {
+            if (words != null)
+                return (words[value >>> 6] & (1L << value)) != 0;
+            else
+                return Arrays.binarySearch(values, 0, size, (char)value) >= 0;
+        }
+
+        /**
+         * Returns the number of elements less than the given value.
+         */
+        public int rank(int value) {
+            if (words != null) {
+                int rank = 0;
+                int index = value >>> 6;
+                for (int i = 0; i < index; i++)
+                    rank += Long.bitCount(words[i]);
+                return rank + Long.bitCount(words[index] & ((1L << value) - 1));
+            }
+            else {
+                int position = Arrays.binarySearch(values, 0, size, (char)value);
+                return position >= 0 ? position : -position - 1;
+            }
+        }
+
+        /**
+         * Returns the element at the given position in increasing order.
+         */
+        public int select(int position) {
+            if (words != null) {
+                for (int i = 0; ; i++) {
+                    int count = Long.bitCount(words[i]);
+                    if (position < count) {
+                        long word = words[i];
+                        for (int j = 0; j < position; j++)
+                            word &= word - 1;
+                        return (i << 6) + Long.numberOfTrailingZeros(word);
+                    }
+                    position -= count;
+                }
+            }
+            else
+                return values[position];
+        }
+
+        /**
+         * Removes the elements greater than or equal to the given value.
+         */
+        public void removeFrom(int value) {
+            int newSize = rank(value);
+            if (words != null) {
+                int index = value >>> 6;
+                words[index] &= (1L << value) - 1;
+                Arrays.fill(words, index + 1, words.length, 0);
+            }
+            size = newSize;
+        }
+    }
+
+    /**
+     * Returns an independent copy of the set, which can be read by a background job while this one is changed.
+     */
+    public EventNumberBitmap copy() {
+        EventNumberBitmap copy = new EventNumberBitmap();
+        copy.numContainers = numContainers;
+        copy.keys = keys.clone();
+        copy.counts = counts.clone();
+        copy.containers = new Container[containers.length];
+        for (int i = 0; i < numContainers; i++)
+            copy.containers[i] = containers[i].copy();
+        copy.size = size;
+        copy.lastEventNumber = lastEventNumber;
+        return copy;
+    }
+
+    /**
+     * Returns the number of event numbers in the set.
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an event number greater than any event number added so far.
+     */
+    public void add(long eventNumber) {
+        Assert.isTrue(eventNumber > lastEventNumber);
+        long key = eventNumber >> CONTAINER_SIZE_BITS;
+        if (numContainers == 0 || keys[numContainers - 1] != key) {
+            if (numContainers == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * numContainers);
+                counts = Arrays.copyOf(counts, 2 * numContainers);
+                containers = Arrays.copyOf(containers, 2 * numContainers);
+            }
+            keys[numContainers] = key;
+            counts[numContainers] = size;
+            containers[numContainers] = new Container();
+            numContainers++;
+        }
+        containers[numContainers - 1].add(getLowBits(eventNumber));
+        size++;
+        lastEventNumber = eventNumber;
+    }
+
+    public boolean contains(long eventNumber) {
+        int index = findContainer(eventNumber);
+        return index >= 0 && containers[index].contains(getLowBits(eventNumber));
+    }
+
+    /**
+     * Returns the number of event numbers in the set less than the given event number.
+     */
+    public long rank(long eventNumber) {
+        int index = findContainer(eventNumber);
+        if (index >= 0)
+            return counts[index] + containers[index].rank(getLowBits(eventNumber));
+        else {
+            index = -index - 1;
+            return index < numContainers ? counts[index] : size;
+        }
+    }
+
+    /**
+     * Returns the event number at the given position in increasing order, the first one is at 0.
+     */
+    public long select(long position) {
+        Assert.isTrue(0 <= position && position < size);
+        int index = Arrays.binarySearch(counts, 0, numContainers, position);
+        if (index < 0)
+            index = -index - 2;
+        else {
+            // skip emptied containers having the same count
+            while (index + 1 < numContainers && counts[index + 1] == position)
+                index++;
+        }
+        return (keys[index] << CONTAINER_SIZE_BITS) + containers[index].select((int)(position - counts[index]));
+    }
+
+    /**
+     * Returns the least event number greater than or equal to the given one, or -1 if there's none.
+     */
+    public long getNext(long eventNumber) {
+        long position = rank(eventNumber);
+        return position < size ? select(position) : -1;
+    }
+
+    /**
+     * Returns the greatest event number less than or equal to the given one, or -1 if there's none.
+     */
+    public long getPrevious(long eventNumber) {
+        long position = eventNumber == Long.MAX_VALUE ? size : rank(eventNumber + 1);
+        return position > 0 ? select(position - 1) : -1;
+    }
+
+    /**
+     * Removes the event numbers greater than or equal to the given one, so that they can be added again.
+     */
+    public void removeFrom(long eventNumber) {
+        int index = findContainer(eventNumber);
+        if (index >= 0) {
+            containers[index].removeFrom(getLowBits(eventNumber));
+            index++;
+        }
+        else
+            index = -index - 1;
+        Arrays.fill(containers, index, numContainers, null);
+        numContainers = index;
+        size = numContainers == 0 ? 0 : counts[numContainers - 1] + containers[numContainers - 1].size;
+        lastEventNumber = Math.min(lastEventNumber, eventNumber - 1);
+    }
+
+    public void clear() {
+        Arrays.fill(containers, 0, numContainers, null);
+        numContainers = 0;
+        size = 0;
+        lastEventNumber = -1;
+    }
+
+    protected int findContainer(long eventNumber) {
+        return Arrays.binarySearch(keys, 0, numContainers, eventNumber >> CONTAINER_SIZE_BITS);
+    }
+
+    protected static int getLowBits(long eventNumber) {
+        return (int)(eventNumber & (CONTAINER_SIZE - 1));
+    }
+}
@@ -0,0 +1,75 @@
+package org.omnetpp.eventlog;
+
+import java.lang.ref.WeakReference;
+
+import org.omnetpp.common.engine.BigDecimal;
+
+/**
+ * Stands in for the event of an eventlog entry that is kept longer than the event itself, such as
+ * the entries in the EventLogEntryCache. It refers to the event by its event number and only weakly
+ * to the Event object, so that the entry doesn't prevent the EventCache from evicting the event.
+ * The event is looked up again by its event number when it's no longer reachable.
+ */
+public class EventReference implements IChunk
+{
+    protected IEventLog eventLog;
+    protected long eventNumber;
+    protected BigDecimal simulationTime;
+    protected long beginOffset;
+    protected long endOffset;
+    protected WeakReference<Event> event;
+
+    public EventReference(Event event) {
+        this.eventLog = event.getEventLog();
+        this.eventNumber = event.getEventNumber();
+        this.simulationTime = event.getSimulationTime();
+        this.beginOffset = event.getBeginOffset();
+        this.endOffset = event.getEndOffset();
+        this.event = new WeakReference<Event>(event);
+    }
+
+    /**
+     * Returns the referenced event, parsing it again if it has been evicted and is no longer in use.
+     */
+    public Event getEvent() {
+        Event event = this.event.get();
+        if (event == null) {
+            event = (Event)eventLog.getEventForEventNumber(eventNumber);
+            if (event != null)
+                this.event = new WeakReference<Event>(event);
+        }
+        return event;
+    }
+
+    @Override
+    public long getBeginOffset() {
+        return beginOffset;
+    }
+
+    @Override
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    @Override
+    public long getEventNumber() {
+        return eventNumber;
+    }
+
+    @Override
+    public BigDecimal getSimulationTime() {
+        return simulationTime;
+    }
+
+    @Override
+    public String getAsString() {
+        Event event = getEvent();
+        return event != null ? event.getAsString() : null;
+    }
+
+    @Override
+    public String getAsString(String name) {
+        Event event = getEvent();
+        return event != null ? event.getAsString(name) : null;
+    }
+}
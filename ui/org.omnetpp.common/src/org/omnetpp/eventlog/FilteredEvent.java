@@ -26,6 +26,7 @@ public class FilteredEvent extends EventBase implements IEvent
     protected IMessageDependency cause; // the message send which is processed in this event
     protected ArrayList<IMessageDependency> causes; // the arrival message sends of messages which we send in this even and are in the filtered set
     protected ArrayList<IMessageDependency> consequences; // the message sends and arrivals from this event to another in the filtered set
+    protected long consequencesAppendCount = -1; // the append count of the filtered eventlog when the consequences were collected
 
     protected static class BreadthSearchItem {
         public IEvent event;
@@ -310,7 +311,9 @@ public class FilteredEvent extends EventBase implements IEvent
 
     @Override
     public ArrayList<IMessageDependency> getConsequences() {
-        if (consequences == null) {
+        // consequences might have been appended to the file since they were collected
+        if (consequences == null || consequencesAppendCount != filteredEventLog.getAppendCount()) {
+            consequencesAppendCount = filteredEventLog.getAppendCount();
             // similar to getCause
             long begin = System.currentTimeMillis();
             consequences = new ArrayList<IMessageDependency>();
@@ -1,17 +1,24 @@
 package org.omnetpp.eventlog;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.omnetpp.common.engine.BigDecimal;
 import org.omnetpp.common.engine.JavaMatchableObject;
 import org.omnetpp.common.engine.MatchExpression;
 import org.omnetpp.common.engine.PatternMatcher;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.engine.FileReader;
 import org.omnetpp.eventlog.entry.BeginSendEntry;
 import org.omnetpp.eventlog.entry.ModuleDescriptionEntry;
@@ -26,6 +33,8 @@ import org.omnetpp.eventlog.entry.SimulationEndEntry;
  */
 public class FilteredEventLog extends EventLogBase implements IEventLog
 {
+    protected static final int MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS = 1000; // the maximum number of events evaluated into the filter bitmap on the thread using the eventlog
+
     protected IEventLog eventLog; // this will not be destructed because might be shared among multiple filtered eventlogs
     protected long approximateNumberOfEvents = -1;
     protected double approximateMatchingEventRatio;
@@ -38,6 +47,7 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     // module filter
     protected boolean enableModuleFilter = false;
     protected MatchExpression moduleExpression = new MatchExpression();
+    protected String moduleExpressionPattern; // the pattern of moduleExpression, null if not set
     protected ArrayList<PatternMatcher> moduleNames = new ArrayList<PatternMatcher>();
     protected ArrayList<PatternMatcher> moduleClassNames = new ArrayList<PatternMatcher>();
     protected ArrayList<PatternMatcher> moduleNedTypeNames = new ArrayList<PatternMatcher>();
@@ -46,6 +56,7 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     // message filter
     protected boolean enableMessageFilter = false;
     protected MatchExpression messageExpression = new MatchExpression();
+    protected String messageExpressionPattern; // the pattern of messageExpression, null if not set
     protected ArrayList<PatternMatcher> messageNames = new ArrayList<PatternMatcher>();
     protected ArrayList<PatternMatcher> messageClassNames = new ArrayList<PatternMatcher>();
     protected ArrayList<Long> messageIds = new ArrayList<Long>();
@@ -76,12 +87,28 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     protected TreeMap<Long, Boolean> eventNumberToTraceableEventFlagMap = new TreeMap<Long, Boolean>();
     protected LinkedList<Long> unseenTracedEventCauseEventNumbers = new LinkedList<Long>(); // the remaining cause event number of the traced event that is to be visited
     protected LinkedList<Long> unseenTracedEventConsequenceEventNumbers = new LinkedList<Long>(); // the remaining consequence event number of the traced event that is to be visited
+    protected EventNumberBitmap tracedEventCauseCone; // all causes of the traced event from the message dependency graph, null if not yet computed
+    protected EventNumberBitmap tracedEventConsequenceCone; // all consequences of the traced event from the message dependency graph, null if not yet computed
+    protected boolean tracedEventConesUnavailable; // the message dependency graph doesn't contain the traced event, the trace is collected from the events
+
+    protected EventNumberBitmap filterBitmap = new EventNumberBitmap(); // the matching event numbers up to filterBitmapEndEventNumber
+    protected long filterBitmapEndEventNumber = -1; // the last event evaluated into the filter bitmap or -1
+    protected boolean filterBitmapComplete = false; // there are no more events to evaluate
+    protected volatile int filterBitmapGeneration; // incremented when the filter bitmap is cleared to discard results of outdated background jobs
+    protected EventLogSummary eventLogSummary; // the summary of the matching events taken over from the build job, it may not contain the last appended events, null if not yet
+    protected Job eventLogSummaryBuildJob; // builds or extends the summary in the background when the message dependency graph or the filter bitmap changes
+    protected volatile EventLogSummary builtEventLogSummary; // set by the build job, taken over from the UI thread
+
+    protected long appendCount; // incremented when new content is appended to the file, invalidates the consequences of filtered events lazily
 
     protected FilteredEvent firstMatchingEvent;
     protected FilteredEvent lastMatchingEvent;
 
     protected JavaMatchableObject javaMatchableObject = new JavaMatchableObject();
 
+    protected boolean detached; // a copy used by a background job, it doesn't build the message dependency graph of its own eventlog
+    protected MessageDependencyGraph detachedMessageDependencyGraph; // the graph of the original filter when the copy was made, null if it was not available
+
     public FilteredEventLog(IEventLog eventLog) {
         this.eventLog = eventLog;
         setModuleExpression("");
@@ -89,6 +116,54 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         clearInternalState();
     }
 
+    /**
+     * Creates a filter with the same parameters as the other one for a background job, which sets the
+     * eventlog later. The native matchers are not shared, because they are not thread-safe.
+     */
+    protected FilteredEventLog(IEventLog eventLog, FilteredEventLog other) {
+        this(eventLog);
+        firstConsideredEventNumber = other.firstConsideredEventNumber;
+        lastConsideredEventNumber = other.lastConsideredEventNumber;
+        excludedEventNumbers.addAll(other.excludedEventNumbers);
+        enableModuleFilter = other.enableModuleFilter;
+        setModuleExpression(other.moduleExpressionPattern);
+        copyPatternMatchers(moduleNames, other.moduleNames);
+        copyPatternMatchers(moduleClassNames, other.moduleClassNames);
+        copyPatternMatchers(moduleNedTypeNames, other.moduleNedTypeNames);
+        moduleIds = new ArrayList<Integer>(other.moduleIds);
+        enableMessageFilter = other.enableMessageFilter;
+        setMessageExpression(other.messageExpressionPattern);
+        copyPatternMatchers(messageNames, other.messageNames);
+        copyPatternMatchers(messageClassNames, other.messageClassNames);
+        messageIds = new ArrayList<Long>(other.messageIds);
+        messageTreeIds = new ArrayList<Long>(other.messageTreeIds);
+        messageEncapsulationIds = new ArrayList<Long>(other.messageEncapsulationIds);
+        messageEncapsulationTreeIds = new ArrayList<Long>(other.messageEncapsulationTreeIds);
+        if (other.tracedEventNumber != -1)
+            setTracedEventNumber(other.tracedEventNumber);
+        traceCauses = other.traceCauses;
+        traceConsequences = other.traceConsequences;
+        traceMessageReuses = other.traceMessageReuses;
+        traceSelfMessages = other.traceSelfMessages;
+        // the cones are not modified after they are computed
+        tracedEventCauseCone = other.tracedEventCauseCone;
+        tracedEventConsequenceCone = other.tracedEventConsequenceCone;
+        collectMessageReuses = other.collectMessageReuses;
+        maximumCauseDepth = other.maximumCauseDepth;
+        maximumNumberOfCauses = other.maximumNumberOfCauses;
+        maximumCauseCollectionTime = other.maximumCauseCollectionTime;
+        maximumConsequenceDepth = other.maximumConsequenceDepth;
+        maximumNumberOfConsequences = other.maximumNumberOfConsequences;
+        maximumConsequenceCollectionTime = other.maximumConsequenceCollectionTime;
+        // the copy continues the filter bitmap from where this one stands
+        filterBitmap = other.filterBitmap.copy();
+        filterBitmapEndEventNumber = other.filterBitmapEndEventNumber;
+        filterBitmapComplete = other.filterBitmapComplete;
+        filterBitmapGeneration = other.filterBitmapGeneration;
+        detached = true;
+        detachedMessageDependencyGraph = other.getMessageDependencyGraph();
+    }
+
     public void close() {
         deleteAllocatedObjects();
     }
@@ -127,8 +202,10 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     }
 
     public final void setModuleExpression(String moduleExpression) {
-        if (moduleExpression != null)
+        if (moduleExpression != null) {
             this.moduleExpression.setPattern(moduleExpression, false, true, false);
+            this.moduleExpressionPattern = moduleExpression;
+        }
     }
 
     public final void setModuleNames(ArrayList<String> moduleNames) {
@@ -152,8 +229,10 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     }
 
     public final void setMessageExpression(String messageExpression) {
-        if (messageExpression != null)
+        if (messageExpression != null) {
             this.messageExpression.setPattern(messageExpression, false, true, false);
+            this.messageExpressionPattern = messageExpression;
+        }
     }
 
     public final void setMessageNames(ArrayList<String> messageNames) {
@@ -257,6 +336,8 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
 
     public final boolean matchesFilter(IEvent event) {
         Assert.isTrue(event != null);
+        if (event.getEventNumber() <= filterBitmapEndEventNumber)
+            return filterBitmap.contains(event.getEventNumber());
         var it = eventNumberToFilterMatchesFlagMap.get(event.getEventNumber());
         // if cached, return it
         if (it != null)
@@ -271,6 +352,146 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         return matchesExpression(moduleExpression, moduleDescriptionEntry) || matchesPatterns(moduleNames, moduleDescriptionEntry.fullName) || matchesPatterns(moduleClassNames, moduleDescriptionEntry.moduleClassName) || matchesPatterns(moduleNedTypeNames, moduleDescriptionEntry.nedTypeName) || matchesList(moduleIds, moduleDescriptionEntry.moduleId);
     }
 
+    /**
+     * Evaluates the filter for all events not yet covered by the filter bitmap in one pass. Afterwards
+     * matching, counting, percentages and jumping to the n-th matching event use the bitmap instead of
+     * evaluating the filter event by event. If the operation is canceled, then the events evaluated so far
+     * remain covered. A few appended events are evaluated when the eventlog is synchronized. For large files use
+     * createFilterBitmapJob() instead.
+     */
+    // LONG RUNNING OPERATION
+    public void computeFilterBitmap() {
+        computeFilterBitmap(null);
+    }
+
+    protected final void computeFilterBitmap(IProgressMonitor monitor) {
+        computeFilterBitmap(monitor, Long.MAX_VALUE);
+    }
+
+    /**
+     * Evaluates at most the given number of events into the filter bitmap, it's complete afterwards only
+     * if there were no more events to evaluate.
+     */
+    protected final void computeFilterBitmap(IProgressMonitor monitor, long maximumNumberOfEvents) {
+        if (filterBitmapComplete || eventLog.isEmpty())
+            return;
+        IEvent event;
+        if (filterBitmapEndEventNumber == -1) {
+            long firstEventNumber = eventLog.getFirstEvent().getEventNumber();
+            event = eventLog.getEventForEventNumber(firstConsideredEventNumber == -1 ? firstEventNumber : Math.max(firstEventNumber, firstConsideredEventNumber), MatchKind.LAST_OR_NEXT);
+        }
+        else
+            event = eventLog.getEventForEventNumber(filterBitmapEndEventNumber + 1, MatchKind.LAST_OR_NEXT);
+        long numEvaluatedEvents = 0;
+        while (event != null && (lastConsideredEventNumber == -1 || event.getEventNumber() <= lastConsideredEventNumber)) {
+            if (numEvaluatedEvents++ == maximumNumberOfEvents)
+                return;
+            eventLog.progress();
+            if (monitor != null && monitor.isCanceled())
+                throw new OperationCanceledException();
+            long eventNumber = event.getEventNumber();
+            // move already known flags into the bitmap
+            var it = eventNumberToFilterMatchesFlagMap.remove(eventNumber);
+            if (it != null ? it : matchesEvent(event) && matchesDependency(event))
+                filterBitmap.add(eventNumber);
+            filterBitmapEndEventNumber = eventNumber;
+            event = event.getNextEvent();
+        }
+        filterBitmapComplete = true;
+    }
+
+    public final boolean isFilterBitmapComplete() {
+        return filterBitmapComplete;
+    }
+
+    /**
+     * Returns a job that computes the filter bitmap in the background. The job reads the file through
+     * its own eventlog, because eventlogs are not thread-safe, continues from the events already covered
+     * by the bitmap, and passes a filter having the complete bitmap to the callback. The callback is called from the job thread, the result must be handed over
+     * to takeOverFilterBitmap() on the thread using this eventlog. Until then the filter is evaluated
+     * lazily event by event.
+     */
+    public Job createFilterBitmapJob(Consumer<FilteredEventLog> callback) {
+        String fileName = getFileReader().getFileName();
+        FilteredEventLog filter = new FilteredEventLog(null, this);
+        Job job = new Job("Filtering " + new File(fileName).getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                FileReader reader = new FileReader(fileName, 64 * 1024, true);
+                try {
+                    monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+                    EventLog jobEventLog = new EventLog(reader, false);
+                    jobEventLog.setParsingAhead(true);
+                    filter.eventLog = jobEventLog;
+                    filter.computeFilterBitmap(monitor);
+                    callback.accept(filter);
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                catch (RuntimeException e) {
+                    // the file was changed under the job, the filter is still evaluated lazily
+                    if (e.getMessage() != null && e.getMessage().contains("File changed: "))
+                        return Status.CANCEL_STATUS;
+                    else
+                        throw e;
+                }
+                finally {
+                    reader.delete();
+                    monitor.done();
+                }
+            }
+        };
+        job.setPriority(Job.LONG);
+        return job;
+    }
+
+    /**
+     * Takes over the filter bitmap computed by a job created with createFilterBitmapJob(). At most
+     * MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS events appended since the job has read the file are evaluated
+     * here. If more were appended, then the bitmap remains incomplete, the remaining events are evaluated
+     * lazily until another job is scheduled to cover them. Returns false if the result is outdated, because
+     * the filter bitmap was cleared since the job was created, or if it covers nothing new.
+     */
+    public boolean takeOverFilterBitmap(FilteredEventLog filter) {
+        if (filter.filterBitmapGeneration != filterBitmapGeneration || !filter.filterBitmapComplete || filter.filterBitmapEndEventNumber <= filterBitmapEndEventNumber)
+            return false;
+        filterBitmap = filter.filterBitmap;
+        filterBitmapEndEventNumber = filter.filterBitmapEndEventNumber;
+        eventNumberToFilterMatchesFlagMap.headMap(filterBitmapEndEventNumber, true).clear();
+        // the last event might have been extended since the job has read it
+        filterBitmap.removeFrom(filterBitmapEndEventNumber);
+        filterBitmapEndEventNumber--;
+        filterBitmapComplete = false;
+        computeFilterBitmap(null, MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS);
+        return true;
+    }
+
+    /**
+     * Returns the number of matching events, or -1 if the filter bitmap is not complete.
+     */
+    public long getNumMatchingEvents() {
+        return filterBitmapComplete ? filterBitmap.size() : -1;
+    }
+
+    /**
+     * Returns the matching event at the given position in event number order, or null if there's none.
+     * The filter bitmap must be complete.
+     */
+    public FilteredEvent getMatchingEventAt(long position) {
+        Assert.isTrue(filterBitmapComplete);
+        return 0 <= position && position < filterBitmap.size() ? cacheFilteredEvent(filterBitmap.select(position)) : null;
+    }
+
+    /**
+     * Returns the number of matching events before the given event number. The filter bitmap must be complete.
+     */
+    public long getNumMatchingEventsBefore(long eventNumber) {
+        Assert.isTrue(filterBitmapComplete);
+        return filterBitmap.rank(eventNumber);
+    }
+
     public FilteredEvent getMatchingEventInDirection(long eventNumber, boolean forward) {
         return getMatchingEventInDirection(eventNumber, forward, -1);
     }
@@ -315,6 +536,22 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         while (event != null) {
             eventLog.progress();
             long eventNumber = event.getEventNumber();
+            // jump using the filter bitmap when the event is covered
+            if (eventNumber <= filterBitmapEndEventNumber) {
+                long matchingEventNumber = forward ? filterBitmap.getNext(eventNumber) : filterBitmap.getPrevious(eventNumber);
+                if (matchingEventNumber != -1)
+                    return stopEventNumber != -1 && (forward ? matchingEventNumber > stopEventNumber : matchingEventNumber < stopEventNumber) ? null : cacheFilteredEvent(matchingEventNumber);
+                else if (!forward || filterBitmapComplete)
+                    return null;
+                else {
+                    // continue after the covered events
+                    eventNumber = filterBitmapEndEventNumber + 1;
+                    if (stopEventNumber != -1 && eventNumber > stopEventNumber)
+                        return null;
+                    event = eventLog.getEventForEventNumber(eventNumber, MatchKind.LAST_OR_NEXT);
+                    continue;
+                }
+            }
             if (matchesFilter(event))
                 return cacheFilteredEvent(eventNumber);
             if (forward) {
@@ -339,6 +576,50 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
 
     // IEventLog interface
 
+    /**
+     * Returns the number of times new content was appended to the file since it was opened or overwritten.
+     */
+    public long getAppendCount() {
+        return appendCount;
+    }
+
+    @Override
+    public MessageDependencyGraph getMessageDependencyGraph() {
+        return detached ? detachedMessageDependencyGraph : eventLog.getMessageDependencyGraph();
+    }
+
+    /**
+     * Returns the summary of the matching events without blocking. The summary is built in the background
+     * when the filter bitmap is complete, and it's extended when the file is appended. Meanwhile the previous
+     * summary is returned, which may not contain the last appended events. Only the direct message dependencies
+     * between matching events are counted, the ones going through filtered out events are not.
+     */
+    @Override
+    public EventLogSummary getEventLogSummary() {
+        EventLogSummary builtEventLogSummary = this.builtEventLogSummary;
+        if (builtEventLogSummary != null) {
+            this.builtEventLogSummary = null;
+            eventLogSummary = builtEventLogSummary;
+        }
+        MessageDependencyGraph graph = getMessageDependencyGraph();
+        boolean idle = eventLogSummaryBuildJob == null || eventLogSummaryBuildJob.getState() == Job.NONE;
+        if (graph != null && filterBitmapComplete && idle && this.builtEventLogSummary == null && (eventLogSummary == null || !eventLogSummary.isUpToDate(graph, filterBitmapEndEventNumber))) {
+            int generation = filterBitmapGeneration;
+            // the job gets a copy of the bitmap, because it's extended from this thread when the file is appended
+            eventLogSummaryBuildJob = EventLogSummary.createBuildJob(new File(getFileReader().getFileName()), eventLogSummary, graph, filterBitmap.copy(), filterBitmapEndEventNumber, (result) -> {
+                if (generation == filterBitmapGeneration)
+                    this.builtEventLogSummary = result;
+            });
+            eventLogSummaryBuildJob.schedule();
+        }
+        return eventLogSummary;
+    }
+
+    @Override
+    public EventLogState getEventLogState(long eventNumber) {
+        return eventLog.getEventLogState(eventNumber);
+    }
+
     @Override
     public void setProgressMonitor(IProgressMonitor progressMonitor) {
         eventLog.setProgressMonitor(progressMonitor);
@@ -365,8 +646,7 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
                     break;
                 case FileReader.FileChange.APPENDED:
                     eventLog.synchronize(change);
-                    for (var it : eventNumberToFilteredEventMap.values())
-                        it.synchronize(change);
+                    appendCount++;
                     if (lastMatchingEvent != null) {
                         long eventNumber = lastMatchingEvent.getEventNumber();
                         eventNumberToFilteredEventMap.remove(eventNumber);
@@ -376,6 +656,18 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
                             firstMatchingEvent = null;
                         lastMatchingEvent = null;
                     }
+                    // appended events may be consequences of the traced event
+                    tracedEventConsequenceCone = null;
+                    if (filterBitmapEndEventNumber != -1) {
+                        // the last event might have been extended, a few appended events are evaluated here to keep
+                        // the bitmap complete, if there are more then they are left to another job
+                        boolean wasFilterBitmapComplete = filterBitmapComplete;
+                        filterBitmap.removeFrom(filterBitmapEndEventNumber);
+                        filterBitmapEndEventNumber--;
+                        filterBitmapComplete = false;
+                        if (wasFilterBitmapComplete)
+                            computeFilterBitmap(null, MAXIMUM_NUMBER_OF_CAUGHT_UP_EVENTS);
+                    }
                     break;
                 default:
                     throw new RuntimeException("Unknown file change");
@@ -384,7 +676,7 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     }
 
     @Override
-    public FileReader getFileReader() {
+    public IFileReader getFileReader() {
         return eventLog.getFileReader();
     }
 
@@ -556,6 +848,11 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         return eventLogEntry;
     }
 
+    @Override
+    public long[] findTextOffsets(String search, boolean caseSensitive) {
+        return eventLog.findTextOffsets(search, caseSensitive);
+    }
+
     @Override
     public Index getFirstIndex() {
         return eventLog.getFirstIndex();
@@ -598,7 +895,9 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
 
     @Override
     public long getApproximateNumberOfEvents() {
-        if (approximateNumberOfEvents == -1) {
+        if (filterBitmapComplete)
+            return filterBitmap.size();
+        else if (approximateNumberOfEvents == -1) {
             if (tracedEventNumber != -1) {
                 // TODO: this is clearly not good and should return a much better approximation
                 // TODO: maybe start from traced event number and go forward/backward and return approximation based on that?
@@ -651,7 +950,9 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     }
 
     public double getApproximatePercentageForEventNumber(long eventNumber) {
-        if (tracedEventNumber != -1)
+        if (filterBitmapComplete)
+            return filterBitmap.size() <= 1 ? 0.0 : Math.min(1.0, (double)filterBitmap.rank(eventNumber) / (filterBitmap.size() - 1));
+        else if (tracedEventNumber != -1)
             // TODO: this is clearly not good and should return a much better approximation
             return super.getApproximatePercentageForEventNumber(eventNumber);
         else
@@ -663,6 +964,8 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     public FilteredEvent getApproximateEventAt(double percentage) {
         if (isEmpty())
             return null;
+        else if (filterBitmapComplete)
+            return getMatchingEventAt(Math.round(percentage * (filterBitmap.size() - 1)));
         else {
             double firstEventPercentage = eventLog.getApproximatePercentageForEventNumber(getFirstEvent().getEventNumber());
             double lastEventPercentage = eventLog.getApproximatePercentageForEventNumber(getLastEvent().getEventNumber());
@@ -802,6 +1105,8 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     protected final boolean isCauseOfTracedEvent(IEvent causeEvent) {
         Assert.isTrue(causeEvent != null);
         eventLog.progress();
+        if (ensureTracedEventConesComputed())
+            return tracedEventCauseCone.contains(causeEvent.getEventNumber());
         var it = eventNumberToTraceableEventFlagMap.get(causeEvent.getEventNumber());
         if (it != null)
             return it;
@@ -835,6 +1140,8 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
     protected final boolean isConsequenceOfTracedEvent(IEvent consequenceEvent) {
         Assert.isTrue(consequenceEvent != null);
         eventLog.progress();
+        if (ensureTracedEventConesComputed())
+            return tracedEventConsequenceCone.contains(consequenceEvent.getEventNumber());
         var it = eventNumberToTraceableEventFlagMap.get(consequenceEvent.getEventNumber());
         if (it != null)
             return it;
@@ -864,6 +1171,35 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         return eventNumberToTraceableEventFlagMap.put(consequenceEventNumber, false);
     }
 
+    /**
+     * Computes the whole causal cone of the traced event from the message dependency graph, without
+     * the event by event search above. Returns false if the graph is not (yet) available.
+     */
+    // LONG RUNNING OPERATION
+    protected final boolean ensureTracedEventConesComputed() {
+        if (tracedEventConesUnavailable)
+            return false;
+        if (tracedEventCauseCone == null || tracedEventConsequenceCone == null) {
+            MessageDependencyGraph graph = getMessageDependencyGraph();
+            if (graph == null)
+                return false;
+            else if (!graph.containsEvent(tracedEventNumber)) {
+                tracedEventConesUnavailable = true;
+                return false;
+            }
+            if (tracedEventCauseCone == null)
+                tracedEventCauseCone = graph.getCauseCone(tracedEventNumber, traceSelfMessages, traceMessageReuses, eventLog::progress);
+            if (tracedEventConsequenceCone == null)
+                tracedEventConsequenceCone = graph.getConsequenceCone(tracedEventNumber, traceSelfMessages, traceMessageReuses, eventLog::progress);
+        }
+        return true;
+    }
+
+    protected final void copyPatternMatchers(ArrayList<PatternMatcher> patternMatchers, ArrayList<PatternMatcher> otherPatternMatchers) {
+        for (var otherMatcher : otherPatternMatchers)
+            patternMatchers.add(new PatternMatcher(otherMatcher));
+    }
+
     protected final void setPatternMatchers(java.util.ArrayList<PatternMatcher> patternMatchers, java.util.ArrayList<String> patterns) {
         setPatternMatchers(patternMatchers, patterns, false);
     }
@@ -886,6 +1222,18 @@ public class FilteredEventLog extends EventLogBase implements IEventLog
         eventNumberToTraceableEventFlagMap.clear();
         unseenTracedEventCauseEventNumbers.clear();
         unseenTracedEventConsequenceEventNumbers.clear();
+        tracedEventCauseCone = null;
+        tracedEventConsequenceCone = null;
+        tracedEventConesUnavailable = false;
+        filterBitmap.clear();
+        filterBitmapEndEventNumber = -1;
+        filterBitmapComplete = false;
+        filterBitmapGeneration++;
+        if (eventLogSummaryBuildJob != null)
+            eventLogSummaryBuildJob.cancel();
+        eventLogSummaryBuildJob = null;
+        eventLogSummary = null;
+        builtEventLogSummary = null;
     }
 
     protected final void deleteAllocatedObjects() {
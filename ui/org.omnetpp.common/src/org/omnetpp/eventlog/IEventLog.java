@@ -5,7 +5,7 @@ import java.util.TreeSet;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.omnetpp.common.engine.BigDecimal;
-import org.omnetpp.eventlog.engine.FileReader;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.entry.SimulationBeginEntry;
 import org.omnetpp.eventlog.entry.SimulationEndEntry;
 
@@ -14,7 +14,7 @@ public interface IEventLog
     /**
      * Returns the file reader used to read in events.
      */
-    public FileReader getFileReader();
+    public IFileReader getFileReader();
 
     /**
      * Returns the eventlog entry cache for the whole eventlog.
@@ -102,6 +102,12 @@ public interface IEventLog
      */
     public EventLogEntry findEventLogEntry(EventLogEntry start, String search, boolean forward, boolean caseSensitive);
 
+    /**
+     * Returns the begin offsets of all lines of the eventlog file containing the given text in increasing order.
+     * The whole file is searched including lines that don't belong to any event.
+     */
+    public long[] findTextOffsets(String search, boolean caseSensitive);
+
     /**
      * Returns the first index or null.
      */
@@ -177,6 +183,25 @@ public interface IEventLog
 
     public IEvent getLastEventNotAfterSimulationTime(BigDecimal simulationTime);
 
+    /**
+     * Returns the message dependencies of all events in the underlying eventlog file, or null if
+     * they are not yet available, in which case they are built in the background.
+     */
+    public MessageDependencyGraph getMessageDependencyGraph();
+
+    /**
+     * Returns the per module event counts and per module pair message dependency counts of the events
+     * in this eventlog, or null if they are not yet available. The summary is built in the background, and
+     * it may not contain the last appended events until it's extended. This method never blocks.
+     */
+    public EventLogSummary getEventLogSummary();
+
+    /**
+     * Returns the modules, gates, connections and custom objects along with their display strings
+     * as they were right after the given event, reconstructed from the closest index or snapshot.
+     */
+    public EventLogState getEventLogState(long eventNumber);
+
     public void setProgressMonitor(IProgressMonitor progressMonitor);
 
     /**
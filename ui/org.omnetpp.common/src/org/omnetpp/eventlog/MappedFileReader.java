@@ -0,0 +1,377 @@
+package org.omnetpp.eventlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.omnetpp.common.engineext.IFileReader;
+import org.omnetpp.eventlog.engine.FileReader;
+
+/**
+ * Pure Java replacement for the native FileReader. The file is memory mapped in fixed size regions,
+ * line boundaries are found by scanning the mapped bytes forward or backward, and lines are returned
+ * as views into the mapping, so reading a line copies nothing. Characters of a line view are the
+ * bytes themselves, which is exact for the ASCII parts of eventlog lines; toString() decodes UTF-8.
+ *
+ * The mapping reflects the file as of the last synchronize, content appended later is invisible until
+ * synchronize(FileChange.APPENDED) is called, which keeps the already mapped complete regions. Like the
+ * native reader, an incomplete last line is not returned. Not thread safe, but separate instances
+ * may read the same file concurrently.
+ */
+public class MappedFileReader implements IFileReader
+{
+    protected static final int REGION_SIZE_BITS = 26; // 64 MB
+    protected static final long REGION_SIZE = 1L << REGION_SIZE_BITS;
+    protected static final int SAVED_SIZE = 4096; // the end of the file compared to tell appending from overwriting
+
+    protected String fileName;
+    protected FileChannel channel;
+    protected boolean fileLocking;
+
+    protected MappedByteBuffer[] regions = new MappedByteBuffer[0]; // lazily mapped, null means not yet mapped
+    protected long fileSize = -1; // the size of the file as of the last synchronize
+    protected FileTime lastModificationTime;
+    protected byte[] savedBytes; // the last bytes of the file as of the last synchronize
+
+    protected long currentOffset;
+    protected long currentLineStartOffset = -1;
+    protected long currentLineEndOffset = -1;
+
+    protected long numReadLines;
+    protected long numReadBytes;
+
+    /**
+     * A line of the file without copying its content.
+     */
+    protected static class Line implements CharSequence
+    {
+        protected final MappedFileReader reader;
+        protected final long offset;
+        protected final int length;
+
+        public Line(MappedFileReader reader, long offset, int length) {
+            this.reader = reader;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+            return (char)(reader.getByte(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            if (begin < 0 || end > length || begin > end)
+                throw new IndexOutOfBoundsException("Begin: " + begin + ", end: " + end + ", length: " + length);
+            return new Line(reader, offset + begin, end - begin);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++)
+                bytes[i] = reader.getByte(offset + i);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    public MappedFileReader(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public boolean isFileOpen() {
+        return channel != null;
+    }
+
+    public void ensureFileOpen() {
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(getPath(), StandardOpenOption.READ);
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Cannot open file '" + fileName + "'", e);
+            }
+            synchronize(FileReader.FileChange.OVERWRITTEN);
+        }
+    }
+
+    /**
+     * Closes the file, the mapped regions are released when they are garbage collected.
+     */
+    @Override
+    public void ensureFileClosed() {
+        if (channel != null) {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Cannot close file '" + fileName + "'", e);
+            }
+            channel = null;
+        }
+        regions = new MappedByteBuffer[0];
+    }
+
+    @Override
+    public IFileReader createReader() {
+        return new MappedFileReader(fileName);
+    }
+
+    @Override
+    public void delete() {
+        ensureFileClosed();
+    }
+
+    @Override
+    public void setFileLocking(boolean fileLocking) {
+        this.fileLocking = fileLocking;
+    }
+
+    @Override
+    public long getFileSize() {
+        ensureFileOpen();
+        return fileSize;
+    }
+
+    @Override
+    public int getFileChange() {
+        ensureFileOpen();
+        FileLock fileLock = lock();
+        try {
+            long newFileSize = channel.size();
+            FileTime newLastModificationTime = Files.getLastModifiedTime(getPath());
+            if (newLastModificationTime.equals(lastModificationTime) && newFileSize == fileSize)
+                return FileReader.FileChange.UNCHANGED;
+            else if (newFileSize < fileSize)
+                return FileReader.FileChange.OVERWRITTEN;
+            else if (Arrays.equals(readSavedBytes(fileSize), savedBytes))
+                return newFileSize == fileSize ? FileReader.FileChange.UNCHANGED : FileReader.FileChange.APPENDED;
+            else
+                return FileReader.FileChange.OVERWRITTEN;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot check file '" + fileName + "' for changes", e);
+        }
+        finally {
+            unlock(fileLock);
+        }
+    }
+
+    /**
+     * Updates the mapping to the current content of the file. When the file was appended,
+     * the complete regions remain mapped, otherwise all regions are mapped again lazily.
+     */
+    @Override
+    public void synchronize(int change) {
+        if (channel == null) {
+            ensureFileOpen();
+            return;
+        }
+        FileLock fileLock = lock();
+        try {
+            long newFileSize = channel.size();
+            int numRegions = (int)((newFileSize + REGION_SIZE - 1) >> REGION_SIZE_BITS);
+            MappedByteBuffer[] newRegions = new MappedByteBuffer[numRegions];
+            if (change == FileReader.FileChange.APPENDED) {
+                int numCompleteRegions = Math.min((int)(fileSize >> REGION_SIZE_BITS), numRegions);
+                System.arraycopy(regions, 0, newRegions, 0, Math.min(numCompleteRegions, regions.length));
+            }
+            regions = newRegions;
+            fileSize = newFileSize;
+            lastModificationTime = Files.getLastModifiedTime(getPath());
+            savedBytes = readSavedBytes(fileSize);
+            currentOffset = Math.min(currentOffset, fileSize);
+            currentLineStartOffset = currentLineEndOffset = -1;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot synchronize file '" + fileName + "'", e);
+        }
+        finally {
+            unlock(fileLock);
+        }
+    }
+
+    @Override
+    public void seekTo(long fileOffset) {
+        if (fileOffset < 0 || fileOffset > getFileSize())
+            throw new RuntimeException("Invalid file offset: " + fileOffset);
+        currentOffset = fileOffset;
+    }
+
+    @Override
+    public CharSequence getNextLine() {
+        numReadLines++;
+        ensureFileOpen();
+        long beginOffset = currentOffset;
+        // when starting in the middle of a line
+        if (!isLineStart(beginOffset))
+            beginOffset = findNextLineStart(beginOffset);
+        long endOffset = beginOffset == -1 ? -1 : findNextLineStart(beginOffset);
+        return endOffset == -1 ? noLine() : line(beginOffset, endOffset, endOffset);
+    }
+
+    @Override
+    public CharSequence getPreviousLine() {
+        numReadLines++;
+        ensureFileOpen();
+        // when starting in the middle of a line
+        long endOffset = findLineStart(currentOffset);
+        if (endOffset == 0)
+            return noLine();
+        long beginOffset = findLineStart(endOffset - 1);
+        return line(beginOffset, endOffset, beginOffset);
+    }
+
+    @Override
+    public long getCurrentLineStartOffset() {
+        return currentLineStartOffset;
+    }
+
+    @Override
+    public long getCurrentLineEndOffset() {
+        return currentLineEndOffset;
+    }
+
+    @Override
+    public long getCurrentLineLength() {
+        return currentLineEndOffset - currentLineStartOffset;
+    }
+
+    @Override
+    public long getNumReadLines() {
+        return numReadLines;
+    }
+
+    @Override
+    public long getNumReadBytes() {
+        return numReadBytes;
+    }
+
+    protected Path getPath() {
+        return Paths.get(fileName);
+    }
+
+    protected CharSequence noLine() {
+        currentLineStartOffset = currentLineEndOffset = -1;
+        return null;
+    }
+
+    protected CharSequence line(long beginOffset, long endOffset, long newCurrentOffset) {
+        currentLineStartOffset = beginOffset;
+        currentLineEndOffset = endOffset;
+        currentOffset = newCurrentOffset;
+        numReadBytes += endOffset - beginOffset;
+        return new Line(this, beginOffset, (int)(endOffset - beginOffset));
+    }
+
+    /**
+     * Returns true if a line starts at the given offset. Lines are terminated by "\n", "\r\n" or a lone "\r",
+     * the same way in both directions.
+     */
+    protected boolean isLineStart(long offset) {
+        if (offset == 0)
+            return true;
+        byte b = getByte(offset - 1);
+        return b == '\n' || (b == '\r' && (offset == fileSize || getByte(offset) != '\n'));
+    }
+
+    /**
+     * Returns the offset following the line end characters after the given offset,
+     * or -1 if the line is not terminated within the file.
+     */
+    protected long findNextLineStart(long offset) {
+        while (offset < fileSize) {
+            byte b = getByte(offset++);
+            if (b == '\n')
+                return offset;
+            else if (b == '\r') {
+                if (offset < fileSize && getByte(offset) == '\n')
+                    offset++;
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the start offset of the line containing the given offset.
+     */
+    protected long findLineStart(long offset) {
+        while (!isLineStart(offset))
+            offset--;
+        return offset;
+    }
+
+    protected byte getByte(long offset) {
+        int index = (int)(offset >> REGION_SIZE_BITS);
+        MappedByteBuffer region = regions[index];
+        if (region == null)
+            region = mapRegion(index);
+        return region.get((int)(offset & (REGION_SIZE - 1)));
+    }
+
+    protected MappedByteBuffer mapRegion(int index) {
+        long regionOffset = (long)index << REGION_SIZE_BITS;
+        try {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionOffset, Math.min(REGION_SIZE, fileSize - regionOffset));
+            regions[index] = region;
+            return region;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot map file '" + fileName + "' at offset " + regionOffset, e);
+        }
+    }
+
+    protected byte[] readSavedBytes(long endOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(SAVED_SIZE, endOffset));
+        long offset = endOffset - buffer.capacity();
+        while (buffer.hasRemaining()) {
+            int numBytes = channel.read(buffer, offset + buffer.position());
+            if (numBytes == -1)
+                break;
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    protected FileLock lock() {
+        try {
+            return fileLocking ? channel.lock(0, Long.MAX_VALUE, true) : null;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot lock file '" + fileName + "'", e);
+        }
+    }
+
+    protected void unlock(FileLock fileLock) {
+        try {
+            if (fileLock != null)
+                fileLock.release();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot unlock file '" + fileName + "'", e);
+        }
+    }
+}
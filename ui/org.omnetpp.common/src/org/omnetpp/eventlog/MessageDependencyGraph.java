@@ -0,0 +1,496 @@
+package org.omnetpp.eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * All message dependencies of an eventlog file in a compact adjacency structure, persisted next to
+ * the eventlog file in a sidecar file (the eventlog file name with an additional ".deps" extension).
+ * Events are stored in increasing event number order, the causes of each event are stored in a single
+ * array indexed by per event offsets (compressed sparse rows), and the consequences are derived
+ * from the causes the same way. Edges are either message sends ("ce" of "E" lines) or message reuses
+ * ("pe" of message description entries), mirroring Event.getCauses().
+ *
+ * The graph is built by scanning the eventlog file once, without parsing events into objects, so
+ * the whole causal cone of an event can be walked without depth, number or time limits. Like the
+ * persistent index, it's valid as long as the size and the modification time of the eventlog file
+ * are unchanged, and it's extended by scanning the appended content only.
+ *
+ * The graph is built and extended by a background job, which extends a copy of the graph in use.
+ * Afterwards only the consequences are derived lazily, so the graph can be read from any thread.
+ */
+public class MessageDependencyGraph
+{
+    public static final String FILE_NAME_EXTENSION = ".deps";
+
+    // edge kinds, an edge may be both
+    public static final byte SEND = 1;
+    public static final byte REUSE = 2;
+
+    // event flags
+    public static final byte SELF_MESSAGE_PROCESSING = 1; // see IEvent.isSelfMessageProcessingEvent()
+
+    protected static final long MAGIC = 0x4f50505f454c4447L; // "OPP_ELDG"
+    protected static final int VERSION = 2;
+    protected static final int PROGRESS_LINE_COUNT = 4096;
+
+    // the state of the eventlog file when it was last scanned
+    protected long eventLogFileSize;
+    protected long eventLogFileLastModified;
+    protected long eventLogFileChecksum;
+    protected long scannedOffset; // always at a line boundary, scanning continues from here when the file is appended
+
+    // events in increasing event number order
+    protected int numEvents;
+    protected long[] eventNumbers = new long[0];
+    protected byte[] eventFlags = new byte[0];
+    protected int[] eventModuleIds = new int[0];
+
+    // causes of event i are at causeOffsets[i] .. causeOffsets[i + 1]
+    protected int[] causeOffsets = new int[] { 0 };
+    protected int numCauses;
+    protected long[] causeEventNumbers = new long[0];
+    protected byte[] causeKinds = new byte[0];
+
+    // consequences of event i are at consequenceOffsets[i] .. consequenceOffsets[i + 1], derived from the causes lazily
+    protected int[] consequenceOffsets;
+    protected int[] consequenceEventIndices;
+    protected byte[] consequenceKinds;
+
+    // scanning state kept between scans
+    protected boolean previousLineBeginSend; // the previous entry of the current event is a "BS" line
+    protected HashMap<Long, Long> selfMessageIdToSchedulingEventNumberMap = new HashMap<Long, Long>(); // self messages scheduled but not yet processed
+
+    /**
+     * Returns a copy of the graph without the derived consequences, which can be extended independently.
+     */
+    public MessageDependencyGraph copy() {
+        MessageDependencyGraph copy = new MessageDependencyGraph();
+        copy.eventLogFileSize = eventLogFileSize;
+        copy.eventLogFileLastModified = eventLogFileLastModified;
+        copy.eventLogFileChecksum = eventLogFileChecksum;
+        copy.scannedOffset = scannedOffset;
+        copy.numEvents = numEvents;
+        copy.eventNumbers = Arrays.copyOf(eventNumbers, numEvents);
+        copy.eventFlags = Arrays.copyOf(eventFlags, numEvents);
+        copy.eventModuleIds = Arrays.copyOf(eventModuleIds, numEvents);
+        copy.causeOffsets = Arrays.copyOf(causeOffsets, numEvents + 1);
+        copy.numCauses = numCauses;
+        copy.causeEventNumbers = Arrays.copyOf(causeEventNumbers, numCauses);
+        copy.causeKinds = Arrays.copyOf(causeKinds, numCauses);
+        copy.previousLineBeginSend = previousLineBeginSend;
+        copy.selfMessageIdToSchedulingEventNumberMap = new HashMap<Long, Long>(selfMessageIdToSchedulingEventNumberMap);
+        return copy;
+    }
+
+    public static File getGraphFile(File eventLogFile) {
+        return new File(eventLogFile.getPath() + FILE_NAME_EXTENSION);
+    }
+
+    public long getScannedOffset() {
+        return scannedOffset;
+    }
+
+    public int getNumEvents() {
+        return numEvents;
+    }
+
+    public int getNumEdges() {
+        return numCauses;
+    }
+
+    public boolean containsEvent(long eventNumber) {
+        return findEventIndex(eventNumber) >= 0;
+    }
+
+    public boolean isSelfMessageProcessingEvent(long eventNumber) {
+        int index = findEventIndex(eventNumber);
+        return index >= 0 && (eventFlags[index] & SELF_MESSAGE_PROCESSING) != 0;
+    }
+
+    /**
+     * Returns the event number of the event at the given index, events are indexed in increasing event number order.
+     */
+    public long getEventNumber(int index) {
+        return eventNumbers[index];
+    }
+
+    public int getEventModuleId(int index) {
+        return eventModuleIds[index];
+    }
+
+    public int getCauseBeginIndex(int index) {
+        return causeOffsets[index];
+    }
+
+    public int getCauseEndIndex(int index) {
+        return causeOffsets[index + 1];
+    }
+
+    public long getCauseEventNumber(int causeIndex) {
+        return causeEventNumbers[causeIndex];
+    }
+
+    public byte getCauseKind(int causeIndex) {
+        return causeKinds[causeIndex];
+    }
+
+    /**
+     * Returns the index of the given event, or a negative value if it's not in the graph.
+     */
+    public int getEventIndex(long eventNumber) {
+        return findEventIndex(eventNumber);
+    }
+
+    /**
+     * Returns true if the graph describes the current content of the eventlog file.
+     */
+    public boolean isUpToDate(File eventLogFile) {
+        return eventLogFile.length() == eventLogFileSize && eventLogFile.lastModified() == eventLogFileLastModified;
+    }
+
+    /**
+     * Returns true if the eventlog file was only appended since the graph was built,
+     * so that the graph can be extended by calling scan().
+     */
+    public boolean isExtensibleTo(File eventLogFile) throws IOException {
+        return eventLogFile.length() >= eventLogFileSize && EventLogIndexFile.computeChecksum(eventLogFile) == eventLogFileChecksum;
+    }
+
+    /**
+     * Scans the eventlog file from the last scanned offset to its current end, extending the graph.
+     * The last incomplete line (if any) is left for the next scan. If the scan is canceled, then the
+     * graph remains consistent and the next scan continues from where this one stopped.
+     */
+    public void scan(File eventLogFile, IProgressMonitor monitor) throws IOException {
+        long lastModified = eventLogFile.lastModified();
+        long checksum = EventLogIndexFile.computeChecksum(eventLogFile);
+        if (scannedOffset == 0)
+            eventLogFileChecksum = checksum;
+        MappedFileReader reader = new MappedFileReader(eventLogFile.getPath());
+        EventLogTokenizer tokenizer = new EventLogTokenizer();
+        try {
+            long fileSize = reader.getFileSize();
+            reader.seekTo(scannedOffset);
+            int lineCount = 0;
+            long reportedOffset = scannedOffset;
+            CharSequence line;
+            while ((line = reader.getNextLine()) != null) {
+                processLine(tokenizer, line);
+                scannedOffset = reader.getCurrentLineEndOffset();
+                if (monitor != null && ++lineCount % PROGRESS_LINE_COUNT == 0) {
+                    if (monitor.isCanceled())
+                        throw new OperationCanceledException();
+                    int worked = (int)((scannedOffset - reportedOffset) / 1024);
+                    monitor.worked(worked);
+                    reportedOffset += worked * 1024L;
+                }
+            }
+            eventLogFileSize = fileSize;
+            eventLogFileLastModified = lastModified;
+        }
+        finally {
+            reader.ensureFileClosed();
+            consequenceOffsets = null;
+        }
+    }
+
+    protected void processLine(EventLogTokenizer tokenizer, CharSequence line) {
+        if (line.length() == 0 || line.charAt(0) == '\r' || line.charAt(0) == '\n')
+            return;
+        else if (line.charAt(0) == '-') {
+            previousLineBeginSend = false;
+            return;
+        }
+        tokenizer.tokenize(line, line.length());
+        if (tokenizer.getNumTokens() == 0)
+            return;
+        if (tokenizer.tokenEquals(0, "E")) {
+            long eventNumber = tokenizer.getEventNumberToken("#", true, -1);
+            int moduleId = tokenizer.getIntToken("m", true, -1);
+            long causeEventNumber = tokenizer.getEventNumberToken("ce", true, -1);
+            long messageId = tokenizer.getLongToken("msg", true, -1);
+            Long schedulingEventNumber = selfMessageIdToSchedulingEventNumberMap.remove(messageId);
+            boolean selfMessageProcessing = schedulingEventNumber != null && schedulingEventNumber == causeEventNumber;
+            addEvent(eventNumber, moduleId, selfMessageProcessing ? SELF_MESSAGE_PROCESSING : 0);
+            if (causeEventNumber != -1)
+                addCause(causeEventNumber, SEND);
+            previousLineBeginSend = false;
+        }
+        else if (numEvents != 0) {
+            // entries before the first event don't belong to any event
+            long eventNumber = eventNumbers[numEvents - 1];
+            long previousEventNumber = tokenizer.findValue("pe") != -1 ? tokenizer.getEventNumberToken("pe", true, -1) : -1;
+            if (previousEventNumber != -1 && previousEventNumber != eventNumber)
+                addCause(previousEventNumber, REUSE);
+            // a message scheduled to itself has an "ES" line immediately after the "BS" line
+            if (tokenizer.tokenEquals(0, "ES") && previousLineBeginSend)
+                selfMessageIdToSchedulingEventNumberMap.put(tokenizer.getLongToken("id", true, -1), eventNumber);
+            else if (tokenizer.tokenEquals(0, "CE") || tokenizer.tokenEquals(0, "DM"))
+                selfMessageIdToSchedulingEventNumberMap.remove(tokenizer.getLongToken("id", true, -1));
+            previousLineBeginSend = tokenizer.tokenEquals(0, "BS");
+        }
+    }
+
+    protected void addEvent(long eventNumber, int moduleId, byte flags) {
+        if (numEvents == eventNumbers.length) {
+            int capacity = Math.max(1024, numEvents * 2);
+            eventNumbers = Arrays.copyOf(eventNumbers, capacity);
+            eventFlags = Arrays.copyOf(eventFlags, capacity);
+            eventModuleIds = Arrays.copyOf(eventModuleIds, capacity);
+            causeOffsets = Arrays.copyOf(causeOffsets, capacity + 1);
+        }
+        eventNumbers[numEvents] = eventNumber;
+        eventFlags[numEvents] = flags;
+        eventModuleIds[numEvents] = moduleId;
+        numEvents++;
+        causeOffsets[numEvents] = numCauses;
+    }
+
+    /**
+     * Adds a cause to the last event, multiple dependencies on the same event are merged into one edge.
+     */
+    protected void addCause(long causeEventNumber, byte kind) {
+        for (int i = causeOffsets[numEvents - 1]; i < numCauses; i++) {
+            if (causeEventNumbers[i] == causeEventNumber) {
+                causeKinds[i] |= kind;
+                return;
+            }
+        }
+        if (numCauses == causeEventNumbers.length) {
+            int capacity = Math.max(1024, numCauses * 2);
+            causeEventNumbers = Arrays.copyOf(causeEventNumbers, capacity);
+            causeKinds = Arrays.copyOf(causeKinds, capacity);
+        }
+        causeEventNumbers[numCauses] = causeEventNumber;
+        causeKinds[numCauses] = kind;
+        numCauses++;
+        causeOffsets[numEvents] = numCauses;
+    }
+
+    /**
+     * Returns the event numbers of all events from which the given event can be reached through message
+     * dependencies, excluding the event itself. Events processing self messages are not included and
+     * not followed unless includeSelfMessages is true, dependencies which are only message reuses are
+     * not followed unless includeMessageReuses is true.
+     */
+    public EventNumberBitmap getCauseCone(long eventNumber, boolean includeSelfMessages, boolean includeMessageReuses, Runnable progress) {
+        return getCone(eventNumber, true, includeSelfMessages, includeMessageReuses, progress);
+    }
+
+    /**
+     * Returns the event numbers of all events which can be reached from the given event through message
+     * dependencies, excluding the event itself. See getCauseCone().
+     */
+    public EventNumberBitmap getConsequenceCone(long eventNumber, boolean includeSelfMessages, boolean includeMessageReuses, Runnable progress) {
+        return getCone(eventNumber, false, includeSelfMessages, includeMessageReuses, progress);
+    }
+
+    // LONG RUNNING OPERATION
+    // this does a breadth first search in the graph
+    protected EventNumberBitmap getCone(long eventNumber, boolean causes, boolean includeSelfMessages, boolean includeMessageReuses, Runnable progress) {
+        if (!causes)
+            ensureConsequencesComputed();
+        BitSet visited = new BitSet(numEvents);
+        int index = findEventIndex(eventNumber);
+        if (index >= 0) {
+            int[] todoList = new int[64];
+            int todoListSize = 0;
+            todoList[todoListSize++] = index;
+            visited.set(index);
+            int count = 0;
+            while (todoListSize != 0) {
+                if (progress != null && ++count % PROGRESS_LINE_COUNT == 0)
+                    progress.run();
+                int currentIndex = todoList[--todoListSize];
+                int begin = causes ? causeOffsets[currentIndex] : consequenceOffsets[currentIndex];
+                int end = causes ? causeOffsets[currentIndex + 1] : consequenceOffsets[currentIndex + 1];
+                for (int i = begin; i < end; i++) {
+                    byte kind = causes ? causeKinds[i] : consequenceKinds[i];
+                    if (!includeMessageReuses && (kind & SEND) == 0)
+                        continue;
+                    int otherIndex = causes ? findEventIndex(causeEventNumbers[i]) : consequenceEventIndices[i];
+                    if (otherIndex < 0 || visited.get(otherIndex))
+                        continue;
+                    if (!includeSelfMessages && (eventFlags[otherIndex] & SELF_MESSAGE_PROCESSING) != 0)
+                        continue;
+                    visited.set(otherIndex);
+                    if (todoListSize == todoList.length)
+                        todoList = Arrays.copyOf(todoList, 2 * todoListSize);
+                    todoList[todoListSize++] = otherIndex;
+                }
+            }
+            visited.clear(index);
+        }
+        EventNumberBitmap cone = new EventNumberBitmap();
+        for (int i = visited.nextSetBit(0); i >= 0; i = visited.nextSetBit(i + 1))
+            cone.add(eventNumbers[i]);
+        return cone;
+    }
+
+    /**
+     * Derives the consequences from the causes by counting sort, edges to events not present in the file are dropped.
+     */
+    protected synchronized void ensureConsequencesComputed() {
+        if (consequenceOffsets != null)
+            return;
+        int[] causeEventIndices = new int[numCauses];
+        int[] offsets = new int[numEvents + 1];
+        for (int i = 0; i < numCauses; i++) {
+            causeEventIndices[i] = findEventIndex(causeEventNumbers[i]);
+            if (causeEventIndices[i] >= 0)
+                offsets[causeEventIndices[i] + 1]++;
+        }
+        for (int i = 0; i < numEvents; i++)
+            offsets[i + 1] += offsets[i];
+        int[] positions = Arrays.copyOf(offsets, numEvents);
+        int[] eventIndices = new int[offsets[numEvents]];
+        byte[] kinds = new byte[offsets[numEvents]];
+        for (int consequenceIndex = 0; consequenceIndex < numEvents; consequenceIndex++) {
+            for (int i = causeOffsets[consequenceIndex]; i < causeOffsets[consequenceIndex + 1]; i++) {
+                int causeIndex = causeEventIndices[i];
+                if (causeIndex >= 0) {
+                    int position = positions[causeIndex]++;
+                    eventIndices[position] = consequenceIndex;
+                    kinds[position] = causeKinds[i];
+                }
+            }
+        }
+        consequenceEventIndices = eventIndices;
+        consequenceKinds = kinds;
+        consequenceOffsets = offsets;
+    }
+
+    protected int findEventIndex(long eventNumber) {
+        return Arrays.binarySearch(eventNumbers, 0, numEvents, eventNumber);
+    }
+
+    /**
+     * Reads the graph from the given file. Returns null if the file does not exist,
+     * or it has a different format or version.
+     */
+    public static MessageDependencyGraph read(File graphFile) {
+        if (!graphFile.isFile())
+            return null;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(graphFile), 64 * 1024))) {
+            if (stream.readLong() != MAGIC || stream.readInt() != VERSION)
+                return null;
+            MessageDependencyGraph graph = new MessageDependencyGraph();
+            graph.eventLogFileSize = stream.readLong();
+            graph.eventLogFileLastModified = stream.readLong();
+            graph.eventLogFileChecksum = stream.readLong();
+            graph.scannedOffset = stream.readLong();
+            graph.previousLineBeginSend = stream.readBoolean();
+            int numEvents = stream.readInt();
+            for (int i = 0; i < numEvents; i++) {
+                graph.addEvent(stream.readLong(), stream.readInt(), stream.readByte());
+                int numCauses = stream.readInt();
+                for (int j = 0; j < numCauses; j++)
+                    graph.addCause(stream.readLong(), stream.readByte());
+            }
+            int numSelfMessages = stream.readInt();
+            for (int i = 0; i < numSelfMessages; i++)
+                graph.selfMessageIdToSchedulingEventNumberMap.put(stream.readLong(), stream.readLong());
+            return graph;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a job that loads the graph from the sidecar file, or extends a copy of the given graph or
+     * the loaded one, or builds a new one, and writes it back into the sidecar file. The callback is called
+     * from the job thread with the up to date graph, or with null if the eventlog file cannot be read.
+     */
+    public static Job createBuildJob(File eventLogFile, MessageDependencyGraph graph, Consumer<MessageDependencyGraph> callback) {
+        Job job = new Job("Collecting message dependencies of " + eventLogFile.getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    // the given graph may be in use, so it's not extended in place
+                    MessageDependencyGraph result = graph != null ? graph.copy() : read(getGraphFile(eventLogFile));
+                    if (result == null || !result.isExtensibleTo(eventLogFile))
+                        result = new MessageDependencyGraph();
+                    if (!result.isUpToDate(eventLogFile)) {
+                        long remaining = eventLogFile.length() - result.scannedOffset;
+                        monitor.beginTask(getName(), (int)Math.max(1, remaining / 1024));
+                        result.scan(eventLogFile, monitor);
+                        try {
+                            result.write(getGraphFile(eventLogFile));
+                        }
+                        catch (IOException e) {
+                            // the directory may be read-only, the graph is still usable in memory
+                        }
+                    }
+                    callback.accept(result);
+                    return Status.OK_STATUS;
+                }
+                catch (OperationCanceledException e) {
+                    return Status.CANCEL_STATUS;
+                }
+                catch (IOException e) {
+                    callback.accept(null);
+                    return Status.CANCEL_STATUS;
+                }
+                finally {
+                    monitor.done();
+                }
+            }
+        };
+        job.setPriority(Job.DECORATE);
+        return job;
+    }
+
+    /**
+     * Writes the graph into the given file. The file is replaced atomically, so concurrent readers
+     * never see a partially written graph.
+     */
+    public void write(File graphFile) throws IOException {
+        File temporaryFile = new File(graphFile.getPath() + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 64 * 1024))) {
+            stream.writeLong(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeLong(eventLogFileSize);
+            stream.writeLong(eventLogFileLastModified);
+            stream.writeLong(eventLogFileChecksum);
+            stream.writeLong(scannedOffset);
+            stream.writeBoolean(previousLineBeginSend);
+            stream.writeInt(numEvents);
+            for (int i = 0; i < numEvents; i++) {
+                stream.writeLong(eventNumbers[i]);
+                stream.writeInt(eventModuleIds[i]);
+                stream.writeByte(eventFlags[i]);
+                stream.writeInt(causeOffsets[i + 1] - causeOffsets[i]);
+                for (int j = causeOffsets[i]; j < causeOffsets[i + 1]; j++) {
+                    stream.writeLong(causeEventNumbers[j]);
+                    stream.writeByte(causeKinds[j]);
+                }
+            }
+            stream.writeInt(selfMessageIdToSchedulingEventNumberMap.size());
+            for (var entry : selfMessageIdToSchedulingEventNumberMap.entrySet()) {
+                stream.writeLong(entry.getKey());
+                stream.writeLong(entry.getValue());
+            }
+        }
+        Files.move(temporaryFile.toPath(), graphFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -5,7 +5,7 @@ import java.util.ArrayList;
 
 import org.eclipse.core.runtime.Assert;
 import org.omnetpp.common.engine.BigDecimal;
-import org.omnetpp.eventlog.engine.FileReader;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.eventlog.entry.ReferenceEntry;
 import org.omnetpp.eventlog.entry.ReferenceFoundEntry;
 import org.omnetpp.eventlog.entry.SnapshotEntry;
@@ -47,11 +47,11 @@ public class Snapshot implements IChunk
     /**
      * Parse the snapshot from a file.
      */
-    public final long parse(FileReader reader) {
+    public final long parse(IFileReader reader) {
         reader.seekTo(beginOffset);
         int index = 0;
         while (true) {
-            String line = reader.getNextLine();
+            CharSequence line = reader.getNextLine();
             if (line == null) {
                 endOffset = reader.getFileSize();
                 break;
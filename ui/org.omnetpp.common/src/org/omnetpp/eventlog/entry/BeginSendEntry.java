@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.common.engine.BigDecimal;
 
 public class BeginSendEntry extends MessageDescriptionEntry
@@ -30,11 +31,11 @@ public class BeginSendEntry extends MessageDescriptionEntry
     public boolean getIsUpdate() { return isUpdate; }
     public long getTransmissionId() { return transmissionId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        sendDelay = getSimtimeToken(tokens, numTokens, "sd", false, sendDelay);
-        isUpdate = getBoolToken(tokens, numTokens, "up", false, isUpdate);
-        transmissionId = getLongToken(tokens, numTokens, "tx", false, transmissionId);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        sendDelay = tokenizer.getSimtimeToken("sd", false, sendDelay);
+        isUpdate = tokenizer.getBoolToken("up", false, isUpdate);
+        transmissionId = tokenizer.getLongToken("tx", false, transmissionId);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class BubbleEntry extends EventLogTokenBasedEntry
 {
@@ -27,9 +28,9 @@ public class BubbleEntry extends EventLogTokenBasedEntry
     public int getModuleId() { return moduleId; }
     public String getText() { return text; }
 
-    public void parse(String[] tokens, int numTokens) {
-        moduleId = getIntToken(tokens, numTokens, "id", true, moduleId);
-        text = getStringToken(tokens, numTokens, "txt", true, text);
+    public void parse(EventLogTokenizer tokenizer) {
+        moduleId = tokenizer.getIntToken("id", true, moduleId);
+        text = tokenizer.getStringToken("txt", true, text);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class CloneMessageEntry extends MessageDescriptionEntry
 {
     public long cloneId;
@@ -20,9 +21,9 @@ public class CloneMessageEntry extends MessageDescriptionEntry
 
     public long getCloneId() { return cloneId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        cloneId = getLongToken(tokens, numTokens, "cid", true, cloneId);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        cloneId = tokenizer.getLongToken("cid", true, cloneId);
     }
 
     public void print(OutputStream stream) {
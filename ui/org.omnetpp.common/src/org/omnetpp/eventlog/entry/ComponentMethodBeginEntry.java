@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class ComponentMethodBeginEntry extends EventLogTokenBasedEntry
 {
@@ -31,10 +32,10 @@ public class ComponentMethodBeginEntry extends EventLogTokenBasedEntry
     public int getTargetComponentId() { return targetComponentId; }
     public String getMethodName() { return methodName; }
 
-    public void parse(String[] tokens, int numTokens) {
-        sourceComponentId = getIntToken(tokens, numTokens, "sm", true, sourceComponentId);
-        targetComponentId = getIntToken(tokens, numTokens, "tm", true, targetComponentId);
-        methodName = getStringToken(tokens, numTokens, "m", true, methodName);
+    public void parse(EventLogTokenizer tokenizer) {
+        sourceComponentId = tokenizer.getIntToken("sm", true, sourceComponentId);
+        targetComponentId = tokenizer.getIntToken("tm", true, targetComponentId);
+        methodName = tokenizer.getStringToken("m", true, methodName);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class ConnectionDescriptionEntry extends ConnectionReferenceEntry
 {
     public int destModuleId;
@@ -24,10 +25,10 @@ public class ConnectionDescriptionEntry extends ConnectionReferenceEntry
     public int getDestModuleId() { return destModuleId; }
     public int getDestGateId() { return destGateId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        destModuleId = getIntToken(tokens, numTokens, "dm", true, destModuleId);
-        destGateId = getIntToken(tokens, numTokens, "dg", true, destGateId);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        destModuleId = tokenizer.getIntToken("dm", true, destModuleId);
+        destGateId = tokenizer.getIntToken("dg", true, destGateId);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class CustomDescriptionEntry extends CustomReferenceEntry
 {
     public String content;
@@ -20,9 +21,9 @@ public class CustomDescriptionEntry extends CustomReferenceEntry
 
     public String getContent() { return content; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        content = getStringToken(tokens, numTokens, "c", true, content);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        content = tokenizer.getStringToken("c", true, content);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class CustomFoundEntry extends CustomDescriptionEntry
 {
     public long lastSeenEventNumber;
@@ -24,10 +25,10 @@ public class CustomFoundEntry extends CustomDescriptionEntry
     public long getLastSeenEventNumber() { return lastSeenEventNumber; }
     public int getLastSeenEntryIndex() { return lastSeenEntryIndex; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        lastSeenEventNumber = getEventNumberToken(tokens, numTokens, "#", true, lastSeenEventNumber);
-        lastSeenEntryIndex = getIntToken(tokens, numTokens, "ei", true, lastSeenEntryIndex);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        lastSeenEventNumber = tokenizer.getEventNumberToken("#", true, lastSeenEventNumber);
+        lastSeenEntryIndex = tokenizer.getIntToken("ei", true, lastSeenEntryIndex);
     }
 
     public void print(OutputStream stream) {
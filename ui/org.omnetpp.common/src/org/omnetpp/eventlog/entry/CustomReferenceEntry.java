@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class CustomReferenceEntry extends EventLogTokenBasedEntry
 {
@@ -27,9 +28,9 @@ public class CustomReferenceEntry extends EventLogTokenBasedEntry
     public String getType() { return type; }
     public long getKey() { return key; }
 
-    public void parse(String[] tokens, int numTokens) {
-        type = getStringToken(tokens, numTokens, "t", true, type);
-        key = getLongToken(tokens, numTokens, "k", true, key);
+    public void parse(EventLogTokenizer tokenizer) {
+        type = tokenizer.getStringToken("t", true, type);
+        key = tokenizer.getLongToken("k", true, key);
     }
 
     public void print(OutputStream stream) {
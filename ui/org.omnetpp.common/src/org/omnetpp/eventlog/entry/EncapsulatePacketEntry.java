@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class EncapsulatePacketEntry extends MessageReferenceEntry
 {
     public long encapsulatedPacketId;
@@ -20,9 +21,9 @@ public class EncapsulatePacketEntry extends MessageReferenceEntry
 
     public long getEncapsulatedPacketId() { return encapsulatedPacketId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        encapsulatedPacketId = getLongToken(tokens, numTokens, "cid", true, encapsulatedPacketId);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        encapsulatedPacketId = tokenizer.getLongToken("cid", true, encapsulatedPacketId);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 import org.omnetpp.common.engine.BigDecimal;
 
@@ -45,13 +46,13 @@ public class EventEntry extends EventLogTokenBasedEntry
     public long getMessageId() { return messageId; }
     public String getFingerprints() { return fingerprints; }
 
-    public void parse(String[] tokens, int numTokens) {
-        eventNumber = getEventNumberToken(tokens, numTokens, "#", true, eventNumber);
-        simulationTime = getSimtimeToken(tokens, numTokens, "t", true, simulationTime);
-        moduleId = getIntToken(tokens, numTokens, "m", true, moduleId);
-        causeEventNumber = getEventNumberToken(tokens, numTokens, "ce", true, causeEventNumber);
-        messageId = getLongToken(tokens, numTokens, "msg", true, messageId);
-        fingerprints = getStringToken(tokens, numTokens, "f", false, fingerprints);
+    public void parse(EventLogTokenizer tokenizer) {
+        eventNumber = tokenizer.getEventNumberToken("#", true, eventNumber);
+        simulationTime = tokenizer.getSimtimeToken("t", true, simulationTime);
+        moduleId = tokenizer.getIntToken("m", true, moduleId);
+        causeEventNumber = tokenizer.getEventNumberToken("ce", true, causeEventNumber);
+        messageId = tokenizer.getLongToken("msg", true, messageId);
+        fingerprints = tokenizer.getStringToken("f", false, fingerprints);
     }
 
     public void print(OutputStream stream) {
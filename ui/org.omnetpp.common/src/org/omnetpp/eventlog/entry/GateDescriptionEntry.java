@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class GateDescriptionEntry extends GateReferenceEntry
 {
     public String name;
@@ -28,11 +29,11 @@ public class GateDescriptionEntry extends GateReferenceEntry
     public int getIndex() { return index; }
     public boolean getIsOutput() { return isOutput; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        name = getStringToken(tokens, numTokens, "n", true, name);
-        index = getIntToken(tokens, numTokens, "i", false, index);
-        isOutput = getBoolToken(tokens, numTokens, "o", true, isOutput);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        name = tokenizer.getStringToken("n", true, name);
+        index = tokenizer.getIntToken("i", false, index);
+        isOutput = tokenizer.getBoolToken("o", true, isOutput);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class GateReferenceEntry extends EventLogTokenBasedEntry
 {
@@ -27,9 +28,9 @@ public class GateReferenceEntry extends EventLogTokenBasedEntry
     public int getModuleId() { return moduleId; }
     public int getGateId() { return gateId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        moduleId = getIntToken(tokens, numTokens, "m", true, moduleId);
-        gateId = getIntToken(tokens, numTokens, "g", true, gateId);
+    public void parse(EventLogTokenizer tokenizer) {
+        moduleId = tokenizer.getIntToken("m", true, moduleId);
+        gateId = tokenizer.getIntToken("g", true, gateId);
     }
 
     public void print(OutputStream stream) {
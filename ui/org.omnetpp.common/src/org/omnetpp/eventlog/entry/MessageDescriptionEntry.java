@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.common.engine.BigDecimal;
 
 public class MessageDescriptionEntry extends MessageReferenceEntry
@@ -90,26 +91,26 @@ public class MessageDescriptionEntry extends MessageReferenceEntry
     public String getDetail() { return detail; }
     public long getPreviousEventNumber() { return previousEventNumber; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        messageTreeId = getLongToken(tokens, numTokens, "tid", true, messageTreeId);
-        messageEncapsulationId = getLongToken(tokens, numTokens, "eid", true, messageEncapsulationId);
-        messageEncapsulationTreeId = getLongToken(tokens, numTokens, "etid", true, messageEncapsulationTreeId);
-        messageClassName = getStringToken(tokens, numTokens, "c", true, messageClassName);
-        messageName = getStringToken(tokens, numTokens, "n", true, messageName);
-        messageKind = getShortToken(tokens, numTokens, "k", false, messageKind);
-        messagePriority = getShortToken(tokens, numTokens, "p", false, messagePriority);
-        messageLength = getInt64Token(tokens, numTokens, "l", false, messageLength);
-        hasBitError = getBoolToken(tokens, numTokens, "er", false, hasBitError);
-        ownerModuleId = getIntToken(tokens, numTokens, "m", false, ownerModuleId);
-        senderModuleId = getIntToken(tokens, numTokens, "sm", false, senderModuleId);
-        senderGateId = getIntToken(tokens, numTokens, "sg", false, senderGateId);
-        sendingTime = getSimtimeToken(tokens, numTokens, "st", false, sendingTime);
-        arrivalModuleId = getIntToken(tokens, numTokens, "am", false, arrivalModuleId);
-        arrivalGateId = getIntToken(tokens, numTokens, "ag", false, arrivalGateId);
-        arrivalTime = getSimtimeToken(tokens, numTokens, "at", false, arrivalTime);
-        detail = getStringToken(tokens, numTokens, "d", false, detail);
-        previousEventNumber = getEventNumberToken(tokens, numTokens, "pe", true, previousEventNumber);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        messageTreeId = tokenizer.getLongToken("tid", true, messageTreeId);
+        messageEncapsulationId = tokenizer.getLongToken("eid", true, messageEncapsulationId);
+        messageEncapsulationTreeId = tokenizer.getLongToken("etid", true, messageEncapsulationTreeId);
+        messageClassName = tokenizer.getStringToken("c", true, messageClassName);
+        messageName = tokenizer.getStringToken("n", true, messageName);
+        messageKind = tokenizer.getShortToken("k", false, messageKind);
+        messagePriority = tokenizer.getShortToken("p", false, messagePriority);
+        messageLength = tokenizer.getInt64Token("l", false, messageLength);
+        hasBitError = tokenizer.getBoolToken("er", false, hasBitError);
+        ownerModuleId = tokenizer.getIntToken("m", false, ownerModuleId);
+        senderModuleId = tokenizer.getIntToken("sm", false, senderModuleId);
+        senderGateId = tokenizer.getIntToken("sg", false, senderGateId);
+        sendingTime = tokenizer.getSimtimeToken("st", false, sendingTime);
+        arrivalModuleId = tokenizer.getIntToken("am", false, arrivalModuleId);
+        arrivalGateId = tokenizer.getIntToken("ag", false, arrivalGateId);
+        arrivalTime = tokenizer.getSimtimeToken("at", false, arrivalTime);
+        detail = tokenizer.getStringToken("d", false, detail);
+        previousEventNumber = tokenizer.getEventNumberToken("pe", true, previousEventNumber);
     }
 
     public void print(OutputStream stream) {
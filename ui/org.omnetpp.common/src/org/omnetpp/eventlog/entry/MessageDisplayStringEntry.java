@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class MessageDisplayStringEntry extends MessageReferenceEntry
 {
     public String displayString;
@@ -20,9 +21,9 @@ public class MessageDisplayStringEntry extends MessageReferenceEntry
 
     public String getDisplayString() { return displayString; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        displayString = getStringToken(tokens, numTokens, "d", true, displayString);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        displayString = tokenizer.getStringToken("d", true, displayString);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class MessageReferenceEntry extends EventLogTokenBasedEntry
 {
@@ -23,8 +24,8 @@ public class MessageReferenceEntry extends EventLogTokenBasedEntry
 
     public long getMessageId() { return messageId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        messageId = getLongToken(tokens, numTokens, "id", true, messageId);
+    public void parse(EventLogTokenizer tokenizer) {
+        messageId = tokenizer.getLongToken("id", true, messageId);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 public class ModuleDescriptionEntry extends ModuleReferenceEntry
 {
     public String moduleClassName;
@@ -36,13 +37,13 @@ public class ModuleDescriptionEntry extends ModuleReferenceEntry
     public String getFullName() { return fullName; }
     public boolean getCompoundModule() { return compoundModule; }
 
-    public void parse(String[] tokens, int numTokens) {
-        super.parse(tokens, numTokens);
-        moduleClassName = getStringToken(tokens, numTokens, "c", true, moduleClassName);
-        nedTypeName = getStringToken(tokens, numTokens, "t", true, nedTypeName);
-        parentModuleId = getIntToken(tokens, numTokens, "pid", false, parentModuleId);
-        fullName = getStringToken(tokens, numTokens, "n", true, fullName);
-        compoundModule = getBoolToken(tokens, numTokens, "cm", false, compoundModule);
+    public void parse(EventLogTokenizer tokenizer) {
+        super.parse(tokenizer);
+        moduleClassName = tokenizer.getStringToken("c", true, moduleClassName);
+        nedTypeName = tokenizer.getStringToken("t", true, nedTypeName);
+        parentModuleId = tokenizer.getIntToken("pid", false, parentModuleId);
+        fullName = tokenizer.getStringToken("n", true, fullName);
+        compoundModule = tokenizer.getBoolToken("cm", false, compoundModule);
     }
 
     public void print(OutputStream stream) {
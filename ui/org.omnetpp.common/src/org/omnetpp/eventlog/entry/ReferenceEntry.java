@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class ReferenceEntry extends EventLogTokenBasedEntry
 {
@@ -31,10 +32,10 @@ public class ReferenceEntry extends EventLogTokenBasedEntry
     public int getBeginEntryIndex() { return beginEntryIndex; }
     public int getEndEntryIndex() { return endEntryIndex; }
 
-    public void parse(String[] tokens, int numTokens) {
-        eventNumber = getEventNumberToken(tokens, numTokens, "#", true, eventNumber);
-        beginEntryIndex = getIntToken(tokens, numTokens, "b", true, beginEntryIndex);
-        endEntryIndex = getIntToken(tokens, numTokens, "e", true, endEntryIndex);
+    public void parse(EventLogTokenizer tokenizer) {
+        eventNumber = tokenizer.getEventNumberToken("#", true, eventNumber);
+        beginEntryIndex = tokenizer.getIntToken("b", true, beginEntryIndex);
+        endEntryIndex = tokenizer.getIntToken("e", true, endEntryIndex);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 import org.omnetpp.common.engine.BigDecimal;
 
@@ -45,13 +46,13 @@ public class SendDirectEntry extends EventLogTokenBasedEntry
     public BigDecimal getTransmissionDelay() { return transmissionDelay; }
     public BigDecimal getRemainingDuration() { return remainingDuration; }
 
-    public void parse(String[] tokens, int numTokens) {
-        senderModuleId = getIntToken(tokens, numTokens, "sm", true, senderModuleId);
-        destModuleId = getIntToken(tokens, numTokens, "dm", true, destModuleId);
-        destGateId = getIntToken(tokens, numTokens, "dg", true, destGateId);
-        propagationDelay = getSimtimeToken(tokens, numTokens, "pd", false, propagationDelay);
-        transmissionDelay = getSimtimeToken(tokens, numTokens, "td", false, transmissionDelay);
-        remainingDuration = getSimtimeToken(tokens, numTokens, "rd", false, remainingDuration);
+    public void parse(EventLogTokenizer tokenizer) {
+        senderModuleId = tokenizer.getIntToken("sm", true, senderModuleId);
+        destModuleId = tokenizer.getIntToken("dm", true, destModuleId);
+        destGateId = tokenizer.getIntToken("dg", true, destGateId);
+        propagationDelay = tokenizer.getSimtimeToken("pd", false, propagationDelay);
+        transmissionDelay = tokenizer.getSimtimeToken("td", false, transmissionDelay);
+        remainingDuration = tokenizer.getSimtimeToken("rd", false, remainingDuration);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 import org.omnetpp.common.engine.BigDecimal;
 
@@ -45,13 +46,13 @@ public class SendHopEntry extends EventLogTokenBasedEntry
     public BigDecimal getRemainingDuration() { return remainingDuration; }
     public boolean getDiscard() { return discard; }
 
-    public void parse(String[] tokens, int numTokens) {
-        senderModuleId = getIntToken(tokens, numTokens, "sm", true, senderModuleId);
-        senderGateId = getIntToken(tokens, numTokens, "sg", true, senderGateId);
-        propagationDelay = getSimtimeToken(tokens, numTokens, "pd", false, propagationDelay);
-        transmissionDelay = getSimtimeToken(tokens, numTokens, "td", false, transmissionDelay);
-        remainingDuration = getSimtimeToken(tokens, numTokens, "rd", false, remainingDuration);
-        discard = getBoolToken(tokens, numTokens, "d", false, discard);
+    public void parse(EventLogTokenizer tokenizer) {
+        senderModuleId = tokenizer.getIntToken("sm", true, senderModuleId);
+        senderGateId = tokenizer.getIntToken("sg", true, senderGateId);
+        propagationDelay = tokenizer.getSimtimeToken("pd", false, propagationDelay);
+        transmissionDelay = tokenizer.getSimtimeToken("td", false, transmissionDelay);
+        remainingDuration = tokenizer.getSimtimeToken("rd", false, remainingDuration);
+        discard = tokenizer.getBoolToken("d", false, discard);
     }
 
     public void print(OutputStream stream) {
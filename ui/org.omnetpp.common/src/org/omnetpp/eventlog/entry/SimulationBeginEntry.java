@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class SimulationBeginEntry extends EventLogTokenBasedEntry
 {
@@ -31,10 +32,10 @@ public class SimulationBeginEntry extends EventLogTokenBasedEntry
     public int getEventlogVersion() { return eventlogVersion; }
     public String getRunId() { return runId; }
 
-    public void parse(String[] tokens, int numTokens) {
-        omnetppVersion = getIntToken(tokens, numTokens, "ov", true, omnetppVersion);
-        eventlogVersion = getIntToken(tokens, numTokens, "ev", true, eventlogVersion);
-        runId = getStringToken(tokens, numTokens, "rid", true, runId);
+    public void parse(EventLogTokenizer tokenizer) {
+        omnetppVersion = tokenizer.getIntToken("ov", true, omnetppVersion);
+        eventlogVersion = tokenizer.getIntToken("ev", true, eventlogVersion);
+        runId = tokenizer.getStringToken("rid", true, runId);
     }
 
     public void print(OutputStream stream) {
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import org.omnetpp.eventlog.IChunk;
+import org.omnetpp.eventlog.EventLogTokenizer;
 import org.omnetpp.eventlog.EventLogTokenBasedEntry;
 public class SimulationEndEntry extends EventLogTokenBasedEntry
 {
@@ -31,10 +32,10 @@ public class SimulationEndEntry extends EventLogTokenBasedEntry
     public int getResultCode() { return resultCode; }
     public String getMessage() { return message; }
 
-    public void parse(String[] tokens, int numTokens) {
-        isError = getBoolToken(tokens, numTokens, "e", true, isError);
-        resultCode = getIntToken(tokens, numTokens, "c", true, resultCode);
-        message = getStringToken(tokens, numTokens, "m", true, message);
+    public void parse(EventLogTokenizer tokenizer) {
+        isError = tokenizer.getBoolToken("e", true, isError);
+        resultCode = tokenizer.getIntToken("c", true, resultCode);
+        message = tokenizer.getStringToken("m", true, message);
     }
 
     public void print(OutputStream stream) {
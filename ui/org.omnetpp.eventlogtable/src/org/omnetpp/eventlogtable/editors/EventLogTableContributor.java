@@ -293,7 +293,7 @@ public class EventLogTableContributor extends EditorActionBarContributor impleme
     }
 
     @Override
-    public void eventLogAppended() {
+    public void eventLogAppended(long firstEventNumber, long lastEventNumber) {
         // void
     }
 
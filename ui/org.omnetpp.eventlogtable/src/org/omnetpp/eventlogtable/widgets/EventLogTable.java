@@ -13,6 +13,7 @@ import java.util.Iterator;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.resource.JFaceResources;
@@ -70,6 +71,7 @@ public class EventLogTable
     private IEventLog eventLog; // the C++ wrapper for the data to be displayed
     private EventLogTableFacade eventLogTableFacade;
     private EventLogTableContributor eventLogTableContributor;
+    private Job entryIndexJob; // builds the entry index of the facade in the background
 
     private static class EventLogEntryReferenceEnumerator implements IEnumerator<EventLogEntryReference> {
         private EventLogTableContentProvider contentProvider;
@@ -146,6 +148,8 @@ public class EventLogTable
         EventLogTableContentProvider contentProvider = new EventLogTableContentProvider();
         setContentProvider(contentProvider);
         setRowRenderer(new EventLogTableRowRenderer(this));
+        // cold regions of big eventlogs are parsed while the UI is idle
+        setAsynchronous(true);
 
         rowEnumerator = new EventLogEntryReferenceEnumerator(contentProvider);
 
@@ -163,6 +167,7 @@ public class EventLogTable
 
         addDisposeListener(new DisposeListener() {
             public void widgetDisposed(DisposeEvent e) {
+                cancelEntryIndexJob();
                 if (eventLogInput != null) {
                     storeState(eventLogInput.getFile());
                     eventLogInput.removeEventLogChangedListener(EventLogTable.this);
@@ -249,9 +254,76 @@ public class EventLogTable
                 EventLogTablePlugin.logError("Internal error happened during painting", e);
                 internalError = e;
             }
+            if (isPaintComplete)
+                scheduleEntryIndexJob();
         }
     }
 
+    @Override
+    protected void runRowLoading(final Runnable loadRows) {
+        // rows are not retrieved while painting would show a notification instead of them
+        if (internalError == null && eventLogInput != null && !isOutOfSync && !eventLogInput.isCanceled() && !eventLogInput.isLongRunningOperationInProgress()) {
+            try {
+                eventLogInput.runWithProgressMonitor(loadRows);
+            }
+            catch (RuntimeException e) {
+                if (eventLogInput.isFileChangedException(e))
+                    eventLogInput.handleRuntimeException(e);
+                else {
+                    EventLogTablePlugin.logError("Internal error happened during retrieving rows", e);
+                    internalError = e;
+                    canvas.redraw();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the entry index of the facade in a background job. The scroll bar becomes exact when
+     * the index is complete.
+     */
+    protected void scheduleEntryIndexJob() {
+        if (eventLogTableFacade != null && (entryIndexJob == null || entryIndexJob.getState() == Job.NONE)) {
+            EventLogTableFacade facade = eventLogTableFacade;
+            entryIndexJob = facade.createEntryIndexJob((result) -> {
+                Display.getDefault().asyncExec(() -> {
+                    if (!isDisposed() && eventLogTableFacade == facade) {
+                        try {
+                            if (facade.takeOverEntryIndex(result)) {
+                                configureVerticalScrollBar();
+                                updateVerticalBarPosition();
+                                // appended events that are not yet indexed are left to the next job
+                                canvas.redraw();
+                            }
+                        }
+                        catch (RuntimeException e) {
+                            handleRuntimeException(e);
+                        }
+                    }
+                });
+            });
+            if (entryIndexJob != null)
+                entryIndexJob.schedule();
+        }
+    }
+
+    protected void cancelEntryIndexJob() {
+        if (entryIndexJob != null) {
+            entryIndexJob.cancel();
+            entryIndexJob = null;
+        }
+    }
+
+    /**
+     * Scrolls to the entry at the given position among all displayed entries. Does nothing if the position
+     * is not yet indexed.
+     */
+    public void gotoEntryAtPosition(long position) {
+        EventLogEntry eventLogEntry = eventLogTableFacade.getEntryAtPosition(position);
+        if (eventLogEntry != null)
+            gotoElement(new EventLogEntryReference(eventLogEntry));
+    }
+
     @Override
     public void refresh() {
         internalError = null;
@@ -330,6 +402,7 @@ public class EventLogTable
                 eventLogInput.removeEventLogChangedListener(this);
                 storeState(eventLogInput.getFile());
             }
+            cancelEntryIndexJob();
             // remember input
             eventLogInput = (EventLogInput)input;
             eventLog = eventLogInput == null ? null : eventLogInput.getEventLog();
@@ -399,6 +472,7 @@ public class EventLogTable
     }
 
     public void setLineFilterMode(EventLogTableFilterMode i) {
+        cancelEntryIndexJob();
         eventLogTableFacade.setFilterMode(i);
         stayNear();
     }
@@ -408,7 +482,9 @@ public class EventLogTable
     }
 
     public void setCustomFilter(String pattern) {
+        cancelEntryIndexJob();
         eventLogTableFacade.setCustomFilter(pattern);
+        clearRowCache();
     }
 
     public TypeMode getTypeMode() {
@@ -449,22 +525,26 @@ public class EventLogTable
      */
 
     @Override
-    public void eventLogAppended() {
-        eventLogChanged();
+    public void eventLogAppended(long firstEventNumber, long lastEventNumber) {
+        // appending doesn't remove events, so the fix point and the selection remain valid
+        eventLogChanged(false);
     }
 
     @Override
     public void eventLogOverwritten() {
-        eventLogChanged();
-    }
-
-    private void eventLogChanged() {
-        if (fixPointElement != null && fixPointElement.getEvent(eventLog) == null)
-            fixPointElement = null;
-        if (selectionElements != null)
-            for (EventLogEntryReference selectionElement : new ArrayList<EventLogEntryReference>(selectionElements))
-                if (eventLog.getEventForEventNumber(selectionElement.getEventNumber()) == null)
-                    selectionElements.remove(selectionElement);
+        eventLogChanged(true);
+    }
+
+    private void eventLogChanged(boolean removeMissingEvents) {
+        clearRowCache();
+        if (removeMissingEvents) {
+            if (fixPointElement != null && fixPointElement.getEvent(eventLog) == null)
+                fixPointElement = null;
+            if (selectionElements != null)
+                for (EventLogEntryReference selectionElement : new ArrayList<EventLogEntryReference>(selectionElements))
+                    if (eventLog.getEventForEventNumber(selectionElement.getEventNumber()) == null)
+                        selectionElements.remove(selectionElement);
+        }
         Display.getCurrent().asyncExec(new Runnable() {
             public void run() {
                 try {
@@ -497,7 +577,9 @@ public class EventLogTable
 
     @Override
     public void eventLogFiltered() {
+        cancelEntryIndexJob();
         eventLog = eventLogInput.getEventLog();
+        clearRowCache();
 
         if (eventLog.isEmpty())
             fixPointElement = null;
@@ -524,7 +606,9 @@ public class EventLogTable
 
     @Override
     public void eventLogFilterRemoved() {
+        cancelEntryIndexJob();
         eventLog = eventLogInput.getEventLog();
+        clearRowCache();
         eventLogTableContributor.update();
         redraw();
     }
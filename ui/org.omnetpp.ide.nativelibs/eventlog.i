@@ -27,6 +27,8 @@ using namespace omnetpp::common::expression;
 #define OPP_DLLIMPORT
 #define _OPP_GNU_ATTRIBUTE(x)
 
+%typemap(javainterfaces) omnetpp::common::FileReader "org.omnetpp.common.engineext.IFileReader"
+
 %typemap(javacode) omnetpp::common::FileReader %{
     public FileReader(String fileName, boolean cMemoryOwn) {
         this(fileName);
@@ -37,6 +39,10 @@ using namespace omnetpp::common::expression;
         this(fileName, bufferSize);
         this.swigCMemOwn = cMemoryOwn;
     }
+
+    public org.omnetpp.common.engineext.IFileReader createReader() {
+        return new FileReader(getFileName(), 64 * 1024, true);
+    }
 %}
 
 %include "common/filereader.h"
@@ -0,0 +1,54 @@
+package org.omnetpp.common.engineext;
+
+/**
+ * Line oriented random access to a file, implemented by the native FileReader and by
+ * pure Java readers. File changes are reported using the FileReader.FileChange constants.
+ */
+public interface IFileReader {
+    public String getFileName();
+
+    public boolean isFileOpen();
+
+    public void ensureFileClosed();
+
+    public void setFileLocking(boolean fileLocking);
+
+    public long getFileSize();
+
+    public int getFileChange();
+
+    public void synchronize(int change);
+
+    public void seekTo(long fileOffset);
+
+    /**
+     * Returns the line following the current position including the line end characters,
+     * or null at the end of file. The returned sequence may be a view that's only valid
+     * until the reader is synchronized or closed.
+     */
+    public CharSequence getNextLine();
+
+    /**
+     * Returns the line preceding the current position including the line end characters,
+     * or null at the beginning of file. See getNextLine().
+     */
+    public CharSequence getPreviousLine();
+
+    public long getCurrentLineStartOffset();
+
+    public long getCurrentLineEndOffset();
+
+    public long getCurrentLineLength();
+
+    public long getNumReadLines();
+
+    public long getNumReadBytes();
+
+    /**
+     * Returns a new reader of the same kind for the same file. It has its own position and buffers,
+     * so it can be used on another thread. The caller must delete it.
+     */
+    public IFileReader createReader();
+
+    public void delete();
+}
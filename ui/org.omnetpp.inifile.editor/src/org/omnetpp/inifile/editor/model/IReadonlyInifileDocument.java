@@ -89,6 +89,12 @@ public interface IReadonlyInifileDocument {
      */
     Set<String> getKeys(String section);
 
+    /**
+     * Returns an index of the keys in the given section for looking up the
+     * ones that match a parameter full path. Returns null if section does not exist.
+     */
+    ParamKeyIndex getParamKeyIndex(String section);
+
     /**
      * Returns keys in the given section that match the given regex. Keys are
      * returned in the order they appear. Returns null if section does not exist,
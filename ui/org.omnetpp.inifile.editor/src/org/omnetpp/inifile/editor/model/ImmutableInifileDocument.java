@@ -110,6 +110,11 @@ final class ImmutableInifileDocument implements IReadonlyInifileDocument {
         return section == null ? null : section.entries.keySet();
     }
 
+    public ParamKeyIndex getParamKeyIndex(String sectionName) {
+        Section section = sections.get(sectionName);
+        return section == null ? null : section.getParamKeyIndex();
+    }
+
     public List<String> getMatchingKeys(String sectionName, String regex) {
         Section section = sections.get(sectionName);
         if (section == null)
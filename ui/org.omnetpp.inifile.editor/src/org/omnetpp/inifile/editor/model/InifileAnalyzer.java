@@ -478,7 +478,7 @@ public final class InifileAnalyzer {
             // store with the section the list of all parameter resolutions (including unassigned params)
             // store with every key the list of parameters it resolves
             SectionData sectionData = ((SectionData)doc.getSectionData(activeSection));
-            sectionData.propertyResolutions = propertyResolutions;
+            sectionData.propertyResolutions.addAll(propertyResolutions); // entries may be reused by the next analysis
             for (ParamResolution res : paramResolutions) {
                 sectionData.allParamResolutions.add(res);
 
@@ -16,6 +16,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.core.resources.IFile;
@@ -95,6 +96,17 @@ public class InifileDocument implements IInifileDocument {
         String[] sectionChain;
         Set<String> sectionChainConflict; // conflicting sections in the section chain or null
         Object data;
+        AtomicReference<ParamKeyIndex> paramKeyIndex = new AtomicReference<ParamKeyIndex>(); // built lazily; shared by clones, as it only depends on the keys
+
+        ParamKeyIndex getParamKeyIndex() {
+            ParamKeyIndex index = paramKeyIndex.get();
+            if (index == null) {
+                index = new ParamKeyIndex(entries.keySet());
+                if (!paramKeyIndex.compareAndSet(null, index))
+                    index = paramKeyIndex.get();
+            }
+            return index;
+        }
 
         @Override
         protected Section clone() throws CloneNotSupportedException {
@@ -240,6 +252,7 @@ public class InifileDocument implements IInifileDocument {
             // collect errors/warnings in a ProblemMarkerSynchronizer
             final InifileProblemMarkerSynchronizer markers = new InifileProblemMarkerSynchronizer(this, INIFILEPROBLEM_MARKER_ID);
 
+            Map<String,Section> oldSections = new LinkedHashMap<String, Section>(sections);
             sections.clear();
             mainFileKeyValueLines.clear();
             mainFileSectionHeadingLines.clear();
@@ -360,6 +373,13 @@ public class InifileDocument implements IInifileDocument {
             }
             Debug.println("Inifile parsing: "+(System.currentTimeMillis()-startTime)+"ms");
 
+            // keep the parameter key index of sections whose keys did not change
+            for (Map.Entry<String, Section> entry : sections.entrySet()) {
+                Section oldSection = oldSections.get(entry.getKey());
+                if (oldSection != null && new ArrayList<String>(oldSection.entries.keySet()).equals(new ArrayList<String>(entry.getValue().entries.keySet())))
+                    entry.getValue().paramKeyIndex = oldSection.paramKeyIndex;
+            }
+
             // mark data structure as up to date (even if there was an error, because
             // we don't want to keep re-parsing again and again)
             changed = false;
@@ -675,6 +695,12 @@ public class InifileDocument implements IInifileDocument {
         return section == null ? null : section.entries.keySet();
     }
 
+    public ParamKeyIndex getParamKeyIndex(String sectionName) {
+        parseIfChanged();
+        Section section = sections.get(sectionName);
+        return section == null ? null : section.getParamKeyIndex();
+    }
+
     public List<String> getMatchingKeys(String sectionName, String regex) {
         parseIfChanged();
         Section section = sections.get(sectionName);
@@ -0,0 +1,203 @@
+package org.omnetpp.inifile.editor.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import org.eclipse.core.resources.IProject;
+import org.omnetpp.common.util.StringUtils;
+import org.omnetpp.ned.core.ParamUtil;
+import org.omnetpp.ned.model.INedElement;
+import org.omnetpp.ned.model.ex.CompoundModuleElementEx;
+import org.omnetpp.ned.model.ex.NedElementFactoryEx;
+import org.omnetpp.ned.model.ex.ParamElementEx;
+import org.omnetpp.ned.model.ex.PropertyElementEx;
+import org.omnetpp.ned.model.ex.SubmoduleElementEx;
+import org.omnetpp.ned.model.interfaces.INedTypeInfo;
+import org.omnetpp.ned.model.interfaces.INedTypeResolver;
+import org.omnetpp.ned.model.interfaces.ISubmoduleOrConnection;
+
+/**
+ * Memoizes the NED-dependent part of module trees for the inifile analysis: the
+ * submodules and connections of each module, their types, the parameter declarations
+ * with their NED assignments, and properties. It is valid for one immutable copy of
+ * NED resources; the inifile-dependent part (parametric submodule types, parameter
+ * assignments in the inifile) is left to the caller, see ModuleTreeVisitor.
+ *
+ * The tree is expanded on demand while holding the lock of the cache, so the cache
+ * may be used from several threads at once. The lock only protects the cache itself.
+ * The NED copy may be shared with other jobs (e.g. NED validation); this is safe
+ * because NED type info objects compute their tables with the resolver locked.
+ */
+class ModuleTreeCache {
+    private final INedTypeResolver nedResolver;
+    private final long nedChangeSerial;
+    private final IProject contextProject; // for "like" type lookups
+    private final Map<INedTypeInfo, Node> networkNodes = new HashMap<INedTypeInfo, Node>();
+
+    /**
+     * A module or channel in the module tree.
+     */
+    static class Node {
+        final ISubmoduleOrConnection element; // null for the network
+        final INedTypeInfo typeInfo;
+        final String fullPath;
+        final Vector<INedTypeInfo> typeInfoPath;
+        final Vector<ISubmoduleOrConnection> elementPath;
+        final List<ParamElementEx> paramDeclarations = new ArrayList<ParamElementEx>();
+        final List<ArrayList<ParamElementEx>> paramAssignments = new ArrayList<ArrayList<ParamElementEx>>(); // NED assignments of each declaration
+        private List<Child> children; // computed on demand
+        private Map<String, List<PropertyElementEx>> properties = new HashMap<String, List<PropertyElementEx>>(); // by property name, computed on demand
+
+        private Node(Node parent, ISubmoduleOrConnection element, INedTypeInfo typeInfo) {
+            this.element = element;
+            this.typeInfo = typeInfo;
+            String name = element == null ? typeInfo.getName() : ParamUtil.getParamPathElementName(element);
+            this.fullPath = parent == null ? name : parent.fullPath + "." + name;
+            this.typeInfoPath = parent == null ? new Vector<INedTypeInfo>() : new Vector<INedTypeInfo>(parent.typeInfoPath);
+            this.typeInfoPath.add(typeInfo);
+            this.elementPath = parent == null ? new Vector<ISubmoduleOrConnection>() : new Vector<ISubmoduleOrConnection>(parent.elementPath);
+            this.elementPath.add(element);
+            for (ParamElementEx paramDeclaration : typeInfo.getParamDeclarations().values()) {
+                paramDeclarations.add(paramDeclaration);
+                paramAssignments.add(ParamUtil.findParamAssignmentsForParamDeclaration(typeInfoPath, elementPath, paramDeclaration));
+            }
+        }
+    }
+
+    /**
+     * A submodule or connection of a compound module. Its node depends on the
+     * actual type if the submodule is parametric ("like").
+     */
+    static class Child {
+        final ISubmoduleOrConnection element;
+        final Node parent;
+        private Node node; // the node for non-parametric types; null if it is unresolved or recursive
+        private INedTypeInfo interfaceType; // for parametric types
+        private Map<String, Node> likeTypeNodes; // for parametric types, by the actual type name
+
+        // the "typename" pseudo-parameter for parametric types, and its assignments in NED
+        ParamElementEx typenameDeclaration;
+        ArrayList<ParamElementEx> typenameAssignments;
+        Vector<ISubmoduleOrConnection> typenameElementPath;
+
+        private Child(Node parent, ISubmoduleOrConnection element) {
+            this.parent = parent;
+            this.element = element;
+        }
+
+        boolean isParametric() {
+            return interfaceType != null;
+        }
+    }
+
+    public ModuleTreeCache(INedTypeResolver nedResolver, IProject contextProject) {
+        this.nedResolver = nedResolver;
+        this.nedChangeSerial = nedResolver.getLastChangeSerial();
+        this.contextProject = contextProject;
+    }
+
+    /**
+     * Returns true if the cache was built from the given NED resolver copy, and NED has not changed since.
+     */
+    public boolean isUpToDate(INedTypeResolver nedResolver, IProject contextProject) {
+        return this.nedResolver == nedResolver && nedChangeSerial == nedResolver.getLastChangeSerial() && this.contextProject.equals(contextProject);
+    }
+
+    /**
+     * Returns the root node of the module tree of the given network, or null if it cannot be resolved.
+     */
+    public synchronized Node getNetworkNode(INedTypeInfo network) {
+        Node node = networkNodes.get(network);
+        if (node == null && !networkNodes.containsKey(network)) {
+            INedTypeInfo typeInfo = nedResolver.getToplevelOrInnerNedType(network.getFullyQualifiedName(), contextProject);
+            node = typeInfo == null ? null : new Node(null, null, typeInfo);
+            networkNodes.put(network, node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the submodules and connections of the given node, in the order NedTreeTraversal visits them.
+     */
+    public synchronized List<Child> getChildren(Node node) {
+        if (node.children == null) {
+            List<Child> children = new ArrayList<Child>();
+            if (node.typeInfo.getNedElement() instanceof CompoundModuleElementEx) {
+                CompoundModuleElementEx compoundModule = (CompoundModuleElementEx)node.typeInfo.getNedElement();
+                List<SubmoduleElementEx> submodules = compoundModule.getSubmodules();
+                List<ISubmoduleOrConnection> elements = new ArrayList<ISubmoduleOrConnection>();
+                elements.addAll(submodules);
+                elements.addAll(compoundModule.getSrcConnections());
+                for (SubmoduleElementEx submodule : submodules)
+                    elements.addAll(compoundModule.getSrcConnectionsFor(submodule.getName()));
+                for (ISubmoduleOrConnection element : elements)
+                    children.add(createChild(node, element));
+            }
+            node.children = Collections.unmodifiableList(children);
+        }
+        return node.children;
+    }
+
+    private Child createChild(Node parent, ISubmoduleOrConnection element) {
+        Child child = new Child(parent, element);
+        if (StringUtils.isEmpty(element.getLikeType()))
+            child.node = createNode(parent, element, element.getNedTypeInfo());
+        else {
+            child.interfaceType = nedResolver.lookupNedType(element.getLikeType(), element.getEnclosingLookupContext());
+            if (child.interfaceType != null) {
+                child.likeTypeNodes = new HashMap<String, Node>();
+                // we pretend as if "typename" was a parameter of the submodule, see ModuleTreeVisitor.resolveLikeType()
+                child.typenameDeclaration = (ParamElementEx) NedElementFactoryEx.getInstance().createElement(INedElement.NED_PARAM, null);
+                child.typenameDeclaration.setName("typename");
+                child.typenameDeclaration.setType(INedElement.NED_PARTYPE_STRING);
+                Vector<INedTypeInfo> typeInfoPath = new Vector<INedTypeInfo>(parent.typeInfoPath);
+                typeInfoPath.add(null);
+                child.typenameElementPath = new Vector<ISubmoduleOrConnection>(parent.elementPath);
+                child.typenameElementPath.add(element);
+                child.typenameAssignments = ParamUtil.findParamAssignmentsForParamDeclaration(typeInfoPath, child.typenameElementPath, child.typenameDeclaration);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Returns the node of the child. For parametric types, the actual type name must be given
+     * (null means that it's unknown, then the interface type is used).
+     * Returns null if the type cannot be resolved, or it would cause a cycle.
+     */
+    public synchronized Node getNode(Child child, String likeTypeName) {
+        if (!child.isParametric())
+            return child.node;
+        String key = likeTypeName == null ? "" : likeTypeName;
+        Node node = child.likeTypeNodes.get(key);
+        if (node == null && !child.likeTypeNodes.containsKey(key)) {
+            INedTypeInfo typeInfo = likeTypeName == null ? child.interfaceType : nedResolver.lookupLikeType(likeTypeName, child.interfaceType, contextProject);
+            node = createNode(child.parent, child.element, typeInfo);
+            child.likeTypeNodes.put(key, node);
+        }
+        return node;
+    }
+
+    private Node createNode(Node parent, ISubmoduleOrConnection element, INedTypeInfo typeInfo) {
+        if (typeInfo == null || parent.typeInfoPath.contains(typeInfo)) // unresolved, or cycle
+            return null;
+        return new Node(parent, element, typeInfo);
+    }
+
+    /**
+     * Returns the properties with the given name of the node's type.
+     */
+    public synchronized List<PropertyElementEx> getProperties(Node node, String propertyName) {
+        List<PropertyElementEx> properties = node.properties.get(propertyName);
+        if (properties == null) {
+            Map<String, PropertyElementEx> propertyMap = node.typeInfo.getProperties().get(propertyName);
+            properties = propertyMap == null ? Collections.<PropertyElementEx>emptyList() : new ArrayList<PropertyElementEx>(propertyMap.values());
+            node.properties.put(propertyName, properties);
+        }
+        return properties;
+    }
+}
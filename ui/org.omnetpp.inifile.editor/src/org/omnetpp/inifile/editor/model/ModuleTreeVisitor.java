@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.Vector;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -17,6 +18,7 @@ import org.omnetpp.ned.core.ParamUtil;
 import org.omnetpp.ned.model.INedElement;
 import org.omnetpp.ned.model.ex.NedElementFactoryEx;
 import org.omnetpp.ned.model.ex.ParamElementEx;
+import org.omnetpp.ned.model.ex.PropertyElementEx;
 import org.omnetpp.ned.model.interfaces.INedTypeInfo;
 import org.omnetpp.ned.model.interfaces.ISubmoduleOrConnection;
 
@@ -139,13 +141,11 @@ class ModuleTreeVisitor  implements IModuleTreeVisitor {
         if (!collectParameters)
             return null;
 
-        // get module type expression
-        String likeExpr = element.getLikeExpr();
-
         // first, try to use expression between angle braces from the NED file
-        if (!element.getIsDefault() && StringUtils.isNotEmpty(likeExpr)) {
-            return evaluateLikeExpr(likeExpr);
-        }
+        String parentFullPath = StringUtils.join(fullPathStack, ".");
+        String likeExpr = element.getLikeExpr();
+        if (!element.getIsDefault() && StringUtils.isNotEmpty(likeExpr))
+            return evaluateLikeExpr(likeExpr, parentFullPath);
 
         // then try **.typename assignments in NED and ini files. 
         // We pretend as if "typename" was a parameter of the module in question,
@@ -153,13 +153,69 @@ class ModuleTreeVisitor  implements IModuleTreeVisitor {
         ParamElementEx fakeParamDecl = (ParamElementEx) NedElementFactoryEx.getInstance().createElement(INedElement.NED_PARAM, null);
         fakeParamDecl.setName("typename");
         fakeParamDecl.setType(INedElement.NED_PARTYPE_STRING);
-        List<ParamResolution> paramResolutions = new ArrayList<>();
-        String fullPath = StringUtils.join(fullPathStack, ".") + "." + ParamUtil.getParamPathElementName(element);
         elementPath.push(element);
         typeInfoPath.push(null);
-        ParamCollector.resolveParameter(paramResolutions, fullPath, typeInfoPath, elementPath, sectionChain, doc, fakeParamDecl);
+        ArrayList<ParamElementEx> paramAssignments = ParamUtil.findParamAssignmentsForParamDeclaration(typeInfoPath, elementPath, fakeParamDecl);
+        String result = resolveLikeTypeFromTypename(element, parentFullPath, elementPath, fakeParamDecl, paramAssignments);
         elementPath.pop();
         typeInfoPath.pop();
+        return result;
+    }
+
+    /**
+     * Visits the module tree memoized in the given cache node, instead of traversing it with
+     * NedTreeTraversal. Only the inifile-dependent part of the work is done here.
+     */
+    public void traverse(ModuleTreeCache cache, ModuleTreeCache.Node node) {
+        if (monitor != null && monitor.isCanceled())
+            throw new OperationCanceledException();
+
+        String fullPath = node.fullPath;
+        if (moduleNamePattern == null || moduleNamePattern.matches(fullPath)) {
+            if (moduleNamePattern != null && node.element != null)
+                modules.put(fullPath, node.element);
+
+            // collect parameters
+            if (collectParameters) {
+                for (int i = 0; i < node.paramDeclarations.size(); i++)
+                    ParamCollector.resolveParameter(paramResolutions, fullPath, node.elementPath, sectionChain, doc, node.paramDeclarations.get(i), node.paramAssignments.get(i));
+            }
+
+            // collect properties
+            if (propertiesToCollect != null) {
+                String activeSection = sectionChain != null ? sectionChain[0] : null;
+                for (String propertyName : propertiesToCollect)
+                    for (PropertyElementEx property : cache.getProperties(node, propertyName))
+                        propertyResolutions.add(new PropertyResolution(fullPath + "." + property.getIndex(), node.elementPath, property, activeSection));
+            }
+        }
+
+        for (ModuleTreeCache.Child child : cache.getChildren(node)) {
+            ModuleTreeCache.Node childNode = cache.getNode(child, child.isParametric() ? resolveLikeType(child) : null);
+            if (childNode != null)
+                traverse(cache, childNode);
+        }
+    }
+
+    /**
+     * Like resolveLikeType(ISubmoduleOrConnection), but uses the data memoized in the cache.
+     */
+    protected String resolveLikeType(ModuleTreeCache.Child child) {
+        if (!collectParameters)
+            return null;
+
+        String likeExpr = child.element.getLikeExpr();
+        if (!child.element.getIsDefault() && StringUtils.isNotEmpty(likeExpr))
+            return evaluateLikeExpr(likeExpr, child.parent.fullPath);
+
+        return resolveLikeTypeFromTypename(child.element, child.parent.fullPath, child.typenameElementPath, child.typenameDeclaration, child.typenameAssignments);
+    }
+
+    protected String resolveLikeTypeFromTypename(ISubmoduleOrConnection element, String parentFullPath, Vector<ISubmoduleOrConnection> elementPath,
+            ParamElementEx typenameDeclaration, ArrayList<ParamElementEx> typenameAssignments) {
+        List<ParamResolution> paramResolutions = new ArrayList<>();
+        String fullPath = parentFullPath + "." + ParamUtil.getParamPathElementName(element);
+        ParamCollector.resolveParameter(paramResolutions, fullPath, elementPath, sectionChain, doc, typenameDeclaration, typenameAssignments);
 
         if (!paramResolutions.isEmpty()) {
             ParamResolution paramResolution = paramResolutions.get(0);
@@ -175,13 +231,14 @@ class ModuleTreeVisitor  implements IModuleTreeVisitor {
         }
 
         // as last resort, try to use default() expression between angle braces from the NED file
+        String likeExpr = element.getLikeExpr();
         if (!StringUtils.isEmpty(likeExpr))
-            return evaluateLikeExpr(likeExpr);
+            return evaluateLikeExpr(likeExpr, parentFullPath);
 
         return null;
     }
 
-    protected String evaluateLikeExpr(String likeExpr) {
+    protected String evaluateLikeExpr(String likeExpr, String fullPath) {
         // understands string literals and references to parent module parameters;
         // return null for anything else (i.e. when we are not sophisticated enough to figure it out)
         if (likeExpr.charAt(0) == '"') {
@@ -196,7 +253,6 @@ class ModuleTreeVisitor  implements IModuleTreeVisitor {
         else if (likeExpr.matches("[A-Za-z_][A-Za-z0-9_]*")) {
             // identifier: it should be parameter of the parent module; we should look up and
             // return its value (note: we cannot use InifileUtils.resolveLikeParam() here yet)
-            String fullPath = StringUtils.join(fullPathStack, ".");
             ParamResolution res = null;
             for (ParamResolution r : paramResolutions)
                 if (r.paramDeclaration.getName().equals(likeExpr) && r.fullPath.equals(fullPath))
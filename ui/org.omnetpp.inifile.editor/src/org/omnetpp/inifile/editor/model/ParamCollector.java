@@ -49,6 +49,31 @@ public class ParamCollector {
         return result;
     }
 
+    /**
+     * Like collectParametersAndProperties(), but takes the NED part of the module tree from
+     * the given cache, which must have been created for the same NED resolver and project.
+     * This method may be called from several threads at once.
+     */
+    static ParamResolutionStatus.Entry collectParametersAndProperties(IReadonlyInifileDocument doc,
+            INedTypeResolver nedResolver, ModuleTreeCache cache, String activeSection, IProgressMonitor monitor) {
+
+        Assert.isNotNull(doc);
+        Assert.isNotNull(activeSection);
+
+        ModuleTreeVisitor visitor = new ModuleTreeVisitor(doc, activeSection, true, new String[] {"signal", "statistic"}, null, monitor);
+        String networkName = InifileUtils.lookupNetwork(doc, activeSection);
+        INedTypeInfo network = networkName != null ? resolveNetwork(doc, nedResolver, networkName) : null;
+        ModuleTreeCache.Node networkNode = network != null ? cache.getNetworkNode(network) : null;
+        if (networkNode != null)
+            visitor.traverse(cache, networkNode);
+
+        ParamResolutionStatus.Entry result = new ParamResolutionStatus.Entry();
+        result.section = activeSection;
+        result.paramResolutions = visitor.getParamResolutions();
+        result.propertyResolutions = visitor.getPropertyResolutions();
+        return result;
+    }
+
 
     /**
      * Collect module names from the network configured in the given
@@ -138,6 +163,16 @@ public class ParamCollector {
     {
         // look up parameter assignments in NED
         ArrayList<ParamElementEx> paramAssignments = ParamUtil.findParamAssignmentsForParamDeclaration(typeInfoPath, elementPath, paramDeclaration);
+        resolveParameter(resultList, fullPath, elementPath, sectionChain, doc, paramDeclaration, paramAssignments);
+    }
+
+    /**
+     * Like the other resolveParameter(), but with the parameter assignments in NED already looked up
+     * (see ParamUtil.findParamAssignmentsForParamDeclaration()). This method does not access NED
+     * type info objects.
+     */
+    public static void resolveParameter(List<ParamResolution> resultList, String fullPath, Vector<ISubmoduleOrConnection> elementPath, String[] sectionChain, IReadonlyInifileDocument doc, ParamElementEx paramDeclaration, ArrayList<ParamElementEx> paramAssignments)
+    {
         boolean hasNedUnassigned = false;
         boolean hasNedTotalAssignment = false;
         boolean hasNedDefaultAssignment = false;
@@ -155,14 +190,15 @@ public class ParamCollector {
         if (doc != null) {
             activeSection = sectionChain[0];
 
-            // TODO: avoid calling lookupParameter twice
+            // the second lookup is only needed if "=default" entries can be used too
             String paramPath = fullPath + "." + paramDeclaration.getName();
             sectionKeys = InifileUtils.lookupParameter(paramPath, false, sectionChain, doc);
 
             for (SectionKey sectionKey : sectionKeys)
                 hasIniTotalAssignment |= ParamUtil.isTotalParamAssignment(sectionKey.key);
 
-            sectionKeys = InifileUtils.lookupParameter(paramPath, hasNedDefaultAssignment, sectionChain, doc);
+            if (hasNedDefaultAssignment)
+                sectionKeys = InifileUtils.lookupParameter(paramPath, true, sectionChain, doc);
         }
 
         // process non default parameter assignments from NED
@@ -0,0 +1,108 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.inifile.editor.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnetpp.ned.core.ParamUtil;
+
+/**
+ * Index of the keys of an inifile section for finding the ones that match a parameter
+ * full path. Keys without wildcards are looked up by equality. Keys ending in a literal
+ * name (e.g. "**.app[*].localPort") are bucketed by that name, because it must be equal
+ * to the last segment of the matching paths. Only the remaining keys are tried for every
+ * path. Candidates are prefiltered by the literal prefix of the key before running the
+ * pattern matcher.
+ *
+ * The index depends only on the keys and their order, it's immutable and can be shared
+ * between threads.
+ */
+public class ParamKeyIndex {
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final ParamUtil.KeyMatcher[] keyMatchers; // in section order
+    private final String[] literalPrefixes; // the part of the generalized key before the first special character
+    private final Map<String, int[]> literalKeyToEntriesMap = new HashMap<String, int[]>();
+    private final Map<String, int[]> lastSegmentToEntriesMap = new HashMap<String, int[]>();
+    private final int[] otherEntries;
+
+    public ParamKeyIndex(Collection<String> keys) {
+        keyMatchers = new ParamUtil.KeyMatcher[keys.size()];
+        literalPrefixes = new String[keys.size()];
+        int[] others = new int[keys.size()];
+        int numOthers = 0;
+        int i = 0;
+        for (String key : keys) {
+            ParamUtil.KeyMatcher keyMatcher = ParamUtil.getOrCreateKeyMatcher(key);
+            String pattern = keyMatcher.generalizedKey;
+            int specialIndex = indexOfSpecial(pattern, 0);
+            keyMatchers[i] = keyMatcher;
+            literalPrefixes[i] = specialIndex == -1 ? pattern : pattern.substring(0, specialIndex);
+            if (specialIndex == -1)
+                add(literalKeyToEntriesMap, pattern, i);
+            else {
+                int lastDot = pattern.lastIndexOf('.');
+                if (lastDot > specialIndex && indexOfSpecial(pattern, lastDot) == -1)
+                    add(lastSegmentToEntriesMap, pattern.substring(lastDot + 1), i);
+                else
+                    others[numOthers++] = i;
+            }
+            i++;
+        }
+        otherEntries = Arrays.copyOf(others, numOthers);
+    }
+
+    /**
+     * Returns the matchers of the keys matching the given full path, in the order
+     * the keys appear in the section.
+     */
+    public List<ParamUtil.KeyMatcher> getMatchingKeys(String fullPath) {
+        int[] literalEntries = literalKeyToEntriesMap.getOrDefault(fullPath, NO_ENTRIES);
+        int[] lastSegmentEntries = lastSegmentToEntriesMap.getOrDefault(fullPath.substring(fullPath.lastIndexOf('.') + 1), NO_ENTRIES);
+        int[] candidates = new int[literalEntries.length + lastSegmentEntries.length + otherEntries.length];
+        System.arraycopy(literalEntries, 0, candidates, 0, literalEntries.length);
+        System.arraycopy(lastSegmentEntries, 0, candidates, literalEntries.length, lastSegmentEntries.length);
+        System.arraycopy(otherEntries, 0, candidates, literalEntries.length + lastSegmentEntries.length, otherEntries.length);
+        Arrays.sort(candidates);
+        List<ParamUtil.KeyMatcher> result = new ArrayList<ParamUtil.KeyMatcher>();
+        for (int entry : candidates)
+            if (fullPath.startsWith(literalPrefixes[entry]) && keyMatchers[entry].matcher.matches(fullPath))
+                result.add(keyMatchers[entry]);
+        return result;
+    }
+
+    /**
+     * Returns the index of the first character at or after the given index that has a special
+     * meaning in patterns (wildcards, sets, ranges, indices and escapes), or -1 if there's none.
+     */
+    private static int indexOfSpecial(String pattern, int fromIndex) {
+        for (int i = fromIndex; i < pattern.length(); i++) {
+            switch (pattern.charAt(i)) {
+            case '*': case '?': case '{': case '}': case '[': case ']': case '\\':
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void add(Map<String, int[]> map, String key, int entry) {
+        int[] entries = map.get(key);
+        if (entries == null)
+            entries = new int[] { entry };
+        else {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+        map.put(key, entries);
+    }
+}
@@ -1,8 +1,14 @@
 package org.omnetpp.inifile.editor.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -34,6 +40,22 @@ class ParamResolutionJob extends Job {
     private IInifileDocument doc;
     private int retryCount;
 
+    // NED part of the module trees, built from the NED copy of the last run
+    private ModuleTreeCache moduleTreeCache;
+
+    // results of the sections, reused as long as NED and the entries of their section chain are unchanged
+    private Map<String, SectionResult> sectionResults = new ConcurrentHashMap<String, SectionResult>();
+
+    private static class SectionResult {
+        final List<String> sectionChainContent;
+        final Entry entry;
+
+        public SectionResult(List<String> sectionChainContent, Entry entry) {
+            this.sectionChainContent = sectionChainContent;
+            this.entry = entry;
+        }
+    }
+
     public ParamResolutionJob(IInifileDocument doc) {
         super("Ini file analysis");
         this.doc = doc;
@@ -65,8 +87,8 @@ class ParamResolutionJob extends Job {
         final INedResources nedResources = NedResourcesPlugin.getNedResources();
         final INedTypeResolver nedResolver = nedResources.getImmutableCopy();
 
-        List<Entry> entries = new ArrayList<Entry>();
         String[] sections = docCopy.getSectionNames();
+        Entry[] entries = new Entry[sections.length];
         monitor.beginTask("Analyzing " + docCopy.getDocumentFile().getName(), sections.length * 100);
 
         long startTime = System.currentTimeMillis();
@@ -82,16 +104,47 @@ class ParamResolutionJob extends Job {
             }
         };
 
+        // the NED part is only recomputed if NED has changed
+        IProject contextProject = docCopy.getDocumentFile().getProject();
+        if (moduleTreeCache == null || !moduleTreeCache.isUpToDate(nedResolver, contextProject)) {
+            moduleTreeCache = new ModuleTreeCache(nedResolver, contextProject);
+            sectionResults.clear();
+        }
+        final ModuleTreeCache cache = moduleTreeCache;
+        final Map<String, SectionResult> oldSectionResults = sectionResults;
+        final Map<String, SectionResult> newSectionResults = new ConcurrentHashMap<String, SectionResult>();
+        for (String section : sections)
+            if (oldSectionResults.containsKey(section))
+                newSectionResults.put(section, oldSectionResults.get(section));
+        sectionResults = newSectionResults; // updated as sections complete, so a retry after cancellation does not start over
+
         try {
-            for (String activeSection : sections) {
+            monitor.subTask("Resolving module parameters and properties.");
+
+            // sections are independent of each other, analyze them in parallel
+            IntStream.range(0, sections.length).parallel().forEach(i -> {
                 if (monitor.isCanceled() || !doc.isImmutableCopyUpToDate(docCopy) || !nedResources.isImmutableCopyUpToDate(nedResolver))
                     throw new OperationCanceledException();
 
-                monitor.subTask("Resolving module parameters and properties.");
-                Entry entry =
-                    ParamCollector.collectParametersAndProperties(docCopy, nedResolver, activeSection, new SubMonitor(monitor, 100));
-                entries.add(entry);
-            }
+                String activeSection = sections[i];
+                List<String> sectionChainContent = getSectionChainContent(docCopy, activeSection);
+                SectionResult sectionResult = oldSectionResults.get(activeSection);
+                if (sectionResult == null || !sectionResult.sectionChainContent.equals(sectionChainContent)) {
+                    SubMonitor subMonitor = new SubMonitor(monitor, 100);
+                    Entry entry = ParamCollector.collectParametersAndProperties(docCopy, nedResolver, cache, activeSection, subMonitor);
+                    sectionResult = new SectionResult(sectionChainContent, entry);
+                    synchronized (monitor) {
+                        subMonitor.done();
+                    }
+                }
+                else {
+                    synchronized (monitor) {
+                        monitor.worked(100);
+                    }
+                }
+                newSectionResults.put(activeSection, sectionResult);
+                entries[i] = sectionResult.entry;
+            });
 
         } catch (OperationCanceledException e) {
             if (monitor.isCanceled()) {
@@ -107,6 +160,26 @@ class ParamResolutionJob extends Job {
         }
 
         Debug.println("ParamResolutionJob: completed in "+(System.currentTimeMillis()-startTime)+"ms");
-        return new ParamResolutionStatus(entries, docCopy, nedResolver);
+        return new ParamResolutionStatus(Arrays.asList(entries), docCopy, nedResolver);
+    }
+
+    /**
+     * Returns the entries of the section chain of the given section, which determine
+     * the result of the analysis of the section.
+     */
+    private static List<String> getSectionChainContent(IReadonlyInifileDocument doc, String section) {
+        List<String> content = new ArrayList<String>();
+        for (String chainSection : doc.getSectionChain(section)) {
+            Set<String> keys = doc.getKeys(chainSection);
+            content.add(chainSection);
+            content.add(keys == null ? "" : String.valueOf(keys.size()));
+            if (keys != null) {
+                for (String key : keys) {
+                    content.add(key);
+                    content.add(doc.getValue(chainSection, key));
+                }
+            }
+        }
+        return content;
     }
 }
@@ -0,0 +1,98 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.launch;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Remembers how long simulation runs took, so that batch execution can schedule
+ * the long runs first and estimate the remaining time. Durations are keyed by
+ * scenario (launch configuration and inifile configuration) and run number, and
+ * are stored in the state location of the plug-in.
+ */
+class RunDurationHistory {
+    private static final String FILE_NAME = "runDurations.properties";
+    private static final int MAX_ENTRIES = 100000; // the history is dropped when it grows larger than this
+
+    private static RunDurationHistory instance;
+
+    private final File file; // null if not persisted
+    private final Properties durations = new Properties();
+    private boolean isModified = false;
+
+    private RunDurationHistory(File file) {
+        this.file = file;
+        if (file != null && file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                durations.load(in);
+            }
+            catch (IOException | IllegalArgumentException e) {
+                LaunchPlugin.logError("Cannot read run durations from " + file, e);
+                durations.clear();
+            }
+        }
+    }
+
+    public static synchronized RunDurationHistory getInstance() {
+        if (instance == null) {
+            LaunchPlugin plugin = LaunchPlugin.getDefault();
+            instance = new RunDurationHistory(plugin == null ? null : plugin.getStateLocation().append(FILE_NAME).toFile());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the expected duration of the given run in milliseconds, or -1 if it is not known.
+     */
+    public synchronized long getExpectedDuration(String scenario, int runNumber) {
+        String value = durations.getProperty(getKey(scenario, runNumber));
+        if (value == null)
+            return -1;
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records the measured duration of a run. The expected duration follows the
+     * measurements with exponential smoothing, because run times vary somewhat.
+     */
+    public synchronized void recordDuration(String scenario, int runNumber, long duration) {
+        long oldDuration = getExpectedDuration(scenario, runNumber);
+        long newDuration = oldDuration == -1 ? duration : (oldDuration + duration) / 2;
+        if (durations.size() >= MAX_ENTRIES)
+            durations.clear();
+        durations.setProperty(getKey(scenario, runNumber), String.valueOf(newDuration));
+        isModified = true;
+    }
+
+    public synchronized void save() {
+        if (file == null || !isModified)
+            return;
+        try (OutputStream out = new FileOutputStream(file)) {
+            durations.store(out, "Durations of simulation runs in milliseconds");
+            isModified = false;
+        }
+        catch (IOException e) {
+            LaunchPlugin.logError("Cannot save run durations to " + file, e);
+        }
+    }
+
+    private static String getKey(String scenario, int runNumber) {
+        return scenario + "#" + runNumber;
+    }
+}
@@ -0,0 +1,312 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.launch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.omnetpp.common.Debug;
+import org.omnetpp.common.util.StringUtils;
+
+/**
+ * A job that executes simulation runs in several concurrent processes (batch execution).
+ *
+ * Runs are handed out dynamically to the process slots: whenever a process finishes, the next
+ * chunk of runs is started in a new process. Runs with the longest expected duration (learned
+ * from previous executions, see RunDurationHistory) are started first. The size of the chunks
+ * adapts to the remaining work: it is a fraction of the remaining expected time per process
+ * (guided self-scheduling), limited by the configured batch size. This way processes are started
+ * rarely while there is a lot of work left, and they finish at about the same time at the end.
+ *
+ * Throughput and estimated remaining time are reported in the progress monitor, and are
+ * also available via getters.
+ */
+public class SimulationBatchScheduler extends Job {
+    private static final long DEFAULT_EXPECTED_DURATION = 1000; // ms, if nothing is known about the runs
+    private static final int STATUS_UPDATE_INTERVAL = 500; // ms
+
+    private final ILaunchConfiguration configuration;
+    private final ILaunch launch;
+    private final boolean reportProgress;
+    private final int port;
+    private final int numProcesses; // maximum number of concurrent processes
+    private final int maxChunkSize; // maximum number of runs per process
+    private final boolean stopOnError;
+    private final String scenario; // for RunDurationHistory
+    private final int numRuns;
+
+    // state; guarded by "this"
+    private final LinkedList<Integer> queuedRuns = new LinkedList<Integer>(); // runs not yet started, in the order to be started
+    private final Map<Integer, Long> expectedDurations = new HashMap<Integer, Long>();
+    private long queuedDuration; // sum of the expected durations of queued runs
+    private final List<Chunk> runningChunks = new ArrayList<Chunk>();
+    private int numCompletedRuns;
+    private int numFailedRuns;
+    private long completedExpectedDuration; // sum of expected durations of completed chunks
+    private long completedActualDuration; // sum of actual durations of completed chunks
+    private long startTime;
+    private boolean stopRequested;
+    private volatile boolean canceled;
+
+    /**
+     * Runs executed in one simulation process.
+     */
+    private static class Chunk {
+        List<Integer> runs = new ArrayList<Integer>();
+        long expectedDuration;
+        long startTime;
+        SimulationLauncherJob job;
+    }
+
+    public SimulationBatchScheduler(ILaunchConfiguration configuration, ILaunch launch, List<Integer> runNumbers,
+            int numProcesses, int maxChunkSize, boolean stopOnError, boolean reportProgress, int port) throws CoreException {
+        super("Batch Execution of " + configuration.getName() + " (" + runNumbers.size() + " runs using up to " + numProcesses + " processes)");
+        this.configuration = configuration;
+        this.launch = launch;
+        this.numProcesses = Math.max(1, numProcesses);
+        this.maxChunkSize = Math.max(1, maxChunkSize);
+        this.stopOnError = stopOnError;
+        this.reportProgress = reportProgress;
+        this.port = port;
+        this.scenario = configuration.getName() + "/" + configuration.getAttribute(IOmnetppLaunchConstants.OPP_CONFIG_NAME, "");
+        this.numRuns = runNumbers.size();
+
+        // determine expected durations; unknown runs are assumed to take the average time
+        RunDurationHistory history = RunDurationHistory.getInstance();
+        long sum = 0;
+        int count = 0;
+        for (int runNumber : runNumbers) {
+            long duration = history.getExpectedDuration(scenario, runNumber);
+            if (duration >= 0) {
+                expectedDurations.put(runNumber, duration);
+                sum += duration;
+                count++;
+            }
+        }
+        long defaultDuration = count == 0 ? DEFAULT_EXPECTED_DURATION : Math.max(1, sum / count);
+        for (int runNumber : runNumbers)
+            if (!expectedDurations.containsKey(runNumber))
+                expectedDurations.put(runNumber, defaultDuration);
+
+        // longest runs first (the sort is stable, so equal ones stay in run number order)
+        queuedRuns.addAll(runNumbers);
+        queuedRuns.sort(Comparator.comparing((Integer runNumber) -> expectedDurations.get(runNumber)).reversed());
+        for (int runNumber : queuedRuns)
+            queuedDuration += expectedDurations.get(runNumber);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return family == launch || SimulationLauncherJob.SIMULATION_JOB_FAMILY.equals(family);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        monitor.beginTask(getName(), numRuns);
+        int numReportedRuns = 0;
+        try {
+            synchronized (this) {
+                startTime = System.currentTimeMillis();
+                while (true) {
+                    if (monitor.isCanceled() && !canceled) {
+                        canceled = true;
+                        stop();
+                    }
+                    while (!stopRequested && runningChunks.size() < numProcesses && !queuedRuns.isEmpty())
+                        startChunk(takeChunk());
+                    if (runningChunks.isEmpty() && (stopRequested || queuedRuns.isEmpty()))
+                        break;
+                    monitor.worked(numCompletedRuns - numReportedRuns);
+                    numReportedRuns = numCompletedRuns;
+                    monitor.subTask(getStatusText());
+                    wait(STATUS_UPDATE_INTERVAL);
+                }
+                monitor.worked(numCompletedRuns - numReportedRuns);
+                Debug.println("Batch execution finished: " + getStatusText());
+            }
+        }
+        catch (InterruptedException e) {
+            synchronized (this) {
+                canceled = true;
+                stop();
+            }
+        }
+        finally {
+            RunDurationHistory.getInstance().save();
+            monitor.done();
+        }
+        return canceled ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+
+    /**
+     * Removes the next chunk of runs from the queue.
+     */
+    protected Chunk takeChunk() {
+        // guided self-scheduling: the chunk gets about half of the per-process share of the remaining work
+        long targetDuration = queuedDuration / (2 * numProcesses);
+        Chunk chunk = new Chunk();
+        do {
+            int runNumber = queuedRuns.removeFirst();
+            long duration = expectedDurations.get(runNumber);
+            chunk.runs.add(runNumber);
+            chunk.expectedDuration += duration;
+            queuedDuration -= duration;
+        } while (!queuedRuns.isEmpty() && chunk.runs.size() < maxChunkSize && chunk.expectedDuration + expectedDurations.get(queuedRuns.getFirst()) <= targetDuration);
+        return chunk;
+    }
+
+    protected void startChunk(Chunk chunk) {
+        SimulationLauncherJob job = new SimulationLauncherJob(configuration, launch, StringUtils.join(chunk.runs, ","), reportProgress, port);
+        job.setPriority(Job.BUILD);
+        job.setSystem(false);
+        job.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                chunkDone(chunk, event.getResult());
+            }
+        });
+        chunk.job = job;
+        chunk.startTime = System.currentTimeMillis();
+        runningChunks.add(chunk);
+        job.schedule();
+    }
+
+    protected synchronized void chunkDone(Chunk chunk, IStatus result) {
+        if (!runningChunks.remove(chunk))
+            return;
+        long duration = System.currentTimeMillis() - chunk.startTime;
+        numCompletedRuns += chunk.runs.size();
+        if (result != null && result.isOK()) {
+            // learn the durations, distributing the time of the process among its runs according to their expected durations
+            RunDurationHistory history = RunDurationHistory.getInstance();
+            for (int runNumber : chunk.runs)
+                history.recordDuration(scenario, runNumber, duration * expectedDurations.get(runNumber) / Math.max(1, chunk.expectedDuration));
+            completedExpectedDuration += chunk.expectedDuration;
+            completedActualDuration += duration;
+        }
+        else if (result != null && result.getSeverity() == IStatus.CANCEL) {
+            if (!stopRequested) {
+                canceled = true; // a simulation was canceled by the user: stop the whole batch
+                stop();
+            }
+        }
+        else {
+            numFailedRuns += chunk.runs.size();
+            if (stopOnError)
+                stop();
+        }
+        notifyAll();
+    }
+
+    private void stop() {
+        stopRequested = true;
+        for (Chunk chunk : new ArrayList<Chunk>(runningChunks)) // note: canceling a job that has not started yet calls chunkDone() immediately
+            chunk.job.cancel();
+        notifyAll();
+    }
+
+    /**
+     * Returns the last progress records of the simulation processes currently running.
+     * Processes that have not reported progress yet are not included.
+     */
+    public synchronized List<SimulationProgress> getRunningProgress() {
+        List<SimulationProgress> result = new ArrayList<SimulationProgress>();
+        for (Chunk chunk : runningChunks) {
+            SimulationProgress progress = chunk.job.getLastProgress();
+            if (progress != null)
+                result.add(progress);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of runs in the batch.
+     */
+    public int getNumRuns() {
+        return numRuns;
+    }
+
+    /**
+     * Returns the number of runs completed so far, including the failed ones.
+     */
+    public synchronized int getNumCompletedRuns() {
+        return numCompletedRuns;
+    }
+
+    /**
+     * Returns the number of runs that completed with an error.
+     */
+    public synchronized int getNumFailedRuns() {
+        return numFailedRuns;
+    }
+
+    /**
+     * Returns the number of completed runs per minute so far, or 0 if not yet known.
+     */
+    public synchronized double getThroughput() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return startTime == 0 || elapsed <= 0 ? 0 : numCompletedRuns * 60000.0 / elapsed;
+    }
+
+    /**
+     * Returns the estimated time in milliseconds until all runs complete, or -1 if no estimate
+     * is available yet. It is based on the expected durations of the remaining runs, corrected
+     * by how the actual durations of the completed runs compared to their expectations.
+     */
+    public synchronized long getEstimatedRemainingTime() {
+        if (completedExpectedDuration == 0)
+            return -1;
+        long now = System.currentTimeMillis();
+        long remaining = queuedDuration;
+        for (Chunk chunk : runningChunks)
+            remaining += Math.max(0, chunk.expectedDuration - (now - chunk.startTime));
+        double correction = completedActualDuration / (double)completedExpectedDuration;
+        return (long)(remaining * correction / numProcesses);
+    }
+
+    protected synchronized String getStatusText() {
+        String text = numCompletedRuns + " of " + numRuns + " runs completed";
+        if (numFailedRuns > 0)
+            text += " (" + numFailedRuns + " failed)";
+        long eventsPerSec = 0;
+        for (SimulationProgress progress : getRunningProgress())
+            eventsPerSec += Math.max(0, progress.getEventsPerSec());
+        if (eventsPerSec > 0)
+            text += ", " + eventsPerSec + " ev/sec";
+        double throughput = getThroughput();
+        if (throughput > 0)
+            text += String.format(", %.1f runs/min", throughput);
+        long remainingTime = getEstimatedRemainingTime();
+        if (remainingTime >= 0 && !stopRequested)
+            text += ", about " + formatDuration(remainingTime) + " remaining";
+        return text;
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 60)
+            return seconds + "s";
+        else if (seconds < 3600)
+            return (seconds / 60) + "m " + (seconds % 60) + "s";
+        else
+            return (seconds / 3600) + "h " + (seconds % 3600 / 60) + "m";
+    }
+}
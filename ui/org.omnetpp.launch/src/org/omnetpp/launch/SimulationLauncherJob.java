@@ -7,6 +7,7 @@
 
 package org.omnetpp.launch;
 
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.util.Date;
@@ -51,6 +52,8 @@ public class SimulationLauncherJob extends Job {
     private int port;
 
     private StringBuffer errors = new StringBuffer();
+    private volatile SimulationProgressChannel progressChannel;
+    private int prevPercentComplete = 0;
 
     public SimulationLauncherJob(ILaunchConfiguration configuration, ILaunch launch, String runFilter, boolean reportProgress, int port) {
         super("Simulating "+configuration.getName() + (runFilter.contains(",") ? " - Runs " : " - Run ") + runFilter);
@@ -88,6 +91,17 @@ public class SimulationLauncherJob extends Job {
             if (port != -1)
                 additionalArgs += " -p  " + port;
 
+            // binary progress records come via a loopback connection (see cmdenv-progress-port); console output is only parsed until the first record
+            if (reportProgress && monitor != null) {
+                try {
+                    progressChannel = new SimulationProgressChannel(getName(), (progress) -> progressReceived(subMonitor, progress));
+                    additionalArgs += " --cmdenv-progress-port=" + progressChannel.getPort();
+                }
+                catch (IOException e) {
+                    LaunchPlugin.logError("Cannot open progress reporting channel, falling back to parsing the console output", e);
+                }
+            }
+
             // calculate the command-line for display purposes (dump to the console before start)
             String[] cmdLineArgs = OmnetppLaunchUtils.createCommandLine(configuration, additionalArgs);
             IPath workingDir = OmnetppLaunchUtils.getWorkingDirectoryPath(configuration);
@@ -150,6 +164,10 @@ public class SimulationLauncherJob extends Job {
         catch (CoreException e) {
             return e.getStatus();
         }
+        finally {
+            if (progressChannel != null)
+                progressChannel.close();
+        }
 
         subMonitor.subTask("Finished");
         return Status.OK_STATUS;
@@ -161,7 +179,6 @@ public class SimulationLauncherJob extends Job {
             return;  // no console (likely the "Allocate console" checkbox on the Common page is cleared)
 
         streamsProxy.getOutputStreamMonitor().addListener(new IStreamListener () {
-            int prevPercentComplete = 0;
             @Override
             public void streamAppended(String text, IStreamMonitor streamMonitor) {
                 // collect error messages from stream
@@ -172,21 +189,44 @@ public class SimulationLauncherJob extends Job {
                     }
                 }
 
-                // parse and report progress percentage
-                int percentComplete = OmnetppLaunchUtils.getProgressInPercent(text);
-                if (percentComplete >= 0) {
-                    subMonitor.worked(percentComplete - prevPercentComplete);
-                    prevPercentComplete = percentComplete;
-                }
-
                 if (OmnetppLaunchUtils.isWaitingForUserInput(text))
                     subMonitor.subTask("Waiting for user input... (Switch to console)");
-                else
-                    subMonitor.subTask("Executing (" + prevPercentComplete + "%)");
+                else if (progressChannel == null || !progressChannel.isActive()) {
+                    // parse and report progress percentage
+                    int percentComplete = OmnetppLaunchUtils.getProgressInPercent(text);
+                    updateProgress(subMonitor, percentComplete, "Executing (" + Math.max(percentComplete, prevPercentComplete) + "%)");
+                }
             }
         });
     }
 
+    protected void progressReceived(SubMonitor subMonitor, SimulationProgress progress) {
+        int totalProgress = progress.getTotalProgressPerMille();
+        int percentComplete = totalProgress < 0 ? -1 : totalProgress / 10;
+        String status = "Executing ";
+        if (progress.getNumRuns() > 1)
+            status += "run " + progress.getRunIndex() + " of " + progress.getNumRuns() + ", ";
+        status += progress.toString();
+        updateProgress(subMonitor, percentComplete, status);
+    }
+
+    protected synchronized void updateProgress(SubMonitor subMonitor, int percentComplete, String status) {
+        if (percentComplete > prevPercentComplete) {
+            subMonitor.worked(percentComplete - prevPercentComplete);
+            prevPercentComplete = percentComplete;
+        }
+        subMonitor.subTask(status);
+    }
+
+    /**
+     * Returns the last progress record received from the simulation, or null if
+     * there is none (yet). Can be used for displaying the state of the runs.
+     */
+    public SimulationProgress getLastProgress() {
+        SimulationProgressChannel channel = progressChannel;
+        return channel == null ? null : channel.getLastProgress();
+    }
+
     protected void dumpPostMortemInfo(IProcess iprocess, String commandLine, IPath workingDir) throws CoreException {
         String errorMsg = "\nSimulation terminated with exit code: " + iprocess.getExitValue() + "\n";
         errorMsg += "Working directory: " + workingDir + "\n";
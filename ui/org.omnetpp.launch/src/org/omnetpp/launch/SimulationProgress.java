@@ -0,0 +1,139 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.launch;
+
+/**
+ * A progress record received from a simulation process launched under Cmdenv.
+ * Immutable. The record format is documented in Cmdenv's progressreporter.h.
+ */
+public class SimulationProgress {
+    public static final int RUN_START = 1;
+    public static final int STATUS = 2;
+    public static final int RUN_END = 3;
+
+    static final int RECORD_SIZE = 6*4 + 6*8;
+
+    private final int type;
+    private final int runNumber;
+    private final int runIndex;
+    private final int numRuns;
+    private final int progressPerMille;
+    private final int status;
+    private final long eventNumber;
+    private final long eventsPerSec;
+    private final long simSecPerSecMicro;
+    private final long liveMessages;
+    private final long fesLength;
+    private final long memoryBytes;
+
+    public SimulationProgress(int type, int runNumber, int runIndex, int numRuns, int progressPerMille, int status,
+            long eventNumber, long eventsPerSec, long simSecPerSecMicro, long liveMessages, long fesLength, long memoryBytes) {
+        this.type = type;
+        this.runNumber = runNumber;
+        this.runIndex = runIndex;
+        this.numRuns = numRuns;
+        this.progressPerMille = progressPerMille;
+        this.status = status;
+        this.eventNumber = eventNumber;
+        this.eventsPerSec = eventsPerSec;
+        this.simSecPerSecMicro = simSecPerSecMicro;
+        this.liveMessages = liveMessages;
+        this.fesLength = fesLength;
+        this.memoryBytes = memoryBytes;
+    }
+
+    /**
+     * One of RUN_START, STATUS and RUN_END.
+     */
+    public int getType() {
+        return type;
+    }
+
+    public int getRunNumber() {
+        return runNumber;
+    }
+
+    /**
+     * The 1-based index of the run among the runs executed by the process.
+     */
+    public int getRunIndex() {
+        return runIndex;
+    }
+
+    public int getNumRuns() {
+        return numRuns;
+    }
+
+    /**
+     * Progress of the current run in 0..1000, or -1 if unknown (there is no time limit).
+     */
+    public int getProgressPerMille() {
+        return progressPerMille;
+    }
+
+    /**
+     * Progress of all runs of the process in 0..1000, or -1 if unknown.
+     */
+    public int getTotalProgressPerMille() {
+        if (progressPerMille < 0 || numRuns <= 0)
+            return -1;
+        return (int)(((runIndex - 1) * 1000L + progressPerMille) / numRuns);
+    }
+
+    /**
+     * For RUN_END records: whether the run finished without error.
+     */
+    public boolean isFinishedOK() {
+        return status == 0;
+    }
+
+    public long getEventNumber() {
+        return eventNumber;
+    }
+
+    /**
+     * Events per second, or -1 if unknown.
+     */
+    public long getEventsPerSec() {
+        return eventsPerSec;
+    }
+
+    /**
+     * Simulated seconds per second, or -1 if unknown.
+     */
+    public double getSimSecPerSec() {
+        return simSecPerSecMicro < 0 ? -1 : simSecPerSecMicro / 1e6;
+    }
+
+    public long getLiveMessages() {
+        return liveMessages;
+    }
+
+    public long getFesLength() {
+        return fesLength;
+    }
+
+    /**
+     * Resident memory of the simulation process in bytes, or -1 if unknown.
+     */
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    @Override
+    public String toString() {
+        String text = "run #" + runNumber;
+        if (progressPerMille >= 0)
+            text += " (" + progressPerMille / 10 + "%)";
+        if (eventsPerSec >= 0)
+            text += ", " + eventsPerSec + " ev/sec";
+        if (memoryBytes >= 0)
+            text += ", " + (memoryBytes >> 20) + " MiB";
+        return text;
+    }
+}
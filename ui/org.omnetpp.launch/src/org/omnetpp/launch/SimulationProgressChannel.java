@@ -0,0 +1,93 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.launch;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+/**
+ * Receives binary progress records from a simulation process. It listens on an ephemeral
+ * port on the loopback interface; the port is passed to Cmdenv via the cmdenv-progress-port
+ * option, and Cmdenv connects back. The records are read on a daemon thread and passed
+ * to the listener.
+ */
+class SimulationProgressChannel {
+    private final ServerSocket serverSocket;
+    private final Consumer<SimulationProgress> listener;
+    private volatile Socket socket;
+    private volatile SimulationProgress lastProgress;
+
+    public SimulationProgressChannel(String name, Consumer<SimulationProgress> listener) throws IOException {
+        this.listener = listener;
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread readerThread = new Thread(() -> receive(), "Progress reader: " + name);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * The port the simulation should connect to.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns true once the simulation has sent a record. Until then, the caller may
+     * fall back to parsing the console output.
+     */
+    public boolean isActive() {
+        return lastProgress != null;
+    }
+
+    /**
+     * Returns the last record received, or null.
+     */
+    public SimulationProgress getLastProgress() {
+        return lastProgress;
+    }
+
+    public void close() {
+        try {
+            serverSocket.close();
+            Socket s = socket;
+            if (s != null)
+                s.close();
+        }
+        catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    private void receive() {
+        try (Socket s = serverSocket.accept()) {
+            socket = s;
+            serverSocket.close(); // only one connection is accepted
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), SimulationProgress.RECORD_SIZE * 16));
+            while (true) {
+                SimulationProgress progress = new SimulationProgress(
+                        in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                        in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                lastProgress = progress;
+                listener.accept(progress);
+            }
+        }
+        catch (EOFException e) {
+            // the simulation closed the connection
+        }
+        catch (IOException e) {
+            // closed by us, or the simulation terminated
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -63,6 +64,9 @@ public class MsgResources implements IMsgTypeResolver, IResourceChangeListener {
     // associate types declared in Msg files to their names
     private final Map<String, IMsgTypeElement> msgTypes = new HashMap<String, IMsgTypeElement>();
 
+    // parsed trees of unchanged Msg files, persisted between sessions
+    private final NedTreeCache msgTreeCache = NedTreeCache.createInStateLocation("msgtrees.cache");
+
     protected MsgResources() {
         NedElement.setDefaultMsgTypeResolver(this);
         rebuild();
@@ -117,22 +121,29 @@ public class MsgResources implements IMsgTypeResolver, IResourceChangeListener {
     }
 
     public synchronized void readAllMsgFiles() throws CoreException {
+        List<IFile> files = new ArrayList<IFile>();
         IProject[] omnetppProjects = ProjectUtils.getOmnetppProjects();
-        for (IProject project : omnetppProjects) {
-            for (IFile file : getMsgFiles(project)) {
-                if (!msgFiles.containsKey(file)) {
-                    try {
-                        readMsgFile(file);
-                    }
-                    catch (IOException e) {
-                        NedResourcesPlugin.logError("Error during reading message file: "+file.getName(), e);
-                    }
-                    catch (CoreException e) {
-                        NedResourcesPlugin.logError("Error during gathering message files: "+file.getName(), e);
-                    }
-                }
+        for (IProject project : omnetppProjects)
+            for (IFile file : getMsgFiles(project))
+                if (!msgFiles.containsKey(file))
+                    files.add(file);
+
+        // load the unchanged ones from the tree cache in parallel, parse the rest
+        MsgFileElementEx[] cachedTrees = new MsgFileElementEx[files.size()];
+        IntStream.range(0, files.size()).parallel().forEach(i -> cachedTrees[i] = loadCachedMsgFile(files.get(i)));
+        for (int i = 0; i < files.size(); i++) {
+            IFile file = files.get(i);
+            try {
+                readMsgFile(file, cachedTrees[i]);
+            }
+            catch (IOException e) {
+                NedResourcesPlugin.logError("Error during reading message file: "+file.getName(), e);
+            }
+            catch (CoreException e) {
+                NedResourcesPlugin.logError("Error during gathering message files: "+file.getName(), e);
             }
         }
+        msgTreeCache.save();
     }
 
     public synchronized Set<IFile> getMsgFiles(IProject project) {
@@ -193,8 +204,19 @@ public class MsgResources implements IMsgTypeResolver, IResourceChangeListener {
     }
 
     private void readMsgFile(IFile file) throws IOException, CoreException {
-        String source = FileUtils.readTextFile(file.getContents(), file.getCharset());
-        MsgFileElementEx element = NedTreeUtil.parseMsgSource(source, new SysoutNedErrorStore(), file.toString());
+        readMsgFile(file, loadCachedMsgFile(file));
+    }
+
+    private void readMsgFile(IFile file, MsgFileElementEx cachedTree) throws IOException, CoreException {
+        MsgFileElementEx element = cachedTree;
+        if (element == null) {
+            NedTreeCache.FileStamp stamp = msgTreeCache.getFileStamp(file);
+            String source = FileUtils.readTextFile(file.getContents(), file.getCharset());
+            SysoutNedErrorStore errorStore = new SysoutNedErrorStore();
+            element = NedTreeUtil.parseMsgSource(source, errorStore, file.toString());
+            if (errorStore.getNumProblems() == 0)
+                msgTreeCache.put(file, stamp, element);
+        }
         msgFiles.put(file, element);
         msgElementFiles.put(element, file);
 
@@ -202,6 +224,14 @@ public class MsgResources implements IMsgTypeResolver, IResourceChangeListener {
             msgTypes.put(typeElement.getName(), typeElement);
     }
 
+    /**
+     * Returns a new tree of the given Msg file from the tree cache, or null if it's not cached
+     * or the file has changed since. Can be called from any thread.
+     */
+    private MsgFileElementEx loadCachedMsgFile(IFile file) {
+        return (MsgFileElementEx)msgTreeCache.get(file, msgTreeCache.getFileStamp(file), null);
+    }
+
     /**
      * Synchronize the plugin with the resources in the workspace
      */
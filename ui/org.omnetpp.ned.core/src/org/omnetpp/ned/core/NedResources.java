@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -87,12 +88,15 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
     private boolean refactoringInProgress = false;
 
     // can be used for computations in a background thread without locking NedResources
-    private ImmutableNedTypeResolver immutableCopy = null;
+    private volatile ImmutableNedTypeResolver immutableCopy = null;
 
     // caches the result of expression parsing
     private Map<String,INedElement> expressionCache = new HashMap<String, INedElement>();
     private static final INedElement BOGUS_EXPRESSION = NedElementFactoryEx.getInstance().createElement(INedElement.NED_UNKNOWN); // special value to signal syntax error
 
+    // parsed trees of unchanged NED files, persisted between sessions
+    private final NedTreeCache nedTreeCache = NedTreeCache.createInStateLocation("nedtrees.cache");
+
     // whether a job to call readMissingNedFiles() has been scheduled
     private boolean isLoadingInProgress = false;
     private WorkspaceJob readMissingNedFilesJob = null;
@@ -242,17 +246,32 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
      * Internal: reads the given NED file from the disk.
      */
     protected synchronized void doReadNedFile(IFile file, ProblemMarkerSynchronizer markerSync) {
+        doReadNedFile(file, markerSync, loadCachedNedFile(file));
+    }
+
+    /**
+     * Internal: reads the given NED file from the disk, unless its tree has already been
+     * loaded from the tree cache.
+     */
+    protected synchronized void doReadNedFile(IFile file, ProblemMarkerSynchronizer markerSync, NedFileElementEx cachedTree) {
         Assert.isTrue(!hasConnectedEditor(file));
         //Note: the following is a bad idea, because of undefined startup order: the editor calling us might run sooner than readAllNedFiles()
         //Assert.isTrue(isNEDFile(file), "file is outside the NED source folders, or not a NED file at all");
 
         if (debug)
-            Debug.println("reading from disk: " + file.toString());
+            Debug.println((cachedTree != null ? "loaded from cache: " : "reading from disk: ") + file.toString());
 
-        // parse the NED file and put it into the hash table
+        // parse the NED file and put it into the hash table; a cached tree has no syntax problems,
+        // and setting the file on the error store removes the markers of the previous content
         NedMarkerErrorStore errorStore = new NedMarkerErrorStore(markerSync, NEDSYNTAXPROBLEM_MARKERID);
         errorStore.setFile(file);
-        NedFileElementEx tree = NedTreeUtil.parseNedFile(file.getLocation().toOSString(), errorStore, file.getFullPath().toString(), this);
+        NedFileElementEx tree = cachedTree;
+        if (tree == null) {
+            NedTreeCache.FileStamp stamp = nedTreeCache.getFileStamp(file);
+            tree = NedTreeUtil.parseNedFile(file.getLocation().toOSString(), errorStore, file.getFullPath().toString(), this);
+            if (errorStore.getNumProblems() == 0)
+                nedTreeCache.put(file, stamp, tree);
+        }
         Assert.isNotNull(tree);
 
         // only store the file if its declared package is not excluded -- that would lead to thrashing, see bug #518
@@ -280,6 +299,14 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
         invalidate();
     }
 
+    /**
+     * Returns a new tree of the given NED file from the tree cache, or null if it's not cached
+     * or the file has changed since. Does not access the tables, so it can be called from any thread.
+     */
+    protected NedFileElementEx loadCachedNedFile(IFile file) {
+        return (NedFileElementEx)nedTreeCache.get(file, nedTreeCache.getFileStamp(file), this);
+    }
+
     /**
      * Forget a NED file, and throws out all cached info.
      */
@@ -353,8 +380,7 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
     public synchronized void invalidate() {
         lastChangeSerial++;
         needsRehash = true;
-        nedTypeLookupCache.clear();
-        nedLikeTypeLookupCache.clear();
+        discardTables();
 
         // invalidate all inherited members on all typeInfo objects
         for (NedFileElementEx file : nedElementFiles.keySet())
@@ -504,17 +530,29 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
             nedModelChangeNotificationDisabled = true;
             debugRehashCounter = 0;
 
-            // read NED files that are not yet loaded
-            final ProblemMarkerSynchronizer sync = new ProblemMarkerSynchronizer();
+            // collect NED files that are not yet loaded
+            final List<IFile> files = new ArrayList<IFile>();
             IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
             workspaceRoot.accept(new IResourceVisitor() {
                 public boolean visit(IResource resource) {
                     if (!nedFiles.containsKey(resource) && isNedFile(resource))
-                        doReadNedFile((IFile)resource, sync);
+                        files.add((IFile)resource);
                     return true;
                 }
             });
+
+            // load the unchanged ones from the tree cache in parallel, parse the rest
+            NedFileElementEx[] cachedTrees = new NedFileElementEx[files.size()];
+            IntStream.range(0, files.size()).parallel().forEach(i -> cachedTrees[i] = loadCachedNedFile(files.get(i)));
+            final ProblemMarkerSynchronizer sync = new ProblemMarkerSynchronizer();
+            for (int i = 0; i < files.size(); i++) {
+                // reading a package.ned may have excluded some of the files
+                IFile file = files.get(i);
+                if (!nedFiles.containsKey(file) && isNedFile(file))
+                    doReadNedFile(file, sync, cachedTrees[i]);
+            }
             sync.runAsWorkspaceJob();
+            nedTreeCache.save();
             rehashIfNeeded();
         }
         catch (CoreException e) {
@@ -526,13 +564,18 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
         }
     }
 
-    public synchronized INedTypeResolver getImmutableCopy() {
-        if (immutableCopy == null)
-            immutableCopy = new ImmutableNedTypeResolver(this);
-        return immutableCopy;
+    public INedTypeResolver getImmutableCopy() {
+        ImmutableNedTypeResolver copy = immutableCopy;
+        if (copy != null)
+            return copy;
+        synchronized (this) {
+            if (immutableCopy == null)
+                immutableCopy = new ImmutableNedTypeResolver(this);
+            return immutableCopy;
+        }
     }
 
-    public synchronized boolean isImmutableCopyUpToDate(INedTypeResolver copy) {
+    public boolean isImmutableCopyUpToDate(INedTypeResolver copy) {
         return immutableCopy == copy;
     }
 
@@ -553,8 +596,10 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
      * Respond to model changes
      */
     protected void nedModelChanged(NedModelEvent event) {
-        if (event instanceof NedModelChangeEvent)
+        if (event instanceof NedModelChangeEvent) {
             immutableCopy = null; // invalidate
+            recordNedFileChange((NedModelChangeEvent)event);
+        }
 
         if (nedModelChangeNotificationDisabled)
             return;
@@ -577,6 +622,22 @@ public class NedResources extends NedTypeResolver implements INedResources, IRes
         // Debug.println("visual notification took " + dt + "ms");
     }
 
+    /**
+     * Remembers which NED file has changed, so that NED validation can skip the unaffected ones.
+     */
+    protected void recordNedFileChange(NedModelChangeEvent event) {
+        if (event instanceof NedFileRemovedEvent)
+            nedFileChangeSerials.put(((NedFileRemovedEvent)event).getFile(), ++lastFileChangeSerial);
+        else {
+            INedElement source = event.getSource();
+            IFile file = source == null ? null : nedElementFiles.get(source.getContainingNedFileElement());
+            if (file != null)
+                nedFileChangeSerials.put(file, ++lastFileChangeSerial);
+            else
+                globalChangeSerial = ++lastFileChangeSerial;
+        }
+    }
+
     /**
      * Synchronize the plugin with the resources in the workspace
      */
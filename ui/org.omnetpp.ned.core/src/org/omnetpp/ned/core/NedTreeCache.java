@@ -0,0 +1,361 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.ned.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.omnetpp.ned.model.INedElement;
+import org.omnetpp.ned.model.NedModelPlugin;
+import org.omnetpp.ned.model.NedSourceRegion;
+import org.omnetpp.ned.model.ex.NedElementFactoryEx;
+import org.omnetpp.ned.model.interfaces.INedTypeResolver;
+
+/**
+ * A persistent cache of parsed NED or MSG element trees, so that unchanged files need not be
+ * parsed again on every startup. The trees are stored in a compact binary form keyed by the
+ * workspace path of the file, and they are valid while the size, the modification time and
+ * the CRC32 checksum of the file are unchanged. The whole cache is discarded when the version
+ * of the NED model plugin changes, because the trees are stored by tag and attribute index,
+ * which depend on the element classes generated from the DTD. Only trees parsed without
+ * problems should be stored, because problems are not cached.
+ *
+ * The cache file is loaded on first use, and it is written by save() with the entries that
+ * were used or added since, so entries of deleted files do not accumulate. Trees may be
+ * loaded from several threads in parallel.
+ */
+public class NedTreeCache {
+    protected static final long MAGIC = 0x4f50505f4e545245L; // "OPP_NTRE"
+    protected static final int VERSION = 2;
+
+    /**
+     * Identifies the content of a file, taken before it's read.
+     */
+    public static class FileStamp {
+        protected long size;
+        protected long lastModified;
+        protected long checksum;
+
+        protected FileStamp(long size, long lastModified, long checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileStamp))
+                return false;
+            FileStamp other = (FileStamp)obj;
+            return size == other.size && lastModified == other.lastModified && checksum == other.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) ^ Long.hashCode(lastModified) ^ Long.hashCode(checksum);
+        }
+    }
+
+    protected static class Entry {
+        protected FileStamp stamp;
+        protected byte[] data; // the serialized tree
+
+        protected Entry(FileStamp stamp, byte[] data) {
+            this.stamp = stamp;
+            this.data = data;
+        }
+    }
+
+    protected File cacheFile; // may be null if there's no place to store it
+    protected String modelVersion = getModelVersion(); // the cache file must have been written with the same one
+    protected Map<String, Entry> loadedEntries; // read from the cache file, null until first use
+    protected Map<String, Entry> usedEntries = new HashMap<String, Entry>();
+    protected boolean isModified; // whether an entry was added since loading
+
+    public NedTreeCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Creates a cache stored under the given name in the state area of the plugin.
+     */
+    public static NedTreeCache createInStateLocation(String fileName) {
+        NedResourcesPlugin plugin = NedResourcesPlugin.getDefault();
+        return new NedTreeCache(plugin == null ? null : plugin.getStateLocation().append(fileName).toFile());
+    }
+
+    /**
+     * Returns the stamp of the current content of the file, or null if it cannot be read.
+     */
+    public FileStamp getFileStamp(IFile file) {
+        IPath location = file.getLocation();
+        if (location == null)
+            return null;
+        File localFile = location.toFile();
+        // take the size and time first, so a concurrent change is detected on the next start
+        long size = localFile.length();
+        long lastModified = localFile.lastModified();
+        CRC32 crc = new CRC32();
+        try (InputStream stream = new FileInputStream(localFile)) {
+            byte[] buffer = new byte[64 * 1024];
+            int count;
+            while ((count = stream.read(buffer)) != -1)
+                crc.update(buffer, 0, count);
+        }
+        catch (IOException e) {
+            return null;
+        }
+        return new FileStamp(size, lastModified, crc.getValue());
+    }
+
+    /**
+     * Returns a new tree of the file read from the cache, or null if the file has no valid
+     * entry. The resolver is passed to the NED elements, it's null for MSG files.
+     */
+    public INedElement get(IFile file, FileStamp stamp, INedTypeResolver resolver) {
+        if (stamp == null)
+            return null;
+        String path = file.getFullPath().toString();
+        Entry entry = getEntry(path);
+        if (entry == null || !entry.stamp.equals(stamp))
+            return null;
+        try {
+            INedElement tree = readTree(entry.data, resolver);
+            markUsed(path, entry);
+            return tree;
+        }
+        catch (IOException | RuntimeException e) {
+            NedResourcesPlugin.logError("Cannot load cached tree of " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the tree of the file that was parsed from the content identified by the stamp.
+     */
+    public void put(IFile file, FileStamp stamp, INedElement tree) {
+        if (stamp == null)
+            return;
+        try {
+            Entry entry = new Entry(stamp, writeTree(tree));
+            synchronized (this) {
+                usedEntries.put(file.getFullPath().toString(), entry);
+                isModified = true;
+            }
+        }
+        catch (IOException e) {
+            NedResourcesPlugin.logError("Cannot cache tree of " + file.getFullPath(), e);
+        }
+    }
+
+    /**
+     * Writes the used entries into the cache file if anything changed since it was loaded.
+     * The file is replaced atomically.
+     */
+    public synchronized void save() {
+        if (cacheFile == null || (!isModified && (loadedEntries == null || usedEntries.keySet().equals(loadedEntries.keySet()))))
+            return;
+        File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 64 * 1024))) {
+                stream.writeLong(MAGIC);
+                stream.writeInt(VERSION);
+                stream.writeUTF(modelVersion);
+                stream.writeInt(usedEntries.size());
+                for (Map.Entry<String, Entry> mapEntry : usedEntries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    stream.writeUTF(mapEntry.getKey());
+                    stream.writeLong(entry.stamp.size);
+                    stream.writeLong(entry.stamp.lastModified);
+                    stream.writeLong(entry.stamp.checksum);
+                    stream.writeInt(entry.data.length);
+                    stream.write(entry.data);
+                }
+            }
+            Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            loadedEntries = new HashMap<String, Entry>(usedEntries);
+            isModified = false;
+        }
+        catch (IOException e) {
+            NedResourcesPlugin.logError("Cannot write " + cacheFile, e);
+        }
+    }
+
+    protected synchronized Entry getEntry(String path) {
+        if (loadedEntries == null)
+            loadedEntries = load();
+        Entry entry = usedEntries.get(path);
+        return entry != null ? entry : loadedEntries.get(path);
+    }
+
+    protected synchronized void markUsed(String path, Entry entry) {
+        usedEntries.put(path, entry);
+    }
+
+    /**
+     * Reads the entries of the cache file. Returns an empty map if the file does not exist,
+     * or it has a different format or version, or it was written by a different version of the
+     * NED model.
+     */
+    protected Map<String, Entry> load() {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (cacheFile == null || !cacheFile.isFile())
+            return entries;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), 64 * 1024))) {
+            if (stream.readLong() != MAGIC || stream.readInt() != VERSION || !stream.readUTF().equals(modelVersion))
+                return entries;
+            int numEntries = stream.readInt();
+            for (int i = 0; i < numEntries; i++) {
+                String path = stream.readUTF();
+                FileStamp stamp = new FileStamp(stream.readLong(), stream.readLong(), stream.readLong());
+                byte[] data = new byte[stream.readInt()];
+                stream.readFully(data);
+                entries.put(path, new Entry(stamp, data));
+            }
+            return entries;
+        }
+        catch (IOException e) {
+            return new HashMap<String, Entry>();
+        }
+    }
+
+    /**
+     * Returns the bundle version of the NED model plugin, which includes the build qualifier, or
+     * an empty string if it's not running.
+     */
+    protected static String getModelVersion() {
+        NedModelPlugin plugin = NedModelPlugin.getDefault();
+        return plugin == null ? "" : plugin.getBundle().getVersion().toString();
+    }
+
+    /**
+     * Serializes the tree as a string table followed by the elements in preorder. An element is
+     * its tag code, its attributes and source location as string table indices (0 means null),
+     * its source region, and the number of its children.
+     */
+    protected static byte[] writeTree(INedElement tree) throws IOException {
+        Map<String, Integer> stringToIndexMap = new HashMap<String, Integer>();
+        List<String> strings = new ArrayList<String>();
+        ByteArrayOutputStream elements = new ByteArrayOutputStream();
+        writeElement(new DataOutputStream(elements), tree, stringToIndexMap, strings);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(elements.size() + 16 * strings.size());
+        DataOutputStream stream = new DataOutputStream(bytes);
+        writeVarint(stream, strings.size());
+        for (String string : strings) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(stream, utf8.length);
+            stream.write(utf8);
+        }
+        elements.writeTo(stream);
+        stream.flush();
+        return bytes.toByteArray();
+    }
+
+    protected static void writeElement(DataOutput stream, INedElement element, Map<String, Integer> stringToIndexMap, List<String> strings) throws IOException {
+        writeVarint(stream, element.getTagCode());
+        int numAttributes = element.getNumAttributes();
+        writeVarint(stream, numAttributes);
+        for (int i = 0; i < numAttributes; i++)
+            writeString(stream, element.getAttribute(i), stringToIndexMap, strings);
+        writeString(stream, element.getSourceLocation(), stringToIndexMap, strings);
+        NedSourceRegion region = element.getSourceRegion();
+        if (region == null)
+            writeVarint(stream, 0);
+        else {
+            writeVarint(stream, region.getStartLine() + 1);
+            writeVarint(stream, region.getStartColumn());
+            writeVarint(stream, region.getEndLine());
+            writeVarint(stream, region.getEndColumn());
+        }
+        writeVarint(stream, element.getNumChildren());
+        for (INedElement child : element)
+            writeElement(stream, child, stringToIndexMap, strings);
+    }
+
+    protected static void writeString(DataOutput stream, String string, Map<String, Integer> stringToIndexMap, List<String> strings) throws IOException {
+        if (string == null)
+            writeVarint(stream, 0);
+        else {
+            Integer index = stringToIndexMap.get(string);
+            if (index == null) {
+                strings.add(string);
+                index = strings.size();
+                stringToIndexMap.put(string, index);
+            }
+            writeVarint(stream, index);
+        }
+    }
+
+    protected static INedElement readTree(byte[] data, INedTypeResolver resolver) throws IOException {
+        DataInputStream stream = new DataInputStream(new ByteArrayInputStream(data));
+        String[] strings = new String[readVarint(stream) + 1]; // index 0 is null
+        for (int i = 1; i < strings.length; i++) {
+            byte[] utf8 = new byte[readVarint(stream)];
+            stream.readFully(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        return readElement(stream, null, strings, resolver);
+    }
+
+    protected static INedElement readElement(DataInput stream, INedElement parent, String[] strings, INedTypeResolver resolver) throws IOException {
+        INedElement element = NedElementFactoryEx.getInstance().createElement(resolver, readVarint(stream), parent);
+        int numAttributes = readVarint(stream);
+        if (numAttributes != element.getNumAttributes())
+            throw new IOException("Attribute count mismatch for <" + element.getTagName() + ">");
+        for (int i = 0; i < numAttributes; i++)
+            element.setAttribute(i, strings[readVarint(stream)]);
+        element.setSourceLocation(strings[readVarint(stream)]);
+        int startLine = readVarint(stream);
+        if (startLine != 0)
+            element.setSourceRegion(new NedSourceRegion(startLine - 1, readVarint(stream), readVarint(stream), readVarint(stream)));
+        int numChildren = readVarint(stream);
+        for (int i = 0; i < numChildren; i++)
+            readElement(stream, element, strings, resolver);
+        return element;
+    }
+
+    protected static void writeVarint(DataOutput stream, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            stream.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        stream.writeByte(value);
+    }
+
+    protected static int readVarint(DataInput stream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = stream.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
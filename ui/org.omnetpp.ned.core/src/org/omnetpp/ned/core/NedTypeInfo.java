@@ -63,8 +63,9 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
 
     protected String fullyQualifiedName; // computed on demand
 
-    // local members
-    protected boolean needsRefreshLocal;
+    // local members; the tables are filled in place, so refreshes are done with the resolver locked,
+    // which makes it safe to query types of a shared resolver from several threads
+    protected volatile boolean needsRefreshLocal;
     protected INedTypeElement extendsType;
     protected Set<INedTypeElement> localInterfaces = new HashSet<INedTypeElement>();
     protected Map<String, Map<String, PropertyElementEx>> localProperties = new LinkedHashMap<String, Map<String, PropertyElementEx>>();
@@ -76,13 +77,13 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
     protected Map<String, INedTypeElement> localInnerTypes = new LinkedHashMap<String, INedTypeElement>();
     protected Map<String, SubmoduleElementEx> localSubmodules = new LinkedHashMap<String, SubmoduleElementEx>();
     protected Map<String, ConnectionElementEx> localNamedConnections = new LinkedHashMap<String, ConnectionElementEx>();
-    protected HashSet<INedTypeElement> localUsedTypes;
+    protected volatile HashSet<INedTypeElement> localUsedTypes;
 
     // sum of all "local" stuff
     protected Map<String, INedElement> localMembers = new LinkedHashMap<String, INedElement>();
 
     // local plus inherited
-    protected boolean needsRefreshInherited; //XXX may be replaced with inheritedRefreshSerial, see INedTypeResolver.getLastChangeSerial()
+    protected volatile boolean needsRefreshInherited; //XXX may be replaced with inheritedRefreshSerial, see INedTypeResolver.getLastChangeSerial()
     protected List<INedTypeInfo> extendsChain = null;
     protected Set<INedTypeElement> allInterfaces = new HashSet<INedTypeElement>();
     protected Map<String, Map<String, PropertyElementEx>> allProperties = new LinkedHashMap<String, Map<String, PropertyElementEx>>();
@@ -93,7 +94,7 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
     protected Map<String, INedTypeElement> allInnerTypes = new LinkedHashMap<String, INedTypeElement>();
     protected Map<String, SubmoduleElementEx> allSubmodules = new LinkedHashMap<String, SubmoduleElementEx>();
     protected Map<String, ConnectionElementEx> allNamedConnections = new LinkedHashMap<String, ConnectionElementEx>();
-    protected HashSet<INedTypeElement> allUsedTypes;
+    protected volatile HashSet<INedTypeElement> allUsedTypes;
 
     // sum of all local+inherited stuff
     protected Map<String, INedElement> allMembers = new LinkedHashMap<String, INedElement>();
@@ -242,9 +243,15 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
      * Refresh tables of local members
      */
     protected void refreshLocalMembersIfNeeded() {
-        if (!needsRefreshLocal)
-            return;
+        if (needsRefreshLocal) {
+            synchronized (getResolver()) {
+                if (needsRefreshLocal)
+                    refreshLocalMembers();
+            }
+        }
+    }
 
+    protected void refreshLocalMembers() {
         //long startMillis = System.currentTimeMillis();
 
         ++debugRefreshLocalCount;
@@ -342,9 +349,15 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
      * Collect all inherited parameters, gates, properties, submodules, named connections, etc.
      */
     protected void refreshInheritedMembersIfNeeded() {
-        if (!needsRefreshInherited)
-            return;
+        if (needsRefreshInherited) {
+            synchronized (getResolver()) {
+                if (needsRefreshInherited)
+                    refreshInheritedMembers();
+            }
+        }
+    }
 
+    protected void refreshInheritedMembers() {
         long startMillis = System.currentTimeMillis();
 
         ++debugRefreshInheritedCount;
@@ -571,13 +584,15 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
     }
 
     public Set<INedTypeElement> getLocalUsedTypes() {
-        if (localUsedTypes == null) {
-            localUsedTypes = new HashSet<INedTypeElement>();
+        HashSet<INedTypeElement> usedTypes = localUsedTypes;
+        if (usedTypes == null) {
+            usedTypes = new HashSet<INedTypeElement>();
             refreshLocalMembersIfNeeded();
-            collectTypesInCompoundModule(localUsedTypes);
+            collectTypesInCompoundModule(usedTypes);
+            localUsedTypes = usedTypes;
         }
 
-        return localUsedTypes;
+        return usedTypes;
     }
 
     public Set<INedTypeElement> getInterfaces() {
@@ -639,19 +654,21 @@ public class NedTypeInfo implements INedTypeInfo, NedElementTags, NedElementCons
     }
 
     public Set<INedTypeElement> getUsedTypes() {
-        if (allUsedTypes == null) {
-            allUsedTypes = new HashSet<INedTypeElement>();
+        HashSet<INedTypeElement> usedTypes = allUsedTypes;
+        if (usedTypes == null) {
+            usedTypes = new HashSet<INedTypeElement>();
             refreshInheritedMembersIfNeeded();
             INedTypeInfo[] forwardExtendsChain = extendsChain.toArray(new INedTypeInfo[]{});
             ArrayUtils.reverse(forwardExtendsChain);
             for (INedTypeInfo typeInfo : forwardExtendsChain) {
                 Assert.isTrue(typeInfo instanceof NedTypeInfo);
                 NedTypeInfo component = (NedTypeInfo)typeInfo;
-                allUsedTypes.addAll(component.getLocalUsedTypes());
+                usedTypes.addAll(component.getLocalUsedTypes());
             }
+            allUsedTypes = usedTypes;
         }
 
-        return allUsedTypes;
+        return usedTypes;
     }
 
     public List<ParamElementEx> getParameterInheritanceChain(String parameterName) {
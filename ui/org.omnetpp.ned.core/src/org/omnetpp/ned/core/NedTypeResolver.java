@@ -2,11 +2,14 @@ package org.omnetpp.ned.core;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.core.resources.IContainer;
@@ -40,6 +43,14 @@ import org.omnetpp.ned.model.pojo.NedFileElement;
 /**
  * Default implementation of INedTypeResolver
  *
+ * Queries are served without locking from immutable copies of the tables (see NedFileTable
+ * and NedTypeTable). Every change discards the copies under the lock, and the next query
+ * creates new ones, so readers never block each other, and they only wait for writers
+ * when the tables have changed since they were last copied. Queries that read the live NED
+ * elements, e.g. their names, properties, inner types or interfaces, or that call a predicate
+ * supplied by the caller, hold the lock, because the NED trees may be changed and their type
+ * info tables recomputed meanwhile.
+ *
  * @author Andras
  */
 public class NedTypeResolver implements INedTypeResolver {
@@ -48,9 +59,16 @@ public class NedTypeResolver implements INedTypeResolver {
     protected final Map<IFile, NedFileElementEx> nedFiles = new HashMap<IFile, NedFileElementEx>();
     protected final Map<NedFileElementEx, IFile> nedElementFiles = new HashMap<NedFileElementEx,IFile>();
     protected final Map<IProject,ProjectData> projects = new HashMap<IProject, ProjectData>();
-    protected long lastChangeSerial = 1;
-    protected Map<INedTypeLookupContext, Map<String, INedTypeInfo>> nedTypeLookupCache = new HashMap<INedTypeLookupContext, Map<String,INedTypeInfo>>();
-    protected Map<IProject, Map<INedTypeInfo, Map<String, INedTypeInfo>>> nedLikeTypeLookupCache = new HashMap<IProject, Map<INedTypeInfo,Map<String,INedTypeInfo>>>();
+    protected volatile long lastChangeSerial = 1;
+
+    // immutable copies of the tables for lock-free queries; null if they need to be copied again
+    protected volatile NedFileTable fileTable;
+    protected volatile NedTypeTable typeTable;
+
+    // serials of the last change of each NED file, and of the last change that may affect all files
+    protected final Map<IFile, Long> nedFileChangeSerials = new HashMap<IFile, Long>();
+    protected long globalChangeSerial = 0;
+    protected long lastFileChangeSerial = 0;
 
     // file element to contain built-in declarations (does not correspond to any physical file)
     protected NedFileElementEx builtInDeclarationsFile;
@@ -87,6 +105,38 @@ public class NedTypeResolver implements INedTypeResolver {
         }
     }
 
+    /**
+     * Immutable copy of the NED file tables.
+     */
+    protected static class NedFileTable {
+        final Map<IFile, NedFileElementEx> nedFiles;
+        final Map<NedFileElementEx, IFile> nedElementFiles;
+
+        NedFileTable(NedTypeResolver resolver) {
+            nedFiles = Collections.unmodifiableMap(new HashMap<IFile, NedFileElementEx>(resolver.nedFiles));
+            nedElementFiles = Collections.unmodifiableMap(new HashMap<NedFileElementEx, IFile>(resolver.nedElementFiles));
+        }
+    }
+
+    /**
+     * Immutable copy of the type tables of the projects, taken after a rehash, together with
+     * the lookup caches that are valid as long as the copy is. Failed lookups are cached as
+     * empty optionals.
+     */
+    protected static class NedTypeTable {
+        final Map<IProject, Map<String, INedTypeInfo>> components = new HashMap<IProject, Map<String, INedTypeInfo>>();
+        final Map<IProject, Set<String>> reservedNames = new HashMap<IProject, Set<String>>();
+        final Map<INedTypeLookupContext, Map<String, Optional<INedTypeInfo>>> nedTypeLookupCache = new ConcurrentHashMap<INedTypeLookupContext, Map<String, Optional<INedTypeInfo>>>();
+        final Map<IProject, Map<INedTypeInfo, Map<String, Optional<INedTypeInfo>>>> nedLikeTypeLookupCache = new ConcurrentHashMap<IProject, Map<INedTypeInfo, Map<String, Optional<INedTypeInfo>>>>();
+
+        NedTypeTable(NedTypeResolver resolver) {
+            for (Map.Entry<IProject, ProjectData> entry : resolver.projects.entrySet()) {
+                components.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<String, INedTypeInfo>(entry.getValue().components)));
+                reservedNames.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<String>(entry.getValue().reservedNames)));
+            }
+        }
+    }
+
     /**
      * Empty constructor, for subclasses
      */
@@ -108,6 +158,9 @@ public class NedTypeResolver implements INedTypeResolver {
         // clone other fields (note: no need to clone nedTypeLookupCache)
         builtInDeclarationsFile = (NedFileElementEx) other.builtInDeclarationsFile.deepDup(this, true, true);
         lastChangeSerial = other.lastChangeSerial;
+        nedFileChangeSerials.putAll(other.nedFileChangeSerials);
+        globalChangeSerial = other.globalChangeSerial;
+        lastFileChangeSerial = other.lastFileChangeSerial;
 
         // clone projects table
         for (IProject project : other.projects.keySet()) {
@@ -125,6 +178,7 @@ public class NedTypeResolver implements INedTypeResolver {
 
     protected void internalRehash() {
         long startMillis = System.currentTimeMillis();
+        typeTable = null;
 
         // clear tables and re-register built-in declarations for all projects
         for (ProjectData projectData : projects.values()) {
@@ -185,6 +239,9 @@ public class NedTypeResolver implements INedTypeResolver {
 
         }
 
+        // discard any copy taken while the tables were being filled
+        typeTable = null;
+
         if (debug) {
             long dt = System.currentTimeMillis() - startMillis;
             Debug.println("rehash(): " + dt + "ms, " + nedFiles.size() + " files, " + projects.size() + " projects");
@@ -220,37 +277,94 @@ public class NedTypeResolver implements INedTypeResolver {
         return lastChangeSerial;
     }
 
+    /**
+     * Returns the current copy of the NED file tables, copying them first if needed.
+     */
+    protected NedFileTable getFileTable() {
+        NedFileTable table = fileTable;
+        if (table == null) {
+            synchronized (this) {
+                if (fileTable == null)
+                    fileTable = new NedFileTable(this);
+                table = fileTable;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the current copy of the type tables, rehashing and copying them first if needed.
+     */
+    protected NedTypeTable getTypeTable() {
+        NedTypeTable table = typeTable;
+        if (table == null) {
+            synchronized (this) {
+                rehashIfNeeded();
+                if (typeTable == null)
+                    typeTable = new NedTypeTable(this);
+                table = typeTable;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Discards the copies of the tables; must be called (with the lock held) whenever the tables change.
+     */
+    protected void discardTables() {
+        fileTable = null;
+        typeTable = null;
+    }
+
+    /**
+     * Returns the serial of the last change of the given NED file, or 0 if it hasn't changed since it was read.
+     * Changes that may affect all files are not included, see getGlobalChangeSerial().
+     */
+    public synchronized long getNedFileChangeSerial(IFile file) {
+        Long serial = nedFileChangeSerials.get(file);
+        return serial == null ? 0 : serial;
+    }
+
+    /**
+     * Returns the serial of the last change that may affect all NED files, e.g. a change in the projects table.
+     */
+    public synchronized long getGlobalChangeSerial() {
+        return globalChangeSerial;
+    }
+
     public INedTypeInfo createTypeInfoFor(INedTypeElement node) {
         return new NedTypeInfo(node);
     }
 
-    public synchronized Set<IFile> getNedFiles() {
-        return nedFiles.keySet();
+    public Set<IFile> getNedFiles() {
+        return getFileTable().nedFiles.keySet();
     }
 
-    public synchronized Set<IFile> getNedFiles(IProject project) {
+    public Set<IFile> getNedFiles(IProject project) {
         Set<IFile> files = new HashSet<IFile>();
 
-        for (IFile file : nedFiles.keySet())
+        for (IFile file : getFileTable().nedFiles.keySet())
             if (project.equals(file.getProject()))
                 files.add(file);
 
         return files;
     }
 
-    public synchronized boolean containsNedFileElement(IFile file) {
-        return nedFiles.containsKey(file);
+    public boolean containsNedFileElement(IFile file) {
+        return getFileTable().nedFiles.containsKey(file);
     }
 
-    public synchronized NedFileElementEx getNedFileElement(IFile file) {
-        Assert.isTrue(nedFiles.containsKey(file), "file is not a NED file, or not parsed yet");
-        return nedFiles.get(file);
+    public NedFileElementEx getNedFileElement(IFile file) {
+        NedFileElementEx nedFileElement = getFileTable().nedFiles.get(file);
+        Assert.isTrue(nedFileElement != null, "file is not a NED file, or not parsed yet");
+        return nedFileElement;
     }
 
-    public synchronized IFile getNedFile(NedFileElementEx nedFileElement) {
+    public IFile getNedFile(NedFileElementEx nedFileElement) {
         Assert.isTrue(nedFileElement.getResolver() == this, "cannot use another resolver for lookups than the one that created the element");
-        Assert.isTrue(nedElementFiles.containsKey(nedFileElement) || nedFileElement==builtInDeclarationsFile, "NedFileElement is not in the resolver");
-        return nedElementFiles.get(nedFileElement);
+        IFile file = getFileTable().nedElementFiles.get(nedFileElement);
+        Assert.isTrue(file != null || nedFileElement==builtInDeclarationsFile, "NedFileElement is not in the resolver");
+        return file;
     }
 
     public IMarker[] getMarkersForElement(INedElement element, boolean recursive, int limit) {
@@ -293,15 +407,15 @@ public class NedTypeResolver implements INedTypeResolver {
         return parent.getSourceRegion() != null && parent.getSourceRegion().contains(line, column) ? parent : null;
     }
 
-    public synchronized Collection<INedTypeInfo> getToplevelNedTypesFromAllProjects() {
+    public Collection<INedTypeInfo> getToplevelNedTypesFromAllProjects() {
         return getToplevelNedTypesFromAllProjects(ALL_FILTER);
     }
 
     public synchronized Collection<INedTypeInfo> getToplevelNedTypesFromAllProjects(IPredicate predicate) {
         // return everything from everywhere, including duplicates
         List<INedTypeInfo> result = new ArrayList<INedTypeInfo>();
-        for (IFile file : nedFiles.keySet())
-            for (INedElement child : nedFiles.get(file))
+        for (NedFileElementEx nedFileElement : getFileTable().nedFiles.values())
+            for (INedElement child : nedFileElement)
                 if (child instanceof INedTypeElement) {
                     INedTypeInfo typeInfo = ((INedTypeElement)child).getNedTypeInfo();
                     if (predicate.matches(typeInfo))
@@ -313,33 +427,32 @@ public class NedTypeResolver implements INedTypeResolver {
     public synchronized Set<String> getToplevelNedTypeQNamesFromAllProjects() {
         // return everything from everywhere
         Set<String> result = new HashSet<String>();
-        for (IFile file : nedFiles.keySet())
-            for (INedElement child : nedFiles.get(file))
+        for (NedFileElementEx nedFileElement : getFileTable().nedFiles.values())
+            for (INedElement child : nedFileElement)
                 if (child instanceof INedTypeElement)
                     result.add(((INedTypeElement)child).getNedTypeInfo().getFullyQualifiedName());
         return result;
     }
 
-    public synchronized Set<INedTypeInfo> getToplevelNedTypesFromAllProjects(String qualifiedName) {
+    public Set<INedTypeInfo> getToplevelNedTypesFromAllProjects(String qualifiedName) {
         Set<INedTypeInfo> result = new HashSet<INedTypeInfo>();
-        for (IProject project : projects.keySet()) {
-            INedTypeInfo type = getToplevelNedType(qualifiedName, project);
+        for (Map<String, INedTypeInfo> components : getTypeTable().components.values()) {
+            INedTypeInfo type = components.get(qualifiedName);
             if (type != null)
                 result.add(type);
         }
         return result;
     }
 
-    public synchronized Collection<INedTypeInfo> getToplevelNedTypes(IProject context) {
+    public Collection<INedTypeInfo> getToplevelNedTypes(IProject context) {
         Collection<INedTypeInfo> result = new ArrayList<INedTypeInfo>();
         result.addAll(getToplevelNedTypesInternal(context));
         return result;
     }
 
-    private synchronized Collection<INedTypeInfo> getToplevelNedTypesInternal(IProject context) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
-        return projectData==null ? new ArrayList<INedTypeInfo>() : projectData.components.values();
+    private Collection<INedTypeInfo> getToplevelNedTypesInternal(IProject context) {
+        Map<String, INedTypeInfo> components = getTypeTable().components.get(context);
+        return components==null ? new ArrayList<INedTypeInfo>() : components.values();
     }
 
     public synchronized Collection<INedTypeInfo> getToplevelNedTypes(IPredicate predicate, IProject context) {
@@ -359,7 +472,7 @@ public class NedTypeResolver implements INedTypeResolver {
         return result;
     }
 
-    public Collection<INedTypeInfo> getToplevelNedTypesBySimpleName(String simpleName, IProject context) {
+    public synchronized Collection<INedTypeInfo> getToplevelNedTypesBySimpleName(String simpleName, IProject context) {
         Collection<INedTypeInfo> result = new ArrayList<INedTypeInfo>();
         for (INedTypeInfo type : getToplevelNedTypesInternal(context))
             if (type.getName().equals(simpleName))
@@ -375,25 +488,22 @@ public class NedTypeResolver implements INedTypeResolver {
         return result;
     }
 
-    public synchronized Set<String> getToplevelNedTypeQNames(IProject context) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
-        return projectData==null ? new HashSet<String>() : projectData.components.keySet();
+    public Set<String> getToplevelNedTypeQNames(IProject context) {
+        Map<String, INedTypeInfo> components = getTypeTable().components.get(context);
+        return components==null ? new HashSet<String>() : components.keySet();
     }
 
-    public synchronized Set<String> getReservedQNames(IProject context) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
-        return projectData==null ? new HashSet<String>() : projectData.reservedNames;
+    public Set<String> getReservedQNames(IProject context) {
+        Set<String> reservedNames = getTypeTable().reservedNames.get(context);
+        return reservedNames==null ? new HashSet<String>() : reservedNames;
     }
 
-    public synchronized Set<String> getReservedNames(IProject context, String packageName) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
+    public Set<String> getReservedNames(IProject context, String packageName) {
+        Set<String> reservedNames = getTypeTable().reservedNames.get(context);
         Set<String> result = new HashSet<String>();
-        if (projectData != null) {
+        if (reservedNames != null) {
             String packagePrefix = StringUtils.isEmpty(packageName) ? "" : packageName + ".";
-            for (String qualifiedName : projectData.reservedNames)
+            for (String qualifiedName : reservedNames)
                 if (qualifiedName.startsWith(packagePrefix))
                     result.add(StringUtils.removeStart(qualifiedName, packagePrefix));
         }
@@ -420,31 +530,31 @@ public class NedTypeResolver implements INedTypeResolver {
         return getToplevelNedTypeQNames(CHANNELINTERFACE_FILTER, context);
     }
 
-    public synchronized INedTypeInfo getToplevelNedType(String qualifiedName, IProject context) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
-        return projectData==null ? null : projectData.components.get(qualifiedName);
+    public INedTypeInfo getToplevelNedType(String qualifiedName, IProject context) {
+        Map<String, INedTypeInfo> components = getTypeTable().components.get(context);
+        return components==null ? null : components.get(qualifiedName);
     }
 
-    public synchronized INedTypeInfo getToplevelOrInnerNedType(String qualifiedName, IProject context) {
-        rehashIfNeeded();
-        ProjectData projectData = projects.get(context);
-        if (projectData == null)
+    public INedTypeInfo getToplevelOrInnerNedType(String qualifiedName, IProject context) {
+        Map<String, INedTypeInfo> components = getTypeTable().components.get(context);
+        if (components == null)
             return null;
 
         // try as toplevel type
-        INedTypeInfo typeInfo = projectData.components.get(qualifiedName);
+        INedTypeInfo typeInfo = components.get(qualifiedName);
         if (typeInfo != null)
             return typeInfo;
 
         // if not found, try as inner type
         int lastDot = qualifiedName.lastIndexOf('.');
         if (lastDot != -1) {
-            INedTypeInfo enclosingType = projectData.components.get(qualifiedName.substring(0,lastDot));
+            INedTypeInfo enclosingType = components.get(qualifiedName.substring(0,lastDot));
             if (enclosingType != null) {
-                INedTypeElement innerType = enclosingType.getInnerTypes().get(qualifiedName.substring(lastDot+1));
-                if (innerType != null)
-                    typeInfo = innerType.getNedTypeInfo();
+                synchronized (this) {
+                    INedTypeElement innerType = enclosingType.getInnerTypes().get(qualifiedName.substring(lastDot+1));
+                    if (innerType != null)
+                        typeInfo = innerType.getNedTypeInfo();
+                }
             }
         }
         return typeInfo;
@@ -486,18 +596,18 @@ public class NedTypeResolver implements INedTypeResolver {
         return null;
     }
 
-    public synchronized INedTypeInfo lookupNedType(String name, INedTypeLookupContext lookupContext) {
+    public INedTypeInfo lookupNedType(String name, INedTypeLookupContext lookupContext) {
         Assert.isTrue(lookupContext.getResolver() == this, "cannot use another resolver for lookups than the one that created the element");
-        // return cached value if exists, otherwise call doLookupNedType()
-        Map<String, INedTypeInfo> map = nedTypeLookupCache.get(lookupContext);
-        if (map == null)
-            nedTypeLookupCache.put(lookupContext, map = new HashMap<String, INedTypeInfo>());
-        INedTypeInfo typeInfo = map.get(name);
-        // note: we need to distinguish between "null" meaning "not yet looked up", and
-        // "looked up but no such type" (represented as: no such key vs value is null)
-        if (typeInfo == null && !map.containsKey(name))
-            map.put(name, typeInfo = doLookupNedType(name, lookupContext));
-        return typeInfo;
+        // return cached value if exists, otherwise call doLookupNedType() with the lock held
+        Map<String, Optional<INedTypeInfo>> map = getTypeTable().nedTypeLookupCache.computeIfAbsent(lookupContext, k -> new ConcurrentHashMap<String, Optional<INedTypeInfo>>());
+        Optional<INedTypeInfo> typeInfo = map.get(name);
+        if (typeInfo == null) {
+            synchronized (this) {
+                typeInfo = Optional.ofNullable(doLookupNedType(name, lookupContext));
+            }
+            map.put(name, typeInfo);
+        }
+        return typeInfo.orElse(null);
     }
 
     protected INedTypeInfo doLookupNedType(String name, INedTypeLookupContext lookupContext) {
@@ -580,19 +690,22 @@ public class NedTypeResolver implements INedTypeResolver {
 
     public INedTypeInfo lookupLikeType(String name, INedTypeInfo interfaceType, IProject context) {
         Assert.isTrue(interfaceType.getResolver() == this, "cannot use another resolver for lookups than the one that created the element");
-        // return cached value if exists, otherwise call doLookupLikeType()
-        Map<INedTypeInfo, Map<String, INedTypeInfo>> map = nedLikeTypeLookupCache.get(context);
-        if (map == null)
-            nedLikeTypeLookupCache.put(context, map = new HashMap<INedTypeInfo, Map<String,INedTypeInfo>>());
-
-        Map<String, INedTypeInfo> map2 = map.get(interfaceType);
-        if (map2 == null)
-            map.put(interfaceType, map2 = new HashMap<String, INedTypeInfo>());
-
-        INedTypeInfo type = map2.get(name);
-        if (type == null && !map2.containsKey(name))
-            map2.put(name, type = doLookupLikeType(name, interfaceType, context));
-        return type;
+        if (context == null) {
+            synchronized (this) {
+                return doLookupLikeType(name, interfaceType, context);
+            }
+        }
+        // return cached value if exists, otherwise call doLookupLikeType() with the lock held
+        Map<INedTypeInfo, Map<String, Optional<INedTypeInfo>>> map = getTypeTable().nedLikeTypeLookupCache.computeIfAbsent(context, k -> new ConcurrentHashMap<INedTypeInfo, Map<String, Optional<INedTypeInfo>>>());
+        Map<String, Optional<INedTypeInfo>> map2 = map.computeIfAbsent(interfaceType, k -> new ConcurrentHashMap<String, Optional<INedTypeInfo>>());
+        Optional<INedTypeInfo> type = map2.get(name);
+        if (type == null) {
+            synchronized (this) {
+                type = Optional.ofNullable(doLookupLikeType(name, interfaceType, context));
+            }
+            map2.put(name, type);
+        }
+        return type.orElse(null);
     }
 
     protected INedTypeInfo doLookupLikeType(String name, INedTypeInfo interfaceType, IProject context) {
@@ -1,5 +1,15 @@
 package org.omnetpp.ned.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import java.util.stream.Collectors;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -7,8 +17,12 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.omnetpp.common.Debug;
 import org.omnetpp.common.markers.ProblemMarkerSynchronizer;
+import org.omnetpp.ned.model.AbstractNedErrorStore;
 import org.omnetpp.ned.model.INedElement;
+import org.omnetpp.ned.model.ex.CompoundModuleElementEx;
 import org.omnetpp.ned.model.ex.NedFileElementEx;
+import org.omnetpp.ned.model.interfaces.INedTypeElement;
+import org.omnetpp.ned.model.interfaces.INedTypeInfo;
 import org.omnetpp.ned.model.interfaces.INedTypeResolver;
 
 
@@ -16,11 +30,34 @@ import org.omnetpp.ned.model.interfaces.INedTypeResolver;
  * Validates all NED files for consistency (no such parameter/gate/module-type, redeclarations,
  * duplicate types, cycles in the inheritance chain, etc). All consistency problem markers
  * (NEDCONSISTENCYPROBLEM_MARKERID) are managed within this job.
+ *
+ * Validation is incremental: the results of each file are kept, and a file is only validated
+ * again if it or a file defining a type it depends on (transitively via extends, like and used
+ * types) has changed. Adding, removing or renaming types, and changes affecting all files
+ * (projects table, package.ned files) cause all files to be validated. Files are validated
+ * in parallel; the results of files completed before NED changes under us are kept as well.
  */
 public class NedValidationJob extends Job {
     private boolean validateOpenNedFilesOnly = false; //TODO such preference might be useful for netbooks
     private int retryCount = 0;
 
+    /**
+     * The result of validating one NED file, and the state of NED it was computed from.
+     */
+    private static class FileValidation {
+        long changeSerial;
+        List<String> typeNames; // toplevel types defined in the file
+        Set<IFile> dependencies; // files defining the types the file depends on
+        ProblemMarkerSynchronizer markerSync = new ProblemMarkerSynchronizer(INedTypeResolver.NEDCONSISTENCYPROBLEM_MARKERID);
+        NedMarkerErrorStore errorStore = new NedMarkerErrorStore(markerSync);
+        Map<INedElement, Integer> originalSeverities = new HashMap<INedElement, Integer>(); // to be copied onto the NED trees in NedResources
+    }
+
+    // results of validated files; only accessed from the job
+    private Map<IFile, FileValidation> fileValidations = new HashMap<IFile, FileValidation>();
+    private long validatedGlobalChangeSerial = -1;
+    private Set<IFile> unpublishedFiles = new HashSet<IFile>(); // files whose results are not yet copied to NedResources
+
     public NedValidationJob() {
         super("Checking NED files...");
     }
@@ -46,7 +83,7 @@ public class NedValidationJob extends Job {
     }
 
     /**
-     * Validates an immutable copy of NedResources; stop immediately if the copy becomes obsolete
+     * Validates the affected files in an immutable copy of NedResources; stop if the copy becomes obsolete
      */
     protected boolean tryValidate(IProgressMonitor monitor) {
         // Note: no try-catch here -- we let exceptions terminate the job and be logged by the platform
@@ -55,32 +92,64 @@ public class NedValidationJob extends Job {
 
         INedResources nedResources = NedResourcesPlugin.getNedResources();
 
-        int numWorkUnits = 3 + nedResources.getNedFiles().size();
-        monitor.beginTask(getName(), numWorkUnits);
-
         // we'll analyze an immutable copy, so that NedResources doesn't need to be locked
-        INedTypeResolver immutableResolver = nedResources.getImmutableCopy();
+        NedTypeResolver immutableResolver = (NedTypeResolver)nedResources.getImmutableCopy();
+        List<IFile> files = collectFilesToValidate(immutableResolver);
+        monitor.beginTask(getName(), 3 + files.size());
         monitor.worked(1);
 
-        ProblemMarkerSynchronizer markerSync = new ProblemMarkerSynchronizer(INedTypeResolver.NEDCONSISTENCYPROBLEM_MARKERID);
-        NedMarkerErrorStore errorStore = new NedMarkerErrorStore(markerSync);
+        // determine dependencies up front: this also computes most of the lazily built tables
+        // of the types involved, so parallel validators rarely wait for the resolver lock
+        Map<IFile, FileValidation> newFileValidations = new HashMap<IFile, FileValidation>();
+        for (IFile file : files) {
+            NedFileElementEx nedFileElement = immutableResolver.getNedFileElement(file);
+            FileValidation fileValidation = new FileValidation();
+            fileValidation.changeSerial = immutableResolver.getNedFileChangeSerial(file);
+            fileValidation.typeNames = getTypeNames(nedFileElement);
+            fileValidation.dependencies = collectDependencies(nedFileElement);
+            fileValidation.errorStore.setFile(file);
+            newFileValidations.put(file, fileValidation);
 
-        // clear old consistency error markers from NED trees
-        clearConsistencyProblemSeverities(immutableResolver);
+            // clear old consistency error markers from NED trees
+            nedFileElement.clearConsistencyProblemMarkerSeverities();
+        }
+
+        // issue error message for duplicates in the files being validated
+        immutableResolver.addErrorsForDuplicates(new AbstractNedErrorStore() {
+            private NedMarkerErrorStore errorStore;
+            private int numProblems;
+
+            public void setFile(IFile file) {
+                FileValidation fileValidation = newFileValidations.get(file);
+                errorStore = fileValidation == null ? null : fileValidation.errorStore;
+            }
+
+            public void add(int severity, INedElement context, int line, String message) {
+                if (errorStore != null) {
+                    errorStore.add(severity, context, line, message);
+                    numProblems++;
+                }
+            }
 
-        // issue error message for duplicates
-        immutableResolver.addErrorsForDuplicates(errorStore);
+            public int getNumProblems() {
+                return numProblems;
+            }
+        });
         monitor.worked(1);
 
-        // validate all files
-        for (IFile file : immutableResolver.getNedFiles()) {
-            NedFileElementEx nedFileElement = immutableResolver.getNedFileElement(file);
-            errorStore.setFile(file);
-            new NedValidator(immutableResolver, file.getProject(), errorStore).validate(nedFileElement);
-            monitor.worked(1);
+        // validate files in parallel, in groups between which we check whether we should go on
+        int groupSize = 4 * Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < files.size(); i += groupSize) {
+            List<IFile> group = files.subList(i, Math.min(i + groupSize, files.size()));
+            group.parallelStream().forEach(file -> validateFile(immutableResolver, file, newFileValidations.get(file)));
+            for (IFile file : group) {
+                fileValidations.put(file, newFileValidations.get(file));
+                unpublishedFiles.add(file);
+            }
+            monitor.worked(group.size());
 
             if (!nedResources.isImmutableCopyUpToDate(immutableResolver)) {
-                Debug.println("NED validation job: NED trees changed meanwhile, abandoning after " + (System.currentTimeMillis()-startTime) + "ms of work");
+                Debug.println("NED validation job: NED trees changed meanwhile, abandoning after " + (System.currentTimeMillis()-startTime) + "ms of work, keeping results of " + (i + group.size()) + " files");
                 return false;
             }
             if (monitor.isCanceled()) {
@@ -95,24 +164,34 @@ public class NedValidationJob extends Job {
                 Debug.println("NED validation job: discarding results due to NED changes");
                 return false;
             }
+            if (unpublishedFiles.isEmpty()) {
+                Debug.println("NED validation job: no NED changes since the last validation");
+                return true;
+            }
             try {
                 long midTime = System.currentTimeMillis();
 
                 nedResources.fireBeginChangeEvent();
 
-                // clear old consistency error markers from NED trees
-                clearConsistencyProblemSeverities(nedResources);
+                ProblemMarkerSynchronizer markerSync = new ProblemMarkerSynchronizer(INedTypeResolver.NEDCONSISTENCYPROBLEM_MARKERID);
+                for (IFile file : unpublishedFiles) {
+                    FileValidation fileValidation = fileValidations.get(file);
 
-                // put validation errors
-                for (INedElement element : errorStore.getAffectedElements()) {
-                    INedElement original = element.getOriginal();
-                    original.setConsistencyProblemMaxLocalSeverity(element.getConsistencyProblemMaxLocalSeverity());
+                    // clear old consistency error markers from NED trees
+                    nedResources.getNedFileElement(file).clearConsistencyProblemMarkerSeverities();
+
+                    // put validation errors
+                    for (Map.Entry<INedElement, Integer> entry : fileValidation.originalSeverities.entrySet())
+                        entry.getKey().setConsistencyProblemMaxLocalSeverity(entry.getValue());
+
+                    markerSync.addAll(fileValidation.markerSync);
                 }
 
                 // we need to do the synchronization in a background job, to avoid deadlocks
                 markerSync.runAsWorkspaceJob();
 
-                Debug.println("NED validation job completed: spent " + (midTime-startTime) + "ms in background, " + (System.currentTimeMillis()-midTime) + "ms blocking, " + markerSync.getNumberOfMarkers() + " markers on " + markerSync.getNumberOfFiles() + " files");
+                Debug.println("NED validation job completed: validated " + files.size() + " of " + immutableResolver.getNedFiles().size() + " files, spent " + (midTime-startTime) + "ms in background, " + (System.currentTimeMillis()-midTime) + "ms blocking, " + markerSync.getNumberOfMarkers() + " markers on " + markerSync.getNumberOfFiles() + " files");
+                unpublishedFiles.clear();
                 monitor.worked(1);
 
                 return true;
@@ -123,9 +202,95 @@ public class NedValidationJob extends Job {
         }
     }
 
-    private void clearConsistencyProblemSeverities(INedTypeResolver resolver) {
-        for (IFile file : resolver.getNedFiles())
-            resolver.getNedFileElement(file).clearConsistencyProblemMarkerSeverities();
+    /**
+     * Forgets the results that are outdated in the given copy, and returns the files that need to be validated.
+     */
+    private List<IFile> collectFilesToValidate(NedTypeResolver resolver) {
+        Set<IFile> nedFiles = resolver.getNedFiles();
+        boolean validateAll = resolver.getGlobalChangeSerial() != validatedGlobalChangeSerial;
+
+        // find changed files, and check whether types have been added, removed or renamed
+        Set<IFile> changedFiles = new HashSet<IFile>();
+        for (IFile file : fileValidations.keySet())
+            if (!nedFiles.contains(file))
+                changedFiles.add(file);
+        for (IFile file : nedFiles) {
+            FileValidation fileValidation = fileValidations.get(file);
+            if (fileValidation == null || fileValidation.changeSerial != resolver.getNedFileChangeSerial(file))
+                changedFiles.add(file);
+        }
+        for (IFile file : changedFiles) {
+            FileValidation fileValidation = fileValidations.get(file);
+            List<String> typeNames = nedFiles.contains(file) ? getTypeNames(resolver.getNedFileElement(file)) : Collections.emptyList();
+            List<String> oldTypeNames = fileValidation == null ? Collections.emptyList() : fileValidation.typeNames;
+            if (!typeNames.equals(oldTypeNames) || file.getName().equals(INedTypeResolver.PACKAGE_NED_FILENAME))
+                validateAll = true;
+        }
+
+        if (validateAll) {
+            fileValidations.clear();
+            validatedGlobalChangeSerial = resolver.getGlobalChangeSerial();
+        }
+        else {
+            // forget the results of changed files and those depending on them
+            fileValidations.keySet().removeIf(file -> changedFiles.contains(file) || !Collections.disjoint(changedFiles, fileValidations.get(file).dependencies));
+        }
+        unpublishedFiles.retainAll(fileValidations.keySet());
+        return nedFiles.stream().filter(file -> !fileValidations.containsKey(file)).collect(Collectors.toList());
+    }
+
+    private void validateFile(INedTypeResolver resolver, IFile file, FileValidation fileValidation) {
+        new NedValidator(resolver, file.getProject(), fileValidation.errorStore).validate(resolver.getNedFileElement(file));
+        for (INedElement element : fileValidation.errorStore.getAffectedElements())
+            fileValidation.originalSeverities.put(element.getOriginal(), element.getConsistencyProblemMaxLocalSeverity());
     }
 
+    private static List<String> getTypeNames(NedFileElementEx nedFileElement) {
+        List<String> typeNames = new ArrayList<String>();
+        for (INedElement child : nedFileElement)
+            if (child instanceof INedTypeElement)
+                typeNames.add(((INedTypeElement)child).getNedTypeInfo().getFullyQualifiedName());
+        return typeNames;
+    }
+
+    /**
+     * Returns the files defining the types that the types in the given file extend, implement or use,
+     * transitively, because validation may check parameters deep in the submodule tree.
+     */
+    private static Set<IFile> collectDependencies(NedFileElementEx nedFileElement) {
+        Set<IFile> files = new HashSet<IFile>();
+        Set<INedTypeElement> visitedTypes = new HashSet<INedTypeElement>();
+        Stack<INedTypeElement> remainingTypes = new Stack<INedTypeElement>();
+        collectTypeElements(nedFileElement, remainingTypes);
+        while (!remainingTypes.isEmpty()) {
+            INedTypeElement typeElement = remainingTypes.pop();
+            if (visitedTypes.add(typeElement)) {
+                INedTypeInfo typeInfo = typeElement.getNedTypeInfo();
+                IFile file = typeInfo.getNedFile();
+                if (file != null)
+                    files.add(file);
+                for (INedTypeInfo superTypeInfo : typeInfo.getInheritanceChain())
+                    remainingTypes.add(superTypeInfo.getNedElement());
+                remainingTypes.addAll(typeInfo.getInterfaces());
+                remainingTypes.addAll(typeInfo.getUsedTypes());
+                remainingTypes.addAll(typeInfo.getInnerTypes().values());
+                if (typeElement instanceof CompoundModuleElementEx)
+                    ((CompoundModuleElementEx)typeElement).getSrcConnectionsFor(""); // builds the connection cache
+            }
+        }
+        return files;
+    }
+
+    private static void collectTypeElements(INedElement parent, List<INedTypeElement> result) {
+        for (INedElement element : parent) {
+            if (element instanceof INedTypeElement) {
+                result.add((INedTypeElement)element);
+                if (element instanceof CompoundModuleElementEx) {
+                    INedElement typesSection = ((CompoundModuleElementEx)element).getFirstTypesChild();
+                    if (typesSection != null)
+                        collectTypeElements(typesSection, result);
+                }
+            }
+        }
+    }
 }
@@ -7,6 +7,7 @@
 
 package org.omnetpp.ned.editor.graph.properties.util;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
@@ -31,7 +32,7 @@ public class TypeNameValidator extends NedNameValidator {
         INedTypeResolver resolver = typeElement.getResolver();
         IProject project = resolver.getNedFile(typeElement.getContainingNedFileElement()).getProject();
         String namePrefix = typeElement.getNedTypeInfo().getNamePrefix();
-        Set<String> existingQTypeNames = resolver.getReservedQNames(project);  // top level types
+        Set<String> existingQTypeNames = new HashSet<String>(resolver.getReservedQNames(project));  // top level types
         if (typeElement.getEnclosingLookupContext() instanceof CompoundModuleElementEx) // add inner types if needed
             existingQTypeNames.addAll(resolver.getLocalTypeNames(typeElement.getEnclosingLookupContext(), INedTypeResolver.ALL_FILTER));
 
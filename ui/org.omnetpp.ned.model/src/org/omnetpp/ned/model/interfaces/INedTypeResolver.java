@@ -91,7 +91,7 @@ public interface INedTypeResolver {
     public INedTypeInfo createTypeInfoFor(INedTypeElement node);
 
     /**
-     * Returns NED files in the workspace.
+     * Returns NED files in the workspace. The returned set must not be modified.
      */
     public Set<IFile> getNedFiles();
 
@@ -275,7 +275,7 @@ public interface INedTypeResolver {
     /**
      * Returns all toplevel (non-inner) type names in the NED files, excluding
      * duplicate names, from the given project and its dependent projects.
-     * Returned names are fully qualified.
+     * Returned names are fully qualified. The returned set must not be modified.
      */
     public Set<String> getToplevelNedTypeQNames(IProject context);
 
@@ -290,7 +290,7 @@ public interface INedTypeResolver {
      * Returns all toplevel (non-inner) type names in the NED files, including
      * duplicate names, from the given project and its dependent projects.
      * This method can be used for generating unique type names. Returned names
-     * are fully qualified.
+     * are fully qualified. The returned set must not be modified.
      */
     public Set<String> getReservedQNames(IProject context);
 
@@ -1,25 +1,51 @@
 package org.omnetpp.scave.editors;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
-import org.eclipse.core.runtime.Assert;
+import org.omnetpp.common.Debug;
 import org.omnetpp.common.util.StringUtils;
-import org.omnetpp.scave.engine.ByteVector;
+import org.omnetpp.scave.ScavePlugin;
 import org.omnetpp.scave.engine.ResultFileManager;
 
 /**
- * Memoization cache for methods of ResultProvider.
+ * Memoization cache for methods of ResultProvider. Replies (pickles) are kept
+ * in memory up to the given number of bytes, and the least recently used ones
+ * are discarded first. Optionally, discarded replies are spilled to compressed
+ * temporary files, up to a separate limit, so that they can be reused without
+ * pickling them again. The contents of both tiers are only valid for the current
+ * serial of the ResultFileManager.
+ *
+ * This class is thread-safe.
  *
  * @author andras
  */
 public class MemoizationCache {
     private ResultFileManager rfm;
     private int currentSerial = 0;
+    private int generation = 0; // incremented on clear(), to drop the results of I/O started before
     private long memoryLimit;
     private long memoryUsed = 0;
+    private long diskLimit; // 0 if spilling to disk is disabled
+    private long diskUsed = 0;
+    private File spillDir; // created on demand
+    private int spillFileCounter = 0;
 
     public static class Key {
         private String method;
@@ -55,72 +81,251 @@ public class MemoizationCache {
         }
     }
 
-    private Map<Key,List<ByteVector>> cache = new LinkedHashMap<>(); // for FIFO order
+    private static class SpilledReply {
+        File file;
+        long size; // uncompressed
+        long fileSize;
+    }
+
+    private Map<Key,List<byte[]>> cache = new LinkedHashMap<>(16, 0.75f, true); // in LRU order
+    private Map<Key,SpilledReply> spilled = new LinkedHashMap<>(16, 0.75f, true); // in LRU order
 
     public MemoizationCache(ResultFileManager rfm) {
-        this(rfm, Long.MAX_VALUE);
+        this(rfm, Long.MAX_VALUE, 0);
     }
 
     public MemoizationCache(ResultFileManager rfm, long memoryLimit) {
+        this(rfm, memoryLimit, 0);
+    }
+
+    /**
+     * Creates a cache that holds at most memoryLimit bytes of replies in memory,
+     * and spills the ones discarded from memory to disk until they take up
+     * diskLimit bytes (compressed). Pass 0 as diskLimit to disable spilling.
+     */
+    public MemoizationCache(ResultFileManager rfm, long memoryLimit, long diskLimit) {
         this.rfm = rfm;
         this.currentSerial = rfm.getSerial();
         this.memoryLimit = memoryLimit;
+        this.diskLimit = diskLimit;
     }
 
     private void checkSerial() {
         if (currentSerial != rfm.getSerial()) {
-            cache.clear();
-            memoryUsed = 0;
+            clear();
             currentSerial = rfm.getSerial();
         }
     }
 
-    public boolean contains(Key key) {
+    public synchronized boolean contains(Key key) {
         checkSerial();
-        return cache.containsKey(key);
+        return cache.containsKey(key) || spilled.containsKey(key);
     }
 
-    public List<ByteVector> get(Key key) {
-        checkSerial();
-        return cache.get(key);
+    /**
+     * Returns the memoized reply, or null if there is none. Replies found on disk
+     * are loaded back into memory; their files are kept, so they need not be
+     * written again if they get discarded from memory later.
+     */
+    public List<byte[]> get(Key key) {
+        SpilledReply spilledReply;
+        int gen;
+        synchronized (this) {
+            checkSerial();
+            List<byte[]> reply = cache.get(key);
+            if (reply != null)
+                return reply;
+            spilledReply = spilled.get(key);
+            if (spilledReply == null)
+                return null;
+            gen = generation;
+        }
+
+        List<byte[]> reply;
+        try {
+            Debug.println("MemoizationCache: loading " + key + " from disk");
+            reply = readReply(spilledReply.file);
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                if (spilled.get(key) != spilledReply)
+                    return null; // discarded in the meantime
+                discardSpilled(key);
+            }
+            ScavePlugin.logError("Cannot read memoized reply from " + spilledReply.file, e);
+            return null;
+        }
+
+        Map<Key,List<byte[]>> evicted;
+        synchronized (this) {
+            if (gen != generation || cache.containsKey(key))
+                return reply;
+            evicted = putInMemory(key, reply, spilledReply.size);
+        }
+        spillAll(evicted, gen);
+        return reply;
     }
 
     public boolean isCacheable(Key key, long replySize) {
         return replySize <= memoryLimit;
     }
 
-    public void put(Key key, ByteVector reply) {
-        // note: using this API, memory consumption can temporarily exceed memoryLimit
-        checkSerial();
-        Assert.isTrue(reply.size() <= memoryLimit);
-        memoryUsed += reply.size();
-        cache.put(key, List.of(reply));
-        while (memoryUsed > memoryLimit)
-            discardFirst();
+    public void put(Key key, byte[] reply) {
+        put(key, List.of(reply));
     }
 
-    public void put(Key key, List<ByteVector> reply) {
-        // note: using this API, memory consumption can temporarily exceed memoryLimit
-        checkSerial();
-        long totalSize = 0;
-        for (ByteVector v : reply)
-            totalSize += v.size();
-        memoryUsed += totalSize;
-        Assert.isTrue(totalSize <= memoryLimit);
-        cache.put(key, reply);
-        while (memoryUsed > memoryLimit)
-            discardFirst();
+    public void put(Key key, List<byte[]> reply) {
+        long size = sizeOf(reply);
+        Map<Key,List<byte[]>> evicted;
+        int gen;
+        synchronized (this) {
+            checkSerial();
+            if (size > memoryLimit)
+                return;
+            evicted = putInMemory(key, reply, size);
+            gen = generation;
+        }
+
+        spillAll(evicted, gen);
+    }
+
+    /**
+     * Adds the reply to the memory tier, and returns the replies that had to be
+     * discarded to stay within the memory limit.
+     */
+    private Map<Key,List<byte[]>> putInMemory(Key key, List<byte[]> reply, long size) {
+        List<byte[]> oldReply = cache.put(key, reply);
+        if (oldReply != null)
+            memoryUsed -= sizeOf(oldReply);
+        memoryUsed += size;
+
+        Map<Key,List<byte[]>> evicted = new LinkedHashMap<>();
+        Iterator<Map.Entry<Key,List<byte[]>>> it = cache.entrySet().iterator();
+        while (memoryUsed > memoryLimit && it.hasNext()) {
+            Map.Entry<Key,List<byte[]>> entry = it.next(); // least recently used first
+            memoryUsed -= sizeOf(entry.getValue());
+            evicted.put(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+        return evicted;
+    }
+
+    /**
+     * Writes the replies discarded from memory to disk. Must be called without holding the lock.
+     */
+    private void spillAll(Map<Key,List<byte[]>> evicted, int gen) {
+        if (diskLimit > 0)
+            for (Map.Entry<Key,List<byte[]>> entry : evicted.entrySet())
+                spill(entry.getKey(), entry.getValue(), gen);
     }
 
-    private void discardFirst() {
-        Map.Entry<Key,List<ByteVector>> entry = cache.entrySet().iterator().next();
-        memoryUsed -= entry.getValue().size();
-        cache.remove(entry.getKey());
+    private void spill(Key key, List<byte[]> reply, int gen) {
+        SpilledReply spilledReply = new SpilledReply();
+        spilledReply.size = sizeOf(reply);
+        try {
+            synchronized (this) {
+                if (gen != generation || spilled.containsKey(key))
+                    return;
+                if (spillDir == null)
+                    spillDir = Files.createTempDirectory("omnetpp-memoization-").toFile();
+                spilledReply.file = new File(spillDir, "serial" + currentSerial + "-" + (++spillFileCounter) + ".bin");
+            }
+            writeReply(spilledReply.file, reply);
+            spilledReply.fileSize = spilledReply.file.length();
+        }
+        catch (IOException e) {
+            ScavePlugin.logError("Cannot write memoized reply to disk", e);
+            if (spilledReply.file != null)
+                spilledReply.file.delete();
+            return;
+        }
+
+        synchronized (this) {
+            if (gen != generation || spilled.containsKey(key) || spilledReply.fileSize > diskLimit) {
+                spilledReply.file.delete();
+                File dir = spilledReply.file.getParentFile();
+                if (!dir.equals(spillDir))
+                    dir.delete(); // cleared while writing; succeeds if this was the last file in it
+                return;
+            }
+            spilled.put(key, spilledReply);
+            diskUsed += spilledReply.fileSize;
+            Iterator<Map.Entry<Key,SpilledReply>> it = spilled.entrySet().iterator();
+            while (diskUsed > diskLimit && it.hasNext()) {
+                SpilledReply oldest = it.next().getValue();
+                diskUsed -= oldest.fileSize;
+                oldest.file.delete();
+                it.remove();
+            }
+        }
+    }
+
+    private void discardSpilled(Key key) {
+        SpilledReply spilledReply = spilled.remove(key);
+        diskUsed -= spilledReply.fileSize;
+        spilledReply.file.delete();
+    }
+
+    private static void writeReply(File file, List<byte[]> reply) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(new FileOutputStream(file), deflater, 65536)))) {
+            out.writeInt(reply.size());
+            for (byte[] buffer : reply) {
+                out.writeInt(buffer.length);
+                out.write(buffer);
+            }
+        }
+        finally {
+            deflater.end();
+        }
     }
 
-    public void clear() {
+    private static List<byte[]> readReply(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(new FileInputStream(file)), 65536))) {
+            int count = in.readInt();
+            List<byte[]> reply = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] buffer = new byte[in.readInt()];
+                in.readFully(buffer);
+                reply.add(buffer);
+            }
+            return reply;
+        }
+    }
+
+    private static long sizeOf(List<byte[]> reply) {
+        long size = 0;
+        for (byte[] buffer : reply)
+            size += buffer.length;
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of replies held in memory.
+     */
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Returns the size of the files of the replies spilled to disk.
+     */
+    public synchronized long getDiskUsed() {
+        return diskUsed;
+    }
+
+    public synchronized void clear() {
+        generation++;
         cache.clear();
         memoryUsed = 0;
+        for (SpilledReply spilledReply : spilled.values())
+            spilledReply.file.delete();
+        spilled.clear();
+        diskUsed = 0;
+        if (spillDir != null) {
+            spillDir.delete();
+            spillDir = null;
+        }
     }
 
 }
@@ -1,17 +1,19 @@
 package org.omnetpp.scave.editors;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.runtime.Assert;
 import org.omnetpp.common.Debug;
+import org.omnetpp.common.util.StringUtils;
 import org.omnetpp.scave.editors.MemoizationCache.Key;
-import org.omnetpp.scave.engine.ByteVector;
 import org.omnetpp.scave.engine.IDList;
 import org.omnetpp.scave.engine.InterruptedFlag;
 import org.omnetpp.scave.engine.ResultFileManager;
 import org.omnetpp.scave.engine.ResultsPickler;
+import org.omnetpp.scave.engine.ScaveEngine;
 import org.omnetpp.scave.engine.ShmSendBuffer;
 import org.omnetpp.scave.engine.ShmSendBufferManager;
 import org.omnetpp.scave.engine.ShmSendBufferVector;
@@ -60,43 +62,87 @@ public class ResultsProvider implements IScaveResultsPickleProvider {
     };
 
     private String memoize(Key key, PicklerFunction pickler) throws PickleException, IOException {
-        List<ByteVector> cachedReply = memoizationCache.get(key);
+        List<byte[]> cachedReply = memoizationCache.get(key);
 
         if (cachedReply != null) {
             Assert.isTrue(cachedReply.size() == 1);
             Debug.println("ResultsProvider." + key.getMethodName() + ": returning memoized reply");
-            return sendBufferManager.create("memoized", cachedReply.get(0)).getNameAndTotalSize();
+            return createSendBuffer(cachedReply.get(0));
         }
         else {
             Debug.println("ResultsProvider." + key.getMethodName() + ": computing and memoizing reply");
             ShmSendBuffer pickle = Debug.timed("ResultsProvider." + key.getMethodName(), 100, () -> pickler.call());
-            memoizationCache.put(key, pickle.getContentCopy());
+            if (memoizationCache.isCacheable(key, pickle.getDataSize()))
+                memoizationCache.put(key, readContent(pickle));
             return pickle.getNameAndTotalSize();
         }
     }
 
     private List<String> memoize(Key key, PicklerFunctionVec pickler) throws PickleException, IOException {
-        List<ByteVector> cachedReply = memoizationCache.get(key);
+        List<byte[]> cachedReply = memoizationCache.get(key);
         List<String> result = new ArrayList<String>();
         if (cachedReply != null) {
             Debug.println("ResultsProvider." + key.getMethodName() + ": returning memoized reply");
-            for (int i = 0; i < cachedReply.size(); ++i)
-                result.add(sendBufferManager.create("memoized", cachedReply.get(i)).getNameAndTotalSize());
+            for (byte[] content : cachedReply)
+                result.add(createSendBuffer(content));
         }
         else {
             Debug.println("ResultsProvider." + key.getMethodName() + ": computing and memoizing reply");
             ShmSendBufferVector pickles = Debug.timed("ResultsProvider." + key.getMethodName(), 100, () -> pickler.call());
-            List<ByteVector> intoCache = new ArrayList<>();
+            long totalSize = 0;
             for (int i = 0; i < pickles.size(); ++i) {
-                ShmSendBuffer buf = pickles.get(i);
-                result.add(buf.getNameAndTotalSize());
-                intoCache.add(buf.getContentCopy());
+                result.add(pickles.get(i).getNameAndTotalSize());
+                totalSize += pickles.get(i).getDataSize();
+            }
+            if (memoizationCache.isCacheable(key, totalSize)) {
+                List<byte[]> intoCache = new ArrayList<>();
+                for (int i = 0; i < pickles.size(); ++i)
+                    intoCache.add(readContent(pickles.get(i)));
+                memoizationCache.put(key, intoCache);
             }
-            memoizationCache.put(key, intoCache);
         }
         return result;
     }
 
+    /**
+     * Copies the content of the send buffer into a byte array, by mapping its shared
+     * memory. The buffer starts with a header which is not part of the content.
+     */
+    private static byte[] readContent(ShmSendBuffer buffer) {
+        long totalSize = getTotalSize(buffer);
+        byte[] content = new byte[(int)buffer.getDataSize()];
+        ByteBuffer mapped = ScaveEngine.mapSharedMemory(buffer.getName(), totalSize);
+        try {
+            mapped.position((int)(totalSize - content.length));
+            mapped.get(content);
+        }
+        finally {
+            ScaveEngine.unmapSharedMemory(mapped);
+        }
+        return content;
+    }
+
+    /**
+     * Creates a send buffer with the given content, and returns its name and size.
+     */
+    private String createSendBuffer(byte[] content) {
+        ShmSendBuffer buffer = sendBufferManager.create("memoized", content.length, false);
+        long totalSize = getTotalSize(buffer);
+        ByteBuffer mapped = ScaveEngine.mapSharedMemory(buffer.getName(), totalSize);
+        try {
+            mapped.position((int)(totalSize - content.length));
+            mapped.put(content);
+        }
+        finally {
+            ScaveEngine.unmapSharedMemory(mapped);
+        }
+        return buffer.getNameAndTotalSize();
+    }
+
+    private static long getTotalSize(ShmSendBuffer buffer) {
+        return Long.parseLong(StringUtils.substringAfterLast(buffer.getNameAndTotalSize(), " "));
+    }
+
     public int getSerial() {
         return manager.getSerial();
     }
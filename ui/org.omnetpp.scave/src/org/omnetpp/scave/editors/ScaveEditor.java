@@ -151,6 +151,10 @@ public class ScaveEditor extends MultiPageEditorPartExt
 
     protected static final String PREF_DONT_SHOW_PYTHON_EXECUTION_WARNING_DIALOG = "dont_show_python_execution_warning_dialog";
 
+    // limits for the memoized Python query results of one editor; less recently used ones are spilled from memory to disk
+    protected static final long MEMOIZATION_MEMORY_LIMIT = Runtime.getRuntime().maxMemory() / 8;
+    protected static final long MEMOIZATION_DISK_LIMIT = 1L << 30; // compressed size
+
     private InputsPage inputsPage;
     private BrowseDataPage browseDataPage;
     private ChartsPage chartsPage;
@@ -479,7 +483,7 @@ public class ScaveEditor extends MultiPageEditorPartExt
 
         IFile inputFile = ((IFileEditorInput) getEditorInput()).getFile();
         tracker = new ResultFilesTracker(manager, analysis.getInputs(), inputFile.getParent());
-        memoizationCache = new MemoizationCache(manager);
+        memoizationCache = new MemoizationCache(manager, MEMOIZATION_MEMORY_LIMIT, MEMOIZATION_DISK_LIMIT);
         filterCache = new FilterCache(manager);
         analysis.addListener(this);
         analysis.addListener(tracker);
@@ -826,7 +826,7 @@ public class SequenceChartContributor extends EditorActionBarContributor impleme
     }
 
     @Override
-    public void eventLogAppended() {
+    public void eventLogAppended(long firstEventNumber, long lastEventNumber) {
         // void
     }
 
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import org.eclipse.swt.graphics.Image;
 import org.omnetpp.common.eventlog.EventLogInput;
 import org.omnetpp.common.eventlog.ModuleTreeItem;
+import org.omnetpp.eventlog.EventLogState;
 import org.omnetpp.eventlog.IEvent;
 import org.omnetpp.eventlog.IMessageDependency;
 import org.omnetpp.eventlog.entry.ComponentMethodBeginEntry;
@@ -44,6 +45,11 @@ public interface ISequenceChartLabelProvider
      */
     public String getAxisText(ModuleTreeItem axisModule, boolean formatted);
 
+    /**
+     * Returns a human readable description for the state of the module, such as its display string.
+     */
+    public String getAxisStateText(ModuleTreeItem axisModule, EventLogState eventLogState, boolean formatted);
+
     /**
      * Returns a human readable description for the message dependency.
      */
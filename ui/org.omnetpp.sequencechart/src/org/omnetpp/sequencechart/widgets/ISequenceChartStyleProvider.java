@@ -58,6 +58,11 @@ public interface ISequenceChartStyleProvider
 
     public Color getEventFillColor(IEvent event);
 
+    /**
+     * Returns the color of event density marks drawn when individual events are smaller than a pixel.
+     */
+    public Color getEventSummaryColor();
+
     public Font getMessageDependencyLabelFont(IMessageDependency messageDependency);
 
     public Color getMessageDependencyColor(IMessageDependency messageDependency);
@@ -66,6 +71,11 @@ public interface ISequenceChartStyleProvider
 
     public int[] getMessageDependencyLineDash(IMessageDependency messageDependency);
 
+    /**
+     * Returns the color of aggregated message dependency lines drawn when individual events are smaller than a pixel.
+     */
+    public Color getMessageDependencySummaryColor(boolean messageReuse);
+
     public Color getComponentMethodCallColor(ComponentMethodBeginEntry moduleMethodCall);
 
     public int getComponentMethodCallLineStyle(ComponentMethodBeginEntry messageDependency);
@@ -78,6 +78,7 @@ import org.omnetpp.common.canvas.CachingCanvas;
 import org.omnetpp.common.canvas.LargeRect;
 import org.omnetpp.common.canvas.RubberbandSupport;
 import org.omnetpp.common.color.ColorFactory;
+import org.omnetpp.common.engineext.IFileReader;
 import org.omnetpp.common.eventlog.EventLogFilterParameters;
 import org.omnetpp.common.eventlog.EventLogFindTextDialog;
 import org.omnetpp.common.eventlog.EventLogInput;
@@ -98,6 +99,8 @@ import org.omnetpp.common.util.PersistentResourcePropertyManager;
 import org.omnetpp.common.util.TimeUtils;
 import org.omnetpp.common.virtualtable.IVirtualContentWidget;
 import org.omnetpp.eventlog.EventLogEntry;
+import org.omnetpp.eventlog.EventLogState;
+import org.omnetpp.eventlog.EventLogSummary;
 import org.omnetpp.eventlog.FilteredEventLog;
 import org.omnetpp.eventlog.FilteredMessageDependency;
 import org.omnetpp.eventlog.IEvent;
@@ -106,7 +109,6 @@ import org.omnetpp.eventlog.IMessageDependency;
 import org.omnetpp.eventlog.MessageReuseDependency;
 import org.omnetpp.eventlog.SequenceChartFacade;
 import org.omnetpp.eventlog.TimelineMode;
-import org.omnetpp.eventlog.engine.FileReader;
 import org.omnetpp.eventlog.entry.BeginSendEntry;
 import org.omnetpp.eventlog.entry.ComponentMethodBeginEntry;
 import org.omnetpp.eventlog.entry.ComponentMethodEndEntry;
@@ -160,6 +162,14 @@ public class SequenceChart
     private static final int ANTIALIAS_TURN_ON_AT_MSEC = 100;
     private static final int ANTIALIAS_TURN_OFF_AT_MSEC = 300;
     private static final int MOUSE_TOLERANCE = 3;
+    private static final int PREFETCH_TURN_OFF_AT_MSEC = 300; // tiles are not prefetched if drawing takes longer than this
+    private static final int SUMMARY_EVENTS_PER_PIXEL = 2; // the chart is drawn from the eventlog summary above this density
+    private static final int SUMMARY_COLUMN_WIDTH = 2; // the width of the pixel columns drawn from the eventlog summary
+    private static final int SUMMARY_POLL_MSEC = 500; // the chart is redrawn this often while the eventlog summary is being built
+    private static final int SPATIAL_INDEX_CELL_SIZE = 64;
+    private static final int MAXIMUM_NUMBER_OF_INDEXED_OBJECTS = 200000; // hit testing falls back to walking the eventlog above this
+    private static final int MAXIMUM_NUMBER_OF_INDEXED_REGIONS = 1024;
+    private static final int MAXIMUM_INDEX_OFFSET = Integer.MAX_VALUE / 2; // the indices are moved to a new origin beyond this, leaving room for the viewport coordinates
 
     private boolean debug = false;
 
@@ -218,8 +228,16 @@ public class SequenceChart
     private ArrayList<BigDecimal> ticks; // a list of simulation times drawn on the axis as tick marks
     private BigDecimal tickPrefix; // the common part of all ticks on the gutter
 
-    private QuadTree labelQuadTree = new QuadTree();
+    // the spatial indices and the label positions are relative to the index origin, so that they remain valid while scrolling
+    private SpatialIndex labelIndex = new SpatialIndex(SPATIAL_INDEX_CELL_SIZE);
     private Map<IMessageDependency, Point> labelPositions = new HashMap<IMessageDependency, Point>();
+    private SpatialIndex objectIndex = new SpatialIndex(SPATIAL_INDEX_CELL_SIZE); // the bounding boxes of the drawn events, message dependencies and module method calls for hit testing
+    private Set<Object> indexedObjects = new HashSet<Object>();
+    private ArrayList<Rectangle> indexedRegions = new ArrayList<Rectangle>(); // the regions where all drawn objects are in the object index
+    private boolean isIndexingObjects; // true while drawing a region which is not yet indexed
+    private boolean isObjectIndexOverflow; // true if there were too many objects to index
+    private long indexOriginX; // the viewport left when the indices were cleared
+    private long indexOriginY; // the viewport top when the indices were cleared
 
     private ArrayList<ModuleTreeItem> openAxisModules = new ArrayList<ModuleTreeItem>(); // the modules (in no particular order) which may have an axis (they must be part of the module tree!) on the chart
 
@@ -259,6 +277,9 @@ public class SequenceChart
     private boolean isPaintComplete = false; // true means the user did not cancel the last paint
 
     private boolean isOutOfSync = false; // the underlying eventlog has been changed during the last operation
+    private long lastDrawSequenceChartMillis; // the time it took to draw the sequence chart the last time
+    private boolean isWaitingForEventLogSummary; // the viewport is too dense for drawing individual events, but the eventlog summary is being built
+    private boolean isEventLogSummaryPollScheduled;
 
     private RuntimeException internalError;
 
@@ -309,6 +330,7 @@ public class SequenceChart
         setupMouseListener();
         setupKeyListener();
         setupListeners();
+        setPrefetchTiles(true);
     }
 
     public IWorkbenchPart getWorkbenchPart() {
@@ -373,6 +395,12 @@ public class SequenceChart
             public HtmlHoverInfo getHoverFor(Control control, int x, int y) {
                 if (internalError == null) {
                     ArrayList<Object> objects = collectVisibleObjectsAtPosition(x, y);
+                    // axes are described as they are at the left side of the viewport
+                    if (objects.stream().anyMatch(o -> o instanceof ModuleTreeItem)) {
+                        EventLogState eventLogState = getViewportLeftEventLogState();
+                        if (eventLogState != null)
+                            objects.add(eventLogState);
+                    }
                     String tooltip = labelProvider.getDescriptiveText(objects, true);
                     return new HtmlHoverInfo(HoverSupport.addHTMLStyleSheet(tooltip));
                 }
@@ -946,6 +974,24 @@ public class SequenceChart
         return getSimulationTimeForViewportCoordinate(0);
     }
 
+    /**
+     * Returns the modules along with their display strings as they are right after the last event
+     * not after the viewport's left side, or null if there's no such event.
+     */
+    public EventLogState getViewportLeftEventLogState() {
+        EventLogState[] eventLogState = new EventLogState[1];
+        if (!eventLogInput.isCanceled() && !eventLogInput.isLongRunningOperationInProgress()) {
+            eventLogInput.runWithProgressMonitor(new Runnable() {
+                public void run() {
+                    IEvent event = getFirstLastEventForViewportRange(0, 0)[0];
+                    if (event != null)
+                        eventLogState[0] = eventLog.getEventLogState(event.getEventNumber());
+                }
+            });
+        }
+        return eventLogState[0];
+    }
+
     /**
      * Returns the simulation time visible at the viewport's center.
      */
@@ -1102,7 +1148,9 @@ public class SequenceChart
     public void scrollHorizontalTo(long x) {
         fixPointViewportCoordinate -= x - getViewportLeft();
         followEnd = false; // don't follow eventlog's end after a horizontal scroll
-        invalidateVisibleAxisModules();
+        // the cached tiles remain valid, because the fix point moves together with the viewport,
+        // the cache is only cleared if the visible axis modules change
+        invalidVisibleAxisModules = true;
         super.scrollHorizontalTo(x);
     }
 
@@ -1824,7 +1872,7 @@ public class SequenceChart
      */
 
     @Override
-    public void eventLogAppended() {
+    public void eventLogAppended(long firstEventNumber, long lastEventNumber) {
         Display.getCurrent().asyncExec(new Runnable() {
             public void run() {
                 try {
@@ -2162,6 +2210,32 @@ public class SequenceChart
         IEvent[] eventRange = getFirstLastEventForViewportRange(-extraClipping, getViewportWidth() + extraClipping);
         IEvent startEvent = eventRange[0];
         IEvent endEvent = eventRange[1];
+        EventLogSummary eventLogSummary = getEventLogSummaryForViewport();
+        if (eventLogSummary != null && startEvent != null && endEvent != null) {
+            // the chart is drawn from the summary, so the modules are collected from it without walking the events
+            long beginEventNumber = Math.max(1, startEvent.getEventNumber());
+            long endEventNumber = endEvent.getEventNumber() + 1;
+            if (debug)
+                Debug.println("Collecting axis modules from the eventlog summary using event range: " + beginEventNumber + " -> " + endEventNumber);
+            for (int moduleId : eventLogSummary.getModuleIds())
+                if (eventLogSummary.getNumModuleEvents(moduleId, beginEventNumber, endEventNumber) != 0)
+                    axisModuleIds.add(moduleId);
+            for (EventLogSummary.ModulePair modulePair : eventLogSummary.getModulePairs()) {
+                if (modulePair.getNumMessageDependencies(beginEventNumber, endEventNumber) != 0) {
+                    axisModuleIds.add(modulePair.getCauseModuleId());
+                    axisModuleIds.add(modulePair.getConsequenceModuleId());
+                }
+            }
+            if (debug)
+                Debug.println("Module ids that will potentially have axes: " + axisModuleIds);
+            return axisModuleIds;
+        }
+        if (isWaitingForEventLogSummary) {
+            // walking the events would take too long, the axes are kept until the summary is built
+            for (ModuleTreeItem axisModule : visibleAxisModules)
+                axisModuleIds.add(axisModule.getModuleId());
+            return axisModuleIds;
+        }
         if (startEvent != null && endEvent != null) {
             if (debug)
                 Debug.println("Collecting axis modules for events using event range: " + startEvent.getEventNumber() + " -> " + endEvent.getEventNumber());
@@ -3064,6 +3138,28 @@ public class SequenceChart
         }
     }
 
+    /**
+     * Prefetched tiles are painted with the same guards as normal painting. An internal error stops
+     * prefetching the same way as it stops painting, until the chart is refreshed.
+     */
+    @Override
+    protected void runPrefetch(Runnable paintTiles) {
+        if (internalError == null && eventLogInput != null && !isOutOfSync && !eventLogInput.isCanceled() && !eventLogInput.isLongRunningOperationInProgress() && lastDrawSequenceChartMillis < PREFETCH_TURN_OFF_AT_MSEC) {
+            try {
+                eventLogInput.runWithProgressMonitor(paintTiles);
+            }
+            catch (RuntimeException e) {
+                if (eventLogInput.isFileChangedException(e))
+                    eventLogInput.handleRuntimeException(e);
+                else {
+                    SequenceChartPlugin.logError("Internal error happened during prefetching", e);
+                    internalError = e;
+                    redraw();
+                }
+            }
+        }
+    }
+
     public boolean isPaintComplete() {
         return isPaintComplete;
     }
@@ -3162,6 +3258,8 @@ public class SequenceChart
                 drawPositionAndRange(graphics, getViewportWidth());
             if (showEventLogInfo)
                 drawEventLogInfo(graphics);
+            if (isWaitingForEventLogSummary)
+                drawEventLogSummaryPlaceholder(graphics);
             drawTickPrefix(graphics);
             rubberbandSupport.drawRubberband(graphics);
         }
@@ -3256,12 +3354,94 @@ public class SequenceChart
      * Clears the canvas cache (aka. the saved bitmaps) and forces a redraw.
      */
     public void clearCanvasCacheAndRedraw() {
-        labelPositions.clear();
-        labelQuadTree.clear();
+        clearIndices();
         clearCanvasCache();
         redraw();
     }
 
+    /**
+     * Clears the spatial indices and the label positions, and moves the index origin to the viewport.
+     */
+    private void clearIndices() {
+        labelPositions.clear();
+        labelIndex.clear();
+        objectIndex.clear();
+        indexedObjects.clear();
+        indexedRegions.clear();
+        isObjectIndexOverflow = false;
+        indexOriginX = getViewportLeft();
+        indexOriginY = getViewportTop();
+    }
+
+    /**
+     * Clears the indices if the viewport has been scrolled too far from the index origin for int index
+     * coordinates. The indices are rebuilt while drawing as usual.
+     */
+    private void ensureIndexOrigin() {
+        if (Math.abs(getViewportLeft() - indexOriginX) > MAXIMUM_INDEX_OFFSET || Math.abs(getViewportTop() - indexOriginY) > MAXIMUM_INDEX_OFFSET)
+            clearIndices();
+    }
+
+    /**
+     * Returns the horizontal offset to be added to viewport coordinates to get index coordinates.
+     */
+    private int getIndexDx() {
+        ensureIndexOrigin();
+        return (int)(getViewportLeft() - indexOriginX);
+    }
+
+    /**
+     * Returns the vertical offset to be added to viewport coordinates to get index coordinates.
+     */
+    private int getIndexDy() {
+        ensureIndexOrigin();
+        return (int)(getViewportTop() - indexOriginY);
+    }
+
+    /**
+     * Adds the bounding box of the line between the given viewport coordinates extended with the tolerance
+     * to the object index if the currently drawn region is being indexed. Objects are indexed only once.
+     */
+    private void indexObject(Object object, int x1, int y1, int x2, int y2, int tolerance) {
+        if (isIndexingObjects && indexedObjects.add(object)) {
+            if (indexedObjects.size() > MAXIMUM_NUMBER_OF_INDEXED_OBJECTS) {
+                objectIndex.clear();
+                indexedObjects.clear();
+                indexedRegions.clear();
+                isObjectIndexOverflow = true;
+                isIndexingObjects = false;
+            }
+            else {
+                int x = Math.min(x1, x2) - tolerance + getIndexDx();
+                int y = Math.min(y1, y2) - tolerance + getIndexDy();
+                objectIndex.insert(x, y, Math.abs(x2 - x1) + 2 * tolerance + 1, Math.abs(y2 - y1) + 2 * tolerance + 1, object);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the given region in index coordinates is entirely within an already indexed region.
+     */
+    private boolean isIndexedRegion(Rectangle region) {
+        for (Rectangle indexedRegion : indexedRegions)
+            if (indexedRegion.contains(region))
+                return true;
+        return false;
+    }
+
+    /**
+     * Returns the objects whose bounding box contains the given viewport position, or null if the
+     * position is not in an indexed region, and thus the index may be incomplete there.
+     */
+    private ArrayList<Object> collectIndexedObjectsAtPosition(int x, int y) {
+        Rectangle position = new Rectangle(x + getIndexDx(), y + getIndexDy(), 1, 1);
+        if (!isIndexedRegion(position))
+            return null;
+        ArrayList<Object> objects = new ArrayList<Object>();
+        objectIndex.query(position, (Rectangle region, Object object) -> objects.add(object));
+        return objects;
+    }
+
     @Override
     protected Graphics createGraphics(GC gc) {
         Graphics graphics = super.createGraphics(gc);
@@ -3344,7 +3524,7 @@ public class SequenceChart
     private void drawEventLogInfo(Graphics graphics) {
         IEvent firstEvent = eventLog.getFirstEvent();
         IEvent lastEvent = eventLog.getLastEvent();
-        FileReader fileReader = eventLog.getFileReader();
+        IFileReader fileReader = eventLog.getFileReader();
         String firstLine = "File: " + fileReader.getFileSize() + " bytes, " +
                            "~" + eventLog.getApproximateNumberOfEvents();
         if (firstEvent != null && lastEvent != null)
@@ -3414,24 +3594,41 @@ public class SequenceChart
         if (debug)
             Debug.println("Clipping rectangle: " + Rectangle.SINGLETON);
 
+        Rectangle indexRegion = new Rectangle(Rectangle.SINGLETON).translate(getIndexDx(), getIndexDy());
         int extraClipping = getExtraClippingForEvents();
         IEvent[] eventRange = getFirstLastEventForViewportRange(Rectangle.SINGLETON.x - extraClipping, Rectangle.SINGLETON.right() + extraClipping);
         IEvent startEvent = eventRange[0];
         IEvent endEvent = eventRange[1];
+        EventLogSummary eventLogSummary = getEventLogSummaryForViewport();
 
-        if (showZeroSimulationTimeRegions)
+        if (showZeroSimulationTimeRegions && eventLogSummary == null)
             drawZeroSimulationTimeRegions(graphics, startEvent, endEvent);
 
         if (showAxes)
             drawAxes(graphics, startEvent, endEvent);
 
-        drawEvents(graphics, startEvent, endEvent);
-        drawMessageDependencies(graphics);
-
-        if (showComponentMethodCalls)
-            drawComponentMethodCalls(graphics);
+        // the drawn objects are indexed unless the region is already indexed (e.g. a tile is drawn again after it was evicted from the cache)
+        isIndexingObjects = !isObjectIndexOverflow && indexedRegions.size() < MAXIMUM_NUMBER_OF_INDEXED_REGIONS && !isIndexedRegion(indexRegion);
+        try {
+            if (eventLogSummary != null)
+                drawEventLogSummary(graphics, eventLogSummary);
+            else if (!isWaitingForEventLogSummary) {
+                drawEvents(graphics, startEvent, endEvent);
+                drawMessageDependencies(graphics);
+
+                if (showComponentMethodCalls)
+                    drawComponentMethodCalls(graphics);
+            }
+            // there are no individual objects drawn from the summary, so nothing is found there
+            if (isIndexingObjects && !isWaitingForEventLogSummary)
+                indexedRegions.add(indexRegion);
+        }
+        finally {
+            isIndexingObjects = false;
+        }
 
         long totalMillis = System.currentTimeMillis() - startMillis;
+        lastDrawSequenceChartMillis = totalMillis;
         if (debug)
             Debug.println("drawSequenceChart(): leave after " + totalMillis + "ms");
 
@@ -3444,6 +3641,148 @@ public class SequenceChart
         graphics.popState();
     }
 
+    /**
+     * Returns the eventlog summary if there are so many events in the viewport that individual
+     * events would be smaller than a pixel, otherwise returns null. The decision is made for the
+     * whole viewport, so that all tiles of the same view are drawn the same way. If the summary
+     * is not yet built, then only a placeholder is drawn, and the chart is redrawn periodically
+     * until the summary becomes available.
+     */
+    private EventLogSummary getEventLogSummaryForViewport() {
+        isWaitingForEventLogSummary = false;
+        int width = getViewportWidth();
+        IEvent[] eventRange = getFirstLastEventForViewportRange(0, width);
+        IEvent startEvent = eventRange[0];
+        IEvent endEvent = eventRange[1];
+        if (startEvent == null || endEvent == null)
+            return null;
+        long maximumNumberOfEvents = (long)width * SUMMARY_EVENTS_PER_PIXEL;
+        // the event number range is an upper limit of the number of events, the cheap check comes first
+        if (endEvent.getEventNumber() - startEvent.getEventNumber() <= maximumNumberOfEvents)
+            return null;
+        EventLogSummary eventLogSummary = eventLog.getEventLogSummary();
+        if (eventLogSummary == null) {
+            // the number of events is only known from the summary, so the event number range decides
+            isWaitingForEventLogSummary = true;
+            scheduleEventLogSummaryPoll();
+            return null;
+        }
+        else if (eventLogSummary.getNumEvents(startEvent.getEventNumber(), endEvent.getEventNumber() + 1) <= maximumNumberOfEvents)
+            return null;
+        else
+            return eventLogSummary;
+    }
+
+    private void scheduleEventLogSummaryPoll() {
+        if (!isEventLogSummaryPollScheduled) {
+            isEventLogSummaryPollScheduled = true;
+            getDisplay().timerExec(SUMMARY_POLL_MSEC, () -> {
+                isEventLogSummaryPollScheduled = false;
+                if (!isDisposed() && eventLog != null && isWaitingForEventLogSummary) {
+                    if (eventLog.getEventLogSummary() != null)
+                        invalidateVisibleAxisModules();
+                    else
+                        scheduleEventLogSummaryPoll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Draws a message in place of the events while the eventlog summary is being built.
+     */
+    private void drawEventLogSummaryPlaceholder(Graphics graphics) {
+        String text = "Summarizing events - please wait";
+        graphics.pushState();
+        graphics.setFont(getFont());
+        graphics.setForegroundColor(styleProvider.getInfoLabelColor());
+        Point size = GraphicsUtils.getTextExtent(graphics, text);
+        drawText(graphics, text, (getViewportWidth() - size.x) / 2, getGutterHeight(graphics) + (getViewportHeight() - size.y) / 2);
+        graphics.popState();
+    }
+
+    /**
+     * Draws the events and message dependencies in the clipping rectangle from the eventlog summary,
+     * one column of pixels at a time. Each column covers the range of events between its left and right
+     * timeline coordinates. Events are drawn as density marks on the axes, and message dependencies are
+     * drawn as vertical lines between the axes of their cause and consequence events at the column of
+     * their cause, darker for more message dependencies. The cost depends on the number of columns, modules
+     * and module pairs, and not on the number of events.
+     */
+    private void drawEventLogSummary(Graphics graphics, EventLogSummary eventLogSummary) {
+        graphics.getClip(Rectangle.SINGLETON);
+        int x = Rectangle.SINGLETON.x;
+        int numColumns = (Rectangle.SINGLETON.width + SUMMARY_COLUMN_WIDTH - 1) / SUMMARY_COLUMN_WIDTH;
+        long firstEventNumber = showInitializationEvent ? 0 : 1;
+        long endEventNumber = eventLog.getLastEvent().getEventNumber() + 1;
+        long[] columnEventNumbers = new long[numColumns + 1];
+        for (int i = 0; i <= numColumns; i++) {
+            IEvent event = sequenceChartFacade.getFirstEventNotBeforeTimelineCoordinate(getTimelineCoordinateForViewportCoordinate((long)x + i * SUMMARY_COLUMN_WIDTH));
+            columnEventNumbers[i] = Math.max(firstEventNumber, event == null ? endEventNumber : event.getEventNumber());
+        }
+        // events
+        int axisCount = getVisibleAxisModules().size();
+        int[][] axisEventCounts = new int[axisCount][];
+        for (int moduleId : eventLogSummary.getModuleIds()) {
+            int axisModuleIndex = getAxisModuleIndexByModuleId(moduleId);
+            if (axisModuleIndex != -1) {
+                if (axisEventCounts[axisModuleIndex] == null)
+                    axisEventCounts[axisModuleIndex] = new int[numColumns];
+                for (int i = 0; i < numColumns; i++)
+                    axisEventCounts[axisModuleIndex][i] += eventLogSummary.getNumModuleEvents(moduleId, columnEventNumbers[i], columnEventNumbers[i + 1]);
+            }
+        }
+        if (showEventMarks) {
+            int radius = styleProvider.getEventRadius();
+            graphics.setBackgroundColor(styleProvider.getEventSummaryColor());
+            for (int axisModuleIndex = 0; axisModuleIndex < axisCount; axisModuleIndex++) {
+                int[] eventCounts = axisEventCounts[axisModuleIndex];
+                if (eventCounts != null) {
+                    int y = getModuleYViewportCoordinateByModuleIndex(axisModuleIndex);
+                    for (int i = 0; i < numColumns; i++) {
+                        if (eventCounts[i] != 0) {
+                            // the height grows logarithmically with the number of events up to the event mark size
+                            int halfHeight = Math.min(radius, 1 + (31 - Integer.numberOfLeadingZeros(eventCounts[i])) / 2);
+                            graphics.fillRectangle(x + i * SUMMARY_COLUMN_WIDTH, y - halfHeight, SUMMARY_COLUMN_WIDTH, 2 * halfHeight);
+                        }
+                    }
+                }
+            }
+        }
+        // message dependencies, aggregated by axis pairs
+        HashMap<Long, int[]> axisPairToMessageDependencyCountsMap = new HashMap<Long, int[]>();
+        for (EventLogSummary.ModulePair modulePair : eventLogSummary.getModulePairs()) {
+            if (modulePair.isMessageReuse() ? !showMessageReuses : !showMessageSends)
+                continue;
+            int causeAxisModuleIndex = getAxisModuleIndexByModuleId(modulePair.getCauseModuleId());
+            int consequenceAxisModuleIndex = getAxisModuleIndexByModuleId(modulePair.getConsequenceModuleId());
+            // message dependencies on a single axis are narrower than a column
+            if (causeAxisModuleIndex == -1 || consequenceAxisModuleIndex == -1 || causeAxisModuleIndex == consequenceAxisModuleIndex)
+                continue;
+            long key = ((long)causeAxisModuleIndex << 32 | consequenceAxisModuleIndex) << 1 | (modulePair.isMessageReuse() ? 1 : 0);
+            int[] messageDependencyCounts = axisPairToMessageDependencyCountsMap.computeIfAbsent(key, k -> new int[numColumns]);
+            for (int i = 0; i < numColumns; i++)
+                messageDependencyCounts[i] += modulePair.getNumMessageDependencies(columnEventNumbers[i], columnEventNumbers[i + 1]);
+        }
+        graphics.setLineStyle(SWT.LINE_SOLID);
+        graphics.setLineWidth(1);
+        for (var entry : axisPairToMessageDependencyCountsMap.entrySet()) {
+            long key = entry.getKey();
+            int[] messageDependencyCounts = entry.getValue();
+            int yCause = getModuleYViewportCoordinateByModuleIndex((int)(key >>> 33));
+            int yConsequence = getModuleYViewportCoordinateByModuleIndex((int)(key >>> 1) & 0x7FFFFFFF);
+            graphics.setForegroundColor(styleProvider.getMessageDependencySummaryColor((key & 1) != 0));
+            for (int i = 0; i < numColumns; i++) {
+                if (messageDependencyCounts[i] != 0) {
+                    graphics.setAlpha(Math.min(255, 32 + 32 * messageDependencyCounts[i]));
+                    int xColumn = x + i * SUMMARY_COLUMN_WIDTH + SUMMARY_COLUMN_WIDTH / 2;
+                    graphics.drawLine(xColumn, yCause, xColumn, yConsequence);
+                }
+            }
+        }
+        graphics.setAlpha(255);
+    }
+
     private int getExtraClippingForEvents() {
         return (showMessageNames || showMethodNames || showEventNumbers) ? 300 : 100;
     }
@@ -3712,6 +4051,8 @@ public class SequenceChart
                     int xBegin = (int)getEventLogEntryXViewportCoordinateBegin(componentMethodBeginEntry);
                     ComponentMethodEndEntry componentMethodEndEntry = componentMethodBeginEntry.getEvent().getComponentMethodEndEntry(componentMethodBeginEntry);
                     int xEnd = (int)getEventLogEntryXViewportCoordinateBegin(componentMethodEndEntry);
+                    if (graphics != null)
+                        indexObject(componentMethodBeginEntry, xBegin, fromY, xBegin, toY, MOUSE_TOLERANCE);
                     if (graphics != null && toY != fromY) {
                         graphics.setAlpha(24);
                         graphics.fillRectangle(xBegin, fromY, xEnd - xBegin, toY - fromY);
@@ -3802,13 +4143,17 @@ public class SequenceChart
             // NOTE: navigating through next event takes care about leaving events out which are not in the filter's result
             for (IEvent event = startEvent;; event = event.getNextEvent()) {
                 if (isInitializationEvent(event)) {
-                    if (showInitializationEvent)
+                    if (showInitializationEvent) {
+                        if (isIndexingObjects)
+                            indexInitializationEvent(event);
                         drawEvent(graphics, event);
+                    }
                 }
                 else if (getEventAxisModuleIndex(event) != -1) {
                     int xBegin = (int)getEventXViewportCoordinateBegin(event);
                     int xEnd = (int)getEventXViewportCoordinateEnd(event);
                     int y = getEventYViewportCoordinate(event);
+                    indexObject(event, xBegin, y, xEnd, y, MOUSE_TOLERANCE + 3);
                     Integer lastXBegin = axisYtoLastXBegin.get(y);
                     Integer lastXEnd = axisYtoLastXEnd.get(y);
 
@@ -3826,6 +4171,23 @@ public class SequenceChart
         }
     }
 
+    /**
+     * Indexes the initialization event with a single bounding box covering all axes where it is drawn.
+     */
+    private void indexInitializationEvent(IEvent event) {
+        int yMin = Integer.MAX_VALUE;
+        int yMax = Integer.MIN_VALUE;
+        for (IMessageDependency consequence : event.getConsequences()) {
+            int y = getInitializationEventYViewportCoordinate(consequence, Integer.MAX_VALUE);
+            if (y != Integer.MAX_VALUE) {
+                yMin = Math.min(yMin, y);
+                yMax = Math.max(yMax, y);
+            }
+        }
+        if (yMin <= yMax)
+            indexObject(event, (int)getEventXViewportCoordinateBegin(event), yMin, (int)getEventXViewportCoordinateEnd(event), yMax, MOUSE_TOLERANCE + 3);
+    }
+
     /**
      * Draws a single event.
      */
@@ -4580,6 +4942,8 @@ public class SequenceChart
                 y2 = y1 - halfEllipseHeight;
 
                 if (graphics != null) {
+                    indexObject(messageDependency, x1, y1, x2, y2, MOUSE_TOLERANCE);
+
                     if (vlineBuffer.vlineContainsNewPixel(x1, y2, y1))
                         graphics.drawLine(x1, y1, x2, y2);
 
@@ -4606,6 +4970,7 @@ public class SequenceChart
                     Rectangle.SINGLETON.setSize(longMessageArrowWidth, halfEllipseHeight * 2);
 
                     if (graphics != null) {
+                        indexObject(messageDependency, x1, ym, x2, y1, MOUSE_TOLERANCE + 1);
                         graphics.drawArc(Rectangle.SINGLETON, 0, 90);
                         graphics.setLineStyle(SWT.LINE_DOT);
                         graphics.drawLine(x1, ym, xm, ym);
@@ -4627,6 +4992,7 @@ public class SequenceChart
                     Rectangle.SINGLETON.setSize(longMessageArrowWidth, halfEllipseHeight * 2);
 
                     if (graphics != null) {
+                        indexObject(messageDependency, x1, ym, x2, y1, MOUSE_TOLERANCE + 1);
                         graphics.drawArc(Rectangle.SINGLETON, 90, 90);
                         graphics.setLineStyle(SWT.LINE_DOT);
                         graphics.drawLine(xm, ym, x2, ym);
@@ -4650,6 +5016,7 @@ public class SequenceChart
                     Rectangle.SINGLETON.setSize(x2 - x1, halfEllipseHeight * 2);
 
                     if (graphics != null) {
+                        indexObject(messageDependency, x1, ym, x2, y1, MOUSE_TOLERANCE + 1);
                         graphics.drawArc(Rectangle.SINGLETON, 0, 180);
 
                         if (isFilteredMessageDependency)
@@ -4763,6 +5130,8 @@ public class SequenceChart
 
             if (graphics == null)
                 return lineContainsPoint(x1, y1, x2, y2, fitX, fitY, MOUSE_TOLERANCE);
+            else
+                indexObject(messageDependency, x1, y1, x2, y2, MOUSE_TOLERANCE);
 
             if (graphics != null && isFilteredMessageDependency)
                 drawFilteredMessageDependencySign(graphics, x1, y1, x2, y2);
@@ -4772,13 +5141,15 @@ public class SequenceChart
 
             if (showMessageNames) {
                 Point position = labelPositions.get(messageDependency);
+                int labelDx = getIndexDx();
+                int labelDy = getIndexDy();
                 if (position != null)
-                    drawMessageDependencyLabel(graphics, messageDependency, position.x, position.y);
+                    drawMessageDependencyLabel(graphics, messageDependency, position.x - labelDx, position.y - labelDy);
                 else {
                     int rowCount = Math.min(15, Math.max(1, Math.abs(y2 - y1) / fontHeight));
                     int mx = (x1 + x2) / 2;
                     int my = (y1 + y2) / 2;
-                    if (labelQuadTree.getSize() < 1000) {
+                    if (labelIndex.getSize() < 1000) {
                         if (styleProvider.getMessageDependencyLabelFont(messageDependency) != null)
                             graphics.setFont(styleProvider.getMessageDependencyLabelFont(messageDependency));
                         else
@@ -4792,9 +5163,9 @@ public class SequenceChart
                             int dy = rowIndex * fontHeight / 2;
                             int dx = y2 == y1 ? 0 : (int)((double)(x2 - x1) / (y2 - y1) * dy);
                             Point labelPosition = new Point(mx + dx + 3, my + dy - (y1 < y2 ? fontHeight : 0));
-                            Rectangle labelRectangle = new Rectangle(labelPosition.x, labelPosition.y, labelSize.x, labelSize.y);
+                            Rectangle labelRectangle = new Rectangle(labelPosition.x + labelDx, labelPosition.y + labelDy, labelSize.x, labelSize.y);
                             int[] totalIntersectionArea = new int[] {0};
-                            labelQuadTree.query(labelRectangle, (Rectangle region, Object object) -> {
+                            labelIndex.query(labelRectangle, (Rectangle region, Object object) -> {
                                 Rectangle r = region.getIntersection(labelRectangle);
                                 totalIntersectionArea[0] += r.width * r.height;
                             });
@@ -4805,8 +5176,8 @@ public class SequenceChart
                                     break;
                             }
                         }
-                        labelPositions.put(messageDependency, bestPosition);
-                        labelQuadTree.insert(new Rectangle(bestPosition.x, bestPosition.y, labelSize.x, labelSize.y), labelText);
+                        labelPositions.put(messageDependency, new Point(bestPosition.x + labelDx, bestPosition.y + labelDy));
+                        labelIndex.insert(new Rectangle(bestPosition.x + labelDx, bestPosition.y + labelDy, labelSize.x, labelSize.y), labelText);
                         drawMessageDependencyLabel(graphics, messageDependency, bestPosition.x, bestPosition.y);
                     }
                     else {
@@ -5068,31 +5439,28 @@ public class SequenceChart
                         int x = viewportX;
                         int y = viewportY - getGutterHeight(null);
 
+                        // the objects drawn around the position are looked up in the index if possible instead of walking the eventlog
+                        ArrayList<Object> objectsNearPosition = collectIndexedObjectsAtPosition(x, y);
+
                         if (showEventMarks) {
-                            IEvent[] eventRange = getFirstLastEventForViewportRange(0, getViewportWidth());
-                            IEvent startEvent = eventRange[0];
-                            IEvent endEvent = eventRange[1];
+                            if (objectsNearPosition != null) {
+                                for (Object object : objectsNearPosition)
+                                    if (object instanceof IEvent && eventContainsPoint((IEvent)object, x, y))
+                                        result.add(object);
+                            }
+                            else {
+                                IEvent[] eventRange = getFirstLastEventForViewportRange(0, getViewportWidth());
+                                IEvent startEvent = eventRange[0];
+                                IEvent endEvent = eventRange[1];
 
-                            if (startEvent != null && endEvent != null) {
-                                for (IEvent event = startEvent;; event = event.getNextEvent()) {
-                                    int xBegin = (int)getEventXViewportCoordinateBegin(event);
-                                    int xEnd = (int)getEventXViewportCoordinateEnd(event);
-                                    if (isInitializationEvent(event)) {
-                                        if (showInitializationEvent) {
-                                            for (IMessageDependency consequence : event.getConsequences()) {
-                                                int yInitializationEvent = getInitializationEventYViewportCoordinate(consequence, -1);
-                                                if (yInitializationEvent != -1 && eventSymbolContainsPoint(x, y, xBegin, xEnd, yInitializationEvent, MOUSE_TOLERANCE + 3))
-                                                    result.add(event);
-                                            }
-                                        }
-                                    }
-                                    else if (getEventAxisModuleIndex(event) != -1) {
-                                        if (eventSymbolContainsPoint(x, y, xBegin, xEnd, getEventYViewportCoordinate(event), MOUSE_TOLERANCE + 3))
+                                if (startEvent != null && endEvent != null) {
+                                    for (IEvent event = startEvent;; event = event.getNextEvent()) {
+                                        if (eventContainsPoint(event, x, y))
                                             result.add(event);
-                                    }
 
-                                    if (event == endEvent)
-                                        break;
+                                        if (event == endEvent)
+                                            break;
+                                    }
                                 }
                             }
                         }
@@ -5103,7 +5471,15 @@ public class SequenceChart
                             IEvent endEvent = eventRange[1];
 
                             if (startEvent != null && endEvent != null) {
-                                ArrayList<IMessageDependency> messageDependencies = sequenceChartFacade.getIntersectingMessageDependencies(startEvent, endEvent);
+                                ArrayList<IMessageDependency> messageDependencies;
+                                if (objectsNearPosition != null) {
+                                    messageDependencies = new ArrayList<IMessageDependency>();
+                                    for (Object object : objectsNearPosition)
+                                        if (object instanceof IMessageDependency)
+                                            messageDependencies.add((IMessageDependency)object);
+                                }
+                                else
+                                    messageDependencies = sequenceChartFacade.getIntersectingMessageDependencies(startEvent, endEvent);
 
                                 for (int i = 0; i < messageDependencies.size(); i++) {
                                     IMessageDependency messageDependency = messageDependencies.get(i);
@@ -5137,7 +5513,15 @@ public class SequenceChart
                             IEvent endEvent = eventRange[1];
 
                             if (startEvent != null && endEvent != null) {
-                                ArrayList<ComponentMethodBeginEntry> componentMethodBeginEntries = sequenceChartFacade.getComponentMethodBeginEntries(startEvent, endEvent);
+                                ArrayList<ComponentMethodBeginEntry> componentMethodBeginEntries;
+                                if (objectsNearPosition != null) {
+                                    componentMethodBeginEntries = new ArrayList<ComponentMethodBeginEntry>();
+                                    for (Object object : objectsNearPosition)
+                                        if (object instanceof ComponentMethodBeginEntry)
+                                            componentMethodBeginEntries.add((ComponentMethodBeginEntry)object);
+                                }
+                                else
+                                    componentMethodBeginEntries = sequenceChartFacade.getComponentMethodBeginEntries(startEvent, endEvent);
 
                                 for (int i = 0; i < componentMethodBeginEntries.size(); i++) {
                                     ComponentMethodBeginEntry componentMethodBeginEntry = componentMethodBeginEntries.get(i);
@@ -5217,6 +5601,26 @@ public class SequenceChart
                 objects.add(axisHeader.labelElementModules[i]);
     }
 
+    /**
+     * Determines whether the given point is "on" any of the symbols drawn for the event.
+     */
+    private boolean eventContainsPoint(IEvent event, int x, int y) {
+        int xBegin = (int)getEventXViewportCoordinateBegin(event);
+        int xEnd = (int)getEventXViewportCoordinateEnd(event);
+        if (isInitializationEvent(event)) {
+            if (showInitializationEvent) {
+                for (IMessageDependency consequence : event.getConsequences()) {
+                    int yInitializationEvent = getInitializationEventYViewportCoordinate(consequence, -1);
+                    if (yInitializationEvent != -1 && eventSymbolContainsPoint(x, y, xBegin, xEnd, yInitializationEvent, MOUSE_TOLERANCE + 3))
+                        return true;
+                }
+            }
+            return false;
+        }
+        else
+            return getEventAxisModuleIndex(event) != -1 && eventSymbolContainsPoint(x, y, xBegin, xEnd, getEventYViewportCoordinate(event), MOUSE_TOLERANCE + 3);
+    }
+
     /**
      * Determines whether the given point is "on" the symbol representing the event.
      */
@@ -9,6 +9,7 @@ import org.omnetpp.common.eventlog.ModuleTreeItem;
 import org.omnetpp.common.util.StringUtils;
 import org.omnetpp.common.util.TimeUtils;
 import org.omnetpp.eventlog.EventLogMessageEntry;
+import org.omnetpp.eventlog.EventLogState;
 import org.omnetpp.eventlog.FilteredMessageDependency;
 import org.omnetpp.eventlog.IEvent;
 import org.omnetpp.eventlog.IEventLog;
@@ -118,6 +119,9 @@ public final class SequenceChartLabelProvider implements ISequenceChartLabelProv
                 if (result.length() != 0)
                     result += "<br/>";
                 result += getAxisText(axisModule, formatted);
+                EventLogState eventLogState = (EventLogState)objects.stream().filter(o -> o instanceof EventLogState).findFirst().orElse(null);
+                if (eventLogState != null)
+                    result += "<br/>" + getAxisStateText(axisModule, eventLogState, formatted);
                 result += "<br/>";
             }
             else if (object instanceof Double) {
@@ -204,6 +208,20 @@ public final class SequenceChartLabelProvider implements ISequenceChartLabelProv
         return boldStart + "Axis" + boldEnd + " (" + axisModule.getNedTypeName() + ") " + boldStart + moduleName + boldEnd + moduleId;
     }
 
+    @Override
+    public final String getAxisStateText(ModuleTreeItem axisModule, EventLogState eventLogState, boolean formatted) {
+        String boldStart = formatted ? "<b>" : "";
+        String boldEnd = formatted ? "</b>" : "";
+        String result = boldStart + "After" + boldEnd + " event #" + eventLogState.getEventNumber() + " ";
+        if (!eventLogState.containsModule(axisModule.getModuleId()))
+            return result + "the module doesn't exist";
+        String displayString = eventLogState.getModuleDisplayString(axisModule.getModuleId());
+        if (displayString == null)
+            return result + "the module has no display string";
+        else
+            return result + "the display string is " + boldStart + (formatted ? StringUtils.quoteForHtml(displayString) : displayString) + boldEnd;
+    }
+
     @Override
     public final String getMessageDependencyText(IMessageDependency messageDependency, boolean formatted) {
         String boldStart = formatted ? "<b>" : "";
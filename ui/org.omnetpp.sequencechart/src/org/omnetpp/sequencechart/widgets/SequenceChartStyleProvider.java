@@ -224,6 +224,11 @@ public final class SequenceChartStyleProvider implements ISequenceChartStyleProv
             return eventColorFallback.resolveArrayFallback(event);
     }
 
+    @Override
+    public final Color getEventSummaryColor() {
+        return ColorFactory.RED2;
+    }
+
     @Override
     public final Font getMessageDependencyLabelFont(IMessageDependency messageDependency) {
         return null;
@@ -254,6 +259,11 @@ public final class SequenceChartStyleProvider implements ISequenceChartStyleProv
         }
     }
 
+    @Override
+    public final Color getMessageDependencySummaryColor(boolean messageReuse) {
+        return messageReuse ? ColorFactory.GREEN4 : ColorFactory.BLUE;
+    }
+
     @Override
     public final int getMessageDependencyLineStyle(IMessageDependency messageDependency) {
         if (messageDependency instanceof FilteredMessageDependency) {
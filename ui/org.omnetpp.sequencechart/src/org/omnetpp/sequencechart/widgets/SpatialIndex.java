@@ -0,0 +1,151 @@
+package org.omnetpp.sequencechart.widgets;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * A spatial index of rectangles with attached objects for finding the ones intersecting a region.
+ * The plane is divided into square cells on several levels, the cells on each level are 8 times
+ * larger than on the previous one. Each entry is stored on the lowest level where it intersects
+ * only a few cells, and each cell keeps the list of entries intersecting it. Entries are stored in
+ * primitive arrays. A query visits the cells intersecting the region on each level, so a point query
+ * costs a single cell lookup per level independent of the number of entries, and each entry is visited
+ * at most once per query.
+ */
+public class SpatialIndex {
+    public interface IVisitor {
+        /**
+         * The region is reused between calls, it must not be stored.
+         */
+        public void visit(Rectangle region, Object object);
+    }
+
+    private static final int MAXIMUM_CELLS_PER_ENTRY = 16;
+    private static final int LEVEL_SHIFT = 3; // the cell size grows 8 times per level
+
+    private int cellSize;
+
+    private int size;
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] widths = new int[64];
+    private int[] heights = new int[64];
+    private Object[] objects = new Object[64];
+    private int[] stamps = new int[64]; // the last query that visited the entry
+    private int stamp;
+
+    private HashMap<Long, int[]> cellToEntriesMap = new HashMap<Long, int[]>(); // the first element is the number of entries
+    private int maximumLevel; // the highest level having entries
+
+    private Rectangle region = new Rectangle();
+
+    public SpatialIndex(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void insert(Rectangle r, Object o) {
+        insert(r.x, r.y, r.width, r.height, o);
+    }
+
+    public void insert(int x, int y, int width, int height, Object o) {
+        if (size == xs.length) {
+            int capacity = 2 * size;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+        int entry = size++;
+        xs[entry] = x;
+        ys[entry] = y;
+        widths[entry] = width;
+        heights[entry] = height;
+        objects[entry] = o;
+        stamps[entry] = stamp;
+        int level = 0;
+        while ((long)(getCell((long)x + width, level) - getCell(x, level) + 1) * (getCell((long)y + height, level) - getCell(y, level) + 1) > MAXIMUM_CELLS_PER_ENTRY)
+            level++;
+        maximumLevel = Math.max(maximumLevel, level);
+        int cellX1 = getCell(x, level);
+        int cellY1 = getCell(y, level);
+        int cellX2 = getCell((long)x + width, level);
+        int cellY2 = getCell((long)y + height, level);
+        for (int cellX = cellX1; cellX <= cellX2; cellX++) {
+            for (int cellY = cellY1; cellY <= cellY2; cellY++) {
+                long key = getKey(level, cellX, cellY);
+                int[] entries = cellToEntriesMap.get(key);
+                if (entries == null) {
+                    entries = new int[4];
+                    cellToEntriesMap.put(key, entries);
+                }
+                else if (entries[0] + 1 == entries.length) {
+                    entries = Arrays.copyOf(entries, 2 * entries.length);
+                    cellToEntriesMap.put(key, entries);
+                }
+                entries[++entries[0]] = entry;
+            }
+        }
+    }
+
+    /**
+     * Visits the entries intersecting the given rectangle in insertion order per cell.
+     */
+    public void query(Rectangle r, IVisitor v) {
+        if (size == 0)
+            return;
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0, size, 0);
+            stamp = 1;
+        }
+        for (int level = 0; level <= maximumLevel; level++) {
+            int cellX1 = getCell(r.x, level);
+            int cellY1 = getCell(r.y, level);
+            int cellX2 = getCell((long)r.x + r.width, level);
+            int cellY2 = getCell((long)r.y + r.height, level);
+            for (int cellX = cellX1; cellX <= cellX2; cellX++) {
+                for (int cellY = cellY1; cellY <= cellY2; cellY++) {
+                    int[] entries = cellToEntriesMap.get(getKey(level, cellX, cellY));
+                    if (entries != null)
+                        for (int i = 1; i <= entries[0]; i++)
+                            visit(entries[i], r, v);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        maximumLevel = 0;
+        cellToEntriesMap.clear();
+    }
+
+    private void visit(int entry, Rectangle r, IVisitor v) {
+        if (stamps[entry] != stamp) {
+            stamps[entry] = stamp;
+            int x = xs[entry];
+            int y = ys[entry];
+            // same as Rectangle.intersects
+            if (x < r.x + r.width && y < r.y + r.height && x + widths[entry] > r.x && y + heights[entry] > r.y) {
+                region.setBounds(x, y, widths[entry], heights[entry]);
+                v.visit(region, objects[entry]);
+            }
+        }
+    }
+
+    private int getCell(long coordinate, int level) {
+        return (int)Math.floorDiv(coordinate, (long)cellSize << (LEVEL_SHIFT * level));
+    }
+
+    private static long getKey(int level, int cellX, int cellY) {
+        return (long)level << 60 | (cellX & 0x3FFFFFFFL) << 30 | (cellY & 0x3FFFFFFFL);
+    }
+}
@@ -0,0 +1,348 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.sequencechart.widgets.axisorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Orders axes so that the total cost of the message dependency arrows between them is minimal, where
+ * an arrow between two axes costs the square of their distance minus one. The symmetric weights are
+ * stored in sparse rows of primitive arrays, so thousands of axes can be ordered.
+ *
+ * Several initial orderings are computed: the given order, a spectral ordering (by the Fiedler vector of
+ * the weighted Laplacian, which minimizes the continuous relaxation of the cost), and a barycentric
+ * refinement of both. Each of them is improved in parallel by a local search which swaps axes within a
+ * window, and the best result is returned. The result is a local optimum.
+ */
+public class AxisOrderOptimizer {
+    private static final int SWAP_WINDOW = 16; // axes are swapped with the ones at most this far away
+    private static final int INVERSE_ITERATIONS = 8;
+    private static final int CONJUGATE_GRADIENT_ITERATIONS = 500;
+    private static final int BARYCENTRIC_ITERATIONS = 20;
+
+    private int numberOfAxes;
+    private HashMap<Long, Long> axisPairToWeightMap = new HashMap<Long, Long>();
+
+    // the weights in sparse rows, both directions are stored
+    private int[] rowOffsets;
+    private int[] columns;
+    private double[] weights;
+
+    public AxisOrderOptimizer(int numberOfAxes) {
+        this.numberOfAxes = numberOfAxes;
+    }
+
+    /**
+     * Adds the given weight between two axes, the direction doesn't matter.
+     */
+    public void addWeight(int axis1, int axis2, long weight) {
+        if (axis1 != axis2 && weight != 0) {
+            long key = (long)Math.min(axis1, axis2) << 32 | Math.max(axis1, axis2);
+            axisPairToWeightMap.merge(key, weight, Long::sum);
+        }
+    }
+
+    /**
+     * Returns the position of each axis, starting from the given positions. The search stops when
+     * no more improvement is found, or the time limit is reached.
+     */
+    public int[] calculateOrdering(int[] initialPositions, long timeLimitMillis) {
+        long deadline = System.currentTimeMillis() + timeLimitMillis;
+        buildRows();
+        ArrayList<int[]> seeds = new ArrayList<int[]>();
+        seeds.add(initialPositions.clone());
+        seeds.add(calculateBarycentricPositions(initialPositions));
+        int[] spectralPositions = calculateSpectralPositions(initialPositions, deadline);
+        seeds.add(spectralPositions);
+        seeds.add(calculateBarycentricPositions(spectralPositions));
+        int[][] results = IntStream.range(0, seeds.size()).parallel().mapToObj(i -> improveByLocalSearch(seeds.get(i), deadline)).toArray(int[][]::new);
+        int[] bestPositions = null;
+        double bestCost = Double.MAX_VALUE;
+        for (int[] positions : results) {
+            double cost = calculateCost(positions);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestPositions = positions;
+            }
+        }
+        return bestPositions;
+    }
+
+    /**
+     * Returns the total cost of the arrows for the given axis positions.
+     */
+    public double calculateCost(int[] positions) {
+        double cost = 0;
+        for (int axis = 0; axis < numberOfAxes; axis++) {
+            for (int i = rowOffsets[axis]; i < rowOffsets[axis + 1]; i++) {
+                int otherAxis = columns[i];
+                if (axis < otherAxis) {
+                    long distance = positions[axis] - positions[otherAxis];
+                    cost += weights[i] * (distance * distance - 1);
+                }
+            }
+        }
+        return cost;
+    }
+
+    private void buildRows() {
+        if (rowOffsets != null)
+            return;
+        rowOffsets = new int[numberOfAxes + 1];
+        for (long key : axisPairToWeightMap.keySet()) {
+            rowOffsets[(int)(key >>> 32) + 1]++;
+            rowOffsets[(int)key + 1]++;
+        }
+        for (int axis = 0; axis < numberOfAxes; axis++)
+            rowOffsets[axis + 1] += rowOffsets[axis];
+        int[] fill = Arrays.copyOf(rowOffsets, numberOfAxes);
+        columns = new int[rowOffsets[numberOfAxes]];
+        weights = new double[rowOffsets[numberOfAxes]];
+        for (var entry : axisPairToWeightMap.entrySet()) {
+            int axis1 = (int)(entry.getKey() >>> 32);
+            int axis2 = (int)(long)entry.getKey();
+            columns[fill[axis1]] = axis2;
+            weights[fill[axis1]++] = entry.getValue();
+            columns[fill[axis2]] = axis1;
+            weights[fill[axis2]++] = entry.getValue();
+        }
+    }
+
+    /**
+     * Computes the Fiedler vector of each connected component by inverse iteration, solving the
+     * Laplacian systems by conjugate gradients. The Laplacian is block diagonal, so the components
+     * are iterated together, but they are kept orthogonal to their own constant vector and normalized
+     * separately. Components are placed in the order of their average initial position.
+     */
+    private int[] calculateSpectralPositions(int[] initialPositions, long deadline) {
+        int[] components = new int[numberOfAxes];
+        int numberOfComponents = calculateComponents(components);
+        double[] x = new double[numberOfAxes];
+        // starting from the initial order keeps the result close to it when the eigenvalues are close
+        Random random = new Random(0);
+        for (int axis = 0; axis < numberOfAxes; axis++)
+            x[axis] = initialPositions[axis] + random.nextDouble() * 0.1;
+        normalize(x, components, numberOfComponents);
+        for (int iteration = 0; iteration < INVERSE_ITERATIONS && System.currentTimeMillis() < deadline; iteration++) {
+            x = solveLaplacian(x, deadline);
+            normalize(x, components, numberOfComponents);
+        }
+        // orient each component along the initial order
+        double[] correlations = new double[numberOfComponents];
+        double[] averagePositions = new double[numberOfComponents];
+        int[] sizes = new int[numberOfComponents];
+        for (int axis = 0; axis < numberOfAxes; axis++) {
+            correlations[components[axis]] += x[axis] * initialPositions[axis];
+            averagePositions[components[axis]] += initialPositions[axis];
+            sizes[components[axis]]++;
+        }
+        Integer[] componentOrder = new Integer[numberOfComponents];
+        for (int component = 0; component < numberOfComponents; component++) {
+            averagePositions[component] /= sizes[component];
+            componentOrder[component] = component;
+        }
+        Arrays.sort(componentOrder, (component1, component2) -> Double.compare(averagePositions[component1], averagePositions[component2]));
+        int[] componentRanks = new int[numberOfComponents];
+        for (int rank = 0; rank < numberOfComponents; rank++)
+            componentRanks[componentOrder[rank]] = rank;
+        // the normalized values are within [-1, 1], so components don't overlap
+        double[] keys = new double[numberOfAxes];
+        for (int axis = 0; axis < numberOfAxes; axis++)
+            keys[axis] = 4 * componentRanks[components[axis]] + (correlations[components[axis]] < 0 ? -x[axis] : x[axis]);
+        return getPositionsByKeys(keys, initialPositions);
+    }
+
+    /**
+     * Assigns a component index to each axis, and returns the number of components.
+     */
+    private int calculateComponents(int[] components) {
+        Arrays.fill(components, -1);
+        int[] todoList = new int[numberOfAxes];
+        int numberOfComponents = 0;
+        for (int axis = 0; axis < numberOfAxes; axis++) {
+            if (components[axis] == -1) {
+                int todoListSize = 0;
+                todoList[todoListSize++] = axis;
+                components[axis] = numberOfComponents;
+                while (todoListSize != 0) {
+                    int currentAxis = todoList[--todoListSize];
+                    for (int i = rowOffsets[currentAxis]; i < rowOffsets[currentAxis + 1]; i++) {
+                        if (components[columns[i]] == -1) {
+                            components[columns[i]] = numberOfComponents;
+                            todoList[todoListSize++] = columns[i];
+                        }
+                    }
+                }
+                numberOfComponents++;
+            }
+        }
+        return numberOfComponents;
+    }
+
+    /**
+     * Removes the constant part of each component, and scales each component to unit length.
+     */
+    private static void normalize(double[] x, int[] components, int numberOfComponents) {
+        double[] sums = new double[numberOfComponents];
+        int[] sizes = new int[numberOfComponents];
+        for (int i = 0; i < x.length; i++) {
+            sums[components[i]] += x[i];
+            sizes[components[i]]++;
+        }
+        double[] lengths = new double[numberOfComponents];
+        for (int i = 0; i < x.length; i++) {
+            x[i] -= sums[components[i]] / sizes[components[i]];
+            lengths[components[i]] += x[i] * x[i];
+        }
+        for (int i = 0; i < x.length; i++) {
+            double length = Math.sqrt(lengths[components[i]]);
+            if (length != 0)
+                x[i] /= length;
+        }
+    }
+
+    /**
+     * Solves L x = b by conjugate gradients, where b is orthogonal to the constant vector of each component.
+     */
+    private double[] solveLaplacian(double[] b, long deadline) {
+        double[] x = new double[numberOfAxes];
+        double[] r = b.clone();
+        double[] p = b.clone();
+        double[] q = new double[numberOfAxes];
+        double rr = dot(r, r);
+        double tolerance = rr * 1E-12;
+        for (int iteration = 0; iteration < CONJUGATE_GRADIENT_ITERATIONS && rr > tolerance && System.currentTimeMillis() < deadline; iteration++) {
+            multiplyLaplacian(p, q);
+            double pq = dot(p, q);
+            if (pq <= 0)
+                break;
+            double alpha = rr / pq;
+            for (int i = 0; i < numberOfAxes; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+            }
+            double newRr = dot(r, r);
+            double beta = newRr / rr;
+            for (int i = 0; i < numberOfAxes; i++)
+                p[i] = r[i] + beta * p[i];
+            rr = newRr;
+        }
+        return x;
+    }
+
+    private void multiplyLaplacian(double[] x, double[] y) {
+        for (int axis = 0; axis < numberOfAxes; axis++) {
+            double value = 0;
+            for (int i = rowOffsets[axis]; i < rowOffsets[axis + 1]; i++)
+                value += weights[i] * (x[axis] - x[columns[i]]);
+            y[axis] = value;
+        }
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++)
+            sum += x[i] * y[i];
+        return sum;
+    }
+
+    /**
+     * Repeatedly moves each axis to the weighted average position of its neighbors.
+     */
+    private int[] calculateBarycentricPositions(int[] initialPositions) {
+        int[] positions = initialPositions.clone();
+        double[] keys = new double[numberOfAxes];
+        for (int iteration = 0; iteration < BARYCENTRIC_ITERATIONS; iteration++) {
+            for (int axis = 0; axis < numberOfAxes; axis++) {
+                double sum = positions[axis];
+                double weightSum = 1;
+                for (int i = rowOffsets[axis]; i < rowOffsets[axis + 1]; i++) {
+                    sum += weights[i] * positions[columns[i]];
+                    weightSum += weights[i];
+                }
+                keys[axis] = sum / weightSum;
+            }
+            int[] newPositions = getPositionsByKeys(keys, positions);
+            if (Arrays.equals(positions, newPositions))
+                break;
+            positions = newPositions;
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the positions of the axes sorted by the given keys, ties are broken by the given positions.
+     */
+    private int[] getPositionsByKeys(double[] keys, int[] tieBreakerPositions) {
+        Integer[] axes = new Integer[numberOfAxes];
+        for (int axis = 0; axis < numberOfAxes; axis++)
+            axes[axis] = axis;
+        Arrays.sort(axes, (axis1, axis2) -> {
+            int result = Double.compare(keys[axis1], keys[axis2]);
+            return result != 0 ? result : Integer.compare(tieBreakerPositions[axis1], tieBreakerPositions[axis2]);
+        });
+        int[] positions = new int[numberOfAxes];
+        for (int position = 0; position < numberOfAxes; position++)
+            positions[axes[position]] = position;
+        return positions;
+    }
+
+    /**
+     * Swaps axes within a window as long as the cost decreases, the cost difference of a swap is computed
+     * from the neighbors of the two axes only.
+     */
+    private int[] improveByLocalSearch(int[] initialPositions, long deadline) {
+        int[] positions = initialPositions.clone();
+        int[] axes = new int[numberOfAxes];
+        for (int axis = 0; axis < numberOfAxes; axis++)
+            axes[positions[axis]] = axis;
+        boolean improved = true;
+        while (improved && System.currentTimeMillis() < deadline) {
+            improved = false;
+            for (int position1 = 0; position1 < numberOfAxes; position1++) {
+                for (int position2 = position1 + 1; position2 < Math.min(numberOfAxes, position1 + SWAP_WINDOW + 1); position2++) {
+                    int axis1 = axes[position1];
+                    int axis2 = axes[position2];
+                    if (calculateSwapCostDelta(positions, axis1, axis2) < 0) {
+                        positions[axis1] = position2;
+                        positions[axis2] = position1;
+                        axes[position1] = axis2;
+                        axes[position2] = axis1;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return positions;
+    }
+
+    private double calculateSwapCostDelta(int[] positions, int axis1, int axis2) {
+        long position1 = positions[axis1];
+        long position2 = positions[axis2];
+        double delta = 0;
+        for (int i = rowOffsets[axis1]; i < rowOffsets[axis1 + 1]; i++) {
+            int otherAxis = columns[i];
+            if (otherAxis != axis2) {
+                long otherPosition = positions[otherAxis];
+                delta += weights[i] * ((position2 - otherPosition) * (position2 - otherPosition) - (position1 - otherPosition) * (position1 - otherPosition));
+            }
+        }
+        for (int i = rowOffsets[axis2]; i < rowOffsets[axis2 + 1]; i++) {
+            int otherAxis = columns[i];
+            if (otherAxis != axis1) {
+                long otherPosition = positions[otherAxis];
+                delta += weights[i] * ((position1 - otherPosition) * (position1 - otherPosition) - (position2 - otherPosition) * (position2 - otherPosition));
+            }
+        }
+        return delta;
+    }
+}
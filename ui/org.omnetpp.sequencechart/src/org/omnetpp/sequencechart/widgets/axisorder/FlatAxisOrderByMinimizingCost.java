@@ -8,21 +8,19 @@
 package org.omnetpp.sequencechart.widgets.axisorder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.omnetpp.common.eventlog.EventLogInput;
 import org.omnetpp.common.eventlog.ModuleTreeItem;
+import org.omnetpp.eventlog.EventLogSummary;
 import org.omnetpp.eventlog.IEvent;
-import org.omnetpp.eventlog.SequenceChartFacade;
-import org.omnetpp.eventlog.engine.IntIntMap;
-import org.omnetpp.eventlog.engine.IntVector;
 
 /**
  * This class implements a sort method that tries to minimize the total number of axes that arrows are crossing.
- * It takes a statistical sample from the eventlog and spends a limited amount of time to reorder axes.
- * Reordering uses bubble sort and two axes are swapped only when the result is better in terms of the number of crossings.
- * This will result in a local optimum.
+ * The number of message dependencies between axes is counted exactly from the eventlog summary if it's available,
+ * otherwise it's computed from a statistical sample of the eventlog. The axes are reordered by AxisOrderOptimizer
+ * within a limited amount of time, the result is a local optimum.
  */
 public class FlatAxisOrderByMinimizingCost {
     private EventLogInput eventLogInput;
@@ -38,109 +36,62 @@ public class FlatAxisOrderByMinimizingCost {
     }
 
     public int[] calculateOrdering(ModuleTreeItem[] axisModules, Map<Integer, Integer> moduleIdToAxisModuleIndexMap) {
-        int eventCount = 1000;
-        SequenceChartFacade sequenceChartFacade = eventLogInput.getSequenceChartFacade();
-        IntIntMap cppModuleIdToAxisModuleIndexMap = getCppModuleIdToAxisModuleIndexMap(moduleIdToAxisModuleIndexMap);
-        boolean isSmallEventRange = endEvent != null && startEvent != null ? endEvent.getEventNumber() - startEvent.getEventNumber() < eventCount : true;
-        ArrayList<Integer> cppAxisMessageDependecyWeightMatrix = isSmallEventRange ?
-                eventLogInput.getSequenceChartFacade().getMessageDependencyCountAdjacencyMatrix(moduleIdToAxisModuleIndexMap, startEvent, endEvent, 1, 0) :
-                eventLogInput.getSequenceChartFacade().getApproximateMessageDependencyCountAdjacencyMatrix(moduleIdToAxisModuleIndexMap, eventCount, 1, 0);
-        int[][] axisMessageDependecyWeightMatrix = getAxisMessageDependecyWeightMatrix(cppAxisMessageDependecyWeightMatrix, axisModules.length);
-
-        ModuleTreeItem[] orderedAxisModules = (ModuleTreeItem[])ArrayUtils.clone(axisModules);
-        bubbleSort(orderedAxisModules, axisMessageDependecyWeightMatrix);
-
-        return getAxisModulePositions(axisModules, orderedAxisModules);
-    }
-
-    private int[] getAxisModulePositions(ModuleTreeItem[] axisModules, ModuleTreeItem[] orderedAxisModules) {
         int numberOfAxes = axisModules.length;
-        int[] axisModulePositions = new int[numberOfAxes];
-
+        // the weights are indexed by the axis module index of the map, the ordering by the index of the given array
+        int[] axisModuleIndexToArrayIndex = new int[numberOfAxes];
+        Arrays.fill(axisModuleIndexToArrayIndex, -1);
+        for (int i = 0; i < numberOfAxes; i++) {
+            Integer axisModuleIndex = moduleIdToAxisModuleIndexMap.get(axisModules[i].getModuleId());
+            if (axisModuleIndex != null && axisModuleIndex < numberOfAxes)
+                axisModuleIndexToArrayIndex[axisModuleIndex] = i;
+        }
+        AxisOrderOptimizer axisOrderOptimizer = new AxisOrderOptimizer(numberOfAxes);
+        // the summary is built in the background, the sample is used until it's available
+        EventLogSummary eventLogSummary = eventLogInput.getEventLog().getEventLogSummary();
+        if (eventLogSummary != null)
+            addExactWeights(axisOrderOptimizer, eventLogSummary, moduleIdToAxisModuleIndexMap, axisModuleIndexToArrayIndex);
+        else
+            addApproximateWeights(axisOrderOptimizer, moduleIdToAxisModuleIndexMap, axisModuleIndexToArrayIndex);
+        int[] initialPositions = new int[numberOfAxes];
         for (int i = 0; i < numberOfAxes; i++)
-            axisModulePositions[i] = ArrayUtils.indexOf(orderedAxisModules, axisModules[i]);
-
-        return axisModulePositions;
+            initialPositions[i] = i;
+        return axisOrderOptimizer.calculateOrdering(initialPositions, TIME_LIMIT);
     }
 
     /**
-     * This is the actual sort based on the statistical sample in the weight matrix.
+     * Counts all message sends between the axes in the event range.
      */
-    private void bubbleSort(ModuleTreeItem[] axisModules, int[][] axisMessageDependecyWeightMatrix) {
-        long begin = System.currentTimeMillis();
-        int numberOfAxes = axisModules.length;
-
-        while (System.currentTimeMillis() - begin < TIME_LIMIT) {
-            boolean swapped = false;
-
-            for (int i = 0; i < numberOfAxes; i++)
-                for (int j = i + 1; j < numberOfAxes; j++)
-                    swapped |= swapWhenCostIsLess(axisModules, axisMessageDependecyWeightMatrix, i, j);
-
-            if (!swapped)
-                return;
+    private void addExactWeights(AxisOrderOptimizer axisOrderOptimizer, EventLogSummary eventLogSummary, Map<Integer, Integer> moduleIdToAxisModuleIndexMap, int[] axisModuleIndexToArrayIndex) {
+        long beginEventNumber = startEvent != null && endEvent != null ? startEvent.getEventNumber() : 0;
+        long endEventNumber = startEvent != null && endEvent != null ? endEvent.getEventNumber() + 1 : Long.MAX_VALUE;
+        for (EventLogSummary.ModulePair modulePair : eventLogSummary.getModulePairs()) {
+            if (!modulePair.isMessageReuse()) {
+                int causeArrayIndex = getArrayIndex(modulePair.getCauseModuleId(), moduleIdToAxisModuleIndexMap, axisModuleIndexToArrayIndex);
+                int consequenceArrayIndex = getArrayIndex(modulePair.getConsequenceModuleId(), moduleIdToAxisModuleIndexMap, axisModuleIndexToArrayIndex);
+                if (causeArrayIndex != -1 && consequenceArrayIndex != -1)
+                    axisOrderOptimizer.addWeight(causeArrayIndex, consequenceArrayIndex, modulePair.getNumMessageDependencies(beginEventNumber, endEventNumber));
+            }
         }
     }
 
-    private boolean swapWhenCostIsLess(ModuleTreeItem[] axisModules, int[][] axisMessageDependecyWeightMatrix,int i, int j) {
-        int costBefore = calculateCost(axisMessageDependecyWeightMatrix, i) + calculateCost(axisMessageDependecyWeightMatrix, j);
-        swapAxes(axisModules, axisMessageDependecyWeightMatrix, i, j);
-        int costAfter = calculateCost(axisMessageDependecyWeightMatrix, i) + calculateCost(axisMessageDependecyWeightMatrix, j);
-
-        if (costAfter < costBefore)
-            return true;
-        else {
-            swapAxes(axisModules, axisMessageDependecyWeightMatrix, i, j);
-            return false;
-        }
-    }
-
-    private void swapAxes(ModuleTreeItem[] axisModules, int[][] axisMessageDependecyWeightMatrix, int index1, int index2) {
-        ModuleTreeItem oldModuleTreeItem = axisModules[index1];
-        axisModules[index1] = axisModules[index2];
-        axisModules[index2] = oldModuleTreeItem;
-
-        int numberOfAxes = axisMessageDependecyWeightMatrix.length;
-
-        for (int i = 0; i < numberOfAxes; i++) {
-            int old = axisMessageDependecyWeightMatrix[index1][i];
-            axisMessageDependecyWeightMatrix[index1][i] = axisMessageDependecyWeightMatrix[index2][i];
-            axisMessageDependecyWeightMatrix[index2][i] = old;
-        }
-
-        for (int i = 0; i < numberOfAxes; i++) {
-            int old = axisMessageDependecyWeightMatrix[i][index1];
-            axisMessageDependecyWeightMatrix[i][index1] = axisMessageDependecyWeightMatrix[i][index2];
-            axisMessageDependecyWeightMatrix[i][index2] = old;
-        }
-    }
-
-    private int calculateCost(int[][] axisMessageDependecyWeightMatrix, int position) {
-        int cost = 0;
-
-        for (int i = 0; i < axisMessageDependecyWeightMatrix.length; i++)
-            if (i != position)
-                cost += (axisMessageDependecyWeightMatrix[position][i] + axisMessageDependecyWeightMatrix[i][position]) * ((position - i) * (position - i) - 1);
-
-        return cost;
-    }
-
-    private int[][] getAxisMessageDependecyWeightMatrix(ArrayList<Integer> cppAxisMessageDependecyWeightMatrix, int numberOfAxes) {
-        int[][] axisMessageDependecyWeightMatrix = new int[numberOfAxes][numberOfAxes];
-
+    /**
+     * Counts the message sends between the axes in the event range if it's small, or in a statistical sample otherwise.
+     */
+    private void addApproximateWeights(AxisOrderOptimizer axisOrderOptimizer, Map<Integer, Integer> moduleIdToAxisModuleIndexMap, int[] axisModuleIndexToArrayIndex) {
+        int eventCount = 1000;
+        int numberOfAxes = axisModuleIndexToArrayIndex.length;
+        boolean isSmallEventRange = endEvent != null && startEvent != null ? endEvent.getEventNumber() - startEvent.getEventNumber() < eventCount : true;
+        ArrayList<Integer> cppAxisMessageDependecyWeightMatrix = isSmallEventRange ?
+                eventLogInput.getSequenceChartFacade().getMessageDependencyCountAdjacencyMatrix(moduleIdToAxisModuleIndexMap, startEvent, endEvent, 1, 0) :
+                eventLogInput.getSequenceChartFacade().getApproximateMessageDependencyCountAdjacencyMatrix(moduleIdToAxisModuleIndexMap, eventCount, 1, 0);
         for (int i = 0; i < numberOfAxes; i++)
             for (int j = 0; j < numberOfAxes; j++)
-                axisMessageDependecyWeightMatrix[i][j] = cppAxisMessageDependecyWeightMatrix.get(numberOfAxes * i + j);
-
-        return axisMessageDependecyWeightMatrix;
+                if (axisModuleIndexToArrayIndex[i] != -1 && axisModuleIndexToArrayIndex[j] != -1)
+                    axisOrderOptimizer.addWeight(axisModuleIndexToArrayIndex[i], axisModuleIndexToArrayIndex[j], cppAxisMessageDependecyWeightMatrix.get(numberOfAxes * i + j));
     }
 
-   private IntIntMap getCppModuleIdToAxisModuleIndexMap(Map<Integer, Integer> moduleIdToAxisModuleIndexMap) {
-        IntIntMap cppModuleIdToAxisModuleIndexMap = new IntIntMap();
-
-        for (Integer key : moduleIdToAxisModuleIndexMap.keySet())
-            cppModuleIdToAxisModuleIndexMap.set(key, moduleIdToAxisModuleIndexMap.get(key));
-
-        return cppModuleIdToAxisModuleIndexMap;
+    private int getArrayIndex(int moduleId, Map<Integer, Integer> moduleIdToAxisModuleIndexMap, int[] axisModuleIndexToArrayIndex) {
+        Integer axisModuleIndex = moduleIdToAxisModuleIndexMap.get(moduleId);
+        return axisModuleIndex != null && axisModuleIndex < axisModuleIndexToArrayIndex.length ? axisModuleIndexToArrayIndex[axisModuleIndex] : -1;
     }
-}
\ No newline at end of file
+}
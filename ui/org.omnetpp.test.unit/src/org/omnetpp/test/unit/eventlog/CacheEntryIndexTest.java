@@ -0,0 +1,139 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.eventlog;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.common.engine.BigDecimal;
+import org.omnetpp.eventlog.CacheEntryIndex.EventNumberIndex;
+import org.omnetpp.eventlog.CacheEntryIndex.SimulationTimeIndex;
+
+public class CacheEntryIndexTest extends TestCase {
+    private static int compare(long mantissa1, int scale1, long mantissa2, int scale2) {
+        return SimulationTimeIndex.compareSimulationTimes(mantissa1, scale1, mantissa2, scale2);
+    }
+
+    private static int sign(int value) {
+        return Integer.signum(value);
+    }
+
+    @Test
+    public void testCompareSimulationTimes() {
+        assertEquals(0, compare(15, -1, 1500, -3));
+        assertEquals(-1, sign(compare(15, -1, 1501, -3)));
+        assertEquals(1, sign(compare(-15, -1, -1501, -3)));
+        assertEquals(0, compare(0, -18, 0, 5));
+        assertEquals(-1, sign(compare(-1, -18, 0, 5)));
+        assertEquals(1, sign(compare(1, -18, 0, 5)));
+        assertEquals(1, sign(compare(Long.MAX_VALUE, -18, 1, 0)));
+        // scaling overflows the mantissa
+        assertEquals(-1, sign(compare(Long.MAX_VALUE, -19, 1, 0)));
+        assertEquals(1, sign(compare(Long.MIN_VALUE, -19, -1, 0)));
+        assertEquals(1, sign(compare(1, 0, Long.MAX_VALUE, -19)));
+        // scales far apart, the scaling loop must not run for long
+        assertEquals(-1, sign(compare(Long.MAX_VALUE, Byte.MIN_VALUE, 1, Byte.MAX_VALUE)));
+        assertEquals(1, sign(compare(Long.MIN_VALUE, Byte.MIN_VALUE, -1, Byte.MAX_VALUE)));
+        assertEquals(1, sign(compare(1, Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE)));
+        assertEquals(0, compare(0, Integer.MIN_VALUE, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testCompareSimulationTimesAgainstBigDecimal() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long mantissa1 = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(2000) - 1000;
+            long mantissa2 = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(2000) - 1000;
+            int scale1 = random.nextInt(50) - 25;
+            int scale2 = random.nextInt(50) - 25;
+            int expected = java.math.BigDecimal.valueOf(mantissa1, -scale1).compareTo(java.math.BigDecimal.valueOf(mantissa2, -scale2));
+            assertEquals(mantissa1 + "e" + scale1 + " <> " + mantissa2 + "e" + scale2, expected, sign(compare(mantissa1, scale1, mantissa2, scale2)));
+        }
+    }
+
+    @Test
+    public void testEventNumberIndex() {
+        EventNumberIndex index = new EventNumberIndex();
+        TreeMap<Long, long[]> expected = new TreeMap<Long, long[]>();
+        Random random = new Random(2);
+        // enough elements to grow the arrays several times
+        for (int i = 0; i < 1000; i++) {
+            long eventNumber = random.nextInt(2000);
+            long beginOffset = random.nextInt(100000);
+            long endOffset = beginOffset + random.nextInt(100);
+            index.put(eventNumber, beginOffset, endOffset);
+            long[] offsets = expected.get(eventNumber);
+            if (offsets == null)
+                expected.put(eventNumber, new long[] { beginOffset, endOffset });
+            else {
+                // putting the same event number again extends the range
+                offsets[0] = Math.min(offsets[0], beginOffset);
+                offsets[1] = Math.max(offsets[1], endOffset);
+            }
+            if (random.nextInt(10) == 0) {
+                long removedEventNumber = random.nextInt(2000);
+                index.remove(removedEventNumber);
+                expected.remove(removedEventNumber);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        int position = 0;
+        for (long eventNumber : expected.keySet()) {
+            assertEquals(eventNumber, index.getBeginEventNumber(position));
+            assertEquals(eventNumber, (long)index.getBeginKey(position));
+            assertEquals(expected.get(eventNumber)[0], index.getBeginOffset(position));
+            assertEquals(expected.get(eventNumber)[1], index.getEndOffset(position));
+            assertEquals(position, index.findPosition(eventNumber));
+            position++;
+        }
+        for (long eventNumber = -1; eventNumber <= 2001; eventNumber++) {
+            Long ceiling = expected.ceilingKey(eventNumber);
+            int ceilingPosition = index.ceilingPosition(eventNumber);
+            if (ceiling == null)
+                assertEquals(-1, ceilingPosition);
+            else
+                assertEquals((long)ceiling, index.getBeginEventNumber(ceilingPosition));
+            if (!expected.containsKey(eventNumber))
+                assertTrue(index.findPosition(eventNumber) < 0);
+        }
+        index.clear();
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.ceilingPosition(0L));
+    }
+
+    @Test
+    public void testSimulationTimeIndex() {
+        SimulationTimeIndex index = new SimulationTimeIndex();
+        // the same simulation time with different scales is one element
+        index.put(10, 15, -1, 1000, 1100);
+        index.put(11, 1500, -3, 1100, 1200);
+        index.put(12, 15, -1, 1200, 1300);
+        index.put(5, 2, -1, 500, 600);
+        index.put(20, 3, 0, 2000, 2100);
+        assertEquals(3, index.size());
+        int position = index.findPosition(new BigDecimal(150, -2));
+        assertEquals(1, position);
+        assertEquals(10, index.getBeginEventNumber(position));
+        assertEquals(12, index.getEndEventNumber(position));
+        assertEquals(1000, index.getBeginOffset(position));
+        assertEquals(1200, index.getEndEventBeginOffset(position));
+        assertEquals(1300, index.getEndOffset(position));
+        assertEquals(0, index.compareKeyAt(position, new BigDecimal(15, -1)));
+        assertTrue(index.compareKeyAt(0, new BigDecimal(15, -1)) < 0);
+        assertEquals(2, index.ceilingPosition(new BigDecimal(16, -1)));
+        assertEquals(-1, index.ceilingPosition(new BigDecimal(31, -1)));
+        assertEquals(0, index.ceilingPosition(new BigDecimal(0, 0)));
+        index.remove(new BigDecimal(1500, -3));
+        assertEquals(2, index.size());
+        assertTrue(index.findPosition(new BigDecimal(15, -1)) < 0);
+        assertEquals(20, index.getBeginEventNumber(1));
+    }
+}
@@ -0,0 +1,126 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.eventlog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.eventlog.Event;
+import org.omnetpp.eventlog.EventCache;
+import org.omnetpp.eventlog.entry.EventEntry;
+
+public class EventCacheTest extends TestCase {
+    /**
+     * An event that is not parsed from a file, every event is 100 bytes long.
+     */
+    private static class TestEvent extends Event {
+        public TestEvent(long eventNumber) {
+            super(null);
+            eventEntry = new EventEntry();
+            eventEntry.eventNumber = eventNumber;
+            beginOffset = 100 * eventNumber;
+            endOffset = beginOffset + 100;
+        }
+
+        public void setEndOffset(long endOffset) {
+            this.endOffset = endOffset;
+        }
+
+        public boolean hasNeighbours() {
+            return previousEvent != null || nextEvent != null;
+        }
+    }
+
+    private static EventCache createEventCache(int maximumNumberOfEvents, long maximumNumberOfBytes, List<TestEvent> events, int numEvents) {
+        EventCache eventCache = new EventCache();
+        eventCache.setLimits(maximumNumberOfEvents, maximumNumberOfBytes);
+        for (int i = 0; i < numEvents; i++) {
+            TestEvent event = new TestEvent(i);
+            if (!events.isEmpty())
+                Event.linkEvents(events.get(events.size() - 1), event);
+            events.add(event);
+            eventCache.put(event);
+        }
+        return eventCache;
+    }
+
+    private static List<Long> getEventNumbers(List<Event> events) {
+        List<Long> eventNumbers = new ArrayList<Long>();
+        for (Event event : events)
+            eventNumbers.add(event.getEventNumber());
+        return eventNumbers;
+    }
+
+    @Test
+    public void testEvictionOrder() {
+        List<TestEvent> events = new ArrayList<TestEvent>();
+        EventCache eventCache = createEventCache(3, Long.MAX_VALUE, events, 3);
+        assertEquals(Arrays.asList(0L, 1L, 2L), getEventNumbers(eventCache.getEvents()));
+        // lookups make the event the most recently used one
+        assertSame(events.get(0), eventCache.getEventForEventNumber(0));
+        assertSame(events.get(1), eventCache.getEventForBeginOffset(100));
+        assertEquals(Arrays.asList(2L, 0L, 1L), getEventNumbers(eventCache.getEvents()));
+        TestEvent event = new TestEvent(3);
+        events.add(event);
+        eventCache.put(event);
+        assertEquals(Arrays.asList(0L, 1L, 3L), getEventNumbers(eventCache.getEvents()));
+        assertEquals(1, eventCache.getNumEvictions());
+        assertFalse(eventCache.containsBeginOffset(200));
+        assertFalse(eventCache.containsEndOffset(300));
+        assertEquals(4, eventCache.getNumMisses());
+        assertEquals(2, eventCache.getNumHits());
+    }
+
+    @Test
+    public void testByteLimit() {
+        List<TestEvent> events = new ArrayList<TestEvent>();
+        EventCache eventCache = createEventCache(100, 450, events, 10);
+        assertEquals(Arrays.asList(6L, 7L, 8L, 9L), getEventNumbers(eventCache.getEvents()));
+        assertEquals(400, eventCache.getNumBytes());
+        // the last event grows when content is appended to the file
+        events.get(9).setEndOffset(1060);
+        eventCache.updateEndOffset(events.get(9));
+        assertEquals(460, eventCache.getNumBytes());
+        assertSame(events.get(9), eventCache.getEventForEndOffset(1060));
+        assertFalse(eventCache.containsEndOffset(1000));
+        // shrinking the limits evicts immediately, but the most recently used event is kept
+        eventCache.setLimits(100, 50);
+        assertEquals(Arrays.asList(9L), getEventNumbers(eventCache.getEvents()));
+        assertEquals(160, eventCache.getNumBytes());
+    }
+
+    @Test
+    public void testEvictedEventsAreUnlinkedAndResurrected() {
+        List<TestEvent> events = new ArrayList<TestEvent>();
+        EventCache eventCache = createEventCache(2, Long.MAX_VALUE, events, 4);
+        assertEquals(Arrays.asList(2L, 3L), getEventNumbers(eventCache.getEvents()));
+        assertFalse(events.get(0).hasNeighbours());
+        assertFalse(events.get(1).hasNeighbours());
+        assertTrue(events.get(2).hasNeighbours());
+        // the test still references the evicted events, so they are returned instead of parsing a second copy
+        assertEquals(2, eventCache.getEvictedEvents().size());
+        assertSame(events.get(0), eventCache.getEventForEventNumber(0));
+        assertEquals(Arrays.asList(3L, 0L), getEventNumbers(eventCache.getEvents()));
+        assertEquals(Arrays.asList(1L, 2L), getEventNumbers(sort(eventCache.getEvictedEvents())));
+        assertSame(events.get(2), eventCache.resurrectEvent(2));
+        assertNull(eventCache.resurrectEvent(5));
+        eventCache.clear();
+        assertEquals(0, eventCache.getNumEvents());
+        assertEquals(0, eventCache.getNumBytes());
+        assertNull(eventCache.getEventForEventNumber(1));
+    }
+
+    private static List<Event> sort(List<Event> events) {
+        events.sort((event1, event2) -> Long.compare(event1.getEventNumber(), event2.getEventNumber()));
+        return events;
+    }
+}
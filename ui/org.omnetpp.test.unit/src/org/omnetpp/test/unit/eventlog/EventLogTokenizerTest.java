@@ -0,0 +1,175 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.eventlog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.common.engine.BigDecimal;
+import org.omnetpp.common.engine.LineTokenizer;
+import org.omnetpp.common.engine.PStringVector;
+import org.omnetpp.eventlog.EventLogEntryFactory;
+import org.omnetpp.eventlog.EventLogTokenizer;
+import org.omnetpp.eventlog.entry.CreateMessageEntry;
+import org.omnetpp.eventlog.entry.EventEntry;
+import org.omnetpp.eventlog.entry.ModuleCreatedEntry;
+import org.omnetpp.eventlog.entry.ModuleDisplayStringChangedEntry;
+import org.omnetpp.eventlog.entry.SimulationEndEntry;
+
+public class EventLogTokenizerTest extends TestCase {
+    private static final String[] LINES = {
+        "E # 15 t 0.001234 m 3 ce 9 msg 12\n",
+        "E # 9223372036854775807 t 123456789.123456789 m 2147483647 ce -1 msg 0\n",
+        "MC id 3 c inet::StandardHost t inet.node.StandardHost pid 1 cm 1 n \"host[0]\"\r\n",
+        "CM id 17 tid 17 eid 17 etid 17 c inet::Packet n \"UDPData-0\" k -3 l 800 pe 15",
+        "MDC id 2 d \"i=block/app,\\\"gold\\\";p=10,20\"\n",
+        "CM id 5 tid 5 eid 5 etid 5 c Foo n \"a\\tb\\\\c\\x41\\x4g\\q\" pe -1\n",
+        "SE e 0 c 0 m \"No more events -- simulation ended at event #1000, t=1.5.\"\r\n",
+        "  E\t#  1   t 0.001 m 1 ce 0 msg 0  \n",
+        "E # 3 t \"\" m 1 ce 0 msg 0\n",
+    };
+
+    /**
+     * Returns the tokens of the line as the native LineTokenizer, used by the parser before EventLogTokenizer, returns them.
+     */
+    private static List<String> getNativeTokens(String line) {
+        LineTokenizer tokenizer = new LineTokenizer();
+        tokenizer.tokenize(line, line.length());
+        PStringVector tokensVector = tokenizer.tokensVector();
+        List<String> tokens = new ArrayList<String>();
+        for (int i = 0; i < tokenizer.numTokens(); i++)
+            tokens.add(tokensVector.get(i));
+        return tokens;
+    }
+
+    private static List<String> getTokens(String line) {
+        EventLogTokenizer tokenizer = new EventLogTokenizer();
+        tokenizer.tokenize(line, line.length());
+        List<String> tokens = new ArrayList<String>();
+        for (int i = 0; i < tokenizer.getNumTokens(); i++)
+            tokens.add(tokenizer.getToken(i));
+        return tokens;
+    }
+
+    private static EventLogTokenizer tokenize(String line) {
+        EventLogTokenizer tokenizer = new EventLogTokenizer();
+        tokenizer.tokenize(line, line.length());
+        return tokenizer;
+    }
+
+    private static Object parseEntry(String line) {
+        return EventLogEntryFactory.parseEntry(null, 0, tokenize(line));
+    }
+
+    @Test
+    public void testSameTokensAsNativeTokenizer() {
+        for (String line : LINES)
+            assertEquals(line, getNativeTokens(line), getTokens(line));
+    }
+
+    @Test
+    public void testSameValuesAsTokenParse() {
+        // the old parse converted the tokens with Long.valueOf and BigDecimal.parse
+        for (String line : LINES) {
+            EventLogTokenizer tokenizer = tokenize(line);
+            List<String> tokens = getNativeTokens(line);
+            for (int i = 1; i < tokens.size() - 1; i += 2) {
+                String key = tokens.get(i);
+                String value = tokens.get(i + 1);
+                assertEquals(line, value, tokenizer.getStringToken(key, true, null));
+                if (value.matches("-?[0-9]+"))
+                    assertEquals(line, (long)Long.valueOf(value), tokenizer.getLongToken(key, true, 0));
+                if (tokens.get(0).equals("E") && key.equals("t") && !value.isEmpty())
+                    assertTrue(line, BigDecimal.parse(value).equals(tokenizer.getSimtimeToken(key, true, null)));
+            }
+        }
+    }
+
+    @Test
+    public void testQuotingAndEscapes() {
+        assertEquals(Arrays.asList("MDC", "id", "2", "d", "i=block/app,\"gold\";p=10,20"), getTokens(LINES[4]));
+        assertEquals("a\tb\\cA\u0004gq", tokenize(LINES[5]).getStringToken("n", true, null));
+        assertEquals("", tokenize(LINES[8]).getStringToken("t", true, null));
+        assertEquals(Arrays.asList("X", "a b", "c"), getTokens("X \"a b\" c\n"));
+        try {
+            tokenize("X \"unterminated\n");
+            fail("Unmatched quote not detected");
+        }
+        catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("Unmatched quote"));
+        }
+    }
+
+    @Test
+    public void testLineEnds() {
+        List<String> expected = Arrays.asList("E", "#", "15", "t", "1.5");
+        assertEquals(expected, getTokens("E # 15 t 1.5"));
+        assertEquals(expected, getTokens("E # 15 t 1.5\n"));
+        assertEquals(expected, getTokens("E # 15 t 1.5\r\n"));
+        assertEquals(expected, getTokens("E # 15 t 1.5 \r\n"));
+        // the native reader reports the length in bytes, which may exceed the number of characters
+        String line = "E n \"\u00e9\"\r\n";
+        EventLogTokenizer tokenizer = new EventLogTokenizer();
+        tokenizer.tokenize(line, line.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals("\u00e9", tokenizer.getToken(2));
+        assertEquals(0, tokenize("\r\n").getNumTokens());
+    }
+
+    @Test
+    public void testNumbers() {
+        EventLogTokenizer tokenizer = tokenize(LINES[1]);
+        assertEquals(Long.MAX_VALUE, tokenizer.getEventNumberToken("#", true, -1));
+        assertEquals(Integer.MAX_VALUE, tokenizer.getIntToken("m", true, -1));
+        assertEquals(-1, tokenizer.getEventNumberToken("ce", true, 0));
+        assertTrue(BigDecimal.parse("123456789.123456789").equals(tokenizer.getSimtimeToken("t", true, null)));
+        assertEquals(-3, tokenize(LINES[3]).getShortToken("k", false, (short)0));
+        assertEquals(7, tokenize(LINES[3]).getIntToken("missing", false, 7));
+        try {
+            tokenize("E # x1\n").getLongToken("#", true, 0);
+            fail("Invalid number not detected");
+        }
+        catch (NumberFormatException e) {
+        }
+        try {
+            tokenize("E # 1\n").getLongToken("t", true, 0);
+            fail("Missing mandatory token not detected");
+        }
+        catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("Missing mandatory token t"));
+        }
+    }
+
+    @Test
+    public void testEntries() {
+        EventEntry eventEntry = (EventEntry)parseEntry(LINES[0]);
+        assertEquals(15, eventEntry.eventNumber);
+        assertTrue(BigDecimal.parse("0.001234").equals(eventEntry.simulationTime));
+        assertEquals(3, eventEntry.moduleId);
+        assertEquals(9, eventEntry.causeEventNumber);
+        assertEquals(12, eventEntry.messageId);
+        ModuleCreatedEntry moduleCreatedEntry = (ModuleCreatedEntry)parseEntry(LINES[2]);
+        assertEquals(3, moduleCreatedEntry.moduleId);
+        assertEquals("inet::StandardHost", moduleCreatedEntry.moduleClassName);
+        assertEquals("host[0]", moduleCreatedEntry.fullName);
+        assertTrue(moduleCreatedEntry.compoundModule);
+        CreateMessageEntry createMessageEntry = (CreateMessageEntry)parseEntry(LINES[3]);
+        assertEquals("UDPData-0", createMessageEntry.messageName);
+        assertEquals(800, createMessageEntry.messageLength);
+        assertEquals(15, createMessageEntry.previousEventNumber);
+        ModuleDisplayStringChangedEntry moduleDisplayStringChangedEntry = (ModuleDisplayStringChangedEntry)parseEntry(LINES[4]);
+        assertEquals("i=block/app,\"gold\";p=10,20", moduleDisplayStringChangedEntry.displayString);
+        SimulationEndEntry simulationEndEntry = (SimulationEndEntry)parseEntry(LINES[6]);
+        assertFalse(simulationEndEntry.isError);
+        assertEquals("No more events -- simulation ended at event #1000, t=1.5.", simulationEndEntry.message);
+    }
+}
@@ -0,0 +1,160 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.eventlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.common.engineext.IFileReader;
+import org.omnetpp.eventlog.MappedFileReader;
+import org.omnetpp.eventlog.engine.FileReader;
+
+public class MappedFileReaderTest extends TestCase {
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("test", ".elog");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    private void write(String content, StandardOpenOption... options) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), options);
+    }
+
+    private static List<String> readForward(IFileReader reader, long offset) {
+        List<String> lines = new ArrayList<String>();
+        reader.seekTo(offset);
+        CharSequence line;
+        while ((line = reader.getNextLine()) != null)
+            lines.add(line.toString());
+        return lines;
+    }
+
+    private static List<String> readBackward(IFileReader reader, long offset) {
+        List<String> lines = new ArrayList<String>();
+        reader.seekTo(offset);
+        CharSequence line;
+        while ((line = reader.getPreviousLine()) != null)
+            lines.add(line.toString());
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    @Test
+    public void testLineEnds() throws IOException {
+        write("a\nbb\r\nccc\rdddd\r\r\n\n");
+        MappedFileReader reader = new MappedFileReader(file.getPath());
+        try {
+            List<String> expected = Arrays.asList("a\n", "bb\r\n", "ccc\r", "dddd\r", "\r\n", "\n");
+            assertEquals(expected, readForward(reader, 0));
+            // the same lines are found in both directions
+            assertEquals(expected, readBackward(reader, reader.getFileSize()));
+        }
+        finally {
+            reader.delete();
+        }
+    }
+
+    @Test
+    public void testLineOffsets() throws IOException {
+        write("E # 1\r\nE # 2\rE # 3\n");
+        MappedFileReader reader = new MappedFileReader(file.getPath());
+        try {
+            reader.seekTo(0);
+            assertEquals("E # 1\r\n", reader.getNextLine().toString());
+            assertEquals(0, reader.getCurrentLineStartOffset());
+            assertEquals(7, reader.getCurrentLineEndOffset());
+            assertEquals("E # 2\r", reader.getNextLine().toString());
+            assertEquals(7, reader.getCurrentLineStartOffset());
+            assertEquals(13, reader.getCurrentLineEndOffset());
+            assertEquals("E # 2\r", reader.getPreviousLine().toString());
+            assertEquals("E # 1\r\n", reader.getPreviousLine().toString());
+            assertNull(reader.getPreviousLine());
+            // starting in the middle of a line skips to the next one going forward, and to the previous one going backward
+            assertEquals(Arrays.asList("E # 2\r", "E # 3\n"), readForward(reader, 2));
+            assertEquals(Arrays.asList("E # 2\r", "E # 3\n"), readForward(reader, 6));
+            assertEquals(Arrays.asList("E # 1\r\n", "E # 2\r"), readBackward(reader, 15));
+            assertEquals(Arrays.asList("E # 1\r\n"), readBackward(reader, 10));
+        }
+        finally {
+            reader.delete();
+        }
+    }
+
+    @Test
+    public void testIncompleteLastLine() throws IOException {
+        write("E # 1\nE # 2");
+        MappedFileReader reader = new MappedFileReader(file.getPath());
+        try {
+            // like the native reader, the incomplete line is not returned until it's terminated
+            assertEquals(Arrays.asList("E # 1\n"), readForward(reader, 0));
+            assertEquals(Arrays.asList("E # 1\n"), readBackward(reader, reader.getFileSize()));
+            write("\nE # 3\n", StandardOpenOption.APPEND);
+            int change = reader.getFileChange();
+            assertEquals(FileReader.FileChange.APPENDED, change);
+            reader.synchronize(change);
+            assertEquals(Arrays.asList("E # 1\n", "E # 2\n", "E # 3\n"), readForward(reader, 0));
+            assertEquals(FileReader.FileChange.UNCHANGED, reader.getFileChange());
+        }
+        finally {
+            reader.delete();
+        }
+    }
+
+    @Test
+    public void testNonAscii() throws IOException {
+        write("MC n \"\u00e9\u00e8\"\n");
+        MappedFileReader reader = new MappedFileReader(file.getPath());
+        try {
+            reader.seekTo(0);
+            CharSequence line = reader.getNextLine();
+            // characters are the bytes of the line, toString() decodes them
+            assertEquals(12, line.length());
+            assertEquals("MC n \"\u00e9\u00e8\"\n", line.toString());
+            assertEquals("\u00e9\u00e8", line.subSequence(6, 10).toString());
+        }
+        finally {
+            reader.delete();
+        }
+    }
+
+    @Test
+    public void testCreateReader() throws IOException {
+        write("E # 1\nE # 2\n");
+        MappedFileReader reader = new MappedFileReader(file.getPath());
+        IFileReader otherReader = reader.createReader();
+        try {
+            assertTrue(otherReader instanceof MappedFileReader);
+            assertEquals(reader.getFileName(), otherReader.getFileName());
+            // the readers have separate positions
+            reader.seekTo(0);
+            otherReader.seekTo(6);
+            assertEquals("E # 1\n", reader.getNextLine().toString());
+            assertEquals("E # 2\n", otherReader.getNextLine().toString());
+        }
+        finally {
+            otherReader.delete();
+            reader.delete();
+        }
+    }
+}
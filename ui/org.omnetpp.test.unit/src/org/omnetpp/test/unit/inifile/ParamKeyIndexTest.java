@@ -0,0 +1,116 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.inifile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.inifile.editor.model.ParamKeyIndex;
+import org.omnetpp.ned.core.ParamUtil;
+
+public class ParamKeyIndexTest extends TestCase {
+    private static final String[] PATHS = {
+        "Net.host.localPort",
+        "Net.host[0].app.localPort",
+        "Net.host[3].app.localPort",
+        "Net.host[12].app.localPort",
+        "Net.host[2].app.sendInterval",
+        "Net.host[2].app[1].sendInterval",
+        "Net.host2.app.localPort",
+        "Net.host7.app.localPort",
+        "Net.router.localPort",
+        "Net.router.eth[0].mac.address",
+        "Net.localPort",
+        "Other.host[0].app.localPort",
+        "Net.apple.x",
+        "Net.bpple.x",
+        "Net.zpple.x",
+        "Net.a.b",
+        "Net.a.b.c",
+        "Net.ho*st.x",
+        "Net.ho.x",
+        "Net.x{1}.y",
+    };
+
+    /**
+     * Returns the keys matching the path, by trying all of them like the lookup did before the index.
+     */
+    private static List<String> getMatchingKeysLinearly(List<String> keys, String fullPath) {
+        List<String> result = new ArrayList<String>();
+        for (String key : keys)
+            if (ParamUtil.getOrCreateKeyMatcher(key).matcher.matches(fullPath))
+                result.add(key);
+        return result;
+    }
+
+    private static List<String> getMatchingKeys(ParamKeyIndex index, String fullPath) {
+        List<String> result = new ArrayList<String>();
+        for (ParamUtil.KeyMatcher keyMatcher : index.getMatchingKeys(fullPath))
+            result.add(keyMatcher.key);
+        return result;
+    }
+
+    private static void assertSameMatches(List<String> keys) {
+        ParamKeyIndex index = new ParamKeyIndex(keys);
+        for (String path : PATHS)
+            assertEquals(path, getMatchingKeysLinearly(keys, path), getMatchingKeys(index, path));
+    }
+
+    @Test
+    public void testLiteralKeys() {
+        List<String> keys = Arrays.asList("Net.host.localPort", "Net.router.localPort", "Net.localPort", "Net.host.local");
+        assertSameMatches(keys);
+        ParamKeyIndex index = new ParamKeyIndex(keys);
+        assertEquals(Arrays.asList("Net.router.localPort"), getMatchingKeys(index, "Net.router.localPort"));
+        assertEquals(Arrays.asList(), getMatchingKeys(index, "Net.router.local"));
+    }
+
+    @Test
+    public void testDoubleAsteriskKeys() {
+        List<String> keys = Arrays.asList("**.localPort", "Net.**.localPort", "**.app.**", "Net.**", "**", "**.router.*", "*.localPort");
+        assertSameMatches(keys);
+        ParamKeyIndex index = new ParamKeyIndex(keys);
+        assertEquals(Arrays.asList("**.localPort", "Net.**.localPort", "Net.**", "**", "**.router.*"), getMatchingKeys(index, "Net.router.localPort"));
+    }
+
+    @Test
+    public void testIndexKeys() {
+        List<String> keys = Arrays.asList("**.host[*].app.localPort", "Net.host[0..3].app.localPort", "Net.host[0].app.localPort",
+            "**.app[*].sendInterval", "**.host[2].app.*", "**.eth[*].**", "Net.host[5..].**");
+        assertSameMatches(keys);
+        ParamKeyIndex index = new ParamKeyIndex(keys);
+        assertTrue(getMatchingKeys(index, "Net.host[3].app.localPort").contains("**.host[*].app.localPort"));
+        assertTrue(getMatchingKeys(index, "Net.router.eth[0].mac.address").contains("**.eth[*].**"));
+    }
+
+    @Test
+    public void testSetAndRangeKeys() {
+        List<String> keys = Arrays.asList("Net.host{1..5}.app.localPort", "**.host{2..3}.**", "**.{a-b}pple.x", "Net.{^a-b}pple.*", "**.{a-z}.b");
+        assertSameMatches(keys);
+    }
+
+    @Test
+    public void testEscapedKeys() {
+        List<String> keys = Arrays.asList("Net.ho\\*st.x", "**.ho\\*st.x", "**.a\\.b", "Net.x\\{1\\}.y", "**.x\\{1\\}.*", "Net.ho\\?.x");
+        assertSameMatches(keys);
+    }
+
+    @Test
+    public void testKeyOrder() {
+        // literal keys, keys bucketed by the last name and other keys in one section, the matches must keep section order
+        List<String> keys = Arrays.asList("**", "**.app.**", "Net.host[0].app.localPort", "**.localPort", "Net.host.localPort",
+            "**.host[*].app.localPort", "Net.**", "**.{a-z}pple.x", "**.x", "Net.apple.x", "**.ho\\*st.x", "*.*.*");
+        assertSameMatches(keys);
+        ParamKeyIndex index = new ParamKeyIndex(keys);
+        assertEquals(Arrays.asList("**", "**.localPort", "Net.host.localPort", "Net.**", "*.*.*"), getMatchingKeys(index, "Net.host.localPort"));
+    }
+}
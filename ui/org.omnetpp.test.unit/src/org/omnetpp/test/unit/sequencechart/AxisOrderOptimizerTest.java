@@ -0,0 +1,129 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.sequencechart;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.sequencechart.widgets.axisorder.AxisOrderOptimizer;
+
+public class AxisOrderOptimizerTest extends TestCase {
+    private static final long TIME_LIMIT = 10000; // the search stops much earlier on these small inputs
+
+    // message dependency counts between 8 axes, only the upper triangle is used
+    private static final int[][] DEPENDENCIES = {
+        { 0, 0, 9, 0, 0, 1, 0, 0 },
+        { 0, 0, 0, 0, 7, 0, 0, 3 },
+        { 0, 0, 0, 0, 0, 8, 0, 0 },
+        { 0, 0, 0, 0, 0, 0, 6, 0 },
+        { 0, 0, 0, 0, 0, 0, 0, 5 },
+        { 0, 0, 0, 2, 0, 0, 0, 0 },
+        { 0, 4, 0, 0, 0, 0, 0, 0 },
+        { 0, 0, 0, 0, 0, 0, 0, 0 },
+    };
+
+    private static AxisOrderOptimizer createOptimizer(int[][] dependencies) {
+        AxisOrderOptimizer optimizer = new AxisOrderOptimizer(dependencies.length);
+        for (int i = 0; i < dependencies.length; i++)
+            for (int j = i + 1; j < dependencies.length; j++)
+                optimizer.addWeight(i, j, dependencies[i][j]);
+        return optimizer;
+    }
+
+    private static int[] getIdentityPositions(int numberOfAxes) {
+        int[] positions = new int[numberOfAxes];
+        for (int i = 0; i < numberOfAxes; i++)
+            positions[i] = i;
+        return positions;
+    }
+
+    private static void assertPermutation(int[] positions) {
+        int[] sortedPositions = positions.clone();
+        Arrays.sort(sortedPositions);
+        assertTrue(Arrays.equals(getIdentityPositions(positions.length), sortedPositions));
+    }
+
+    /**
+     * Computes the cost of the best ordering by trying all permutations.
+     */
+    private static double calculateOptimalCost(AxisOrderOptimizer optimizer, int[] positions, int index) {
+        if (index == positions.length)
+            return optimizer.calculateCost(positions);
+        double cost = Double.MAX_VALUE;
+        for (int i = index; i < positions.length; i++) {
+            int position = positions[index];
+            positions[index] = positions[i];
+            positions[i] = position;
+            cost = Math.min(cost, calculateOptimalCost(optimizer, positions, index + 1));
+            positions[i] = positions[index];
+            positions[index] = position;
+        }
+        return cost;
+    }
+
+    @Test
+    public void testNeverWorseThanInitialOrder() {
+        AxisOrderOptimizer optimizer = createOptimizer(DEPENDENCIES);
+        int[] initialPositions = getIdentityPositions(DEPENDENCIES.length);
+        int[] positions = optimizer.calculateOrdering(initialPositions, TIME_LIMIT);
+        assertPermutation(positions);
+        double cost = optimizer.calculateCost(positions);
+        assertTrue(cost <= optimizer.calculateCost(initialPositions));
+        // the fixed matrix is small enough to compare with the real optimum
+        double optimalCost = calculateOptimalCost(optimizer, initialPositions.clone(), 0);
+        assertTrue(optimalCost <= cost);
+        assertEquals(optimalCost, cost, 0);
+    }
+
+    @Test
+    public void testNeverWorseThanAnyInitialOrder() {
+        AxisOrderOptimizer optimizer = createOptimizer(DEPENDENCIES);
+        int[][] initialPositionsList = {
+            { 7, 6, 5, 4, 3, 2, 1, 0 },
+            { 3, 0, 6, 1, 7, 4, 2, 5 },
+            { 0, 4, 1, 5, 2, 6, 3, 7 },
+        };
+        for (int[] initialPositions : initialPositionsList) {
+            int[] positions = optimizer.calculateOrdering(initialPositions, TIME_LIMIT);
+            assertPermutation(positions);
+            assertTrue(optimizer.calculateCost(positions) <= optimizer.calculateCost(initialPositions));
+        }
+    }
+
+    @Test
+    public void testChainIsOrderedExactly() {
+        // a chain of axes in shuffled order, the spectral seed puts it in order, where every arrow is between neighbors
+        int[] chain = { 3, 7, 0, 5, 1, 6, 2, 4 };
+        int[][] dependencies = new int[chain.length][chain.length];
+        for (int i = 0; i + 1 < chain.length; i++) {
+            int axis1 = Math.min(chain[i], chain[i + 1]);
+            int axis2 = Math.max(chain[i], chain[i + 1]);
+            dependencies[axis1][axis2] = 1 + i % 3;
+        }
+        AxisOrderOptimizer optimizer = createOptimizer(dependencies);
+        int[] positions = optimizer.calculateOrdering(getIdentityPositions(chain.length), TIME_LIMIT);
+        assertPermutation(positions);
+        assertEquals(0, optimizer.calculateCost(positions), 0);
+    }
+
+    @Test
+    public void testComponentsAreKeptApart() {
+        // two chains, {0, 2, 4} and {1, 3, 5}, interleaved in the initial order
+        int[][] dependencies = new int[6][6];
+        dependencies[0][2] = 5;
+        dependencies[2][4] = 5;
+        dependencies[1][3] = 3;
+        dependencies[3][5] = 3;
+        AxisOrderOptimizer optimizer = createOptimizer(dependencies);
+        int[] positions = optimizer.calculateOrdering(getIdentityPositions(6), TIME_LIMIT);
+        assertPermutation(positions);
+        assertEquals(0, optimizer.calculateCost(positions), 0);
+    }
+}
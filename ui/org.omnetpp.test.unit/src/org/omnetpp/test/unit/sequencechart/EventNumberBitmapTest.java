@@ -0,0 +1,143 @@
+/*--------------------------------------------------------------*
+  Copyright (C) 2006-2015 OpenSim Ltd.
+
+  This file is distributed WITHOUT ANY WARRANTY. See the file
+  'License' for details on this and other legal matters.
+*--------------------------------------------------------------*/
+
+package org.omnetpp.test.unit.sequencechart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.omnetpp.eventlog.EventNumberBitmap;
+
+public class EventNumberBitmapTest extends TestCase {
+    /**
+     * Adds increasing event numbers with the given maximum gap to both sets, large gaps skip containers,
+     * small ones make bitmap containers.
+     */
+    private static void addRandom(EventNumberBitmap bitmap, TreeSet<Long> expected, Random random, int count, int maximumGap) {
+        addRandom(bitmap, expected, random, expected.isEmpty() ? 0 : expected.last() + 1, count, maximumGap);
+    }
+
+    private static void addRandom(EventNumberBitmap bitmap, TreeSet<Long> expected, Random random, long fromEventNumber, int count, int maximumGap) {
+        long eventNumber = fromEventNumber - 1;
+        for (int i = 0; i < count; i++) {
+            eventNumber += 1 + random.nextInt(maximumGap);
+            bitmap.add(eventNumber);
+            expected.add(eventNumber);
+        }
+    }
+
+    private static void assertSameElements(TreeSet<Long> expected, EventNumberBitmap bitmap) {
+        assertEquals(expected.size(), bitmap.size());
+        assertEquals(expected.isEmpty(), bitmap.isEmpty());
+        long position = 0;
+        for (long eventNumber : expected) {
+            assertEquals(eventNumber, bitmap.select(position));
+            assertEquals(position, bitmap.rank(eventNumber));
+            assertTrue(bitmap.contains(eventNumber));
+            position++;
+        }
+    }
+
+    private static void assertSameNeighbours(TreeSet<Long> expected, EventNumberBitmap bitmap, long fromEventNumber, long toEventNumber) {
+        long rank = expected.headSet(fromEventNumber).size();
+        for (long eventNumber = fromEventNumber; eventNumber <= toEventNumber; eventNumber++) {
+            assertEquals(expected.contains(eventNumber), bitmap.contains(eventNumber));
+            assertEquals(rank, bitmap.rank(eventNumber));
+            if (expected.contains(eventNumber))
+                rank++;
+            Long next = expected.ceiling(eventNumber);
+            assertEquals(next == null ? -1 : (long)next, bitmap.getNext(eventNumber));
+            Long previous = expected.floor(eventNumber);
+            assertEquals(previous == null ? -1 : (long)previous, bitmap.getPrevious(eventNumber));
+        }
+    }
+
+    @Test
+    public void testSparseAndDense() {
+        EventNumberBitmap bitmap = new EventNumberBitmap();
+        TreeSet<Long> expected = new TreeSet<Long>();
+        Random random = new Random(1);
+        // sparse array containers, then dense ones converted to bitmaps, then gaps spanning several containers
+        addRandom(bitmap, expected, random, 1000, 100);
+        addRandom(bitmap, expected, random, 100000, 2);
+        addRandom(bitmap, expected, random, 100, 1000000);
+        assertSameElements(expected, bitmap);
+        assertSameNeighbours(expected, bitmap, -1, 200000);
+        assertSameNeighbours(expected, bitmap, expected.last() - 100, expected.last() + 100);
+        assertEquals((long)expected.last(), bitmap.getPrevious(Long.MAX_VALUE));
+        assertEquals(-1, bitmap.getNext(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testContainerBoundaries() {
+        EventNumberBitmap bitmap = new EventNumberBitmap();
+        TreeSet<Long> expected = new TreeSet<Long>();
+        for (long eventNumber : new long[] { 0, 65535, 65536, 131071, 3 * 65536, 3 * 65536 + 63, 3 * 65536 + 64 }) {
+            bitmap.add(eventNumber);
+            expected.add(eventNumber);
+        }
+        assertSameElements(expected, bitmap);
+        assertSameNeighbours(expected, bitmap, -1, 4 * 65536);
+    }
+
+    @Test
+    public void testRemoveFrom() {
+        Random random = new Random(2);
+        for (int i = 0; i < 50; i++) {
+            EventNumberBitmap bitmap = new EventNumberBitmap();
+            TreeSet<Long> expected = new TreeSet<Long>();
+            addRandom(bitmap, expected, random, 20000, 1 + random.nextInt(20));
+            long removedEventNumber = random.nextInt((int)(long)expected.last() + 2);
+            bitmap.removeFrom(removedEventNumber);
+            expected.tailSet(removedEventNumber).clear();
+            assertSameElements(expected, bitmap);
+            assertSameNeighbours(expected, bitmap, removedEventNumber - 100, removedEventNumber + 100);
+            // removed event numbers can be added again, like when the last event is reevaluated
+            addRandom(bitmap, expected, random, removedEventNumber, 1000, 3);
+            assertSameElements(expected, bitmap);
+        }
+    }
+
+    @Test
+    public void testRemoveEverything() {
+        EventNumberBitmap bitmap = new EventNumberBitmap();
+        for (long eventNumber = 100000; eventNumber < 200000; eventNumber += 7)
+            bitmap.add(eventNumber);
+        bitmap.removeFrom(0);
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.rank(150000));
+        assertEquals(-1, bitmap.getNext(0));
+        assertEquals(-1, bitmap.getPrevious(Long.MAX_VALUE));
+        bitmap.add(5);
+        assertEquals(5, bitmap.select(0));
+    }
+
+    @Test
+    public void testCopyAndClear() {
+        EventNumberBitmap bitmap = new EventNumberBitmap();
+        TreeSet<Long> expected = new TreeSet<Long>();
+        addRandom(bitmap, expected, new Random(3), 50000, 3);
+        EventNumberBitmap copy = bitmap.copy();
+        List<Long> removed = new ArrayList<Long>(expected.tailSet(expected.first() + 1000));
+        // changing the original doesn't change the copy
+        bitmap.removeFrom(expected.first() + 1000);
+        bitmap.add(expected.last() + 10);
+        assertSameElements(expected, copy);
+        assertFalse(copy.contains(expected.last() + 10));
+        assertFalse(bitmap.contains(removed.get(removed.size() - 1)));
+        bitmap.clear();
+        assertEquals(0, bitmap.size());
+        assertEquals(expected.size(), copy.size());
+        bitmap.add(0);
+        assertEquals(1, bitmap.size());
+    }
+}